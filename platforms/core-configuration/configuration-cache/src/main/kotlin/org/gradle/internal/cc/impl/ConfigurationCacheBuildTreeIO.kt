@@ -25,7 +25,6 @@ import org.gradle.internal.cc.impl.serialize.Codecs
 import org.gradle.internal.serialize.graph.CloseableWriteContext
 import org.gradle.internal.serialize.graph.MutableReadContext
 import org.gradle.util.Path
-import java.io.InputStream
 import java.io.OutputStream
 
 internal
@@ -63,8 +62,7 @@ interface ConfigurationCacheBuildTreeIO : ConfigurationCacheOperationIO {
     fun writeContextFor(stateType: StateType, outputStream: () -> OutputStream, profile: () -> String): Pair<CloseableWriteContext, Codecs>
 
     fun <R> withReadContextFor(
-        stateType: StateType,
-        inputStream: () -> InputStream,
+        stateFile: ConfigurationCacheStateFile,
         readOperation: suspend MutableReadContext.(Codecs) -> R
     ): R
 }
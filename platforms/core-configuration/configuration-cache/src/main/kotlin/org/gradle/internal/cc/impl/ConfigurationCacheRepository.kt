@@ -29,6 +29,7 @@ import org.gradle.cache.internal.streams.ValueStore
 import org.gradle.cache.scopes.BuildTreeScopedCacheBuilderFactory
 import org.gradle.internal.cc.impl.ConfigurationCacheRepository.ReadableConfigurationCacheStateFile
 import org.gradle.internal.cc.impl.ConfigurationCacheStateStore.StateFile
+import org.gradle.internal.cc.impl.io.ResidentStateFileImages
 import org.gradle.internal.concurrent.Stoppable
 import org.gradle.internal.extensions.stdlib.toDefaultLowerCase
 import org.gradle.internal.extensions.stdlib.unsafeLazy
@@ -51,7 +52,8 @@ internal
 class ConfigurationCacheRepository(
     cacheBuilderFactory: BuildTreeScopedCacheBuilderFactory,
     private val fileAccessTimeJournal: FileAccessTimeJournal,
-    private val fileSystem: FileSystem
+    private val fileSystem: FileSystem,
+    private val stateFileImages: ResidentStateFileImages
 ) : Stoppable {
     fun forKey(cacheKey: String): ConfigurationCacheStateStore {
         return StoreImpl(cache.baseDirFor(cacheKey))
@@ -121,6 +123,9 @@ class ConfigurationCacheRepository(
             )
     }
 
+    /**
+     * @param onFileAccess called before the file is written, replaced or deleted.
+     */
     private
     class WriteableConfigurationCacheStateFile(
         private val file: File,
@@ -141,11 +146,13 @@ class ConfigurationCacheRepository(
 
         override fun delete() {
             if (file.exists()) {
+                onFileAccess(file)
                 Files.delete(file.toPath())
             }
         }
 
         override fun moveFrom(file: File) {
+            onFileAccess(this.file)
             Files.move(file.toPath(), this.file.toPath(), StandardCopyOption.ATOMIC_MOVE)
         }
 
@@ -189,7 +196,11 @@ class ConfigurationCacheRepository(
                 chmod(cacheDir, 448) // octal 0700
                 markAccessed(cacheDir)
                 val stateFiles = mutableListOf<File>()
-                val layout = WriteableLayout(cacheDir, stateFiles::add)
+                val layout = WriteableLayout(cacheDir) { file ->
+                    // A resident image must not outlive the content it was mapped from
+                    stateFileImages.discard(file)
+                    stateFiles.add(file)
+                }
                 try {
                     action(layout)
                 } finally {
@@ -27,6 +27,7 @@ import org.gradle.execution.ExecutionAccessListener
 import org.gradle.internal.buildoption.InternalOptions
 import org.gradle.internal.buildtree.BuildModelParameters
 import org.gradle.internal.cc.impl.initialization.ConfigurationCacheStartParameter
+import org.gradle.internal.cc.impl.io.ResidentStateFileImages
 import org.gradle.internal.cc.impl.problems.BuildNameProvider
 import org.gradle.internal.cc.impl.services.DefaultIsolatedProjectEvaluationListenerProvider
 import org.gradle.internal.cc.impl.services.IsolatedActionCodecsFactory
@@ -50,6 +51,12 @@ import java.io.File
 
 class ConfigurationCacheServices : AbstractGradleModuleServices() {
 
+    override fun registerGlobalServices(registration: ServiceRegistration) {
+        registration.run {
+            add(ResidentStateFileImages::class.java)
+        }
+    }
+
     override fun registerBuildSessionServices(registration: ServiceRegistration) {
         registration.run {
             add(DefaultBuildTreeModelControllerServices::class.java)
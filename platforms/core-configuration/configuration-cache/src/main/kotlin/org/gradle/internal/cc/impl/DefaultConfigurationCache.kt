@@ -39,6 +39,7 @@ import org.gradle.internal.cc.base.serialize.service
 import org.gradle.internal.cc.impl.cacheentry.EntryDetails
 import org.gradle.internal.cc.impl.fingerprint.ConfigurationCacheFingerprintController
 import org.gradle.internal.cc.impl.initialization.ConfigurationCacheStartParameter
+import org.gradle.internal.cc.impl.io.StateFileImageTruncatedException
 import org.gradle.internal.cc.impl.metadata.ProjectMetadataController
 import org.gradle.internal.cc.impl.models.BuildTreeModelSideEffectStore
 import org.gradle.internal.cc.impl.models.IntermediateModelController
@@ -368,15 +369,21 @@ class DefaultConfigurationCache internal constructor(
     private
     fun checkFingerprint(): CheckedFingerprint {
         return store.useForStateLoad { layout ->
-            val entryFile = layout.fileFor(StateType.Entry)
-            val entryDetails = cacheIO.readCacheEntryDetailsFrom(entryFile)
-            buildOperationRunner.withFingerprintCheckOperations {
-                if (entryDetails == null) {
-                    // No entry file -> treat the entry as empty/missing/invalid
-                    CheckedFingerprint.NotFound
-                } else {
-                    checkFingerprint(entryDetails, layout)
+            try {
+                val entryFile = layout.fileFor(StateType.Entry)
+                val entryDetails = cacheIO.readCacheEntryDetailsFrom(entryFile)
+                buildOperationRunner.withFingerprintCheckOperations {
+                    if (entryDetails == null) {
+                        // No entry file -> treat the entry as empty/missing/invalid
+                        CheckedFingerprint.NotFound
+                    } else {
+                        checkFingerprint(entryDetails, layout)
+                    }
                 }
+            } catch (e: StateFileImageTruncatedException) {
+                // A state file has been truncated while it was read through its mapped image -> treat the entry as missing
+                logger.info("Configuration cache entry discarded: {}", e.message)
+                CheckedFingerprint.NotFound
             }
         }
     }
@@ -601,7 +608,7 @@ class DefaultConfigurationCache internal constructor(
         fingerprintFile: ConfigurationCacheStateFile,
         action: suspend ReadContext.(ConfigurationCacheFingerprintController.Host) -> T
     ): T =
-        cacheIO.withReadContextFor(fingerprintFile.stateType, fingerprintFile::inputStream) { codecs ->
+        cacheIO.withReadContextFor(fingerprintFile) { codecs ->
             withIsolate(isolateOwnerHost, codecs.fingerprintTypesCodec()) {
                 action(object : ConfigurationCacheFingerprintController.Host {
                     override val buildPath: Path
@@ -27,11 +27,18 @@ import org.gradle.internal.cc.base.serialize.withGradleIsolate
 import org.gradle.internal.cc.impl.cacheentry.EntryDetails
 import org.gradle.internal.cc.impl.cacheentry.ModelKey
 import org.gradle.internal.cc.impl.initialization.ConfigurationCacheStartParameter
+import org.gradle.internal.cc.impl.io.ReadAheadInputStream
+import org.gradle.internal.cc.impl.io.ResidentStateFileImages
+import org.gradle.internal.cc.impl.io.StateFileImageTruncatedException
+import org.gradle.internal.cc.impl.io.WriteBehindOutputStream
 import org.gradle.internal.cc.impl.io.safeWrap
 import org.gradle.internal.cc.impl.problems.ConfigurationCacheProblems
 import org.gradle.internal.cc.impl.serialize.Codecs
 import org.gradle.internal.cc.impl.serialize.DefaultClassDecoder
 import org.gradle.internal.cc.impl.serialize.DefaultClassEncoder
+import org.gradle.internal.concurrent.ExecutorFactory
+import org.gradle.internal.concurrent.ManagedExecutor
+import org.gradle.internal.concurrent.Stoppable
 import org.gradle.internal.encryption.EncryptionService
 import org.gradle.internal.extensions.stdlib.useToRun
 import org.gradle.internal.hash.HashCode
@@ -69,6 +76,7 @@ import java.io.Closeable
 import java.io.File
 import java.io.InputStream
 import java.io.OutputStream
+import java.nio.ByteBuffer
 
 
 @ServiceScope(Scope.Build::class)
@@ -81,7 +89,7 @@ class DefaultConfigurationCacheIO internal constructor(
     private val beanStateReaderLookup: BeanStateReaderLookup,
     private val beanStateWriterLookup: BeanStateWriterLookup,
     private val eventEmitter: BuildOperationProgressEventEmitter
-) : ConfigurationCacheBuildTreeIO, ConfigurationCacheIncludedBuildIO {
+) : ConfigurationCacheBuildTreeIO, ConfigurationCacheIncludedBuildIO, Stoppable {
 
     private
     val codecs = codecs()
@@ -89,6 +97,18 @@ class DefaultConfigurationCacheIO internal constructor(
     private
     val encryptionService by lazy { service<EncryptionService>() }
 
+    private
+    val stateFileImages by lazy { service<ResidentStateFileImages>() }
+
+    private
+    val pipelineExecutor: Lazy<ManagedExecutor> = lazy { service<ExecutorFactory>().create("Configuration cache I/O") }
+
+    override fun stop() {
+        if (pipelineExecutor.isInitialized()) {
+            pipelineExecutor.value.stop()
+        }
+    }
+
     override fun writeCacheEntryDetailsTo(
         buildStateRegistry: BuildStateRegistry,
         intermediateModels: Map<ModelKey, BlockAddress>,
@@ -207,7 +227,7 @@ class DefaultConfigurationCacheIO internal constructor(
         stateFile: ConfigurationCacheStateFile,
         action: suspend MutableReadContext.(ConfigurationCacheState) -> T
     ): T {
-        return withReadContextFor(stateFile.stateType, stateFile::inputStream) { codecs ->
+        return withReadContextFor(stateFile) { codecs ->
             ConfigurationCacheState(codecs, stateFile, eventEmitter, host).run {
                 action(this)
             }
@@ -268,6 +288,11 @@ class DefaultConfigurationCacheIO internal constructor(
             else KryoBackedEncoder(stream)
         }
 
+    private
+    fun decoderFor(image: ByteBuffer): Decoder =
+        if (startParameter.isDeduplicatingStrings) StringDeduplicatingKryoBackedDecoder(image)
+        else KryoBackedDecoder(image)
+
     private
     fun decoderFor(stateType: StateType, inputStream: () -> InputStream): Decoder =
         inputStreamFor(stateType, inputStream).let { stream ->
@@ -275,13 +300,44 @@ class DefaultConfigurationCacheIO internal constructor(
             else KryoBackedDecoder(stream)
         }
 
+    /**
+     * Encrypted state has to be decrypted as a stream, so only plain state files are read from a mapped image.
+     */
+    private
+    fun stateFileImageOf(stateFile: ConfigurationCacheStateFile): ByteBuffer? =
+        if (startParameter.isMappingStateFiles && !isEncrypted(stateFile.stateType)) stateFileImages.imageOf(stateFile.stateFile.file)
+        else null
+
+    private
+    fun outputStreamFor(stateType: StateType, outputStream: () -> OutputStream): OutputStream =
+        if (isPipelining(stateType)) {
+            safeWrap({ maybeEncrypt(stateType, outputStream, encryptionService::outputStream) }) {
+                WriteBehindOutputStream(it, pipelineExecutor.value)
+            }
+        } else {
+            maybeEncrypt(stateType, outputStream, encryptionService::outputStream)
+        }
+
+    private
+    fun inputStreamFor(stateType: StateType, inputStream: () -> InputStream): InputStream =
+        if (isPipelining(stateType)) {
+            safeWrap({ maybeEncrypt(stateType, inputStream, encryptionService::inputStream) }) {
+                ReadAheadInputStream(it, pipelineExecutor.value)
+            }
+        } else {
+            maybeEncrypt(stateType, inputStream, encryptionService::inputStream)
+        }
+
+    /**
+     * Only encrypted state is worth pipelining, the buffering done by the encoders is enough for plain file I/O.
+     */
     private
-    fun outputStreamFor(stateType: StateType, outputStream: () -> OutputStream) =
-        maybeEncrypt(stateType, outputStream, encryptionService::outputStream)
+    fun isPipelining(stateType: StateType) =
+        startParameter.isPipeliningEncryption && isEncrypted(stateType)
 
     private
-    fun inputStreamFor(stateType: StateType, inputStream: () -> InputStream) =
-        maybeEncrypt(stateType, inputStream, encryptionService::inputStream)
+    fun isEncrypted(stateType: StateType) =
+        stateType.encryptable && encryptionService.isEncrypting
 
     private
     fun <I : Closeable, O : I> maybeEncrypt(stateType: StateType, inner: () -> I, outer: (I) -> O): I =
@@ -315,11 +371,29 @@ class DefaultConfigurationCacheIO internal constructor(
         ) to codecs
 
     override fun <R> withReadContextFor(
-        stateType: StateType,
-        inputStream: () -> InputStream,
+        stateFile: ConfigurationCacheStateFile,
+        readOperation: suspend MutableReadContext.(Codecs) -> R
+    ): R {
+        val image = stateFileImageOf(stateFile)
+        val decoder = image?.let { decoderFor(it) } ?: decoderFor(stateFile.stateType, stateFile::inputStream)
+        try {
+            return withReadContextFor(decoder, readOperation)
+        } catch (e: InternalError) {
+            // The JVM reports an access to a page of a mapped file that has been truncated as an InternalError
+            if (image == null) {
+                throw e
+            }
+            stateFileImages.discard(stateFile.stateFile.file)
+            throw StateFileImageTruncatedException(stateFile.stateFile.file, e)
+        }
+    }
+
+    private
+    fun <R> withReadContextFor(
+        decoder: Decoder,
         readOperation: suspend MutableReadContext.(Codecs) -> R
     ): R =
-        readContextFor(decoderFor(stateType, inputStream))
+        readContextFor(decoder)
             .let { (context, codecs) ->
                 context.useToRun {
                     runReadOperation {
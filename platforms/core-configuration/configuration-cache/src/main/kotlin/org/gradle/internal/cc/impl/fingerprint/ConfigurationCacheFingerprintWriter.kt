@@ -147,6 +147,9 @@ class ConfigurationCacheFingerprintWriter(
     private
     val projectDependencies = newConcurrentHashSet<ProjectSpecificFingerprint>()
 
+    private
+    val carriedOverFingerprints = newConcurrentHashSet<ProjectSpecificFingerprint>()
+
     private
     val undeclaredSystemProperties = newConcurrentHashSet<String>()
 
@@ -576,11 +579,28 @@ class ConfigurationCacheFingerprintWriter(
         }
     }
 
+    /**
+     * Carries over a fingerprint of a reused project from the previous cache entry.
+     *
+     * Reused projects may also have been configured by this build, so fingerprints that were already recorded are skipped.
+     * Otherwise, the fingerprint of a project would grow with every update of the cache entry.
+     */
     fun append(fingerprint: ProjectSpecificFingerprint) {
         // TODO - should add to report as an input
+        if (!carriedOverFingerprints.add(fingerprint) || isAlreadyRecorded(fingerprint)) {
+            return
+        }
         projectScopedWriter.write(fingerprint)
     }
 
+    private
+    fun isAlreadyRecorded(fingerprint: ProjectSpecificFingerprint): Boolean = when (fingerprint) {
+        is ProjectSpecificFingerprint.ProjectIdentity -> sinksForProject.containsKey(fingerprint.identityPath)
+        is ProjectSpecificFingerprint.ProjectFingerprint -> sinksForProject[fingerprint.projectIdentityPath]?.hasCaptured(fingerprint.value) ?: false
+        is ProjectSpecificFingerprint.ProjectDependency -> !projectDependencies.add(fingerprint)
+        is ProjectSpecificFingerprint.CoupledProjects -> !projectDependencies.add(fingerprint)
+    }
+
     private
     fun sink(): Sink = projectForThread.get() ?: buildScopedSink
 
@@ -836,6 +856,19 @@ class ConfigurationCacheFingerprintWriter(
             }
         }
 
+        /**
+         * Whether an input equivalent to the given value has already been written by this sink.
+         */
+        fun hasCaptured(value: ConfigurationCacheFingerprint): Boolean = when (value) {
+            is ConfigurationCacheFingerprint.InputFile -> value.file in capturedFiles
+            is ConfigurationCacheFingerprint.DirectoryChildren -> value.file in capturedDirectories
+            is ConfigurationCacheFingerprint.InputFileSystemEntry -> value.file in capturedFileSystemEntries
+            is ConfigurationCacheFingerprint.UndeclaredSystemProperty -> value.key in undeclaredSystemProperties
+            is ConfigurationCacheFingerprint.UndeclaredEnvironmentVariable -> value.key in undeclaredEnvironmentVariables
+            is ConfigurationCacheFingerprint.RemoteScript -> value.uri in remoteScriptsUris
+            else -> false
+        }
+
         abstract fun write(value: ConfigurationCacheFingerprint, trace: PropertyTrace? = null)
 
         fun inputFile(file: File) =
@@ -74,6 +74,25 @@ class ConfigurationCacheStartParameter internal constructor(
      */
     val isDeduplicatingStrings: Boolean = options.getInternalFlag("org.gradle.configuration-cache.internal.deduplicate-strings", true)
 
+    /**
+     * Whether encryption and file I/O of the configuration cache state should run on a separate thread,
+     * overlapping with the encoding and decoding of the state.
+     *
+     * The default is `false`.
+     */
+    val isPipeliningEncryption: Boolean = options.getInternalFlag("org.gradle.configuration-cache.internal.pipelined-encryption", false)
+
+    /**
+     * Whether unencrypted configuration cache state files should be read from memory mapped images,
+     * which are kept resident in the daemon between builds.
+     *
+     * This only has an effect when the encryption of the configuration cache is disabled with `org.gradle.configuration-cache.internal.encryption=false`.
+     * Encryption is enabled by default, and encrypted state files are always read as streams.
+     *
+     * The default is `false`.
+     */
+    val isMappingStateFiles: Boolean = options.getInternalFlag("org.gradle.configuration-cache.internal.mapped-state-files", false)
+
     val gradleProperties: Map<String, Any?>
         get() = startParameter.projectProperties
             .filterKeys { !Workarounds.isIgnoredStartParameterProperty(it) }
@@ -0,0 +1,383 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.cc.impl.io
+
+import java.io.IOException
+import java.io.InputStream
+import java.io.InterruptedIOException
+import java.io.OutputStream
+import java.util.concurrent.ArrayBlockingQueue
+import java.util.concurrent.BlockingQueue
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executor
+import java.util.concurrent.TimeUnit
+
+
+private
+const val CHUNK_SIZE = 64 * 1024
+
+
+private
+const val MAX_PENDING_CHUNKS = 16
+
+
+private
+const val POLL_INTERVAL_MILLIS = 10L
+
+
+/**
+ * Marks the end of the chunk sequence, compared by identity.
+ */
+private
+val END_OF_CHUNKS = ByteArray(0)
+
+
+/**
+ * An output stream that hands the written bytes over in chunks to a task that writes them to the [delegate] on the given [executor].
+ *
+ * This allows expensive streams, such as encrypting ones, to run concurrently with the code producing the bytes.
+ * Failures of the delegate are reported by a later write or by [close], which waits for all chunks to be written and closes the delegate.
+ */
+internal
+class WriteBehindOutputStream(
+    private val delegate: OutputStream,
+    executor: Executor
+) : OutputStream() {
+
+    private
+    val pending = ArrayBlockingQueue<ByteArray>(MAX_PENDING_CHUNKS)
+
+    private
+    val finished = CountDownLatch(1)
+
+    @Volatile
+    private
+    var failure: Throwable? = null
+
+    private
+    var chunk = ByteArray(CHUNK_SIZE)
+
+    private
+    var count = 0
+
+    private
+    var closed = false
+
+    init {
+        executor.execute(::writeChunks)
+    }
+
+    override fun write(b: Int) {
+        if (count == chunk.size) {
+            handOff()
+        }
+        chunk[count++] = b.toByte()
+    }
+
+    override fun write(b: ByteArray, off: Int, len: Int) {
+        var offset = off
+        var remaining = len
+        while (remaining > 0) {
+            if (count == chunk.size) {
+                handOff()
+            }
+            val length = minOf(remaining, chunk.size - count)
+            System.arraycopy(b, offset, chunk, count, length)
+            count += length
+            offset += length
+            remaining -= length
+        }
+    }
+
+    override fun flush() {
+        if (count > 0) {
+            handOff()
+        }
+    }
+
+    override fun close() {
+        if (closed) {
+            return
+        }
+        closed = true
+        try {
+            try {
+                flush()
+            } finally {
+                if (handOffWhileWriting(END_OF_CHUNKS)) {
+                    finished.awaitInterruptibly()
+                }
+            }
+        } finally {
+            closeDelegate()
+        }
+        rethrowFailure()
+    }
+
+    private
+    fun closeDelegate() {
+        try {
+            delegate.close()
+        } catch (e: Throwable) {
+            failure?.addSuppressed(e) ?: run { failure = e }
+        }
+    }
+
+    private
+    fun handOff() {
+        rethrowFailure()
+        if (!handOffWhileWriting(if (count == chunk.size) chunk else chunk.copyOf(count))) {
+            rethrowFailure()
+            throw IOException("The task writing to the underlying stream has stopped.")
+        }
+        chunk = ByteArray(CHUNK_SIZE)
+        count = 0
+    }
+
+    /**
+     * Waits for space in the queue for as long as the writing task runs. The task stops early when it is interrupted,
+     * and then nobody takes the chunks from a full queue anymore.
+     *
+     * @return `false` when the writing task has stopped.
+     */
+    private
+    fun handOffWhileWriting(next: ByteArray): Boolean {
+        while (!pending.offerInterruptibly(next)) {
+            if (finished.count == 0L) {
+                return false
+            }
+        }
+        return true
+    }
+
+    private
+    fun rethrowFailure() {
+        failure?.let { throw IOException("Could not write to the underlying stream.", it) }
+    }
+
+    private
+    fun writeChunks() {
+        try {
+            while (true) {
+                val next = pending.take()
+                if (next === END_OF_CHUNKS) {
+                    break
+                }
+                // Keep draining after a failure, so the writer never blocks
+                if (failure == null) {
+                    try {
+                        delegate.write(next)
+                    } catch (e: Throwable) {
+                        failure = e
+                    }
+                }
+            }
+        } catch (e: InterruptedException) {
+            failure = e
+        } finally {
+            finished.countDown()
+        }
+    }
+}
+
+
+/**
+ * An input stream that reads the [delegate] ahead in chunks on the given [executor].
+ *
+ * This allows expensive streams, such as decrypting ones, to run concurrently with the code consuming the bytes.
+ * At most a fixed number of chunks is read ahead. Failures of the delegate are reported once the bytes read before the failure are consumed.
+ */
+internal
+class ReadAheadInputStream(
+    private val delegate: InputStream,
+    executor: Executor
+) : InputStream() {
+
+    private
+    val filled = ArrayBlockingQueue<ByteArray>(MAX_PENDING_CHUNKS)
+
+    private
+    val finished = CountDownLatch(1)
+
+    @Volatile
+    private
+    var failure: Throwable? = null
+
+    @Volatile
+    private
+    var closed = false
+
+    private
+    var current = END_OF_CHUNKS
+
+    private
+    var position = 0
+
+    private
+    var endOfStream = false
+
+    init {
+        executor.execute(::readChunks)
+    }
+
+    override fun read(): Int {
+        if (!ensureAvailable()) {
+            return -1
+        }
+        return current[position++].toInt() and 0xff
+    }
+
+    override fun read(b: ByteArray, off: Int, len: Int): Int {
+        if (len == 0) {
+            return 0
+        }
+        if (!ensureAvailable()) {
+            return -1
+        }
+        val length = minOf(len, current.size - position)
+        System.arraycopy(current, position, b, off, length)
+        position += length
+        return length
+    }
+
+    override fun available(): Int =
+        current.size - position
+
+    override fun close() {
+        if (closed) {
+            return
+        }
+        closed = true
+        // Unblock the reading task in case it waits for space in the queue
+        while (!finished.await(POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS)) {
+            filled.clear()
+        }
+        filled.clear()
+        delegate.close()
+    }
+
+    private
+    fun ensureAvailable(): Boolean {
+        if (position < current.size) {
+            return true
+        }
+        if (!endOfStream) {
+            val next = takeWhileReading()
+            if (next !== END_OF_CHUNKS) {
+                current = next
+                position = 0
+                return true
+            }
+            endOfStream = true
+        }
+        // Every read after a failure reports the failure again
+        failure?.let { throw IOException("Could not read from the underlying stream.", it) }
+        return false
+    }
+
+    /**
+     * Waits for the next chunk for as long as the reading task runs.
+     * The task cannot mark the end of the chunks when it is interrupted while waiting for space in the queue.
+     */
+    private
+    fun takeWhileReading(): ByteArray {
+        while (true) {
+            filled.pollInterruptibly()?.let { return it }
+            if (finished.count == 0L) {
+                return filled.poll() ?: END_OF_CHUNKS
+            }
+        }
+    }
+
+    private
+    fun readChunks() {
+        try {
+            while (!closed) {
+                val chunk = ByteArray(CHUNK_SIZE)
+                val length = readFully(chunk)
+                if (length > 0) {
+                    filled.put(if (length == chunk.size) chunk else chunk.copyOf(length))
+                }
+                if (length < chunk.size) {
+                    break
+                }
+            }
+        } catch (e: Throwable) {
+            failure = e
+        } finally {
+            try {
+                filled.put(END_OF_CHUNKS)
+            } catch (e: InterruptedException) {
+                failure = failure ?: e
+            }
+            finished.countDown()
+        }
+    }
+
+    /**
+     * Fills the chunk, returning fewer bytes at the end of the stream or when reading failed.
+     */
+    private
+    fun readFully(chunk: ByteArray): Int {
+        var length = 0
+        try {
+            while (length < chunk.size) {
+                val read = delegate.read(chunk, length, chunk.size - length)
+                if (read < 0) {
+                    break
+                }
+                length += read
+            }
+        } catch (e: Throwable) {
+            failure = e
+        }
+        return length
+    }
+}
+
+
+private
+fun <T> BlockingQueue<T>.offerInterruptibly(value: T): Boolean {
+    try {
+        return offer(value, POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS)
+    } catch (e: InterruptedException) {
+        Thread.currentThread().interrupt()
+        throw InterruptedIOException().apply { initCause(e) }
+    }
+}
+
+
+private
+fun <T> BlockingQueue<T>.pollInterruptibly(): T? {
+    try {
+        return poll(POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS)
+    } catch (e: InterruptedException) {
+        Thread.currentThread().interrupt()
+        throw InterruptedIOException().apply { initCause(e) }
+    }
+}
+
+
+private
+fun CountDownLatch.awaitInterruptibly() {
+    try {
+        await()
+    } catch (e: InterruptedException) {
+        Thread.currentThread().interrupt()
+        throw InterruptedIOException().apply { initCause(e) }
+    }
+}
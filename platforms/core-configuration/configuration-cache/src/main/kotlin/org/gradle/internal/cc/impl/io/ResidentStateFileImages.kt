@@ -0,0 +1,149 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.cc.impl.io
+
+import org.gradle.internal.os.OperatingSystem
+import org.gradle.internal.service.scopes.Scope
+import org.gradle.internal.service.scopes.ServiceScope
+import java.io.File
+import java.io.IOException
+import java.nio.ByteBuffer
+import java.nio.MappedByteBuffer
+import java.nio.channels.FileChannel
+import java.nio.file.Files
+import java.nio.file.StandardOpenOption
+import java.nio.file.attribute.BasicFileAttributes
+
+
+/**
+ * The mapped images only take address space and page cache, but are kept bounded so that
+ * the images of stale cache entries are eventually released.
+ */
+private
+const val MAX_RESIDENT_BYTES = 512L * 1024 * 1024
+
+
+/**
+ * Keeps read-only memory mapped images of configuration cache state files for the lifetime of the daemon,
+ * so that loading the same cache entry again decodes the state in place instead of reading the files again.
+ *
+ * An image is replaced when the size, modification time or identity of its file changes, and is discarded explicitly
+ * whenever the file is written, replaced or deleted by the configuration cache. The least recently used images are released once the total size of the images exceeds a limit.
+ * Files are not mapped on Windows, where a mapped file cannot be deleted or replaced.
+ */
+@ServiceScope(Scope.Global::class)
+internal
+class ResidentStateFileImages {
+
+    private
+    val images = LinkedHashMap<File, Image>(16, 0.75f, true)
+
+    private
+    var residentBytes = 0L
+
+    /**
+     * Returns a read-only buffer over the content of the given file, or `null` when the file cannot be mapped.
+     * The returned buffer has its own position and can be used independently of other buffers over the same file.
+     */
+    fun imageOf(file: File): ByteBuffer? {
+        if (OperatingSystem.current().isWindows) {
+            return null
+        }
+        val attributes = try {
+            Files.readAttributes(file.toPath(), BasicFileAttributes::class.java)
+        } catch (e: IOException) {
+            return null
+        }
+        if (!attributes.isRegularFile || attributes.size() > Int.MAX_VALUE) {
+            return null
+        }
+        val version = FileVersion(attributes.size(), attributes.lastModifiedTime().toMillis(), attributes.fileKey())
+        synchronized(images) {
+            val image = images[file]
+            if (image != null && image.version == version) {
+                return image.buffer.duplicate()
+            }
+            discardLocked(file)
+        }
+        val buffer = map(file, version.size) ?: return null
+        synchronized(images) {
+            if (version.size <= MAX_RESIDENT_BYTES) {
+                discardLocked(file)
+                images[file] = Image(version, buffer)
+                residentBytes += version.size
+                releaseLeastRecentlyUsed()
+            }
+        }
+        return buffer.duplicate()
+    }
+
+    /**
+     * Discards the image of the given file, if any.
+     */
+    fun discard(file: File) {
+        synchronized(images) {
+            discardLocked(file)
+        }
+    }
+
+    private
+    fun discardLocked(file: File) {
+        images.remove(file)?.let { image ->
+            residentBytes -= image.version.size
+        }
+    }
+
+    private
+    fun releaseLeastRecentlyUsed() {
+        val iterator = images.values.iterator()
+        while (residentBytes > MAX_RESIDENT_BYTES && iterator.hasNext()) {
+            residentBytes -= iterator.next().version.size
+            iterator.remove()
+        }
+    }
+
+    private
+    fun map(file: File, size: Long): MappedByteBuffer? =
+        try {
+            // The mapping remains valid after the channel is closed
+            FileChannel.open(file.toPath(), StandardOpenOption.READ).use { channel ->
+                channel.map(FileChannel.MapMode.READ_ONLY, 0, size)
+            }
+        } catch (e: IOException) {
+            null
+        }
+
+    private
+    data class FileVersion(
+        val size: Long,
+        val lastModified: Long,
+        val fileKey: Any?
+    )
+
+    private
+    class Image(
+        val version: FileVersion,
+        val buffer: MappedByteBuffer
+    )
+}
+
+
+/**
+ * Thrown when a state file is truncated, for example by another process, while it is read through its image.
+ */
+internal
+class StateFileImageTruncatedException(file: File, cause: Throwable) : RuntimeException("State file '$file' was truncated while it was read.", cause)
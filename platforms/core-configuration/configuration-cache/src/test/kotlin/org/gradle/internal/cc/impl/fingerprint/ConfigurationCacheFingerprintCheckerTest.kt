@@ -25,6 +25,8 @@ import org.gradle.api.provider.ValueSource
 import org.gradle.api.provider.ValueSourceParameters
 import org.gradle.internal.Try
 import org.gradle.internal.cc.impl.CheckedFingerprint
+import org.gradle.internal.cc.impl.InputTrackingState
+import org.gradle.internal.cc.impl.ProjectIdentityPath
 import org.gradle.internal.configuration.problems.PropertyProblem
 import org.gradle.internal.configuration.problems.PropertyTrace
 import org.gradle.internal.configuration.problems.StructuredMessageBuilder
@@ -36,6 +38,7 @@ import org.gradle.internal.serialize.Encoder
 import org.gradle.internal.serialize.graph.BeanStateReader
 import org.gradle.internal.serialize.graph.BeanStateWriter
 import org.gradle.internal.serialize.graph.CircularReferences
+import org.gradle.internal.serialize.graph.CloseableWriteContext
 import org.gradle.internal.serialize.graph.Codec
 import org.gradle.internal.serialize.graph.IsolateOwner
 import org.gradle.internal.serialize.graph.ReadContext
@@ -49,11 +52,13 @@ import org.gradle.internal.serialize.graph.runReadOperation
 import org.gradle.internal.serialize.graph.runWriteOperation
 import org.gradle.util.Path
 import org.hamcrest.CoreMatchers.equalTo
+import org.hamcrest.CoreMatchers.instanceOf
 import org.hamcrest.MatcherAssert.assertThat
 import org.junit.Test
 import java.io.File
 import java.io.InputStream
 import java.io.OutputStream
+import java.util.function.Consumer
 
 
 class ConfigurationCacheFingerprintCheckerTest {
@@ -267,6 +272,98 @@ class ConfigurationCacheFingerprintCheckerTest {
         )
     }
 
+    @Test
+    fun `repeated partial reconfiguration does not grow the project scoped fingerprint`() {
+        val a = ProjectIdentityPath(Path.path(":a"), Path.ROOT, Path.path(":a"))
+        val b = ProjectIdentityPath(Path.path(":b"), Path.ROOT, Path.path(":b"))
+        val aScript = File("a/build.gradle.kts")
+        val bScript = File("b/build.gradle.kts")
+        val hashes = mutableMapOf(aScript to TestHashCodes.hashCodeFrom(1), bScript to TestHashCodes.hashCodeFrom(2))
+
+        // The first build configures both projects
+        var fingerprint = projectScopedFingerprintOf(hashes) {
+            runCollectingFingerprintForProject(a) { fileObserved(aScript) }
+            runCollectingFingerprintForProject(b) { fileObserved(bScript) }
+            projectObserved(a.identityPath, b.identityPath)
+        }
+        val initialFingerprint = fingerprint
+
+        // Later builds reconfigure both projects but reuse the values of :b, carrying its fingerprint over from the previous entry
+        repeat(3) {
+            val previous = fingerprint
+            fingerprint = projectScopedFingerprintOf(hashes) {
+                runCollectingFingerprintForProject(a) { fileObserved(aScript) }
+                runCollectingFingerprintForProject(b) { fileObserved(bScript) }
+                projectObserved(a.identityPath, b.identityPath)
+                visitProjectScopedFingerprint(previous, hashes, setOf(b.identityPath)) { append(it) }
+            }
+            assertThat(fingerprint, equalTo(initialFingerprint))
+        }
+
+        // The fingerprint is still valid, and still invalidates the projects when the build script of the reused project changes
+        assertThat(checkProjectScopedFingerprint(fingerprint, hashes), instanceOf(CheckedFingerprint.Valid::class.java))
+
+        hashes[bScript] = TestHashCodes.hashCodeFrom(3)
+        val checked = checkProjectScopedFingerprint(fingerprint, hashes) as CheckedFingerprint.ProjectsInvalid
+        assertThat(checked.firstInvalidated, equalTo(b.identityPath))
+        assertThat(checked.invalidProjects.keys, equalTo(setOf(a.identityPath, b.identityPath)))
+    }
+
+    private
+    fun projectScopedFingerprintOf(hashes: Map<File, HashCode>, action: ConfigurationCacheFingerprintWriter.() -> Unit): List<Any?> {
+        val projectScopedContext = RecordingWriteContext()
+        val writer = ConfigurationCacheFingerprintWriter(
+            mock {
+                on { gradleUserHomeDir } doReturn File("user-home")
+                on { cacheIntermediateModels } doReturn true
+                on { hashCodeOf(any()) }.then { invocation ->
+                    hashes.getValue(invocation.getArgument<File>(0))
+                }
+            },
+            RecordingWriteContext(),
+            projectScopedContext,
+            mock(),
+            mock(),
+            mock(),
+            mock(),
+            InputTrackingState()
+        )
+        try {
+            writer.action()
+        } finally {
+            writer.close()
+        }
+        return projectScopedContext.recordedValues()
+    }
+
+    private
+    fun visitProjectScopedFingerprint(fingerprint: List<Any?>, hashes: Map<File, HashCode>, reusedProjects: Set<Path>, consumer: Consumer<ProjectSpecificFingerprint>) {
+        PlaybackReadContext(fingerprint).runReadOperation {
+            ConfigurationCacheFingerprintChecker(checkerHostFor(hashes)).run {
+                visitEntriesForProjects(reusedProjects, consumer)
+            }
+        }
+    }
+
+    private
+    fun checkProjectScopedFingerprint(fingerprint: List<Any?>, hashes: Map<File, HashCode>): CheckedFingerprint =
+        PlaybackReadContext(fingerprint).runReadOperation {
+            ConfigurationCacheFingerprintChecker(checkerHostFor(hashes)).run {
+                checkProjectScopedFingerprint()
+            }
+        }
+
+    private
+    fun checkerHostFor(hashes: Map<File, HashCode>): ConfigurationCacheFingerprintChecker.Host = mock {
+        on { hashCodeAndTypeOf(any()) }.then { invocation ->
+            hashes.getValue(invocation.getArgument<File>(0)) to FileType.RegularFile
+        }
+        on { displayNameOf(any()) }.then { invocation ->
+            invocation.getArgument<File>(0).path
+        }
+        on { buildPath } doReturn Path.ROOT
+    }
+
     private
     fun invalidationReasonForInitScriptsChange(
         from: Iterable<Pair<File, HashCode>>,
@@ -331,7 +428,7 @@ class ConfigurationCacheFingerprintCheckerTest {
      * by [toReadContext].
      */
     private
-    class RecordingWriteContext : WriteContext {
+    class RecordingWriteContext : CloseableWriteContext {
 
         private
         val values = mutableListOf<Any?>()
@@ -339,6 +436,12 @@ class ConfigurationCacheFingerprintCheckerTest {
         fun toReadContext() =
             PlaybackReadContext(values.toList())
 
+        fun recordedValues() =
+            values.toList()
+
+        override fun close() {
+        }
+
         override fun writeSmallInt(value: Int) {
             values.add(value)
         }
@@ -0,0 +1,171 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.cc.impl.io
+
+import org.junit.After
+import org.junit.Assert.assertArrayEquals
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertSame
+import org.junit.Assert.assertTrue
+import org.junit.Assert.fail
+import org.junit.Test
+import java.io.ByteArrayInputStream
+import java.io.ByteArrayOutputStream
+import java.io.IOException
+import java.io.InputStream
+import java.io.OutputStream
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import kotlin.random.Random
+
+
+class PipelinedStreamsTest {
+
+    private
+    val executor = Executors.newCachedThreadPool()
+
+    @After
+    fun shutdown() {
+        executor.shutdownNow()
+    }
+
+    @Test
+    fun `write-behind stream writes all bytes in order`() {
+        val bytes = Random(42).nextBytes(1_000_000)
+        val sink = TrackingOutputStream()
+
+        WriteBehindOutputStream(sink, executor).use { stream ->
+            stream.write(bytes, 0, 10)
+            stream.write(bytes[10].toInt())
+            stream.write(bytes, 11, bytes.size - 11)
+        }
+
+        assertArrayEquals(bytes, sink.toByteArray())
+        assertTrue(sink.closed)
+    }
+
+    @Test
+    fun `write-behind stream reports failures of the underlying stream on close`() {
+        val failure = IOException("broken")
+        val sink = object : OutputStream() {
+            override fun write(b: Int) = throw failure
+            override fun write(b: ByteArray, off: Int, len: Int) = throw failure
+        }
+
+        try {
+            WriteBehindOutputStream(sink, executor).use { stream ->
+                stream.write(ByteArray(100))
+            }
+            fail()
+        } catch (e: IOException) {
+            assertSame(failure, e.cause)
+        }
+    }
+
+    @Test(timeout = 10_000)
+    fun `write-behind stream can be closed after the writing task was interrupted with a full queue`() {
+        val writing = CountDownLatch(1)
+        val sink = object : OutputStream() {
+            override fun write(b: Int) = throw UnsupportedOperationException()
+            override fun write(b: ByteArray, off: Int, len: Int) {
+                writing.countDown()
+                try {
+                    CountDownLatch(1).await()
+                } catch (e: InterruptedException) {
+                    Thread.currentThread().interrupt()
+                }
+            }
+        }
+        val writingExecutor = Executors.newSingleThreadExecutor()
+
+        val stream = WriteBehindOutputStream(sink, writingExecutor)
+        // One chunk blocks in the underlying stream and the others fill the queue
+        stream.write(ByteArray(17 * CHUNK_SIZE + 1))
+        writing.await()
+        writingExecutor.shutdownNow()
+
+        try {
+            stream.close()
+            fail()
+        } catch (e: IOException) {
+            assertTrue(e.cause is InterruptedException)
+        }
+    }
+
+    @Test
+    fun `read-ahead stream reads all bytes in order`() {
+        val bytes = Random(42).nextBytes(1_000_000)
+        val result = ByteArrayOutputStream()
+
+        ReadAheadInputStream(ByteArrayInputStream(bytes), executor).use { stream ->
+            result.write(stream.read())
+            stream.copyTo(result)
+            assertEquals(-1, stream.read())
+        }
+
+        assertArrayEquals(bytes, result.toByteArray())
+    }
+
+    @Test
+    fun `read-ahead stream reports failures of the underlying stream on every read after the bytes read before the failure`() {
+        val failure = IOException("broken")
+        val source = object : InputStream() {
+            var remaining = 10
+            override fun read(): Int =
+                if (remaining-- > 0) 1 else throw failure
+        }
+
+        ReadAheadInputStream(source, executor).use { stream ->
+            repeat(10) {
+                assertEquals(1, stream.read())
+            }
+            repeat(2) {
+                try {
+                    stream.read()
+                    fail()
+                } catch (e: IOException) {
+                    assertSame(failure, e.cause)
+                }
+            }
+        }
+    }
+
+    @Test
+    fun `read-ahead stream can be closed before it is fully read`() {
+        val source = object : ByteArrayInputStream(ByteArray(10_000_000)) {
+            var closed = false
+            override fun close() {
+                closed = true
+            }
+        }
+
+        ReadAheadInputStream(source, executor).use { stream ->
+            assertEquals(0, stream.read())
+        }
+
+        assertTrue(source.closed)
+    }
+
+    private
+    class TrackingOutputStream : ByteArrayOutputStream() {
+        var closed = false
+
+        override fun close() {
+            closed = true
+        }
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.cc.impl.io
+
+import org.gradle.internal.os.OperatingSystem
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Assume.assumeFalse
+import org.junit.Before
+import org.junit.Rule
+import org.junit.Test
+import java.io.File
+import java.nio.ByteBuffer
+
+
+class ResidentStateFileImagesTest {
+
+    @JvmField
+    @Rule
+    val testDirectoryProvider = TestNameTestDirectoryProvider(javaClass)
+
+    private
+    val images = ResidentStateFileImages()
+
+    @Before
+    fun requiresMapping() {
+        assumeFalse(OperatingSystem.current().isWindows)
+    }
+
+    @Test
+    fun `image has the content of the file`() {
+        val file = stateFile("content")
+
+        assertEquals("content", images.imageOf(file)!!.asString())
+    }
+
+    @Test
+    fun `images have independent positions`() {
+        val file = stateFile("content")
+
+        val first = images.imageOf(file)!!
+        first.get()
+
+        assertEquals("content", images.imageOf(file)!!.asString())
+        assertEquals(1, first.position())
+    }
+
+    @Test
+    fun `image is replaced when the file changes`() {
+        val file = stateFile("content")
+        images.imageOf(file)
+
+        file.writeText("changed content")
+
+        assertEquals("changed content", images.imageOf(file)!!.asString())
+    }
+
+    @Test
+    fun `there is no image of a missing file`() {
+        val file = testDirectoryProvider.testDirectory.file("missing.bin")
+
+        assertTrue(images.imageOf(file) == null)
+    }
+
+    private
+    fun stateFile(text: String): File =
+        testDirectoryProvider.testDirectory.file("state.bin").apply {
+            writeText(text)
+        }
+
+    private
+    fun ByteBuffer.asString(): String =
+        ByteArray(remaining()).also { get(it) }.decodeToString()
+}
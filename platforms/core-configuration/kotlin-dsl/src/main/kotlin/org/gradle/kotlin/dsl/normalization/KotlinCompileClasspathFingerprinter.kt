@@ -42,7 +42,8 @@ internal
 class KotlinCompileClasspathFingerprinter(
     cacheService: ResourceSnapshotterCacheService,
     fileCollectionSnapshotter: FileCollectionSnapshotter,
-    stringInterner: StringInterner
+    stringInterner: StringInterner,
+    concurrentZipEntryHashing: Boolean
 ) : AbstractFileCollectionFingerprinter(
     ClasspathFingerprintingStrategy.compileClasspathFallbackToRuntimeClasspath(
         CachingResourceHasher(
@@ -61,7 +62,8 @@ class KotlinCompileClasspathFingerprinter(
         ),
         cacheService,
         stringInterner,
-        CompileAvoidanceExceptionReporter()
+        CompileAvoidanceExceptionReporter(),
+        concurrentZipEntryHashing
     ),
     fileCollectionSnapshotter
 ),
@@ -36,6 +36,7 @@ import org.gradle.internal.execution.ExecutionEngine
 import org.gradle.internal.execution.FileCollectionSnapshotter
 import org.gradle.internal.execution.InputFingerprinter
 import org.gradle.internal.fingerprint.classpath.ClasspathFingerprinter
+import org.gradle.internal.fingerprint.classpath.impl.DefaultClasspathFingerprinter
 import org.gradle.internal.instrumentation.reporting.PropertyUpgradeReportConfig
 import org.gradle.internal.logging.progress.ProgressLoggerFactory
 import org.gradle.internal.operations.BuildOperationRunner
@@ -146,14 +147,16 @@ object BuildServices : ServiceRegistrationProvider {
         fileCollectionSnapshotter: FileCollectionSnapshotter,
         stringInterner: StringInterner,
         fileCollectionFactory: FileCollectionFactory,
-        classpathFingerprinter: ClasspathFingerprinter
+        classpathFingerprinter: ClasspathFingerprinter,
+        internalOptions: InternalOptions
     ) =
         DefaultClasspathHasher(
             if (isKotlinScriptCompilationAvoidanceEnabled) {
                 KotlinCompileClasspathFingerprinter(
                     cacheService,
                     fileCollectionSnapshotter,
-                    stringInterner
+                    stringInterner,
+                    internalOptions.getOption(DefaultClasspathFingerprinter.CONCURRENT_ZIP_ENTRY_HASHING).get()
                 )
             } else {
                 classpathFingerprinter
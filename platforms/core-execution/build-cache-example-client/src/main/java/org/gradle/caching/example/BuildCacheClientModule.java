@@ -44,8 +44,8 @@
 import org.gradle.caching.internal.controller.service.BuildCacheServicesConfiguration;
 import org.gradle.caching.internal.origin.OriginMetadataFactory;
 import org.gradle.caching.internal.packaging.BuildCacheEntryPacker;
+import org.gradle.caching.internal.packaging.impl.CompressingBuildCacheEntryPacker;
 import org.gradle.caching.internal.packaging.impl.FilePermissionAccess;
-import org.gradle.caching.internal.packaging.impl.GZipBuildCacheEntryPacker;
 import org.gradle.caching.internal.packaging.impl.TarBuildCacheEntryPacker;
 import org.gradle.caching.internal.packaging.impl.TarPackerFileSystemSupport;
 import org.gradle.caching.local.internal.DirectoryBuildCacheService;
@@ -377,7 +377,7 @@ public void chmod(File file, int mode) {
                 }
             }
         };
-        return new GZipBuildCacheEntryPacker(
+        return new CompressingBuildCacheEntryPacker(
             new TarBuildCacheEntryPacker(
                 fileSystemSupport,
                 filePermissionAccess,
@@ -17,6 +17,7 @@ dependencies {
 
     implementation(libs.commonsIo)
     implementation(libs.guava)
+    implementation(libs.slf4jApi)
 
     testImplementation(projects.modelCore)
     testImplementation(projects.fileCollections)
@@ -25,6 +25,7 @@
 import org.gradle.internal.hash.HashCode;
 import org.gradle.internal.io.IoConsumer;
 
+import javax.annotation.Nullable;
 import java.io.Closeable;
 import java.io.File;
 import java.io.FileInputStream;
@@ -49,8 +50,18 @@ public class DirectoryBuildCache implements BuildCacheTempFileStore, Closeable,
     private final FileAccessTracker fileAccessTracker;
     private final String failedFileSuffix;
     private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    @Nullable
+    private final DirectoryBuildCacheIndex index;
 
     public DirectoryBuildCache(PersistentCache persistentCache, FileAccessTracker fileAccessTracker, String failedFileSuffix) {
+        this(persistentCache, fileAccessTracker, failedFileSuffix, 0);
+    }
+
+    /**
+     * Creates a cache that evicts the least recently used entries when storing an entry makes the cache larger than {@code maxSize} bytes.
+     * The size of the cache is not limited when {@code maxSize} is 0.
+     */
+    public DirectoryBuildCache(PersistentCache persistentCache, FileAccessTracker fileAccessTracker, String failedFileSuffix, long maxSize) {
         this.persistentCache = persistentCache;
         // Create temporary files in the cache directory to ensure they are on the same file system,
         // and thus can always be moved into the cache proper atomically
@@ -63,6 +74,9 @@ public DirectoryBuildCache(PersistentCache persistentCache, FileAccessTracker fi
         });
         this.fileAccessTracker = fileAccessTracker;
         this.failedFileSuffix = failedFileSuffix;
+        this.index = maxSize > 0
+            ? new DirectoryBuildCacheIndex(persistentCache.getBaseDir(), maxSize)
+            : null;
     }
 
     @Override
@@ -101,6 +115,9 @@ public void loadLocally(HashCode key, Consumer<? super File> reader) {
 
     private void loadInsideLock(HashCode key, Consumer<? super File> reader) {
         File file = getCacheEntryFile(key);
+        if (index != null) {
+            index.accessed(key, file);
+        }
         if (!file.exists()) {
             return;
         }
@@ -168,6 +185,11 @@ private void storeInsideLock(HashCode key, File sourceFile) {
             throw new UncheckedIOException(String.format("Couldn't move cache entry '%s' into local cache: %s", key, e), e);
         }
         fileAccessTracker.markAccessed(targetFile);
+        if (index != null) {
+            index.stored(key, targetFile);
+            // Keep the index from being removed by the cleanup of unused entries
+            fileAccessTracker.markAccessed(index.getJournalFile());
+        }
     }
 
     @Override
@@ -177,6 +199,9 @@ public void withTempFile(HashCode key, Consumer<? super File> action) {
 
     @Override
     public void close() {
+        if (index != null) {
+            index.close();
+        }
         persistentCache.close();
     }
 
@@ -0,0 +1,379 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.caching.local.internal;
+
+import org.apache.commons.io.FileUtils;
+import org.gradle.api.NonNullApi;
+import org.gradle.internal.hash.HashCode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.Channels;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Keeps track of the size and last access time of the entries in a {@link DirectoryBuildCache}, so that the size of the cache
+ * can be limited without walking the cache directory.
+ *
+ * The index is persisted as an append-only journal in the cache directory, so that it is shared between processes using the same cache.
+ * Callers must hold the cross-process lock of the cache. Each operation first catches up with the records appended by other processes.
+ * The journal is rewritten in place once it contains a lot more records than there are entries. Rewriting assigns a new epoch to the journal,
+ * which causes other processes to read it again from the start.
+ *
+ * Entries that are added by Gradle versions that do not maintain the index are picked up when they are loaded.
+ * Entries that are removed without going through the index are dropped from the index when they are loaded or evicted.
+ */
+@NonNullApi
+class DirectoryBuildCacheIndex {
+    private static final Logger LOGGER = LoggerFactory.getLogger(DirectoryBuildCacheIndex.class);
+
+    static final String JOURNAL_FILE_NAME = "entries.journal";
+
+    private static final int MAGIC = 0x4743494a;
+    private static final int HEADER_SIZE = 4 + 8;
+    private static final byte STORE = 1;
+    private static final byte ACCESS = 2;
+    private static final byte REMOVE = 3;
+    private static final int MIN_RECORDS_TO_COMPACT = 1024;
+
+    private static final Comparator<Entry> LEAST_RECENTLY_USED_FIRST = Comparator
+        .<Entry>comparingLong(entry -> entry.accessTime)
+        .thenComparing(entry -> entry.key);
+
+    private final File cacheDir;
+    private final File journalFile;
+    private final long maxSize;
+
+    private final Map<HashCode, Entry> entries = new HashMap<>();
+    private final NavigableSet<Entry> entriesByAccessTime = new TreeSet<>(LEAST_RECENTLY_USED_FIRST);
+    private long totalSize;
+    private long latestAccessTime;
+
+    @Nullable
+    private RandomAccessFile journal;
+    private long epoch;
+    private long readOffset;
+    private long recordCount;
+    private boolean disabled;
+
+    DirectoryBuildCacheIndex(File cacheDir, long maxSize) {
+        this.cacheDir = cacheDir;
+        this.journalFile = new File(cacheDir, JOURNAL_FILE_NAME);
+        this.maxSize = maxSize;
+    }
+
+    File getJournalFile() {
+        return journalFile;
+    }
+
+    /**
+     * Records that the entry has been loaded, or forgets it if it does not exist anymore.
+     */
+    synchronized void accessed(HashCode key, File file) {
+        update(() -> {
+            if (file.exists()) {
+                record(ACCESS, key, file.length(), nextAccessTime());
+            } else if (entries.containsKey(key)) {
+                record(REMOVE, key, 0, 0);
+            }
+        });
+    }
+
+    /**
+     * Records that the entry has been stored, and evicts the least recently used entries until the cache fits into the maximum size.
+     */
+    synchronized void stored(HashCode key, File file) {
+        update(() -> {
+            record(STORE, key, file.length(), nextAccessTime());
+            evict(key);
+        });
+    }
+
+    synchronized long getTotalSize() {
+        return totalSize;
+    }
+
+    synchronized int getEntryCount() {
+        return entries.size();
+    }
+
+    synchronized void close() {
+        closeJournal();
+    }
+
+    /**
+     * Returns the current time, making sure that it is later than any access recorded so far, so that the order of accesses is preserved.
+     */
+    private long nextAccessTime() {
+        return Math.max(System.currentTimeMillis(), latestAccessTime + 1);
+    }
+
+    private void evict(HashCode storedKey) throws IOException {
+        Iterator<Entry> iterator = entriesByAccessTime.iterator();
+        while (totalSize > maxSize && iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (entry.key.equals(storedKey)) {
+                continue;
+            }
+            File file = new File(cacheDir, entry.key.toString());
+            if (file.exists() && !FileUtils.deleteQuietly(file)) {
+                LOGGER.debug("Could not evict build cache entry {}", entry.key);
+                continue;
+            }
+            iterator.remove();
+            entries.remove(entry.key);
+            totalSize -= entry.size;
+            append(REMOVE, entry.key, 0, 0);
+        }
+    }
+
+    private void update(IndexAction action) {
+        if (disabled) {
+            return;
+        }
+        try {
+            sync();
+            action.run();
+            if (recordCount > MIN_RECORDS_TO_COMPACT && recordCount > 2L * entries.size()) {
+                compact();
+            }
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("Could not update build cache index {}, the size of the cache will not be limited: {}", journalFile, e.toString());
+            LOGGER.debug("Updating build cache index failed", e);
+            disabled = true;
+            closeJournal();
+        }
+    }
+
+    private void sync() throws IOException {
+        if (journal != null && !journalFile.exists()) {
+            // The journal has been deleted, e.g. by a cleanup that did not know about it
+            closeJournal();
+        }
+        if (journal == null) {
+            boolean created = !journalFile.exists();
+            journal = new RandomAccessFile(journalFile, "rw");
+            if (created || journal.length() < HEADER_SIZE) {
+                rebuild();
+                return;
+            }
+        }
+        RandomAccessFile journal = this.journal;
+        journal.seek(0);
+        if (journal.readInt() != MAGIC) {
+            rebuild();
+            return;
+        }
+        long fileEpoch = journal.readLong();
+        long length = journal.length();
+        if (fileEpoch != epoch || length < readOffset) {
+            clear();
+            epoch = fileEpoch;
+            readOffset = HEADER_SIZE;
+        }
+        if (length > readOffset) {
+            readRecords(journal, length);
+        }
+    }
+
+    private void readRecords(RandomAccessFile journal, long length) throws IOException {
+        journal.seek(readOffset);
+        // Not closed, as that would close the journal
+        DataInputStream input = new DataInputStream(new BufferedInputStream(Channels.newInputStream(journal.getChannel())));
+        long offset = readOffset;
+        try {
+            while (offset < length) {
+                byte type = input.readByte();
+                byte[] keyBytes = new byte[input.readUnsignedByte()];
+                input.readFully(keyBytes);
+                long size = input.readLong();
+                long time = input.readLong();
+                apply(type, HashCode.fromBytes(keyBytes), size, time);
+                offset += recordSize(keyBytes.length);
+            }
+        } catch (EOFException e) {
+            // The last record was only partially written; drop it so that new records can be appended
+            LOGGER.debug("Truncating incomplete record at the end of build cache index {}", journalFile);
+            journal.setLength(offset);
+        }
+        readOffset = offset;
+    }
+
+    private void rebuild() throws IOException {
+        clear();
+        File[] files = cacheDir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                HashCode key = toKey(file.getName());
+                if (key != null && file.isFile()) {
+                    apply(STORE, key, file.length(), file.lastModified());
+                }
+            }
+        }
+        writeJournal();
+    }
+
+    private void compact() throws IOException {
+        LOGGER.debug("Compacting build cache index {} with {} records for {} entries", journalFile, recordCount, entries.size());
+        writeJournal();
+    }
+
+    /**
+     * Writes the whole index to the journal with a new epoch.
+     */
+    private void writeJournal() throws IOException {
+        RandomAccessFile journal = requireJournal();
+        epoch = ThreadLocalRandom.current().nextLong();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(HEADER_SIZE + entries.size() * recordSize(16));
+        DataOutputStream output = new DataOutputStream(new BufferedOutputStream(bytes));
+        output.writeInt(MAGIC);
+        output.writeLong(epoch);
+        for (Entry entry : entriesByAccessTime) {
+            writeRecord(output, STORE, entry.key, entry.size, entry.accessTime);
+        }
+        output.flush();
+        journal.setLength(0);
+        journal.seek(0);
+        journal.write(bytes.toByteArray());
+        readOffset = journal.length();
+        recordCount = entries.size();
+    }
+
+    private void record(byte type, HashCode key, long size, long time) throws IOException {
+        apply(type, key, size, time);
+        append(type, key, size, time);
+    }
+
+    private void append(byte type, HashCode key, long size, long time) throws IOException {
+        RandomAccessFile journal = requireJournal();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(recordSize(key.length()));
+        writeRecord(new DataOutputStream(bytes), type, key, size, time);
+        journal.seek(readOffset);
+        journal.write(bytes.toByteArray());
+        readOffset = journal.getFilePointer();
+    }
+
+    private void apply(byte type, HashCode key, long size, long time) {
+        recordCount++;
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            entriesByAccessTime.remove(entry);
+            totalSize -= entry.size;
+        }
+        switch (type) {
+            case STORE:
+            case ACCESS:
+                if (entry == null) {
+                    entry = new Entry(key);
+                    entries.put(key, entry);
+                }
+                entry.size = size;
+                entry.accessTime = Math.max(entry.accessTime, time);
+                latestAccessTime = Math.max(latestAccessTime, time);
+                entriesByAccessTime.add(entry);
+                totalSize += size;
+                break;
+            case REMOVE:
+                entries.remove(key);
+                break;
+            default:
+                throw new IllegalStateException("Unknown build cache index record type: " + type);
+        }
+    }
+
+    private void clear() {
+        entries.clear();
+        entriesByAccessTime.clear();
+        totalSize = 0;
+        latestAccessTime = 0;
+        recordCount = 0;
+    }
+
+    private RandomAccessFile requireJournal() {
+        if (journal == null) {
+            throw new IllegalStateException("Build cache index is not open");
+        }
+        return journal;
+    }
+
+    private void closeJournal() {
+        if (journal != null) {
+            try {
+                journal.close();
+            } catch (IOException e) {
+                LOGGER.debug("Could not close build cache index {}", journalFile, e);
+            }
+            journal = null;
+            epoch = 0;
+            readOffset = 0;
+        }
+    }
+
+    private static void writeRecord(DataOutputStream output, byte type, HashCode key, long size, long time) throws IOException {
+        byte[] keyBytes = key.toByteArray();
+        output.writeByte(type);
+        output.writeByte(keyBytes.length);
+        output.write(keyBytes);
+        output.writeLong(size);
+        output.writeLong(time);
+    }
+
+    private static int recordSize(int keyLength) {
+        return 1 + 1 + keyLength + 8 + 8;
+    }
+
+    @Nullable
+    private static HashCode toKey(String fileName) {
+        try {
+            HashCode key = HashCode.fromString(fileName);
+            // Only accept names that are used for cache entries
+            return key.toString().equals(fileName) ? key : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private interface IndexAction {
+        void run() throws IOException;
+    }
+
+    private static class Entry {
+        private final HashCode key;
+        private long size;
+        private long accessTime;
+
+        Entry(HashCode key) {
+            this.key = key;
+        }
+    }
+}
@@ -37,7 +37,11 @@ public class DirectoryBuildCacheService implements LocalBuildCacheService, Build
     private final DirectoryBuildCache cache;
 
     public DirectoryBuildCacheService(PersistentCache persistentCache, FileAccessTracker fileAccessTracker, String failedFileSuffix) {
-        this.cache = new DirectoryBuildCache(persistentCache, fileAccessTracker, failedFileSuffix);
+        this(persistentCache, fileAccessTracker, failedFileSuffix, 0);
+    }
+
+    public DirectoryBuildCacheService(PersistentCache persistentCache, FileAccessTracker fileAccessTracker, String failedFileSuffix, long maxSize) {
+        this.cache = new DirectoryBuildCache(persistentCache, fileAccessTracker, failedFileSuffix, maxSize);
     }
 
     @Override
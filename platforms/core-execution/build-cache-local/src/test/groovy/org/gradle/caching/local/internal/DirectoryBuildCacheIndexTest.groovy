@@ -0,0 +1,187 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.caching.local.internal
+
+import org.gradle.internal.hash.HashCode
+import org.gradle.internal.hash.TestHashCodes
+import org.gradle.test.fixtures.file.CleanupTestDirectory
+import org.gradle.test.fixtures.file.TestFile
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+@CleanupTestDirectory
+class DirectoryBuildCacheIndexTest extends Specification {
+    @Rule
+    TestNameTestDirectoryProvider temporaryFolder = new TestNameTestDirectoryProvider(getClass())
+    def cacheDir = temporaryFolder.createDir("cache")
+    def index = new DirectoryBuildCacheIndex(cacheDir, 25)
+
+    def cleanup() {
+        index.close()
+    }
+
+    def "evicts least recently used entries when exceeding the maximum size"() {
+        def first = TestHashCodes.hashCodeFrom(1)
+        def second = TestHashCodes.hashCodeFrom(2)
+        def third = TestHashCodes.hashCodeFrom(3)
+
+        when:
+        store(first)
+        store(second)
+        index.accessed(first, entry(first))
+        store(third)
+
+        then:
+        entry(first).exists()
+        !entry(second).exists()
+        entry(third).exists()
+        index.entryCount == 2
+        index.totalSize == 20
+    }
+
+    def "does not evict the stored entry"() {
+        def small = TestHashCodes.hashCodeFrom(1)
+        def large = TestHashCodes.hashCodeFrom(2)
+
+        when:
+        store(small)
+        store(large, 30)
+
+        then:
+        !entry(small).exists()
+        entry(large).exists()
+        index.totalSize == 30
+    }
+
+    def "sees entries stored by other instances"() {
+        def other = new DirectoryBuildCacheIndex(cacheDir, 25)
+        def first = TestHashCodes.hashCodeFrom(1)
+        def second = TestHashCodes.hashCodeFrom(2)
+        def third = TestHashCodes.hashCodeFrom(3)
+
+        when:
+        store(first)
+        store(second, 10, other)
+        store(third)
+
+        then:
+        !entry(first).exists()
+        entry(second).exists()
+        entry(third).exists()
+
+        when:
+        other.accessed(second, entry(second))
+
+        then:
+        other.entryCount == 2
+        other.totalSize == 20
+
+        cleanup:
+        other.close()
+    }
+
+    def "builds index from existing entries"() {
+        def existing = TestHashCodes.hashCodeFrom(1)
+        entry(existing).bytes = new byte[10]
+        cacheDir.file("other.part").bytes = new byte[100]
+        def stored = TestHashCodes.hashCodeFrom(2)
+
+        when:
+        store(stored)
+
+        then:
+        index.entryCount == 2
+        index.totalSize == 20
+    }
+
+    def "rebuilds index when journal is missing or corrupt"() {
+        def key = TestHashCodes.hashCodeFrom(1)
+        store(key)
+        index.close()
+
+        when:
+        journal.text = journalText
+        index.accessed(key, entry(key))
+
+        then:
+        index.entryCount == 1
+        index.totalSize == 10
+
+        where:
+        journalText << ["", "corrupt journal"]
+    }
+
+    def "ignores incomplete record at the end of the journal"() {
+        def first = TestHashCodes.hashCodeFrom(1)
+        def second = TestHashCodes.hashCodeFrom(2)
+        store(first)
+        index.close()
+        journal << ([1, 16, 3] as byte[])
+
+        when:
+        store(second)
+        index.close()
+        index.accessed(first, entry(first))
+
+        then:
+        index.entryCount == 2
+        index.totalSize == 20
+    }
+
+    def "forgets entries that have been removed"() {
+        def key = TestHashCodes.hashCodeFrom(1)
+        store(key)
+
+        when:
+        entry(key).delete()
+        index.accessed(key, entry(key))
+
+        then:
+        index.entryCount == 0
+        index.totalSize == 0
+    }
+
+    def "compacts journal"() {
+        def key = TestHashCodes.hashCodeFrom(1)
+        store(key)
+
+        when:
+        5000.times {
+            index.accessed(key, entry(key))
+        }
+
+        then:
+        journal.length() < 2000 * 34
+        index.entryCount == 1
+        index.totalSize == 10
+    }
+
+    private void store(HashCode key, int size = 10, DirectoryBuildCacheIndex index = this.index) {
+        def file = entry(key)
+        file.bytes = new byte[size]
+        index.stored(key, file)
+    }
+
+    private TestFile entry(HashCode key) {
+        cacheDir.file(key.toString())
+    }
+
+    private TestFile getJournal() {
+        cacheDir.file(DirectoryBuildCacheIndex.JOURNAL_FILE_NAME)
+    }
+}
@@ -0,0 +1,35 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.caching.internal.packaging;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Compresses and decompresses the archives produced by a {@link BuildCacheEntryPacker}.
+ */
+public interface BuildCacheEntryCodec {
+    /**
+     * The name of the codec, used to select it in the build cache configuration and recorded in the header of stored entries.
+     */
+    String getName();
+
+    OutputStream compress(OutputStream output) throws IOException;
+
+    InputStream decompress(InputStream input) throws IOException;
+}
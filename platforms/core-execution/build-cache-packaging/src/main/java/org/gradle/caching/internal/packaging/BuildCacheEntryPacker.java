@@ -20,6 +20,7 @@
 import org.gradle.caching.internal.origin.OriginMetadata;
 import org.gradle.caching.internal.origin.OriginReader;
 import org.gradle.caching.internal.origin.OriginWriter;
+import org.gradle.internal.hash.HashCode;
 import org.gradle.internal.snapshot.FileSystemLocationSnapshot;
 import org.gradle.internal.snapshot.FileSystemSnapshot;
 
@@ -45,6 +46,15 @@ public long getEntries() {
 
     UnpackResult unpack(CacheableEntity entity, InputStream input, OriginReader readOrigin) throws IOException;
 
+    /**
+     * Returns the key to store and load the entries packed by this packer under, for the given cache key.
+     *
+     * Entries that older Gradle versions cannot unpack must be stored under a different key, so that those versions treat them as cache misses.
+     */
+    default HashCode getEntryKey(HashCode cacheKey) {
+        return cacheKey;
+    }
+
     class UnpackResult {
         private final OriginMetadata originMetadata;
         private final long entries;
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.caching.internal.packaging.impl;
+
+import com.google.common.collect.ImmutableMap;
+import org.gradle.caching.internal.packaging.BuildCacheEntryCodec;
+
+import java.util.Set;
+
+/**
+ * The codecs that can be used to compress build cache entries.
+ */
+public class BuildCacheEntryCodecs {
+    public static final BuildCacheEntryCodec GZIP = new GZipBuildCacheEntryCodec();
+    public static final BuildCacheEntryCodec LZ4 = new Lz4BuildCacheEntryCodec();
+
+    private static final ImmutableMap<String, BuildCacheEntryCodec> CODECS = ImmutableMap.of(
+        GZIP.getName(), GZIP,
+        LZ4.getName(), LZ4
+    );
+
+    private BuildCacheEntryCodecs() {
+    }
+
+    public static Set<String> getNames() {
+        return CODECS.keySet();
+    }
+
+    /**
+     * Returns the codec with the given name.
+     *
+     * @throws IllegalArgumentException when there is no codec with the given name
+     */
+    public static BuildCacheEntryCodec named(String name) {
+        BuildCacheEntryCodec codec = CODECS.get(name);
+        if (codec == null) {
+            throw new IllegalArgumentException(String.format("Unknown build cache compression '%s'. Supported values are: %s.", name, String.join(", ", CODECS.keySet())));
+        }
+        return codec;
+    }
+}
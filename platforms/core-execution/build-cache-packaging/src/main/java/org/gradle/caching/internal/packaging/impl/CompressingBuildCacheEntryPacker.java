@@ -0,0 +1,219 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.caching.internal.packaging.impl;
+
+import com.google.common.base.Throwables;
+import com.google.common.io.ByteStreams;
+import org.apache.commons.io.input.CloseShieldInputStream;
+import org.gradle.caching.internal.CacheableEntity;
+import org.gradle.caching.internal.origin.OriginReader;
+import org.gradle.caching.internal.origin.OriginWriter;
+import org.gradle.caching.internal.packaging.BuildCacheEntryCodec;
+import org.gradle.caching.internal.packaging.BuildCacheEntryPacker;
+import org.gradle.internal.hash.HashCode;
+import org.gradle.internal.hash.Hasher;
+import org.gradle.internal.hash.Hashing;
+import org.gradle.internal.snapshot.FileSystemSnapshot;
+
+import javax.annotation.Nullable;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.PushbackInputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.Pipe;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * Compresses the entries produced by the delegate packer.
+ *
+ * Entries are stored with the currently configured codec, and loaded with the codec they were stored with.
+ * Entries compressed with gzip are written without a header, so they stay readable by older Gradle versions,
+ * and are recognized by the gzip magic number. Entries compressed with any other codec start with
+ * {@link #HEADER_MAGIC} followed by the name of the codec. Older Gradle versions cannot read these entries,
+ * so they are stored under a key that also depends on the codec, which those versions never look up.
+ *
+ * When created with an executor, compression and decompression run as a separate stage on that executor,
+ * connected to the delegate via a pipe, so they overlap with reading and writing the packed files.
+ */
+public class CompressingBuildCacheEntryPacker implements BuildCacheEntryPacker, Closeable {
+    private static final byte[] HEADER_MAGIC = {'G', 'C', 'E', 1};
+    private static final int GZIP_MAGIC_FIRST_BYTE = 0x1f;
+
+    private final BuildCacheEntryPacker delegate;
+    private final Supplier<BuildCacheEntryCodec> codec;
+    @Nullable
+    private final ExecutorService compressionExecutor;
+
+    public CompressingBuildCacheEntryPacker(BuildCacheEntryPacker delegate) {
+        this(delegate, () -> BuildCacheEntryCodecs.GZIP, null);
+    }
+
+    /**
+     * Creates a packer which stores entries with the codec returned by the given supplier.
+     * When an executor is given, the packer compresses on that executor, owns it, and shuts it down when closed.
+     */
+    public CompressingBuildCacheEntryPacker(BuildCacheEntryPacker delegate, Supplier<BuildCacheEntryCodec> codec, @Nullable ExecutorService compressionExecutor) {
+        this.delegate = delegate;
+        this.codec = codec;
+        this.compressionExecutor = compressionExecutor;
+    }
+
+    @Override
+    public PackResult pack(CacheableEntity entity, Map<String, ? extends FileSystemSnapshot> snapshots, OutputStream output, OriginWriter writeOrigin) throws IOException {
+        BuildCacheEntryCodec codec = this.codec.get();
+        if (codec != BuildCacheEntryCodecs.GZIP) {
+            DataOutputStream headerOutput = new DataOutputStream(output);
+            headerOutput.write(HEADER_MAGIC);
+            headerOutput.writeUTF(codec.getName());
+            headerOutput.flush();
+        }
+        if (compressionExecutor == null) {
+            try (OutputStream compressedOutput = codec.compress(output)) {
+                return delegate.pack(entity, snapshots, compressedOutput, writeOrigin);
+            }
+        }
+
+        Pipe pipe = Pipe.open();
+        Future<?> compression = compressionExecutor.submit(() -> {
+            // Closing the source makes the packer fail when compression fails
+            try (InputStream tarInput = Channels.newInputStream(pipe.source()); OutputStream compressedOutput = codec.compress(output)) {
+                ByteStreams.copy(tarInput, compressedOutput);
+            }
+            return null;
+        });
+        PackResult result;
+        try (ChannelOutputStream tarOutput = new ChannelOutputStream(pipe.sink())) {
+            result = delegate.pack(entity, snapshots, tarOutput, writeOrigin);
+        } catch (IOException | RuntimeException e) {
+            throw failureOf(compression, e);
+        }
+        awaitStage(compression);
+        return result;
+    }
+
+    @Override
+    public HashCode getEntryKey(HashCode cacheKey) {
+        BuildCacheEntryCodec codec = this.codec.get();
+        if (codec == BuildCacheEntryCodecs.GZIP) {
+            return cacheKey;
+        }
+        Hasher hasher = Hashing.newHasher();
+        hasher.putHash(cacheKey);
+        hasher.putString(codec.getName());
+        return hasher.hash();
+    }
+
+    @Override
+    public UnpackResult unpack(CacheableEntity entity, InputStream input, OriginReader readOrigin) throws IOException {
+        PushbackInputStream headerInput = new PushbackInputStream(input, 1);
+        BuildCacheEntryCodec codec = readCodec(headerInput);
+        if (compressionExecutor == null) {
+            try (InputStream decompressedInput = codec.decompress(headerInput)) {
+                return delegate.unpack(entity, decompressedInput, readOrigin);
+            }
+        }
+
+        Pipe pipe = Pipe.open();
+        Future<?> decompression = compressionExecutor.submit(() -> {
+            try (InputStream decompressedInput = codec.decompress(headerInput); ChannelOutputStream tarOutput = new ChannelOutputStream(pipe.sink())) {
+                ByteStreams.copy(decompressedInput, tarOutput);
+            }
+            return null;
+        });
+        UnpackResult result;
+        try (InputStream tarInput = Channels.newInputStream(pipe.source())) {
+            result = delegate.unpack(entity, CloseShieldInputStream.wrap(tarInput), readOrigin);
+            // Consume the padding after the end of the archive, so decompression can finish
+            ByteStreams.exhaust(tarInput);
+        } catch (IOException | RuntimeException e) {
+            throw failureOf(decompression, e);
+        }
+        awaitStage(decompression);
+        return result;
+    }
+
+    private static BuildCacheEntryCodec readCodec(PushbackInputStream input) throws IOException {
+        int first = input.read();
+        if (first == GZIP_MAGIC_FIRST_BYTE || first == -1) {
+            if (first != -1) {
+                input.unread(first);
+            }
+            return BuildCacheEntryCodecs.GZIP;
+        }
+        byte[] magic = new byte[HEADER_MAGIC.length];
+        magic[0] = (byte) first;
+        DataInputStream headerInput = new DataInputStream(input);
+        headerInput.readFully(magic, 1, magic.length - 1);
+        if (!Arrays.equals(magic, HEADER_MAGIC)) {
+            throw new IllegalStateException("Cached entry format error, unknown compression header.");
+        }
+        String name = headerInput.readUTF();
+        try {
+            return BuildCacheEntryCodecs.named(name);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalStateException(String.format("Cached entry format error, unknown compression '%s'.", name), e);
+        }
+    }
+
+    /**
+     * Waits for the other stage of the pipeline after the current stage failed.
+     * When both failed, the failure of the other stage is likely the cause, e.g. a closed pipe.
+     */
+    private static IOException failureOf(Future<?> stage, Exception failure) throws IOException {
+        try {
+            awaitStage(stage);
+        } catch (IOException | RuntimeException stageFailure) {
+            stageFailure.addSuppressed(failure);
+            throw stageFailure;
+        }
+        Throwables.throwIfInstanceOf(failure, IOException.class);
+        Throwables.throwIfUnchecked(failure);
+        return new IOException(failure);
+    }
+
+    private static void awaitStage(Future<?> stage) throws IOException {
+        try {
+            stage.get();
+        } catch (InterruptedException e) {
+            stage.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for build cache entry compression");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            Throwables.throwIfInstanceOf(cause, IOException.class);
+            Throwables.throwIfUnchecked(cause);
+            throw new IOException(cause);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (compressionExecutor != null) {
+            compressionExecutor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,210 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.caching.internal.packaging.impl;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Compresses and decompresses single blocks in the <a href="https://github.com/lz4/lz4/blob/dev/doc/lz4_Block_format.md">LZ4 block format</a>.
+ *
+ * The compressor is the simple greedy variant with a single hash table probe per position, which trades compression ratio for speed.
+ */
+class Lz4Block {
+    private static final int MIN_MATCH = 4;
+    private static final int LAST_LITERALS = 5;
+    private static final int MATCH_FIND_LIMIT = 12;
+    private static final int MAX_OFFSET = 0xFFFF;
+    private static final int RUN_MASK = 0xF;
+    private static final int HASH_LOG = 14;
+
+    private final int[] hashTable = new int[1 << HASH_LOG];
+
+    /**
+     * Returns the maximum size of the compressed form of {@code length} bytes.
+     */
+    static int maxCompressedLength(int length) {
+        return length + length / 255 + 16;
+    }
+
+    /**
+     * Compresses {@code length} bytes from {@code src} into {@code dst}, which must be at least {@link #maxCompressedLength(int)} long.
+     *
+     * @return the size of the compressed data
+     */
+    int compress(byte[] src, int length, byte[] dst) {
+        int anchor = 0;
+        int op = 0;
+        if (length >= MATCH_FIND_LIMIT + 1) {
+            Arrays.fill(hashTable, -1);
+            int matchFindLimit = length - MATCH_FIND_LIMIT;
+            int matchExtendLimit = length - LAST_LITERALS;
+            int ip = 0;
+            while (ip <= matchFindLimit) {
+                int sequence = readInt(src, ip);
+                int hash = hash(sequence);
+                int ref = hashTable[hash];
+                hashTable[hash] = ip;
+                if (ref < 0 || ip - ref > MAX_OFFSET || readInt(src, ref) != sequence) {
+                    // Skip faster through data that does not compress
+                    ip += 1 + ((ip - anchor) >>> 6);
+                    continue;
+                }
+                while (ip > anchor && ref > 0 && src[ip - 1] == src[ref - 1]) {
+                    ip--;
+                    ref--;
+                }
+                int matchLength = MIN_MATCH;
+                while (ip + matchLength < matchExtendLimit && src[ip + matchLength] == src[ref + matchLength]) {
+                    matchLength++;
+                }
+                op = writeSequence(src, anchor, ip - anchor, ip - ref, matchLength, dst, op);
+                ip += matchLength;
+                anchor = ip;
+                if (ip - 2 <= matchFindLimit) {
+                    hashTable[hash(readInt(src, ip - 2))] = ip - 2;
+                }
+            }
+        }
+        return writeLastLiterals(src, anchor, length - anchor, dst, op);
+    }
+
+    /**
+     * Decompresses {@code length} bytes from {@code src} into {@code dst}.
+     *
+     * @return the size of the decompressed data
+     * @throws IOException when the compressed data is malformed or does not fit into {@code dst}
+     */
+    static int decompress(byte[] src, int length, byte[] dst) throws IOException {
+        int ip = 0;
+        int op = 0;
+        while (true) {
+            if (ip >= length) {
+                throw malformed();
+            }
+            int token = src[ip++] & 0xFF;
+
+            int literalLength = token >>> 4;
+            if (literalLength == RUN_MASK) {
+                int b;
+                do {
+                    if (ip >= length) {
+                        throw malformed();
+                    }
+                    b = src[ip++] & 0xFF;
+                    literalLength += b;
+                } while (b == 0xFF);
+            }
+            if (literalLength > length - ip || literalLength > dst.length - op) {
+                throw malformed();
+            }
+            System.arraycopy(src, ip, dst, op, literalLength);
+            ip += literalLength;
+            op += literalLength;
+            if (ip == length) {
+                // The last sequence only has literals
+                return op;
+            }
+
+            if (length - ip < 2) {
+                throw malformed();
+            }
+            int offset = (src[ip] & 0xFF) | (src[ip + 1] & 0xFF) << 8;
+            ip += 2;
+            if (offset == 0 || offset > op) {
+                throw malformed();
+            }
+            int matchLength = token & RUN_MASK;
+            if (matchLength == RUN_MASK) {
+                int b;
+                do {
+                    if (ip >= length) {
+                        throw malformed();
+                    }
+                    b = src[ip++] & 0xFF;
+                    matchLength += b;
+                } while (b == 0xFF);
+            }
+            matchLength += MIN_MATCH;
+            if (matchLength > dst.length - op) {
+                throw malformed();
+            }
+            int ref = op - offset;
+            if (offset >= matchLength) {
+                System.arraycopy(dst, ref, dst, op, matchLength);
+                op += matchLength;
+            } else {
+                // Overlapping match, repeats the last `offset` bytes
+                for (int end = op + matchLength; op < end; ) {
+                    dst[op++] = dst[ref++];
+                }
+            }
+        }
+    }
+
+    private static int writeSequence(byte[] src, int literalStart, int literalLength, int offset, int matchLength, byte[] dst, int op) {
+        int tokenPos = op++;
+        int literalBits = literalLength >= RUN_MASK ? RUN_MASK : literalLength;
+        if (literalLength >= RUN_MASK) {
+            op = writeLength(literalLength - RUN_MASK, dst, op);
+        }
+        System.arraycopy(src, literalStart, dst, op, literalLength);
+        op += literalLength;
+
+        dst[op++] = (byte) offset;
+        dst[op++] = (byte) (offset >>> 8);
+
+        int remainingMatchLength = matchLength - MIN_MATCH;
+        int matchBits = remainingMatchLength >= RUN_MASK ? RUN_MASK : remainingMatchLength;
+        if (remainingMatchLength >= RUN_MASK) {
+            op = writeLength(remainingMatchLength - RUN_MASK, dst, op);
+        }
+        dst[tokenPos] = (byte) (literalBits << 4 | matchBits);
+        return op;
+    }
+
+    private static int writeLastLiterals(byte[] src, int literalStart, int literalLength, byte[] dst, int op) {
+        int literalBits = literalLength >= RUN_MASK ? RUN_MASK : literalLength;
+        dst[op++] = (byte) (literalBits << 4);
+        if (literalLength >= RUN_MASK) {
+            op = writeLength(literalLength - RUN_MASK, dst, op);
+        }
+        System.arraycopy(src, literalStart, dst, op, literalLength);
+        return op + literalLength;
+    }
+
+    private static int writeLength(int length, byte[] dst, int op) {
+        while (length >= 0xFF) {
+            dst[op++] = (byte) 0xFF;
+            length -= 0xFF;
+        }
+        dst[op++] = (byte) length;
+        return op;
+    }
+
+    private static int readInt(byte[] src, int pos) {
+        return (src[pos] & 0xFF) | (src[pos + 1] & 0xFF) << 8 | (src[pos + 2] & 0xFF) << 16 | (src[pos + 3] & 0xFF) << 24;
+    }
+
+    private static int hash(int sequence) {
+        return (sequence * -1640531535) >>> (32 - HASH_LOG);
+    }
+
+    private static IOException malformed() {
+        return new IOException("Malformed LZ4 block");
+    }
+}
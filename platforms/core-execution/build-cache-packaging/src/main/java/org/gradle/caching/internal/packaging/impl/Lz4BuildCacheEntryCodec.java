@@ -0,0 +1,209 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.caching.internal.packaging.impl;
+
+import org.gradle.caching.internal.packaging.BuildCacheEntryCodec;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Compresses build cache entries with LZ4, which compresses less than gzip, but decompresses several times faster.
+ *
+ * The data is split into blocks, each written as the uncompressed length, the stored length and the stored bytes.
+ * A block is stored uncompressed when compression does not make it smaller. A zero length block ends the stream.
+ */
+public class Lz4BuildCacheEntryCodec implements BuildCacheEntryCodec {
+    private static final int BLOCK_SIZE = 256 * 1024;
+
+    @Override
+    public String getName() {
+        return "lz4";
+    }
+
+    @Override
+    public OutputStream compress(OutputStream output) {
+        return new Lz4OutputStream(output);
+    }
+
+    @Override
+    public InputStream decompress(InputStream input) {
+        return new Lz4InputStream(input);
+    }
+
+    private static class Lz4OutputStream extends OutputStream {
+        private final DataOutputStream output;
+        private final Lz4Block compressor = new Lz4Block();
+        private final byte[] block = new byte[BLOCK_SIZE];
+        private final byte[] compressed = new byte[Lz4Block.maxCompressedLength(BLOCK_SIZE)];
+        private int blockLength;
+        private boolean closed;
+
+        public Lz4OutputStream(OutputStream output) {
+            this.output = new DataOutputStream(output);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (blockLength == BLOCK_SIZE) {
+                writeBlock();
+            }
+            block[blockLength++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            while (len > 0) {
+                if (blockLength == BLOCK_SIZE) {
+                    writeBlock();
+                }
+                int count = Math.min(len, BLOCK_SIZE - blockLength);
+                System.arraycopy(b, off, block, blockLength, count);
+                blockLength += count;
+                off += count;
+                len -= count;
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            writeBlock();
+            output.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                writeBlock();
+                output.writeInt(0);
+            } finally {
+                output.close();
+            }
+        }
+
+        private void writeBlock() throws IOException {
+            if (blockLength == 0) {
+                return;
+            }
+            int compressedLength = compressor.compress(block, blockLength, compressed);
+            output.writeInt(blockLength);
+            if (compressedLength < blockLength) {
+                output.writeInt(compressedLength);
+                output.write(compressed, 0, compressedLength);
+            } else {
+                output.writeInt(blockLength);
+                output.write(block, 0, blockLength);
+            }
+            blockLength = 0;
+        }
+    }
+
+    private static class Lz4InputStream extends InputStream {
+        private final DataInputStream input;
+        private final byte[] block = new byte[BLOCK_SIZE];
+        private final byte[] compressed = new byte[Lz4Block.maxCompressedLength(BLOCK_SIZE)];
+        private int blockLength;
+        private int position;
+        private boolean finished;
+
+        public Lz4InputStream(InputStream input) {
+            this.input = new DataInputStream(input);
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (!ensureAvailable()) {
+                return -1;
+            }
+            return block[position++] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (!ensureAvailable()) {
+                return -1;
+            }
+            int count = Math.min(len, blockLength - position);
+            System.arraycopy(block, position, b, off, count);
+            position += count;
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return blockLength - position;
+        }
+
+        @Override
+        public void close() throws IOException {
+            input.close();
+        }
+
+        private boolean ensureAvailable() throws IOException {
+            while (position == blockLength) {
+                if (finished) {
+                    return false;
+                }
+                readBlock();
+            }
+            return true;
+        }
+
+        private void readBlock() throws IOException {
+            int uncompressedLength = readLength(BLOCK_SIZE);
+            if (uncompressedLength == 0) {
+                finished = true;
+                return;
+            }
+            int storedLength = readLength(compressed.length);
+            if (storedLength == uncompressedLength) {
+                input.readFully(block, 0, uncompressedLength);
+            } else {
+                input.readFully(compressed, 0, storedLength);
+                if (Lz4Block.decompress(compressed, storedLength, block) != uncompressedLength) {
+                    throw new IOException("Malformed LZ4 block");
+                }
+            }
+            blockLength = uncompressedLength;
+            position = 0;
+        }
+
+        private int readLength(int max) throws IOException {
+            int length;
+            try {
+                length = input.readInt();
+            } catch (EOFException e) {
+                throw new EOFException("Unexpected end of LZ4 stream");
+            }
+            if (length < 0 || length > max) {
+                throw new IOException("Malformed LZ4 block");
+            }
+            return length;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.caching.internal.packaging.impl;
+
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * The subset of {@link org.apache.commons.compress.archivers.tar.TarArchiveOutputStream} used by {@link TarBuildCacheEntryPacker}.
+ */
+interface TarArchiveOutput extends Closeable {
+    void putArchiveEntry(TarArchiveEntry entry) throws IOException;
+
+    void write(byte[] contents) throws IOException;
+
+    /**
+     * Writes the contents of the given file as the contents of the current entry.
+     */
+    void writeFile(File file) throws IOException;
+
+    void closeArchiveEntry() throws IOException;
+}
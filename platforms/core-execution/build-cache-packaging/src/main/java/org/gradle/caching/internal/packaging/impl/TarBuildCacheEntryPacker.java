@@ -64,6 +64,8 @@
 import java.io.UnsupportedEncodingException;
 import java.net.URLDecoder;
 import java.net.URLEncoder;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
@@ -77,6 +79,12 @@
 
 /**
  * Packages build cache entries to a POSIX TAR file.
+ *
+ * When transferring file contents, regular files are written to the output channel with
+ * {@link java.nio.channels.FileChannel#transferTo(long, long, WritableByteChannel)} instead of being copied through the buffer of the packer.
+ * This is not a zero-copy path when the output is compressed: the compressing stage still reads every byte from the pipe.
+ * It only moves the copying out of the packing thread, so compression of the output should happen on a different thread.
+ * Packing does not hash the files, and unpacking hashes the files while copying them through a buffer.
  */
 public class TarBuildCacheEntryPacker implements BuildCacheEntryPacker {
 
@@ -98,6 +106,7 @@ private interface UnixPermissions {
     private final StreamHasher streamHasher;
     private final Interner<String> stringInterner;
     private final BufferProvider bufferProvider;
+    private final boolean transferFileContents;
 
     public TarBuildCacheEntryPacker(
         TarPackerFileSystemSupport fileSystemSupport,
@@ -105,33 +114,65 @@ public TarBuildCacheEntryPacker(
         StreamHasher streamHasher,
         Interner<String> stringInterner,
         BufferProvider bufferProvider
+    ) {
+        this(fileSystemSupport, filePermissionAccess, streamHasher, stringInterner, bufferProvider, false);
+    }
+
+    public TarBuildCacheEntryPacker(
+        TarPackerFileSystemSupport fileSystemSupport,
+        FilePermissionAccess filePermissionAccess,
+        StreamHasher streamHasher,
+        Interner<String> stringInterner,
+        BufferProvider bufferProvider,
+        boolean transferFileContents
     ) {
         this.fileSystemSupport = fileSystemSupport;
         this.filePermissionAccess = filePermissionAccess;
         this.streamHasher = streamHasher;
         this.stringInterner = stringInterner;
         this.bufferProvider = bufferProvider;
+        this.transferFileContents = transferFileContents;
     }
 
     @Override
     public PackResult pack(CacheableEntity entity, Map<String, ? extends FileSystemSnapshot> snapshots, OutputStream output, OriginWriter writeOrigin) throws IOException {
+        try (TarArchiveOutput tarOutput = openTarOutput(output)) {
+            packMetadata(writeOrigin, tarOutput);
+            long entryCount = pack(entity, snapshots, tarOutput);
+            return new PackResult(entryCount + 1);
+        }
+    }
+
+    private TarArchiveOutput openTarOutput(OutputStream output) {
+        if (transferFileContents) {
+            WritableByteChannel channel;
+            if (output instanceof FileOutputStream) {
+                channel = ((FileOutputStream) output).getChannel();
+            } else if (output instanceof ChannelOutputStream) {
+                channel = ((ChannelOutputStream) output).getChannel();
+            } else {
+                channel = Channels.newChannel(output);
+            }
+            return new TransferringTarArchiveOutput(channel);
+        }
         BufferedOutputStream bufferedOutput;
         if (output instanceof BufferedOutputStream) {
             bufferedOutput = (BufferedOutputStream) output;
         } else {
             bufferedOutput = new BufferedOutputStream(output);
         }
-        try (TarArchiveOutputStream tarOutput = new TarArchiveOutputStream(bufferedOutput, ENCODING.name())) {
-            tarOutput.setLongFileMode(TarArchiveOutputStream.LONGFILE_POSIX);
-            tarOutput.setBigNumberMode(TarArchiveOutputStream.BIGNUMBER_POSIX);
-            tarOutput.setAddPaxHeadersForNonAsciiNames(true);
-            packMetadata(writeOrigin, tarOutput);
-            long entryCount = pack(entity, snapshots, tarOutput);
-            return new PackResult(entryCount + 1);
-        }
+        return new StreamingTarArchiveOutput(createTarOutputStream(bufferedOutput), bufferProvider);
+    }
+
+    static TarArchiveOutputStream createTarOutputStream(OutputStream output) {
+        TarArchiveOutputStream tarOutput = new TarArchiveOutputStream(output, ENCODING.name());
+        tarOutput.setLongFileMode(TarArchiveOutputStream.LONGFILE_POSIX);
+        tarOutput.setBigNumberMode(TarArchiveOutputStream.BIGNUMBER_POSIX);
+        tarOutput.setAddPaxHeadersForNonAsciiNames(true);
+        return tarOutput;
     }
 
-    private static void packMetadata(OriginWriter writeMetadata, TarArchiveOutputStream tarOutput) throws IOException {
+    private static void packMetadata(OriginWriter writeMetadata, TarArchiveOutput tarOutput) throws IOException {
         ByteArrayOutputStream output = new ByteArrayOutputStream();
         writeMetadata.execute(output);
         createTarEntry(METADATA_PATH, output.size(), UnixPermissions.FILE_FLAG | UnixPermissions.DEFAULT_FILE_PERM, tarOutput);
@@ -139,7 +180,7 @@ private static void packMetadata(OriginWriter writeMetadata, TarArchiveOutputStr
         tarOutput.closeArchiveEntry();
     }
 
-    private long pack(CacheableEntity entity, Map<String, ? extends FileSystemSnapshot> snapshots, TarArchiveOutputStream tarOutput) {
+    private long pack(CacheableEntity entity, Map<String, ? extends FileSystemSnapshot> snapshots, TarArchiveOutput tarOutput) {
         AtomicLong entries = new AtomicLong();
         entity.visitOutputTrees((treeName, type, root) -> {
             FileSystemSnapshot treeSnapshots = snapshots.get(treeName);
@@ -153,13 +194,13 @@ private long pack(CacheableEntity entity, Map<String, ? extends FileSystemSnapsh
         return entries.get();
     }
 
-    private long packTree(String name, TreeType type, FileSystemSnapshot snapshots, TarArchiveOutputStream tarOutput) {
+    private long packTree(String name, TreeType type, FileSystemSnapshot snapshots, TarArchiveOutput tarOutput) {
         PackingVisitor packingVisitor = new PackingVisitor(tarOutput, name, type);
         snapshots.accept(new RelativePathTracker(), packingVisitor);
         return packingVisitor.getPackedEntryCount();
     }
 
-    private static void createTarEntry(String path, long size, int mode, TarArchiveOutputStream tarOutput) throws IOException {
+    private static void createTarEntry(String path, long size, int mode, TarArchiveOutput tarOutput) throws IOException {
         TarArchiveEntry entry = new TarArchiveEntry(path, true);
         entry.setSize(size);
         entry.setMode(mode);
@@ -343,14 +384,14 @@ private static String unescape(String name) {
     }
 
     private class PackingVisitor implements RelativePathTrackingFileSystemSnapshotHierarchyVisitor {
-        private final TarArchiveOutputStream tarOutput;
+        private final TarArchiveOutput tarOutput;
         private final String treePath;
         private final String treeRoot;
         private final TreeType type;
 
         private long packedEntryCount;
 
-        public PackingVisitor(TarArchiveOutputStream tarOutput, String treeName, TreeType type) {
+        public PackingVisitor(TarArchiveOutput tarOutput, String treeName, TreeType type) {
             this.tarOutput = tarOutput;
             this.treePath = "tree-" + escape(treeName);
             this.treeRoot = treePath + "/";
@@ -375,7 +416,7 @@ public void visitRegularFile(RegularFileSnapshot fileSnapshot) {
                     assertCorrectType(isRoot, snapshot);
                     File file = new File(snapshot.getAbsolutePath());
                     int fileMode = filePermissionAccess.getUnixMode(file);
-                    storeFileEntry(file, targetPath, file.length(), fileMode, tarOutput);
+                    storeFileEntry(file, targetPath, fileMode, tarOutput);
                 }
 
                 @Override
@@ -419,7 +460,7 @@ private String getTargetPath(RelativePathSupplier relativePath) {
                 : treeRoot + relativePath.toRelativePath();
         }
 
-        private void storeMissingTree(String treePath, TarArchiveOutputStream tarOutput) {
+        private void storeMissingTree(String treePath, TarArchiveOutput tarOutput) {
             try {
                 createTarEntry("missing-" + treePath, 0, UnixPermissions.FILE_FLAG | UnixPermissions.DEFAULT_FILE_PERM, tarOutput);
                 tarOutput.closeArchiveEntry();
@@ -428,7 +469,7 @@ private void storeMissingTree(String treePath, TarArchiveOutputStream tarOutput)
             }
         }
 
-        private void storeDirectoryEntry(String path, int mode, TarArchiveOutputStream tarOutput) {
+        private void storeDirectoryEntry(String path, int mode, TarArchiveOutput tarOutput) {
             try {
                 createTarEntry(path + "/", 0, UnixPermissions.DIR_FLAG | mode, tarOutput);
                 tarOutput.closeArchiveEntry();
@@ -437,16 +478,51 @@ private void storeDirectoryEntry(String path, int mode, TarArchiveOutputStream t
             }
         }
 
-        private void storeFileEntry(File inputFile, String path, long size, int mode, TarArchiveOutputStream tarOutput) {
+        private void storeFileEntry(File inputFile, String path, int mode, TarArchiveOutput tarOutput) {
             try {
-                createTarEntry(path, size, UnixPermissions.FILE_FLAG | mode, tarOutput);
-                try (FileInputStream input = new FileInputStream(inputFile)) {
-                    IOUtils.copyLarge(input, tarOutput, bufferProvider.getBuffer());
-                }
+                createTarEntry(path, inputFile.length(), UnixPermissions.FILE_FLAG | mode, tarOutput);
+                tarOutput.writeFile(inputFile);
                 tarOutput.closeArchiveEntry();
             } catch (IOException e) {
                 throw new UncheckedIOException(e);
             }
         }
     }
+
+    private static class StreamingTarArchiveOutput implements TarArchiveOutput {
+        private final TarArchiveOutputStream tarOutput;
+        private final BufferProvider bufferProvider;
+
+        public StreamingTarArchiveOutput(TarArchiveOutputStream tarOutput, BufferProvider bufferProvider) {
+            this.tarOutput = tarOutput;
+            this.bufferProvider = bufferProvider;
+        }
+
+        @Override
+        public void putArchiveEntry(TarArchiveEntry entry) throws IOException {
+            tarOutput.putArchiveEntry(entry);
+        }
+
+        @Override
+        public void write(byte[] contents) throws IOException {
+            tarOutput.write(contents);
+        }
+
+        @Override
+        public void writeFile(File file) throws IOException {
+            try (FileInputStream input = new FileInputStream(file)) {
+                IOUtils.copyLarge(input, tarOutput, bufferProvider.getBuffer());
+            }
+        }
+
+        @Override
+        public void closeArchiveEntry() throws IOException {
+            tarOutput.closeArchiveEntry();
+        }
+
+        @Override
+        public void close() throws IOException {
+            tarOutput.close();
+        }
+    }
 }
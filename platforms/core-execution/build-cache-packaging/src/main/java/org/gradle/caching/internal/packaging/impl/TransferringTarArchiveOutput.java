@@ -0,0 +1,133 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.caching.internal.packaging.impl;
+
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.apache.commons.compress.archivers.tar.TarConstants;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes a TAR archive to a channel, transferring the contents of regular files with
+ * {@link FileChannel#transferTo(long, long, WritableByteChannel)}. How the bytes are copied depends on the target channel,
+ * the JDK only hands the copy to the operating system when the target is a file, a socket or a pipe.
+ *
+ * Entry headers are still rendered by commons-compress, so the archive is byte for byte the same as
+ * the one written by {@link TarArchiveOutputStream}.
+ */
+class TransferringTarArchiveOutput implements TarArchiveOutput {
+    private static final int RECORD_SIZE = TarConstants.DEFAULT_RCDSIZE;
+    private static final byte[] ZEROS = new byte[2 * RECORD_SIZE];
+
+    private final WritableByteChannel channel;
+    private final ByteArrayOutputStream headerBuffer = new ByteArrayOutputStream(2 * RECORD_SIZE);
+    private boolean haveUnclosedEntry;
+    private String currentName;
+    private long currentSize;
+    private long currentBytes;
+
+    public TransferringTarArchiveOutput(WritableByteChannel channel) {
+        this.channel = channel;
+    }
+
+    @Override
+    public void putArchiveEntry(TarArchiveEntry entry) throws IOException {
+        if (haveUnclosedEntry) {
+            throw new IllegalStateException("Cannot put an archive entry before closing the previous one");
+        }
+        // Every header, including PAX extended headers, consists of whole records, so everything has been written to the buffer once the entry is put
+        headerBuffer.reset();
+        @SuppressWarnings("resource")
+        TarArchiveOutputStream headerOutput = TarBuildCacheEntryPacker.createTarOutputStream(headerBuffer);
+        headerOutput.putArchiveEntry(entry);
+        writeFully(ByteBuffer.wrap(headerBuffer.toByteArray()));
+
+        haveUnclosedEntry = true;
+        currentName = entry.getName();
+        currentSize = entry.getSize();
+        currentBytes = 0;
+    }
+
+    @Override
+    public void write(byte[] contents) throws IOException {
+        checkRemaining(contents.length);
+        writeFully(ByteBuffer.wrap(contents));
+        currentBytes += contents.length;
+    }
+
+    @Override
+    public void writeFile(File file) throws IOException {
+        try (FileChannel input = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long count = input.size();
+            checkRemaining(count);
+            long position = 0;
+            while (position < count) {
+                long transferred = input.transferTo(position, count - position, channel);
+                if (transferred <= 0 && position >= input.size()) {
+                    throw new IOException(String.format("File '%s' was truncated while being packed", file));
+                }
+                position += transferred;
+            }
+            currentBytes += count;
+        }
+    }
+
+    @Override
+    public void closeArchiveEntry() throws IOException {
+        if (!haveUnclosedEntry) {
+            throw new IllegalStateException("No current entry to close");
+        }
+        if (currentBytes < currentSize) {
+            throw new IOException(String.format("Entry '%s' declared size '%d' bytes, but only '%d' bytes were written", currentName, currentSize, currentBytes));
+        }
+        int padding = (int) ((RECORD_SIZE - currentSize % RECORD_SIZE) % RECORD_SIZE);
+        writeFully(ByteBuffer.wrap(ZEROS, 0, padding));
+        haveUnclosedEntry = false;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (haveUnclosedEntry) {
+                throw new IOException("This archive contains unclosed entries.");
+            }
+            // End of archive marker, the same as written by TarArchiveOutputStream
+            writeFully(ByteBuffer.wrap(ZEROS));
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void checkRemaining(long count) throws IOException {
+        if (currentBytes + count > currentSize) {
+            throw new IOException(String.format("Request to write '%d' bytes exceeds size in header of '%d' bytes for entry '%s'", count, currentSize, currentName));
+        }
+    }
+
+    private void writeFully(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.caching.internal.packaging.impl
+
+import org.gradle.api.internal.file.TestFiles
+import org.gradle.internal.file.Deleter
+import org.gradle.internal.hash.Hashing
+import org.gradle.internal.nativeintegration.filesystem.FileSystem
+
+import java.util.zip.GZIPInputStream
+
+import static org.gradle.internal.file.TreeType.DIRECTORY
+
+class CompressingBuildCacheEntryPackerTest extends AbstractTarBuildCacheEntryPackerSpec {
+    def tarPacker = packer
+
+    @Override
+    protected FilePermissionAccess createFilePermissionAccess() {
+        new FilePermissionAccess() {
+            @Delegate
+            FileSystem fs = TestFiles.fileSystem()
+        }
+    }
+
+    @Override
+    protected Deleter createDeleter() {
+        TestFiles.deleter()
+    }
+
+    def "stores gzip entries without header"() {
+        def sourceOutputDir = temporaryFolder.file("source").createDir()
+        sourceOutputDir.file("output.txt") << "output"
+        def output = new ByteArrayOutputStream()
+        packer = new CompressingBuildCacheEntryPacker(tarPacker)
+
+        when:
+        pack output, prop(DIRECTORY, sourceOutputDir)
+
+        then:
+        // Readable as plain gzip, like entries stored by older Gradle versions
+        new GZIPInputStream(new ByteArrayInputStream(output.toByteArray())).bytes.length > 0
+    }
+
+    def "stores gzip entries under the cache key"() {
+        def cacheKey = Hashing.hashString("key")
+        packer = new CompressingBuildCacheEntryPacker(tarPacker)
+
+        expect:
+        packer.getEntryKey(cacheKey) == cacheKey
+    }
+
+    def "stores lz4 entries under a different key, so that older Gradle versions do not load them"() {
+        def cacheKey = Hashing.hashString("key")
+        packer = new CompressingBuildCacheEntryPacker(tarPacker, { BuildCacheEntryCodecs.LZ4 }, null)
+
+        expect:
+        packer.getEntryKey(cacheKey) != cacheKey
+        packer.getEntryKey(cacheKey) == packer.getEntryKey(cacheKey)
+        packer.getEntryKey(cacheKey) != packer.getEntryKey(Hashing.hashString("other key"))
+    }
+
+    def "loads entries stored with #storeCodec.name when configured to use #loadCodec.name"() {
+        def sourceOutputDir = temporaryFolder.file("source").createDir()
+        sourceOutputDir.file("output.txt") << "output"
+        sourceOutputDir.file("dir/data.txt") << ("data" * 10_000)
+        def targetOutputDir = temporaryFolder.file("target")
+        def output = new ByteArrayOutputStream()
+
+        when:
+        packer = new CompressingBuildCacheEntryPacker(tarPacker, { storeCodec }, null)
+        pack output, prop(DIRECTORY, sourceOutputDir)
+        packer = new CompressingBuildCacheEntryPacker(tarPacker, { loadCodec }, null)
+        unpack new ByteArrayInputStream(output.toByteArray()), prop(DIRECTORY, targetOutputDir)
+
+        then:
+        targetOutputDir.file("output.txt").text == "output"
+        targetOutputDir.file("dir/data.txt").text == "data" * 10_000
+
+        where:
+        storeCodec                 | loadCodec
+        BuildCacheEntryCodecs.GZIP | BuildCacheEntryCodecs.GZIP
+        BuildCacheEntryCodecs.GZIP | BuildCacheEntryCodecs.LZ4
+        BuildCacheEntryCodecs.LZ4  | BuildCacheEntryCodecs.GZIP
+        BuildCacheEntryCodecs.LZ4  | BuildCacheEntryCodecs.LZ4
+    }
+
+    def "fails to load entry with unknown compression"() {
+        def output = new ByteArrayOutputStream()
+        def header = new DataOutputStream(output)
+        header.write(['G', 'C', 'E', 1] as byte[])
+        header.writeUTF("bzip2")
+        packer = new CompressingBuildCacheEntryPacker(tarPacker)
+
+        when:
+        unpack new ByteArrayInputStream(output.toByteArray()), prop(DIRECTORY, temporaryFolder.file("target"))
+
+        then:
+        def ex = thrown IllegalStateException
+        ex.message == "Cached entry format error, unknown compression 'bzip2'."
+    }
+
+    def "fails to load entry with unknown header"() {
+        packer = new CompressingBuildCacheEntryPacker(tarPacker)
+
+        when:
+        unpack new ByteArrayInputStream("some junk".bytes), prop(DIRECTORY, temporaryFolder.file("target"))
+
+        then:
+        def ex = thrown IllegalStateException
+        ex.message == "Cached entry format error, unknown compression header."
+    }
+}
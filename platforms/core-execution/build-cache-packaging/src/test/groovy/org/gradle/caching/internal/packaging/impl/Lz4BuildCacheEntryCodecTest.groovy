@@ -0,0 +1,94 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.caching.internal.packaging.impl
+
+import spock.lang.Specification
+
+class Lz4BuildCacheEntryCodecTest extends Specification {
+    def codec = new Lz4BuildCacheEntryCodec()
+
+    def "round-trips #type data"() {
+        when:
+        def compressed = compress(data)
+
+        then:
+        decompress(compressed) == data
+
+        where:
+        type                  | data
+        "empty"               | new byte[0]
+        "short"               | "abc".bytes
+        "random"              | randomBytes(1_000_000)
+        "repeating"           | ("repeating" * 100_000).bytes
+        "single byte"         | new byte[300_000]
+        "partially repeating" | partiallyRepeating(1_000_000)
+    }
+
+    def "compresses repeating data"() {
+        expect:
+        compress(("repeating" * 100_000).bytes).length < 10_000
+    }
+
+    def "detects truncated stream"() {
+        def compressed = compress(partiallyRepeating(1_000_000))
+
+        when:
+        decompress(Arrays.copyOf(compressed, compressed.length - 10))
+
+        then:
+        thrown(EOFException)
+    }
+
+    def "detects corrupted block"() {
+        def compressed = compress(("repeating" * 1000).bytes)
+        // Make the first match point before the start of the block
+        compressed[8 + 1 + 9] = (byte) 0xff
+        compressed[8 + 1 + 9 + 1] = (byte) 0xff
+
+        when:
+        decompress(compressed)
+
+        then:
+        def ex = thrown(IOException)
+        ex.message == "Malformed LZ4 block"
+    }
+
+    private byte[] compress(byte[] data) {
+        def output = new ByteArrayOutputStream()
+        codec.compress(output).withCloseable { it.write(data) }
+        return output.toByteArray()
+    }
+
+    private byte[] decompress(byte[] data) {
+        codec.decompress(new ByteArrayInputStream(data)).withCloseable { it.bytes }
+    }
+
+    private static byte[] randomBytes(int count) {
+        def bytes = new byte[count]
+        new Random(count).nextBytes(bytes)
+        return bytes
+    }
+
+    private static byte[] partiallyRepeating(int count) {
+        def random = new Random(count)
+        def bytes = new byte[count]
+        for (int i = 0; i < count; i++) {
+            bytes[i] = i > 100 && random.nextInt(8) > 0 ? bytes[i - 1 - random.nextInt(100)] : (byte) random.nextInt()
+        }
+        return bytes
+    }
+}
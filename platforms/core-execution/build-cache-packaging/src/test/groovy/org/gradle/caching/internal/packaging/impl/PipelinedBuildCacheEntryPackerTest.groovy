@@ -0,0 +1,179 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.caching.internal.packaging.impl
+
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream
+import org.gradle.api.internal.file.TestFiles
+import org.gradle.internal.file.BufferProvider
+import org.gradle.internal.file.Deleter
+import org.gradle.internal.hash.Hashing
+import org.gradle.internal.nativeintegration.filesystem.FileSystem
+import org.gradle.internal.snapshot.FileSystemSnapshot
+
+import java.nio.channels.FileChannel
+import java.nio.file.StandardOpenOption
+import java.util.concurrent.Executors
+import java.util.zip.GZIPInputStream
+
+import static org.gradle.internal.file.TreeType.DIRECTORY
+import static org.gradle.internal.file.TreeType.FILE
+
+class PipelinedBuildCacheEntryPackerTest extends AbstractTarBuildCacheEntryPackerSpec {
+    def transferringPacker = new TarBuildCacheEntryPacker(fileSystemSupport, filePermissionAccess, streamHasher, stringInterner, Stub(BufferProvider) {
+        getBuffer() >> new byte[4096]
+    }, true)
+
+    @Override
+    protected FilePermissionAccess createFilePermissionAccess() {
+        new FilePermissionAccess() {
+            @Delegate
+            FileSystem fs = TestFiles.fileSystem()
+        }
+    }
+
+    @Override
+    protected Deleter createDeleter() {
+        TestFiles.deleter()
+    }
+
+    def "transferring file contents produces the same archive as streaming them to #outputType"() {
+        def sourceOutputDir = createOutputs()
+        def sourceOutputFile = temporaryFolder.file("source.bin")
+        sourceOutputFile.bytes = randomBytes(100_000)
+        def streamed = temporaryFolder.file("streamed.tar")
+        def transferred = temporaryFolder.file("transferred.tar")
+
+        when:
+        streamed.withOutputStream { pack it, prop("dir", DIRECTORY, sourceOutputDir), prop("file", FILE, sourceOutputFile) }
+        packer = transferringPacker
+        openOutput(transferred).withCloseable { pack it, prop("dir", DIRECTORY, sourceOutputDir), prop("file", FILE, sourceOutputFile) }
+
+        then:
+        transferred.length() == streamed.length()
+        entries(new FileInputStream(transferred)) == entries(new FileInputStream(streamed))
+
+        where:
+        outputType  | openOutput
+        "a file"    | { File file -> new FileOutputStream(file) }
+        "a channel" | { File file -> new ChannelOutputStream(FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE)) }
+        "a stream"  | { File file -> new BufferedOutputStream(new FileOutputStream(file)) }
+    }
+
+    def "can pack and unpack with compression on a separate thread"() {
+        def sourceOutputDir = createOutputs()
+        def targetOutputDir = temporaryFolder.file("target")
+        def executor = Executors.newCachedThreadPool()
+        def pipelinedPacker = new CompressingBuildCacheEntryPacker(transferringPacker, { BuildCacheEntryCodecs.GZIP }, executor)
+        def output = new ByteArrayOutputStream()
+
+        when:
+        def packResult = pipelinedPacker.pack(entity(prop(DIRECTORY, sourceOutputDir)), snapshotsOf(sourceOutputDir), output, writeOrigin)
+
+        then:
+        entries(new GZIPInputStream(new ByteArrayInputStream(output.toByteArray()))).size() == packResult.entries
+
+        when:
+        def unpackResult = new CompressingBuildCacheEntryPacker(packer).unpack(entity(prop(DIRECTORY, targetOutputDir)), new ByteArrayInputStream(output.toByteArray()), readOrigin)
+        def pipelinedUnpackResult = pipelinedPacker.unpack(entity(prop(DIRECTORY, targetOutputDir)), new ByteArrayInputStream(output.toByteArray()), readOrigin)
+
+        then:
+        unpackResult.entries == packResult.entries
+        pipelinedUnpackResult.entries == packResult.entries
+        pipelinedUnpackResult.snapshots["test"].hash == unpackResult.snapshots["test"].hash
+        sourceOutputDir.file("dir2/file2.bin").bytes == targetOutputDir.file("dir2/file2.bin").bytes
+
+        cleanup:
+        pipelinedPacker?.close()
+        executor.shutdownNow()
+    }
+
+    def "reports failure to compress"() {
+        def sourceOutputDir = createOutputs()
+        def executor = Executors.newCachedThreadPool()
+        def pipelinedPacker = new CompressingBuildCacheEntryPacker(transferringPacker, { BuildCacheEntryCodecs.GZIP }, executor)
+        def output = new OutputStream() {
+            @Override
+            void write(int b) throws IOException {
+                throw new IOException("No space left on device")
+            }
+        }
+
+        when:
+        pipelinedPacker.pack(entity(prop(DIRECTORY, sourceOutputDir)), snapshotsOf(sourceOutputDir), output, writeOrigin)
+
+        then:
+        def e = thrown(IOException)
+        e.message == "No space left on device"
+
+        cleanup:
+        pipelinedPacker?.close()
+        executor.shutdownNow()
+    }
+
+    def "reports corrupted compressed entry"() {
+        def sourceOutputDir = createOutputs()
+        def executor = Executors.newCachedThreadPool()
+        def pipelinedPacker = new CompressingBuildCacheEntryPacker(transferringPacker, { BuildCacheEntryCodecs.GZIP }, executor)
+        def output = new ByteArrayOutputStream()
+        pipelinedPacker.pack(entity(prop(DIRECTORY, sourceOutputDir)), snapshotsOf(sourceOutputDir), output, writeOrigin)
+        def truncated = Arrays.copyOf(output.toByteArray(), output.size().intdiv(2) as int)
+
+        when:
+        pipelinedPacker.unpack(entity(prop(DIRECTORY, temporaryFolder.file("target"))), new ByteArrayInputStream(truncated), readOrigin)
+
+        then:
+        thrown(EOFException)
+
+        cleanup:
+        pipelinedPacker?.close()
+        executor.shutdownNow()
+    }
+
+    private File createOutputs() {
+        def sourceOutputDir = temporaryFolder.file("source").createDir()
+        (0..<3).each { dir ->
+            (0..<3).each { file ->
+                sourceOutputDir.file("dir$dir/file${file}.bin").bytes = randomBytes(dir * 50_000 + file * 1_000)
+            }
+        }
+        sourceOutputDir.file("long-" + ("x" * 120) + ".txt") << "long name"
+        sourceOutputDir.file("Dezső.txt") << "unicode name"
+        sourceOutputDir.file("empty").createDir()
+        return sourceOutputDir
+    }
+
+    private Map<String, FileSystemSnapshot> snapshotsOf(File root) {
+        ["test": fileSystemAccess.read(root.absolutePath)]
+    }
+
+    private static byte[] randomBytes(int count) {
+        def bytes = new byte[count]
+        new Random(count).nextBytes(bytes)
+        return bytes
+    }
+
+    private static List<String> entries(InputStream input) {
+        def result = []
+        new TarArchiveInputStream(input, "UTF-8").withCloseable { tarInput ->
+            def entry
+            while ((entry = tarInput.nextEntry) != null) {
+                result << "${entry.name} ${entry.mode} ${entry.size} ${Hashing.hashStream(tarInput)}".toString()
+            }
+        }
+        return result
+    }
+}
@@ -21,6 +21,9 @@
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
@@ -80,6 +83,11 @@ public InputStream openInput() throws IOException {
             return AbstractFileAccessor.this.openInput(path);
         }
 
+        @Override
+        public ReadableByteChannel openChannel() throws IOException {
+            return FileChannel.open(path, StandardOpenOption.READ);
+        }
+
         @Override
         public long getLength() throws IOException {
             return Files.size(path);
@@ -103,6 +111,11 @@ public OutputStream openOutput() throws IOException {
             return AbstractFileAccessor.this.openOutput(path);
         }
 
+        @Override
+        public WritableByteChannel openChannel() throws IOException {
+            return FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        }
+
         @Override
         public DataSource toSource() throws IOException {
             return new Source(path);
@@ -52,6 +52,7 @@ public abstract class AbstractTaskOutputPackagingBenchmark {
         .put("tar", new CommonsTarPacker(4))
         .put("tar.commons", new CommonsTarPacker(4))
         .put("tar.jtar", new JTarPacker(4))
+        .put("tar.transfer", new TransferTarPacker())
         .put("tar.small", new CommonsTarPacker(2))
         .put("tar.large", new CommonsTarPacker(64))
         .put("tar.gz", new GzipPacker(new CommonsTarPacker(4)))
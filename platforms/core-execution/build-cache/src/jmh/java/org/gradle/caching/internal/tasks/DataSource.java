@@ -18,8 +18,10 @@
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.channels.ReadableByteChannel;
 
 public interface DataSource extends DataItem {
     InputStream openInput() throws IOException;
+    ReadableByteChannel openChannel() throws IOException;
     long getLength() throws IOException;
 }
@@ -18,8 +18,10 @@
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.channels.WritableByteChannel;
 
 public interface DataTarget extends DataItem {
     OutputStream openOutput() throws IOException;
+    WritableByteChannel openChannel() throws IOException;
     DataSource toSource() throws IOException;
 }
@@ -18,6 +18,8 @@
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
 
 public abstract class DelegatingDataSource implements DataSource {
     private final DataSource delegate;
@@ -31,6 +33,11 @@ public InputStream openInput() throws IOException {
         return delegate.openInput();
     }
 
+    @Override
+    public ReadableByteChannel openChannel() throws IOException {
+        return Channels.newChannel(openInput());
+    }
+
     @Override
     public long getLength() throws IOException {
         return delegate.getLength();
@@ -18,6 +18,8 @@
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
 
 public abstract class DelegatingDataTarget implements DataTarget {
     private final DataTarget delegate;
@@ -31,6 +33,11 @@ public OutputStream openOutput() throws IOException {
         return delegate.openOutput();
     }
 
+    @Override
+    public WritableByteChannel openChannel() throws IOException {
+        return Channels.newChannel(openOutput());
+    }
+
     @Override
     public DataSource toSource() throws IOException {
         return delegate.toSource();
@@ -23,6 +23,9 @@
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
 
 public class InMemoryDataAccessor implements DataAccessor {
     @Override
@@ -64,6 +67,11 @@ public InputStream openInput() throws IOException {
             return new ByteArrayInputStream(data);
         }
 
+        @Override
+        public ReadableByteChannel openChannel() throws IOException {
+            return Channels.newChannel(openInput());
+        }
+
         @Override
         public long getLength() throws IOException {
             return data.length;
@@ -88,6 +96,11 @@ public OutputStream openOutput() throws IOException {
             return data;
         }
 
+        @Override
+        public WritableByteChannel openChannel() throws IOException {
+            return Channels.newChannel(openOutput());
+        }
+
         @Override
         public DataSource toSource() throws IOException {
             return new Source(name, data.toByteArray());
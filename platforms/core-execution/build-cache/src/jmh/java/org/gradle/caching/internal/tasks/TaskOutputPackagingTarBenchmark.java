@@ -19,7 +19,7 @@
 import org.openjdk.jmh.annotations.Param;
 
 public class TaskOutputPackagingTarBenchmark extends AbstractTaskOutputPackagingBenchmark {
-    @Param({"tar", "tar.commons", "tar.jtar"})
+    @Param({"tar", "tar.commons", "tar.jtar", "tar.transfer"})
     String packer;
 
     @Param({"direct", "buffered"})
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.caching.internal.tasks;
+
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarConstants;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Writes and reads TAR files with {@link FileChannel#transferTo(long, long, WritableByteChannel)} and
+ * {@link FileChannel#transferFrom(ReadableByteChannel, long, long)}, so file contents are not copied through the heap.
+ */
+public class TransferTarPacker implements Packer {
+    private static final int RECORD_SIZE = TarConstants.DEFAULT_RCDSIZE;
+    private static final byte[] ZEROS = new byte[RECORD_SIZE];
+
+    @Override
+    public void pack(List<DataSource> inputs, DataTarget output) throws IOException {
+        try (WritableByteChannel tarOutput = output.openChannel()) {
+            for (DataSource input : inputs) {
+                long length = input.getLength();
+                TarArchiveEntry entry = new TarArchiveEntry(input.getName());
+                entry.setSize(length);
+                byte[] header = new byte[RECORD_SIZE];
+                entry.writeEntryHeader(header);
+                writeFully(ByteBuffer.wrap(header), tarOutput);
+                try (ReadableByteChannel inputChannel = input.openChannel()) {
+                    transfer(inputChannel, tarOutput, length);
+                }
+                writeFully(ByteBuffer.wrap(ZEROS, 0, paddingFor(length)), tarOutput);
+            }
+            // End of archive marker
+            writeFully(ByteBuffer.wrap(ZEROS), tarOutput);
+            writeFully(ByteBuffer.wrap(ZEROS), tarOutput);
+        }
+    }
+
+    @Override
+    public void unpack(DataSource input, DataTargetFactory targetFactory) throws IOException {
+        try (ReadableByteChannel tarInput = input.openChannel()) {
+            ByteBuffer header = ByteBuffer.allocate(RECORD_SIZE);
+            while (true) {
+                header.clear();
+                readFully(header, tarInput);
+                if (Arrays.equals(header.array(), ZEROS)) {
+                    break;
+                }
+                TarArchiveEntry entry = new TarArchiveEntry(header.array());
+                long length = entry.getSize();
+                try (WritableByteChannel outputChannel = targetFactory.createDataTarget(entry.getName()).openChannel()) {
+                    transfer(tarInput, outputChannel, length);
+                }
+                readFully(ByteBuffer.allocate(paddingFor(length)), tarInput);
+            }
+        }
+    }
+
+    private static void transfer(ReadableByteChannel input, WritableByteChannel output, long length) throws IOException {
+        long position = 0;
+        while (position < length) {
+            long transferred;
+            if (input instanceof FileChannel) {
+                FileChannel inputFile = (FileChannel) input;
+                transferred = inputFile.transferTo(inputFile.position(), length - position, output);
+                inputFile.position(inputFile.position() + transferred);
+            } else if (output instanceof FileChannel) {
+                transferred = ((FileChannel) output).transferFrom(input, position, length - position);
+            } else {
+                ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(length - position, 64 * 1024));
+                readFully(buffer, input);
+                writeFully(buffer, output);
+                transferred = buffer.limit();
+            }
+            if (transferred <= 0) {
+                throw new IOException("Unexpected end of input");
+            }
+            position += transferred;
+        }
+    }
+
+    private static int paddingFor(long length) {
+        return (int) ((RECORD_SIZE - length % RECORD_SIZE) % RECORD_SIZE);
+    }
+
+    private static void readFully(ByteBuffer buffer, ReadableByteChannel input) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (input.read(buffer) < 0) {
+                throw new IOException("Unexpected end of input");
+            }
+        }
+        buffer.flip();
+    }
+
+    private static void writeFully(ByteBuffer buffer, WritableByteChannel output) throws IOException {
+        while (buffer.hasRemaining()) {
+            output.write(buffer);
+        }
+    }
+}
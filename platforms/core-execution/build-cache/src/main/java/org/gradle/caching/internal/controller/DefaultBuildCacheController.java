@@ -24,6 +24,7 @@
 import org.gradle.caching.BuildCacheService;
 import org.gradle.caching.internal.BuildCacheKeyInternal;
 import org.gradle.caching.internal.CacheableEntity;
+import org.gradle.caching.internal.SimpleBuildCacheKey;
 import org.gradle.caching.internal.controller.operations.PackOperationDetails;
 import org.gradle.caching.internal.controller.operations.PackOperationResult;
 import org.gradle.caching.internal.controller.operations.UnpackOperationDetails;
@@ -36,6 +37,7 @@
 import org.gradle.caching.internal.controller.service.NullRemoteBuildCacheServiceHandle;
 import org.gradle.caching.internal.controller.service.OpFiringLocalBuildCacheServiceHandle;
 import org.gradle.caching.internal.controller.service.OpFiringRemoteBuildCacheServiceHandle;
+import org.gradle.caching.internal.controller.service.QueueingRemoteBuildCacheServiceHandle;
 import org.gradle.caching.internal.controller.service.RemoteBuildCacheServiceHandle;
 import org.gradle.caching.internal.origin.OriginMetadata;
 import org.gradle.caching.internal.origin.OriginMetadataFactory;
@@ -68,6 +70,7 @@
 import java.time.Duration;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.atomic.AtomicReference;
 
 public class DefaultBuildCacheController implements BuildCacheController {
@@ -79,6 +82,7 @@ public class DefaultBuildCacheController implements BuildCacheController {
     final LocalBuildCacheServiceHandle local;
 
     private final BuildCacheTempFileStore tmp;
+    private final BuildCacheEntryPacker packer;
     private final PackOperationExecutor packExecutor;
 
     private boolean closed;
@@ -93,10 +97,35 @@ public DefaultBuildCacheController(
         BuildCacheEntryPacker packer,
         OriginMetadataFactory originMetadataFactory,
         Interner<String> stringInterner
+    ) {
+        this(config, buildOperationRunner, buildOperationProgressEventEmitter, temporaryFileFactory, logStackTraces, disableRemoteOnError, packer, originMetadataFactory, stringInterner, null, 0);
+    }
+
+    /**
+     * Creates a controller that can store remote entries in the background using the given executor.
+     * The executor is shut down when the controller is closed. At most {@code maxPendingRemoteStoreBytes} are queued to be stored at a time.
+     */
+    public DefaultBuildCacheController(
+        BuildCacheServicesConfiguration config,
+        BuildOperationRunner buildOperationRunner,
+        BuildOperationProgressEventEmitter buildOperationProgressEventEmitter,
+        TemporaryFileFactory temporaryFileFactory,
+        boolean logStackTraces,
+        boolean disableRemoteOnError,
+        BuildCacheEntryPacker packer,
+        OriginMetadataFactory originMetadataFactory,
+        Interner<String> stringInterner,
+        @Nullable ExecutorService remoteStoreExecutor,
+        long maxPendingRemoteStoreBytes
     ) {
         this.local = toLocalHandle(config.getLocal(), config.isLocalPush(), buildOperationRunner);
-        this.remote = toRemoteHandle(config.getBuildPath(), config.getRemote(), config.isRemotePush(), buildOperationRunner, buildOperationProgressEventEmitter, logStackTraces, disableRemoteOnError);
+        RemoteBuildCacheServiceHandle remote = toRemoteHandle(config.getBuildPath(), config.getRemote(), config.isRemotePush(), buildOperationRunner, buildOperationProgressEventEmitter, logStackTraces, disableRemoteOnError);
+        if (remoteStoreExecutor != null) {
+            remote = new QueueingRemoteBuildCacheServiceHandle(remote, temporaryFileFactory, remoteStoreExecutor, buildOperationRunner, maxPendingRemoteStoreBytes);
+        }
+        this.remote = remote;
         this.tmp = toTempFileStore(config.getLocal(), temporaryFileFactory);
+        this.packer = packer;
         this.packExecutor = new PackOperationExecutor(
             buildOperationRunner,
             packer,
@@ -112,35 +141,36 @@ public boolean isEnabled() {
 
     @Override
     public Optional<BuildCacheLoadResult> load(BuildCacheKey key, CacheableEntity entity) {
-        Optional<BuildCacheLoadResult> result = loadLocal(key, entity);
+        BuildCacheKey entryKey = entryKeyFor(key);
+        Optional<BuildCacheLoadResult> result = loadLocal(key, entryKey, entity);
         if (result.isPresent()) {
             return result;
         }
-        return loadRemoteAndStoreResultLocally(key, entity);
+        return loadRemoteAndStoreResultLocally(key, entryKey, entity);
     }
 
-    private Optional<BuildCacheLoadResult> loadLocal(BuildCacheKey key, CacheableEntity entity) {
+    private Optional<BuildCacheLoadResult> loadLocal(BuildCacheKey key, BuildCacheKey entryKey, CacheableEntity entity) {
         try {
-            return local.maybeLoad(key, file -> packExecutor.unpack(key, entity, file));
+            return local.maybeLoad(entryKey, file -> packExecutor.unpack(key, entity, file));
         } catch (Exception e) {
             throw new BuildCacheOperationException("Could not load from local cache: " + e.getMessage(), e);
         }
     }
 
-    private Optional<BuildCacheLoadResult> loadRemoteAndStoreResultLocally(BuildCacheKey key, CacheableEntity entity) {
+    private Optional<BuildCacheLoadResult> loadRemoteAndStoreResultLocally(BuildCacheKey key, BuildCacheKey entryKey, CacheableEntity entity) {
         if (!remote.canLoad()) {
             return Optional.empty();
         }
         AtomicReference<Optional<BuildCacheLoadResult>> result = new AtomicReference<>(Optional.empty());
-        tmp.withTempFile(((BuildCacheKeyInternal) key).getHashCodeInternal(), file -> {
+        tmp.withTempFile(((BuildCacheKeyInternal) entryKey).getHashCodeInternal(), file -> {
             Optional<BuildCacheLoadResult> remoteResult;
             try {
-                remoteResult = remote.maybeLoad(key, file, f -> packExecutor.unpack(key, entity, f));
+                remoteResult = remote.maybeLoad(entryKey, file, f -> packExecutor.unpack(key, entity, f));
             } catch (Exception e) {
                 throw new BuildCacheOperationException("Could not load from remote cache: " + e.getMessage(), e);
             }
             if (remoteResult.isPresent()) {
-                local.maybeStore(key, file);
+                local.maybeStore(entryKey, file);
                 result.set(remoteResult);
             }
         });
@@ -152,13 +182,23 @@ public void store(BuildCacheKey key, CacheableEntity entity, Map<String, FileSys
         if (!local.canStore() && !remote.canStore()) {
             return;
         }
-        tmp.withTempFile(((BuildCacheKeyInternal) key).getHashCodeInternal(), file -> {
+        BuildCacheKey entryKey = entryKeyFor(key);
+        tmp.withTempFile(((BuildCacheKeyInternal) entryKey).getHashCodeInternal(), file -> {
             packExecutor.pack(file, key, entity, snapshots, executionTime);
-            remote.maybeStore(key, file);
-            local.maybeStore(key, file);
+            remote.maybeStore(entryKey, file);
+            local.maybeStore(entryKey, file);
         });
     }
 
+    /**
+     * Returns the key the entry for the given cache key is stored under in the local and remote caches, which depends on the format of the entry.
+     */
+    private BuildCacheKey entryKeyFor(BuildCacheKey key) {
+        HashCode cacheKey = ((BuildCacheKeyInternal) key).getHashCodeInternal();
+        HashCode entryKey = packer.getEntryKey(cacheKey);
+        return entryKey.equals(cacheKey) ? key : new SimpleBuildCacheKey(entryKey);
+    }
+
     @Override
     public void close() throws IOException {
         if (!closed) {
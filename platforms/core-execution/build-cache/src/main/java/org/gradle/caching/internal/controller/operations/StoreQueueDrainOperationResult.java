@@ -0,0 +1,61 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.caching.internal.controller.operations;
+
+import org.gradle.caching.internal.operations.BuildCacheRemoteStoreQueueDrainBuildOperationType;
+
+public class StoreQueueDrainOperationResult implements BuildCacheRemoteStoreQueueDrainBuildOperationType.Result {
+
+    private final long storedEntryCount;
+    private final long storedBytes;
+    private final int maxQueueDepth;
+    private final long blockedStoreCount;
+    private final long bytesPerSecond;
+
+    public StoreQueueDrainOperationResult(long storedEntryCount, long storedBytes, int maxQueueDepth, long blockedStoreCount, long bytesPerSecond) {
+        this.storedEntryCount = storedEntryCount;
+        this.storedBytes = storedBytes;
+        this.maxQueueDepth = maxQueueDepth;
+        this.blockedStoreCount = blockedStoreCount;
+        this.bytesPerSecond = bytesPerSecond;
+    }
+
+    @Override
+    public long getStoredEntryCount() {
+        return storedEntryCount;
+    }
+
+    @Override
+    public long getStoredBytes() {
+        return storedBytes;
+    }
+
+    @Override
+    public int getMaxQueueDepth() {
+        return maxQueueDepth;
+    }
+
+    @Override
+    public long getBlockedStoreCount() {
+        return blockedStoreCount;
+    }
+
+    @Override
+    public long getBytesPerSecond() {
+        return bytesPerSecond;
+    }
+}
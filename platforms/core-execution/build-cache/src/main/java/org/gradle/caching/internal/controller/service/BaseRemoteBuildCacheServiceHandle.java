@@ -62,7 +62,8 @@ public String describeFailure(BuildCacheKey key, BuildCacheServiceRole role) {
     private final boolean logStackTraces;
     private final boolean disableOnError;
 
-    private boolean disabled;
+    // Stores can happen on background threads when they are queued
+    private volatile boolean disabled;
 
     public BaseRemoteBuildCacheServiceHandle(
         BuildCacheService service,
@@ -0,0 +1,266 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.caching.internal.controller.service;
+
+import org.apache.commons.io.FileUtils;
+import org.gradle.caching.BuildCacheKey;
+import org.gradle.caching.BuildCacheService;
+import org.gradle.caching.internal.controller.operations.StoreQueueDrainOperationDetails;
+import org.gradle.caching.internal.controller.operations.StoreQueueDrainOperationResult;
+import org.gradle.caching.local.internal.BuildCacheTempFileStore;
+import org.gradle.caching.local.internal.TemporaryFileFactory;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.operations.BuildOperationContext;
+import org.gradle.internal.operations.BuildOperationDescriptor;
+import org.gradle.internal.operations.BuildOperationRunner;
+import org.gradle.internal.operations.CurrentBuildOperationRef;
+import org.gradle.internal.operations.RunnableBuildOperation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Stores entries to the remote cache in the background.
+ *
+ * Entries are copied to temporary files before they are queued, as the caller may move or delete the stored file.
+ * The size of the queued entries is limited to a budget; stores block while the budget is exhausted.
+ * Entries that are larger than the whole budget are stored directly.
+ * All queued entries are stored before the handle is closed.
+ */
+public class QueueingRemoteBuildCacheServiceHandle implements RemoteBuildCacheServiceHandle {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(QueueingRemoteBuildCacheServiceHandle.class);
+
+    private final RemoteBuildCacheServiceHandle delegate;
+    private final TemporaryFileFactory temporaryFileFactory;
+    private final ExecutorService executor;
+    private final BuildOperationRunner buildOperationRunner;
+    private final long maxPendingBytes;
+
+    private final Object lock = new Object();
+    // All of the following fields are guarded by lock
+    private int pendingEntryCount;
+    private long pendingBytes;
+    private int maxQueueDepth;
+    private long blockedStoreCount;
+    private long storedEntryCount;
+    private long storedBytes;
+    private long firstQueuedAt;
+    private long lastStoredAt;
+    private boolean closed;
+
+    public QueueingRemoteBuildCacheServiceHandle(
+        RemoteBuildCacheServiceHandle delegate,
+        TemporaryFileFactory temporaryFileFactory,
+        ExecutorService executor,
+        BuildOperationRunner buildOperationRunner,
+        long maxPendingBytes
+    ) {
+        this.delegate = delegate;
+        this.temporaryFileFactory = temporaryFileFactory;
+        this.executor = executor;
+        this.buildOperationRunner = buildOperationRunner;
+        this.maxPendingBytes = maxPendingBytes;
+    }
+
+    @Nullable
+    @Override
+    public BuildCacheService getService() {
+        return delegate.getService();
+    }
+
+    @Override
+    public boolean canLoad() {
+        return delegate.canLoad();
+    }
+
+    @Override
+    public Optional<BuildCacheLoadResult> maybeLoad(BuildCacheKey key, File toFile, Function<File, BuildCacheLoadResult> unpackFunction) {
+        return delegate.maybeLoad(key, toFile, unpackFunction);
+    }
+
+    @Override
+    public boolean canStore() {
+        return delegate.canStore();
+    }
+
+    /**
+     * Queues the file to be stored to the cache.
+     *
+     * Returns true if the store was queued or completed.
+     */
+    @Override
+    public boolean maybeStore(BuildCacheKey key, File file) {
+        if (!canStore()) {
+            return false;
+        }
+        long size = file.length();
+        if (size > maxPendingBytes || !reserve(size)) {
+            return delegate.maybeStore(key, file);
+        }
+        File stagedFile;
+        try {
+            stagedFile = stage(key, file);
+        } catch (RuntimeException e) {
+            release(size, false);
+            throw e;
+        }
+        // The operation that stored the entry has usually completed by the time the upload runs, and
+        // operations cannot start or finish below a completed parent. So the upload runs without a parent.
+        executor.execute(() -> CurrentBuildOperationRef.instance().with(null, () -> upload(key, stagedFile, size)));
+        return true;
+    }
+
+    private boolean reserve(long size) {
+        synchronized (lock) {
+            boolean blocked = false;
+            while (!closed && pendingBytes + size > maxPendingBytes) {
+                blocked = true;
+                waitForUploads();
+            }
+            if (closed) {
+                return false;
+            }
+            if (blocked) {
+                blockedStoreCount++;
+            }
+            if (maxQueueDepth == 0) {
+                firstQueuedAt = System.nanoTime();
+            }
+            pendingEntryCount++;
+            pendingBytes += size;
+            maxQueueDepth = Math.max(maxQueueDepth, pendingEntryCount);
+            return true;
+        }
+    }
+
+    private void release(long size, boolean stored) {
+        synchronized (lock) {
+            pendingEntryCount--;
+            pendingBytes -= size;
+            if (stored) {
+                storedEntryCount++;
+                storedBytes += size;
+                lastStoredAt = System.nanoTime();
+            }
+            lock.notifyAll();
+        }
+    }
+
+    private File stage(BuildCacheKey key, File file) {
+        File stagedFile = temporaryFileFactory.createTemporaryFile(key.getHashCode() + "-", BuildCacheTempFileStore.PARTIAL_FILE_SUFFIX);
+        try {
+            Files.copy(file.toPath(), stagedFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            return stagedFile;
+        } catch (IOException e) {
+            FileUtils.deleteQuietly(stagedFile);
+            throw new UncheckedIOException(String.format("Couldn't queue cache entry '%s' to be stored: %s", key.getHashCode(), e), e);
+        }
+    }
+
+    private void upload(BuildCacheKey key, File stagedFile, long size) {
+        boolean stored = false;
+        try {
+            stored = delegate.maybeStore(key, stagedFile);
+        } catch (RuntimeException e) {
+            LOGGER.warn("Could not store entry {} in remote build cache: {}", key.getHashCode(), e.getMessage());
+            LOGGER.debug("Storing entry in remote build cache failed", e);
+        } finally {
+            FileUtils.deleteQuietly(stagedFile);
+            release(size, stored);
+        }
+    }
+
+    private void waitForUploads() {
+        try {
+            lock.wait(TimeUnit.SECONDS.toMillis(1));
+        } catch (InterruptedException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            drain();
+        } finally {
+            delegate.close();
+        }
+    }
+
+    private void drain() {
+        int initialPendingEntryCount;
+        long initialPendingBytes;
+        boolean anyQueued;
+        synchronized (lock) {
+            closed = true;
+            initialPendingEntryCount = pendingEntryCount;
+            initialPendingBytes = pendingBytes;
+            anyQueued = maxQueueDepth > 0;
+            lock.notifyAll();
+        }
+        if (!anyQueued) {
+            shutdownExecutor();
+            return;
+        }
+        buildOperationRunner.run(new RunnableBuildOperation() {
+            @Override
+            public void run(BuildOperationContext context) {
+                synchronized (lock) {
+                    while (pendingEntryCount > 0) {
+                        LOGGER.debug("Waiting for {} entries to be stored in the remote build cache", pendingEntryCount);
+                        waitForUploads();
+                    }
+                }
+                shutdownExecutor();
+                synchronized (lock) {
+                    long elapsedNanos = lastStoredAt - firstQueuedAt;
+                    long bytesPerSecond = elapsedNanos > 0 ? storedBytes * TimeUnit.SECONDS.toNanos(1) / elapsedNanos : 0;
+                    context.setResult(new StoreQueueDrainOperationResult(storedEntryCount, storedBytes, maxQueueDepth, blockedStoreCount, bytesPerSecond));
+                }
+            }
+
+            @Override
+            public BuildOperationDescriptor.Builder description() {
+                return BuildOperationDescriptor.displayName("Wait for remote build cache stores")
+                    .details(new StoreQueueDrainOperationDetails(initialPendingEntryCount, initialPendingBytes))
+                    .progressDisplayName("Storing entries in remote build cache");
+            }
+        });
+    }
+
+    private void shutdownExecutor() {
+        executor.shutdown();
+        try {
+            while (!executor.awaitTermination(1, TimeUnit.SECONDS)) {
+                LOGGER.debug("Waiting for remote build cache stores to finish");
+            }
+        } catch (InterruptedException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+    }
+}
@@ -24,21 +24,35 @@ import org.gradle.caching.BuildCacheService
 import org.gradle.caching.internal.CacheableEntity
 import org.gradle.caching.internal.TestBuildCacheKey
 import org.gradle.caching.internal.controller.service.BuildCacheServicesConfiguration
+import org.gradle.caching.internal.operations.BuildCacheRemoteStoreQueueDrainBuildOperationType
 import org.gradle.caching.internal.origin.OriginMetadataFactory
 import org.gradle.caching.internal.packaging.BuildCacheEntryPacker
 import org.gradle.caching.local.internal.LocalBuildCacheService
 import org.gradle.caching.local.internal.TemporaryFileFactory
 import org.gradle.internal.hash.HashCode
+import org.gradle.internal.hash.TestHashCodes
+import org.gradle.internal.operations.BuildOperationContext
+import org.gradle.internal.operations.BuildOperationDescriptor
+import org.gradle.internal.operations.BuildOperationTimeSupplier
+import org.gradle.internal.operations.CurrentBuildOperationRef
+import org.gradle.internal.operations.DefaultBuildOperationIdFactory
+import org.gradle.internal.operations.DefaultBuildOperationRunner
 import org.gradle.internal.operations.NoOpBuildOperationProgressEventEmitter
+import org.gradle.internal.operations.RunnableBuildOperation
 import org.gradle.internal.operations.TestBuildOperationRunner
 import org.gradle.internal.snapshot.FileSystemSnapshot
 import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
 import org.gradle.util.Path
 import org.junit.Rule
 import spock.lang.Specification
+import spock.util.concurrent.PollingConditions
 
 import java.nio.file.Files
 import java.time.Duration
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
 import java.util.function.Consumer
 
 class DefaultBuildCacheControllerTest extends Specification {
@@ -60,10 +74,15 @@ class DefaultBuildCacheControllerTest extends Specification {
     def localPush = true
     def remote = Mock(BuildCacheService)
     def remotePush = true
-    BuildCacheEntryPacker packer = Stub(BuildCacheEntryPacker)
+    BuildCacheEntryPacker packer = Stub(BuildCacheEntryPacker) {
+        getEntryKey(_) >> { HashCode cacheKey -> cacheKey }
+    }
     OriginMetadataFactory originMetadataFactory = Stub(OriginMetadataFactory)
     Interner<String> stringInterner = Stub(Interner)
 
+    ExecutorService remoteStoreExecutor = null
+    long maxPendingRemoteStoreBytes = 1024
+
     def operations = new TestBuildOperationRunner()
     def buildOperationProgressEmitter = new NoOpBuildOperationProgressEventEmitter()
 
@@ -88,10 +107,33 @@ class DefaultBuildCacheControllerTest extends Specification {
             disableRemoteOnError,
             packer,
             originMetadataFactory,
-            stringInterner
+            stringInterner,
+            remoteStoreExecutor,
+            maxPendingRemoteStoreBytes
         )
     }
 
+    def "stores and loads entries under the entry key of the packer"() {
+        def entryKey = TestHashCodes.hashCodeFrom(0x87654321)
+        packer = Stub(BuildCacheEntryPacker) {
+            getEntryKey(key.hashCodeInternal) >> entryKey
+        }
+
+        when:
+        controller.store(key, cacheableEntity, snapshots, executionTime)
+
+        then:
+        1 * remote.store({ it.hashCode == entryKey.toString() }, _)
+        1 * local.storeLocally({ it.hashCode == entryKey.toString() }, _)
+
+        when:
+        controller.load(key, cacheableEntity)
+
+        then:
+        1 * local.loadLocally({ it.hashCode == entryKey.toString() }, _)
+        1 * remote.load({ it.hashCode == entryKey.toString() }, _)
+    }
+
     def "does suppress exceptions from load"() {
         given:
         1 * remote.load(key, _) >> { throw new RuntimeException() }
@@ -276,4 +318,133 @@ class DefaultBuildCacheControllerTest extends Specification {
         1 * local.close()
         1 * remote.close()
     }
+
+    def "stores to remote in the background and waits for stores on close"() {
+        given:
+        remoteStoreExecutor = Executors.newFixedThreadPool(2)
+        tmpDir.file("file").text = "foo"
+        def release = new CountDownLatch(1)
+        def stored = new CopyOnWriteArrayList<String>()
+        remote.store(key, _) >> { BuildCacheKey key, BuildCacheEntryWriter writer ->
+            release.await()
+            def output = new ByteArrayOutputStream()
+            writer.writeTo(output)
+            stored << output.toString()
+        }
+        def controller = getController()
+
+        when:
+        controller.store(key, cacheableEntity, snapshots, executionTime)
+
+        then:
+        stored.empty
+        1 * local.storeLocally(key, _)
+
+        when:
+        release.countDown()
+        controller.close()
+
+        then:
+        stored == ["foo"]
+        remoteStoreExecutor.terminated
+        tmpDir.testDirectory.listFiles().findAll { it.name.endsWith(".part") }.empty
+
+        and:
+        def drain = operations.log.mostRecent(BuildCacheRemoteStoreQueueDrainBuildOperationType)
+        drain.result.storedEntryCount == 1
+        drain.result.storedBytes == 3
+        drain.result.maxQueueDepth == 1
+        drain.result.blockedStoreCount == 0
+    }
+
+    def "stores to remote in the background after the operation that stored the entry has completed"() {
+        given:
+        remoteStoreExecutor = Executors.newSingleThreadExecutor()
+        operations = new DefaultBuildOperationRunner(
+            CurrentBuildOperationRef.instance(),
+            { 0L } as BuildOperationTimeSupplier,
+            new DefaultBuildOperationIdFactory(),
+            { Stub(DefaultBuildOperationRunner.BuildOperationExecutionListener) } as DefaultBuildOperationRunner.BuildOperationExecutionListenerFactory
+        )
+        tmpDir.file("file").text = "foo"
+        def release = new CountDownLatch(1)
+        def stored = new CopyOnWriteArrayList<String>()
+        remote.store(key, _) >> { BuildCacheKey key, BuildCacheEntryWriter writer ->
+            def output = new ByteArrayOutputStream()
+            writer.writeTo(output)
+            stored << output.toString()
+        }
+        def controller = getController()
+        // Hold back the upload until the storing operation has completed
+        remoteStoreExecutor.execute { release.await() }
+
+        when:
+        operations.run(new RunnableBuildOperation() {
+            @Override
+            void run(BuildOperationContext context) {
+                controller.store(key, cacheableEntity, snapshots, executionTime)
+            }
+
+            @Override
+            BuildOperationDescriptor.Builder description() {
+                BuildOperationDescriptor.displayName("Store entry")
+            }
+        })
+        release.countDown()
+        controller.close()
+
+        then:
+        stored == ["foo"]
+        1 * local.storeLocally(key, _)
+    }
+
+    def "blocks stores while too many bytes are queued"() {
+        given:
+        remoteStoreExecutor = Executors.newFixedThreadPool(2)
+        maxPendingRemoteStoreBytes = 4
+        tmpDir.file("file").text = "foo"
+        def otherKey = new TestBuildCacheKey(0x87654321)
+        def release = new CountDownLatch(1)
+        remote.store(_, _) >> { release.await() }
+        def controller = getController()
+
+        when:
+        controller.store(key, cacheableEntity, snapshots, executionTime)
+        def second = Thread.start {
+            controller.store(otherKey, cacheableEntity, snapshots, executionTime)
+        }
+        new PollingConditions().eventually {
+            assert second.state == Thread.State.TIMED_WAITING
+        }
+        release.countDown()
+        second.join()
+        controller.close()
+
+        then:
+        def drain = operations.log.mostRecent(BuildCacheRemoteStoreQueueDrainBuildOperationType)
+        drain.result.storedEntryCount == 2
+        drain.result.maxQueueDepth == 1
+        drain.result.blockedStoreCount == 1
+    }
+
+    def "stores entries larger than the queue budget directly"() {
+        given:
+        remoteStoreExecutor = Executors.newFixedThreadPool(2)
+        maxPendingRemoteStoreBytes = 2
+        tmpDir.file("file").text = "foo"
+        def controller = getController()
+
+        when:
+        controller.store(key, cacheableEntity, snapshots, executionTime)
+
+        then:
+        1 * remote.store(key, _)
+
+        when:
+        controller.close()
+
+        then:
+        remoteStoreExecutor.terminated
+        operations.log.all(BuildCacheRemoteStoreQueueDrainBuildOperationType).empty
+    }
 }
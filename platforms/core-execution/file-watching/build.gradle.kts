@@ -15,6 +15,7 @@ dependencies {
     api(libs.nativePlatformFileEvents)
     api(libs.slf4jApi)
     implementation(projects.functional)
+    implementation(projects.serialization)
 
     implementation(libs.guava)
 
@@ -0,0 +1,397 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.watch.vfs.impl;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Interner;
+import org.gradle.internal.file.FileMetadata;
+import org.gradle.internal.file.FileMetadataAccessor;
+import org.gradle.internal.file.FileType;
+import org.gradle.internal.file.impl.DefaultFileMetadata;
+import org.gradle.internal.hash.HashCode;
+import org.gradle.internal.serialize.Decoder;
+import org.gradle.internal.serialize.Encoder;
+import org.gradle.internal.serialize.kryo.KryoBackedDecoder;
+import org.gradle.internal.serialize.kryo.KryoBackedEncoder;
+import org.gradle.internal.snapshot.DirectorySnapshot;
+import org.gradle.internal.snapshot.FileSystemLocationSnapshot;
+import org.gradle.internal.snapshot.FileSystemSnapshotHierarchyVisitor;
+import org.gradle.internal.snapshot.MissingFileSnapshot;
+import org.gradle.internal.snapshot.PathUtil;
+import org.gradle.internal.snapshot.RegularFileSnapshot;
+import org.gradle.internal.snapshot.RootTrackingFileSystemSnapshotHierarchyVisitor;
+import org.gradle.internal.snapshot.SnapshotVisitResult;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+/**
+ * Stores the contents of the virtual file system in a file, so a new daemon can start with the state of a previous one.
+ *
+ * No daemon is watching the file system while the state is on disk, so the restored snapshots need to be checked for changes
+ * once the locations are watched again, see {@link #findChangedLocations(RestoredSnapshot)}.
+ * Regular files are checked by comparing their modification time and length with the ones in the snapshot.
+ * For directories, we record the modification time when writing the state, which changes when children are added or removed.
+ * Like for regular files, symlinks are followed, so directories reached via a symlink are checked by the modification time of their target.
+ * Since the modification time has a limited resolution, everything modified shortly before the state has been written
+ * is considered changed.
+ */
+public class VirtualFileSystemStateFile {
+    private static final int FORMAT_VERSION = 1;
+    private static final long MODIFICATION_TIME_RESOLUTION_MILLIS = 2000;
+
+    private enum EntryType {
+        DIR_OPEN,
+        REGULAR_FILE,
+        MISSING,
+        DIR_CLOSE,
+        END
+    }
+
+    private final File stateFile;
+    private final FileMetadataAccessor fileMetadataAccessor;
+    private final Interner<String> stringInterner;
+
+    public VirtualFileSystemStateFile(File stateFile, FileMetadataAccessor fileMetadataAccessor, Interner<String> stringInterner) {
+        this.stateFile = stateFile;
+        this.fileMetadataAccessor = fileMetadataAccessor;
+        this.stringInterner = stringInterner;
+    }
+
+    public File getStateFile() {
+        return stateFile;
+    }
+
+    /**
+     * Replaces the stored state with the given snapshots.
+     *
+     * @param snapshots snapshots from the virtual file system, which reflect the current state of the file system.
+     */
+    public void write(Collection<FileSystemLocationSnapshot> snapshots) throws IOException {
+        File parentDir = stateFile.getParentFile();
+        Files.createDirectories(parentDir.toPath());
+        File tempFile = File.createTempFile(stateFile.getName(), ".tmp", parentDir);
+        try {
+            try (KryoBackedEncoder encoder = new KryoBackedEncoder(new FileOutputStream(tempFile))) {
+                encoder.writeInt(FORMAT_VERSION);
+                encoder.writeSmallInt(snapshots.size());
+                long writtenAt = System.currentTimeMillis();
+                for (FileSystemLocationSnapshot snapshot : snapshots) {
+                    writeSnapshot(encoder, snapshot, writtenAt, directory -> getLastModified(new File(directory.getAbsolutePath())));
+                }
+            }
+            Files.move(tempFile.toPath(), stateFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tempFile.toPath());
+        }
+    }
+
+    /**
+     * Reads the stored snapshots.
+     *
+     * The snapshots may be out of date and need to be checked via {@link #findChangedLocations(RestoredSnapshot)}
+     * after the locations are watched.
+     */
+    public List<RestoredSnapshot> read() throws IOException {
+        if (!stateFile.isFile()) {
+            return ImmutableList.of();
+        }
+        try (KryoBackedDecoder decoder = new KryoBackedDecoder(new FileInputStream(stateFile))) {
+            if (decoder.readInt() != FORMAT_VERSION) {
+                return ImmutableList.of();
+            }
+            int count = decoder.readSmallInt();
+            ImmutableList.Builder<RestoredSnapshot> builder = ImmutableList.builderWithExpectedSize(count);
+            for (int i = 0; i < count; i++) {
+                builder.add(readSnapshot(decoder));
+            }
+            return builder.build();
+        }
+    }
+
+    /**
+     * Checks a restored snapshot against the file system.
+     *
+     * @return the locations in the snapshot which changed since the state was written.
+     */
+    public List<String> findChangedLocations(RestoredSnapshot restoredSnapshot) {
+        List<String> changedLocations = new ArrayList<>();
+        restoredSnapshot.getSnapshot().accept(new FileSystemSnapshotHierarchyVisitor() {
+            private int directoryIndex;
+            private int changedDirectoryDepth;
+            private boolean enteringChangedDirectory;
+
+            @Override
+            public SnapshotVisitResult visitEntry(FileSystemLocationSnapshot snapshot) {
+                long directoryTimestamp = snapshot.getType() == FileType.Directory
+                    ? restoredSnapshot.directoryTimestamps[directoryIndex++]
+                    : 0;
+                // We still need to visit the children of changed directories to keep track of the directory timestamps
+                if (changedDirectoryDepth == 0 && hasChanged(snapshot, directoryTimestamp, restoredSnapshot.writtenAt)) {
+                    changedLocations.add(snapshot.getAbsolutePath());
+                    enteringChangedDirectory = snapshot.getType() == FileType.Directory;
+                }
+                return SnapshotVisitResult.CONTINUE;
+            }
+
+            @Override
+            public void enterDirectory(DirectorySnapshot directorySnapshot) {
+                if (changedDirectoryDepth > 0 || enteringChangedDirectory) {
+                    changedDirectoryDepth++;
+                    enteringChangedDirectory = false;
+                }
+            }
+
+            @Override
+            public void leaveDirectory(DirectorySnapshot directorySnapshot) {
+                if (changedDirectoryDepth > 0) {
+                    changedDirectoryDepth--;
+                }
+            }
+        });
+        return changedLocations;
+    }
+
+    private boolean hasChanged(FileSystemLocationSnapshot snapshot, long directoryTimestamp, long writtenAt) {
+        File file = new File(snapshot.getAbsolutePath());
+        FileMetadata metadata = fileMetadataAccessor.stat(file);
+        if (metadata.getType() != snapshot.getType() || metadata.getAccessType() != snapshot.getAccessType()) {
+            return true;
+        }
+        switch (snapshot.getType()) {
+            case RegularFile:
+                FileMetadata snapshotMetadata = ((RegularFileSnapshot) snapshot).getMetadata();
+                return snapshotMetadata.getLength() != metadata.getLength()
+                    || snapshotMetadata.getLastModified() != metadata.getLastModified()
+                    || isModifiedShortlyBefore(snapshotMetadata.getLastModified(), writtenAt);
+            case Directory:
+                return directoryTimestamp != getLastModified(file)
+                    || isModifiedShortlyBefore(directoryTimestamp, writtenAt);
+            case Missing:
+                return false;
+            default:
+                throw new AssertionError();
+        }
+    }
+
+    private static boolean isModifiedShortlyBefore(long lastModified, long writtenAt) {
+        return lastModified > writtenAt - MODIFICATION_TIME_RESOLUTION_MILLIS;
+    }
+
+    private static long getLastModified(File directory) {
+        try {
+            return Files.getLastModifiedTime(directory.toPath()).toMillis();
+        } catch (IOException e) {
+            // Won't match anything when reading the state
+            return -1;
+        }
+    }
+
+    private static void writeSnapshot(Encoder encoder, FileSystemLocationSnapshot snapshot, long writtenAt, ToLongFunction<DirectorySnapshot> directoryTimestamps) throws IOException {
+        encoder.writeLong(writtenAt);
+        snapshot.accept(new RootTrackingFileSystemSnapshotHierarchyVisitor() {
+            @Override
+            public void enterDirectory(DirectorySnapshot directorySnapshot, boolean isRoot) {
+                try {
+                    writeEntryType(encoder, EntryType.DIR_OPEN);
+                    writePath(encoder, isRoot, directorySnapshot);
+                    encoder.writeLong(directoryTimestamps.applyAsLong(directorySnapshot));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+
+            @Override
+            public SnapshotVisitResult visitEntry(FileSystemLocationSnapshot snapshot, boolean isRoot) {
+                snapshot.accept(new FileSystemLocationSnapshot.FileSystemLocationSnapshotVisitor() {
+                    @Override
+                    public void visitRegularFile(RegularFileSnapshot fileSnapshot) {
+                        try {
+                            writeEntryType(encoder, EntryType.REGULAR_FILE);
+                            writePath(encoder, isRoot, fileSnapshot);
+                            writeAccessType(encoder, fileSnapshot.getAccessType());
+                            writeHashCode(encoder, fileSnapshot.getHash());
+                            FileMetadata metadata = fileSnapshot.getMetadata();
+                            encoder.writeLong(metadata.getLastModified());
+                            encoder.writeSmallLong(metadata.getLength());
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    }
+
+                    @Override
+                    public void visitMissing(MissingFileSnapshot missingSnapshot) {
+                        try {
+                            writeEntryType(encoder, EntryType.MISSING);
+                            writePath(encoder, isRoot, missingSnapshot);
+                            writeAccessType(encoder, missingSnapshot.getAccessType());
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    }
+                });
+                return SnapshotVisitResult.CONTINUE;
+            }
+
+            @Override
+            public void leaveDirectory(DirectorySnapshot directorySnapshot, boolean isRoot) {
+                try {
+                    writeEntryType(encoder, EntryType.DIR_CLOSE);
+                    writeAccessType(encoder, directorySnapshot.getAccessType());
+                    writeHashCode(encoder, directorySnapshot.getHash());
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        });
+        writeEntryType(encoder, EntryType.END);
+    }
+
+    private RestoredSnapshot readSnapshot(Decoder decoder) throws IOException {
+        long writtenAt = decoder.readLong();
+        Deque<List<FileSystemLocationSnapshot>> stack = new ArrayDeque<>();
+        stack.addLast(new ArrayList<>());
+        Deque<String> pathTracker = new ArrayDeque<>();
+        long[] directoryTimestamps = new long[16];
+        int directoryCount = 0;
+        while (true) {
+            EntryType type = readEntryType(decoder);
+            if (type == EntryType.END) {
+                break;
+            }
+            if (type != EntryType.DIR_CLOSE) {
+                pathTracker.addLast(stringInterner.intern(decoder.readString()));
+                if (type == EntryType.DIR_OPEN) {
+                    if (directoryCount == directoryTimestamps.length) {
+                        directoryTimestamps = Arrays.copyOf(directoryTimestamps, directoryCount * 2);
+                    }
+                    directoryTimestamps[directoryCount++] = decoder.readLong();
+                    stack.addLast(new ArrayList<>());
+                    continue;
+                }
+            }
+            String internedAbsolutePath;
+            String internedName;
+            String path = pathTracker.removeLast();
+            if (pathTracker.isEmpty()) {
+                internedAbsolutePath = path;
+                internedName = stringInterner.intern(PathUtil.getFileName(internedAbsolutePath));
+            } else {
+                internedAbsolutePath = stringInterner.intern(toAbsolutePath(pathTracker, path));
+                internedName = path;
+            }
+            FileMetadata.AccessType accessType = readAccessType(decoder);
+            FileSystemLocationSnapshot snapshot;
+            switch (type) {
+                case REGULAR_FILE:
+                    HashCode contentHash = readHashCode(decoder);
+                    long lastModified = decoder.readLong();
+                    long length = decoder.readSmallLong();
+                    snapshot = new RegularFileSnapshot(internedAbsolutePath, internedName, contentHash, DefaultFileMetadata.file(lastModified, length, accessType));
+                    break;
+                case MISSING:
+                    snapshot = new MissingFileSnapshot(internedAbsolutePath, internedName, accessType);
+                    break;
+                case DIR_CLOSE:
+                    HashCode merkleHash = readHashCode(decoder);
+                    List<FileSystemLocationSnapshot> children = stack.removeLast();
+                    snapshot = new DirectorySnapshot(internedAbsolutePath, internedName, accessType, merkleHash, children);
+                    break;
+                default:
+                    throw new AssertionError();
+            }
+            if (stack.isEmpty()) {
+                throw new IllegalStateException("Unexpected entry " + internedAbsolutePath);
+            }
+            stack.getLast().add(snapshot);
+        }
+        List<FileSystemLocationSnapshot> roots = stack.removeLast();
+        if (roots.size() != 1 || !stack.isEmpty()) {
+            throw new IllegalStateException("Expected a single root snapshot, but found " + roots.size());
+        }
+        return new RestoredSnapshot(roots.get(0), Arrays.copyOf(directoryTimestamps, directoryCount), writtenAt);
+    }
+
+    private static String toAbsolutePath(Collection<String> parents, String fileName) {
+        StringBuilder buffer = new StringBuilder();
+        for (String parent : parents) {
+            buffer.append(parent);
+            buffer.append(File.separatorChar);
+        }
+        buffer.append(fileName);
+        return buffer.toString();
+    }
+
+    private static void writePath(Encoder encoder, boolean isRoot, FileSystemLocationSnapshot snapshot) throws IOException {
+        encoder.writeString(isRoot ? snapshot.getAbsolutePath() : snapshot.getName());
+    }
+
+    private static EntryType readEntryType(Decoder decoder) throws IOException {
+        return EntryType.values()[decoder.readByte()];
+    }
+
+    private static void writeEntryType(Encoder encoder, EntryType type) throws IOException {
+        encoder.writeByte((byte) type.ordinal());
+    }
+
+    private static FileMetadata.AccessType readAccessType(Decoder decoder) throws IOException {
+        return FileMetadata.AccessType.values()[decoder.readByte()];
+    }
+
+    private static void writeAccessType(Encoder encoder, FileMetadata.AccessType accessType) throws IOException {
+        encoder.writeByte((byte) accessType.ordinal());
+    }
+
+    private static HashCode readHashCode(Decoder decoder) throws IOException {
+        return HashCode.fromBytes(decoder.readBinary());
+    }
+
+    private static void writeHashCode(Encoder encoder, HashCode hashCode) throws IOException {
+        encoder.writeBinary(hashCode.toByteArray());
+    }
+
+    /**
+     * A snapshot read from the state file, together with the information to check it for changes.
+     */
+    public static class RestoredSnapshot {
+        private final FileSystemLocationSnapshot snapshot;
+        private final long[] directoryTimestamps;
+        private final long writtenAt;
+
+        private RestoredSnapshot(FileSystemLocationSnapshot snapshot, long[] directoryTimestamps, long writtenAt) {
+            this.snapshot = snapshot;
+            this.directoryTimestamps = directoryTimestamps;
+            this.writtenAt = writtenAt;
+        }
+
+        public FileSystemLocationSnapshot getSnapshot() {
+            return snapshot;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.watch.vfs.impl;
+
+import com.google.common.collect.Interner;
+import org.gradle.internal.file.FileMetadataAccessor;
+import org.gradle.internal.hash.Hashing;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stores the state of the virtual file system with one {@link VirtualFileSystemStateFile} per watchable hierarchy, usually the root directory of a build.
+ *
+ * Daemons building different projects therefore do not overwrite each other's state.
+ * Daemons building the same project at the same time replace the state file of that project, and the last one to stop wins.
+ * Since a restored state is always checked for changes, any of their states is good to be restored.
+ * State files which have not been written for a while are deleted, so the state of projects which are not built anymore does not accumulate.
+ */
+public class VirtualFileSystemStateStore {
+    private static final Logger LOGGER = LoggerFactory.getLogger(VirtualFileSystemStateStore.class);
+    static final long MAX_AGE_MILLIS = TimeUnit.DAYS.toMillis(7);
+    private static final String STATE_FILE_SUFFIX = ".bin";
+
+    private final File stateDir;
+    private final String stateFilePrefix;
+    private final FileMetadataAccessor fileMetadataAccessor;
+    private final Interner<String> stringInterner;
+
+    public VirtualFileSystemStateStore(File stateDir, String stateFilePrefix, FileMetadataAccessor fileMetadataAccessor, Interner<String> stringInterner) {
+        this.stateDir = stateDir;
+        this.stateFilePrefix = stateFilePrefix;
+        this.fileMetadataAccessor = fileMetadataAccessor;
+        this.stringInterner = stringInterner;
+    }
+
+    /**
+     * The state file for the snapshots in the given watchable hierarchy.
+     */
+    public VirtualFileSystemStateFile stateFileFor(File watchableHierarchy) {
+        String key = Hashing.hashString(watchableHierarchy.getAbsolutePath()).toCompactString();
+        return new VirtualFileSystemStateFile(new File(stateDir, stateFilePrefix + "-" + key + STATE_FILE_SUFFIX), fileMetadataAccessor, stringInterner);
+    }
+
+    /**
+     * Deletes the state files which have not been written for {@link #MAX_AGE_MILLIS}.
+     */
+    public void deleteExpiredStateFiles(long currentTimeMillis) {
+        File[] stateFiles = stateDir.listFiles((dir, name) -> name.startsWith(stateFilePrefix + "-") && name.endsWith(STATE_FILE_SUFFIX));
+        if (stateFiles == null) {
+            return;
+        }
+        for (File stateFile : stateFiles) {
+            if (stateFile.lastModified() < currentTimeMillis - MAX_AGE_MILLIS) {
+                try {
+                    Files.deleteIfExists(stateFile.toPath());
+                } catch (IOException e) {
+                    LOGGER.debug("Unable to delete the expired virtual file system state {}", stateFile, e);
+                }
+            }
+        }
+    }
+}
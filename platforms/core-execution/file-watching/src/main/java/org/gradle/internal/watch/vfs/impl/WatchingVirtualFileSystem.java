@@ -20,10 +20,13 @@
 import net.rubygrapefruit.platform.NativeException;
 import net.rubygrapefruit.platform.internal.jni.InotifyInstanceLimitTooLowException;
 import net.rubygrapefruit.platform.internal.jni.InotifyWatchesLimitTooLowException;
+import org.gradle.internal.Combiners;
+import org.gradle.internal.file.FileHierarchySet;
 import org.gradle.internal.operations.BuildOperationContext;
 import org.gradle.internal.operations.BuildOperationDescriptor;
 import org.gradle.internal.operations.BuildOperationRunner;
 import org.gradle.internal.operations.CallableBuildOperation;
+import org.gradle.internal.snapshot.FileSystemLocationSnapshot;
 import org.gradle.internal.snapshot.FileSystemNode;
 import org.gradle.internal.snapshot.SnapshotHierarchy;
 import org.gradle.internal.vfs.impl.AbstractVirtualFileSystem;
@@ -45,15 +48,19 @@
 import org.slf4j.LoggerFactory;
 
 import javax.annotation.CheckReturnValue;
+import javax.annotation.Nullable;
 import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 public class WatchingVirtualFileSystem extends AbstractVirtualFileSystem implements BuildLifecycleAwareVirtualFileSystem, Closeable {
     private static final Logger LOGGER = LoggerFactory.getLogger(WatchingVirtualFileSystem.class);
@@ -66,6 +73,8 @@ public class WatchingVirtualFileSystem extends AbstractVirtualFileSystem impleme
     private final WatchableFileSystemDetector watchableFileSystemDetector;
     private final FileChangeListeners fileChangeListeners;
     private final List<File> unsupportedFileSystems = new ArrayList<>();
+    @Nullable
+    private final VirtualFileSystemStateStore stateStore;
     private Logger warningLogger = LOGGER;
 
     /**
@@ -73,6 +82,24 @@ public class WatchingVirtualFileSystem extends AbstractVirtualFileSystem impleme
      */
     private final Set<File> watchableHierarchiesRegisteredEarly = new LinkedHashSet<>();
 
+    /**
+     * Watchable hierarchies registered since the VFS has been created, which determine what is kept in the state files.
+     */
+    private final Set<File> registeredWatchableHierarchies = new LinkedHashSet<>();
+
+    /**
+     * Watchable hierarchies for which the state file has been read.
+     *
+     * The snapshots in the state file of a hierarchy are added when the hierarchy is registered for the first time,
+     * and checked for changes once the hierarchy is watched.
+     */
+    private final Set<File> restoredWatchableHierarchies = new HashSet<>();
+
+    /**
+     * Whether snapshots are still restored from the state files, which stops when the VFS is invalidated.
+     */
+    private boolean restoringSnapshots = true;
+
     private FileWatcherRegistry watchRegistry;
     private Exception reasonForNotWatchingFiles;
     private boolean stateInvalidatedAtStartOfBuild;
@@ -84,6 +111,18 @@ public WatchingVirtualFileSystem(
         FileWatchingFilter locationsWrittenByCurrentBuild,
         WatchableFileSystemDetector watchableFileSystemDetector,
         FileChangeListeners fileChangeListeners
+    ) {
+        this(watcherRegistryFactory, root, fileSystemWatchingDocumentationIndex, locationsWrittenByCurrentBuild, watchableFileSystemDetector, fileChangeListeners, null);
+    }
+
+    public WatchingVirtualFileSystem(
+        FileWatcherRegistryFactory watcherRegistryFactory,
+        SnapshotHierarchy root,
+        FileSystemWatchingDocumentationIndex fileSystemWatchingDocumentationIndex,
+        FileWatchingFilter locationsWrittenByCurrentBuild,
+        WatchableFileSystemDetector watchableFileSystemDetector,
+        FileChangeListeners fileChangeListeners,
+        @Nullable VirtualFileSystemStateStore stateStore
     ) {
         super(root);
         this.watcherRegistryFactory = watcherRegistryFactory;
@@ -91,6 +130,7 @@ public WatchingVirtualFileSystem(
         this.locationsWrittenByCurrentBuild = locationsWrittenByCurrentBuild;
         this.watchableFileSystemDetector = watchableFileSystemDetector;
         this.fileChangeListeners = fileChangeListeners;
+        this.stateStore = stateStore;
     }
 
     @Override
@@ -209,11 +249,55 @@ public void registerWatchableHierarchy(File watchableHierarchy) {
             }
             return withWatcherChangeErrorHandling(
                 currentRoot,
-                () -> watchRegistry.registerWatchableHierarchy(watchableHierarchy, currentRoot)
+                () -> registerWatchableHierarchyAndRestoreSnapshots(watchableHierarchy, currentRoot)
             );
         });
     }
 
+    @CheckReturnValue
+    private SnapshotHierarchy registerWatchableHierarchyAndRestoreSnapshots(File watchableHierarchy, SnapshotHierarchy currentRoot) {
+        watchRegistry.registerWatchableHierarchy(watchableHierarchy, currentRoot);
+        registeredWatchableHierarchies.add(watchableHierarchy);
+        if (stateStore == null || !restoringSnapshots || isOnUnsupportedFileSystem(watchableHierarchy) || !restoredWatchableHierarchies.add(watchableHierarchy)) {
+            return currentRoot;
+        }
+        VirtualFileSystemStateFile stateFile = stateStore.stateFileFor(watchableHierarchy);
+        FileHierarchySet hierarchy = FileHierarchySet.empty().plus(watchableHierarchy);
+        List<VirtualFileSystemStateFile.RestoredSnapshot> snapshotsToRestore = readStateFile(stateFile).stream()
+            .filter(restoredSnapshot -> hierarchy.contains(restoredSnapshot.getSnapshot().getAbsolutePath()))
+            .collect(Collectors.toList());
+        if (snapshotsToRestore.isEmpty()) {
+            return currentRoot;
+        }
+
+        // Add the snapshots before checking them for changes, so the hierarchy is already watched while checking.
+        // The new root is only published after the check, so nobody sees the unchecked snapshots.
+        SnapshotHierarchy newRoot = updateNotifyingListeners(diffListener -> {
+            SnapshotHierarchy result = currentRoot;
+            for (VirtualFileSystemStateFile.RestoredSnapshot restoredSnapshot : snapshotsToRestore) {
+                FileSystemLocationSnapshot snapshot = restoredSnapshot.getSnapshot();
+                result = result.store(snapshot.getAbsolutePath(), snapshot, diffListener);
+            }
+            return result;
+        });
+        List<String> changedLocations = snapshotsToRestore.stream()
+            .flatMap(restoredSnapshot -> stateFile.findChangedLocations(restoredSnapshot).stream())
+            .collect(Collectors.toList());
+        for (String changedLocation : changedLocations) {
+            SnapshotHierarchy rootBeforeInvalidation = newRoot;
+            newRoot = updateNotifyingListeners(diffListener -> rootBeforeInvalidation.invalidate(changedLocation, diffListener));
+        }
+        LOGGER.info("Restored {} snapshots in {} from the state of a previous daemon, {} locations changed since",
+            snapshotsToRestore.size(), watchableHierarchy, changedLocations.size());
+        return newRoot;
+    }
+
+    private boolean isOnUnsupportedFileSystem(File location) {
+        return unsupportedFileSystems.stream()
+            .reduce(FileHierarchySet.empty(), FileHierarchySet::plus, Combiners.nonCombining())
+            .contains(location.getAbsolutePath());
+    }
+
     @Override
     public void beforeBuildFinished(
         WatchMode watchMode,
@@ -328,7 +412,9 @@ private SnapshotHierarchy startWatching(SnapshotHierarchy currentRoot, WatchMode
                     new BroadcastingChangeHandler()
                 )));
             SnapshotHierarchy newRoot = watchRegistry.updateVfsOnBuildStarted(currentRoot.empty(), watchMode, unsupportedFileSystems);
-            watchableHierarchiesRegisteredEarly.forEach(watchableHierarchy -> watchRegistry.registerWatchableHierarchy(watchableHierarchy, newRoot));
+            for (File watchableHierarchy : watchableHierarchiesRegisteredEarly) {
+                newRoot = registerWatchableHierarchyAndRestoreSnapshots(watchableHierarchy, newRoot);
+            }
             watchableHierarchiesRegisteredEarly.clear();
             return newRoot;
         } catch (Exception ex) {
@@ -338,6 +424,50 @@ private SnapshotHierarchy startWatching(SnapshotHierarchy currentRoot, WatchMode
         }
     }
 
+    private static List<VirtualFileSystemStateFile.RestoredSnapshot> readStateFile(VirtualFileSystemStateFile stateFile) {
+        try {
+            List<VirtualFileSystemStateFile.RestoredSnapshot> snapshots = stateFile.read();
+            LOGGER.info("Read {} snapshots from the virtual file system state in {}", snapshots.size(), stateFile.getStateFile());
+            return snapshots;
+        } catch (Exception e) {
+            LOGGER.info("Unable to read the virtual file system state from {}, starting with an empty state", stateFile.getStateFile(), e);
+            return Collections.emptyList();
+        }
+    }
+
+    private void writeStateFiles(SnapshotHierarchy currentRoot) {
+        if (stateStore == null || watchRegistry == null) {
+            return;
+        }
+        List<FileSystemLocationSnapshot> rootSnapshots;
+        try {
+            // Only keep what we would keep between builds, and only what will be watched again when restoring
+            SnapshotHierarchy rootToWrite = watchRegistry.updateVfsAfterBuildFinished(currentRoot);
+            rootSnapshots = rootToWrite.rootSnapshots().collect(Collectors.toList());
+        } catch (Exception e) {
+            LOGGER.warn("Unable to write the virtual file system state", e);
+            return;
+        }
+        for (File watchableHierarchy : registeredWatchableHierarchies) {
+            if (isOnUnsupportedFileSystem(watchableHierarchy)) {
+                continue;
+            }
+            // Nested hierarchies, like included builds inside the root build, each get the snapshots they contain
+            FileHierarchySet hierarchy = FileHierarchySet.empty().plus(watchableHierarchy);
+            List<FileSystemLocationSnapshot> snapshots = rootSnapshots.stream()
+                .filter(snapshot -> hierarchy.contains(snapshot.getAbsolutePath()))
+                .collect(Collectors.toList());
+            VirtualFileSystemStateFile stateFile = stateStore.stateFileFor(watchableHierarchy);
+            try {
+                stateFile.write(snapshots);
+                LOGGER.info("Wrote {} snapshots of the virtual file system to {}", snapshots.size(), stateFile.getStateFile());
+            } catch (Exception e) {
+                LOGGER.warn("Unable to write the virtual file system state to {}", stateFile.getStateFile(), e);
+            }
+        }
+        stateStore.deleteExpiredStateFiles(System.currentTimeMillis());
+    }
+
     @Override
     public boolean isWatchingAnyLocations() {
         FileWatcherRegistry watchRegistry = this.watchRegistry;
@@ -516,10 +646,18 @@ private boolean hasDroppedStateBecauseOfErrorsReceivedWhileWatching(FileWatcherR
         return false;
     }
 
+    @Override
+    public void invalidateAll() {
+        // Also forget about the snapshots in the state files
+        underLock(() -> restoringSnapshots = false);
+        super.invalidateAll();
+    }
+
     @Override
     public void close() {
         LOGGER.debug("Closing VFS, dropping state");
         updateRootUnderLock(currentRoot -> {
+            writeStateFiles(currentRoot);
             closeUnderLock();
             return currentRoot.empty();
         });
@@ -0,0 +1,165 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.watch.vfs.impl
+
+import org.gradle.api.internal.cache.StringInterner
+import org.gradle.internal.file.nio.NioFileMetadataAccessor
+import org.gradle.internal.hash.TestFileHasher
+import org.gradle.internal.snapshot.FileSystemLocationSnapshot
+import org.gradle.internal.snapshot.SnapshotVisitorUtil
+import org.gradle.internal.snapshot.impl.DirectorySnapshotter
+import org.gradle.internal.snapshot.impl.DirectorySnapshotterStatistics
+import org.gradle.test.fixtures.file.CleanupTestDirectory
+import org.gradle.test.fixtures.file.TestFile
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.gradle.test.precondition.Requires
+import org.gradle.test.preconditions.UnitTestPreconditions
+import org.junit.Rule
+import spock.lang.Specification
+
+@CleanupTestDirectory(fieldName = "tmpDir")
+class VirtualFileSystemStateFileTest extends Specification {
+    @Rule
+    public final TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider(getClass())
+
+    def stringInterner = new StringInterner()
+    def snapshotter = new DirectorySnapshotter(new TestFileHasher(), stringInterner, [], new DirectorySnapshotterStatistics.Collector(), false)
+    def stateFile = new VirtualFileSystemStateFile(tmpDir.file("state/state.bin"), new NioFileMetadataAccessor(), stringInterner)
+    def rootDir = tmpDir.createDir("root")
+
+    def setup() {
+        rootDir.file("dir1/file1.txt").text = "file1"
+        rootDir.file("dir1/nested/file2.txt").text = "file2"
+        rootDir.file("dir2/file3.txt").text = "file3"
+        rootDir.file("file4.txt").text = "file4"
+        makeOld(rootDir)
+    }
+
+    def "restores written snapshots"() {
+        def snapshot = snapshot(rootDir)
+
+        when:
+        stateFile.write([snapshot])
+        def restored = stateFile.read()
+
+        then:
+        restored.size() == 1
+        restored[0].snapshot.hash == snapshot.hash
+        SnapshotVisitorUtil.getAbsolutePaths(restored[0].snapshot, true) == SnapshotVisitorUtil.getAbsolutePaths(snapshot, true)
+        stateFile.findChangedLocations(restored[0]).empty
+    }
+
+    def "finds locations changed since the state has been written"() {
+        stateFile.write([snapshot(rootDir)])
+
+        when:
+        rootDir.file("dir1/file1.txt").text = "changed"
+        rootDir.file("dir1/file1.txt").lastModified = rootDir.file("dir1/file1.txt").lastModified() - 60_000
+        rootDir.file("dir1/nested/added.txt").text = "added"
+        rootDir.file("dir2/file3.txt").delete()
+        def restored = stateFile.read()
+
+        then:
+        stateFile.findChangedLocations(restored[0]) as Set == [
+            rootDir.file("dir1/file1.txt").absolutePath,
+            rootDir.file("dir1/nested").absolutePath,
+            rootDir.file("dir2").absolutePath
+        ] as Set
+    }
+
+    def "considers locations modified shortly before writing the state as changed"() {
+        rootDir.file("file4.txt").lastModified = System.currentTimeMillis()
+        stateFile.write([snapshot(rootDir)])
+
+        when:
+        def restored = stateFile.read()
+
+        then:
+        stateFile.findChangedLocations(restored[0]) == [rootDir.file("file4.txt").absolutePath]
+    }
+
+    def "keeps the state of each watchable hierarchy in its own file"() {
+        def store = new VirtualFileSystemStateStore(tmpDir.file("state"), "state", new NioFileMetadataAccessor(), stringInterner)
+        def otherDir = tmpDir.createDir("other")
+        otherDir.file("other.txt").text = "other"
+        makeOld(otherDir)
+
+        when:
+        store.stateFileFor(otherDir).write([snapshot(otherDir)])
+        store.stateFileFor(rootDir).write([snapshot(rootDir)])
+
+        then:
+        store.stateFileFor(otherDir).stateFile != store.stateFileFor(rootDir).stateFile
+        store.stateFileFor(otherDir).read()*.snapshot*.absolutePath == [otherDir.absolutePath]
+        store.stateFileFor(rootDir).read()*.snapshot*.absolutePath == [rootDir.absolutePath]
+    }
+
+    def "deletes state files which have not been written for a while"() {
+        def store = new VirtualFileSystemStateStore(tmpDir.file("state"), "state", new NioFileMetadataAccessor(), stringInterner)
+        def otherDir = tmpDir.createDir("other")
+        def expired = store.stateFileFor(otherDir)
+        expired.write([])
+        def recent = store.stateFileFor(rootDir)
+        recent.write([])
+        def now = System.currentTimeMillis()
+        expired.stateFile.lastModified = now - VirtualFileSystemStateStore.MAX_AGE_MILLIS - 60_000
+
+        when:
+        store.deleteExpiredStateFiles(now)
+
+        then:
+        !expired.stateFile.exists()
+        recent.stateFile.exists()
+    }
+
+    @Requires(UnitTestPreconditions.Symlinks)
+    def "checks directories reached via a symlink by the modification time of their target"() {
+        def targetDir = tmpDir.createDir("target")
+        targetDir.file("target.txt").text = "target"
+        makeOld(targetDir)
+        rootDir.file("linked").createLink(targetDir)
+        makeOld(rootDir)
+        stateFile.write([snapshot(rootDir)])
+
+        when:
+        def restored = stateFile.read()
+
+        then:
+        stateFile.findChangedLocations(restored[0]).empty
+
+        when:
+        targetDir.file("added.txt").text = "added"
+
+        then:
+        stateFile.findChangedLocations(restored[0]) == [rootDir.file("linked").absolutePath]
+    }
+
+    def "restores nothing without a state file"() {
+        expect:
+        stateFile.read().empty
+    }
+
+    private FileSystemLocationSnapshot snapshot(File location) {
+        return snapshotter.snapshot(location.absolutePath, null, [:], {})
+    }
+
+    private static void makeOld(TestFile location) {
+        def lastModified = System.currentTimeMillis() - 120_000
+        location.eachFileRecurse { it.lastModified = lastModified }
+        location.lastModified = lastModified
+    }
+}
@@ -17,9 +17,15 @@
 package org.gradle.internal.watch.vfs.impl
 
 import net.rubygrapefruit.platform.NativeException
+import org.gradle.api.internal.cache.StringInterner
+import org.gradle.internal.file.FileType
+import org.gradle.internal.file.nio.NioFileMetadataAccessor
+import org.gradle.internal.hash.TestFileHasher
 import org.gradle.internal.operations.TestBuildOperationRunner
 import org.gradle.internal.snapshot.CaseSensitivity
 import org.gradle.internal.snapshot.SnapshotHierarchy
+import org.gradle.internal.snapshot.impl.DirectorySnapshotter
+import org.gradle.internal.snapshot.impl.DirectorySnapshotterStatistics
 import org.gradle.internal.vfs.impl.DefaultSnapshotHierarchy
 import org.gradle.internal.watch.registry.FileWatcherRegistry
 import org.gradle.internal.watch.registry.FileWatcherRegistryFactory
@@ -29,9 +35,16 @@ import org.gradle.internal.watch.vfs.FileChangeListeners
 import org.gradle.internal.watch.vfs.VfsLogging
 import org.gradle.internal.watch.vfs.WatchLogging
 import org.gradle.internal.watch.vfs.WatchableFileSystemDetector
+import org.gradle.test.fixtures.file.CleanupTestDirectory
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
 import spock.lang.Specification
 
+@CleanupTestDirectory(fieldName = "tmpDir")
 class WatchingVirtualFileSystemTest extends Specification {
+    @Rule
+    public final TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider(getClass())
+
     def watcherRegistryFactory = Mock(FileWatcherRegistryFactory)
     def watcherRegistry = Mock(FileWatcherRegistry)
     def emptySnapshotHierarchy = DefaultSnapshotHierarchy.empty(CaseSensitivity.CASE_SENSITIVE)
@@ -260,4 +273,56 @@ class WatchingVirtualFileSystemTest extends Specification {
         1 * watcherRegistry.close()
         0 * _
     }
+
+    def "restores snapshots from the state file when registering a watchable hierarchy and drops changed locations"() {
+        def stringInterner = new StringInterner()
+        def snapshotter = new DirectorySnapshotter(new TestFileHasher(), stringInterner, [], new DirectorySnapshotterStatistics.Collector(), false)
+        def stateStore = new VirtualFileSystemStateStore(tmpDir.file("state"), "state", new NioFileMetadataAccessor(), stringInterner)
+        def watchableHierarchy = tmpDir.createDir("watchable")
+        def unchangedFile = watchableHierarchy.file("unchanged.txt")
+        unchangedFile.text = "unchanged"
+        def changedFile = watchableHierarchy.file("changed.txt")
+        changedFile.text = "changed"
+        def changedDir = watchableHierarchy.file("changedDir")
+        changedDir.file("existing.txt").text = "existing"
+        def lastModified = System.currentTimeMillis() - 120_000
+        watchableHierarchy.eachFileRecurse { it.lastModified = lastModified }
+        watchableHierarchy.lastModified = lastModified
+        stateStore.stateFileFor(watchableHierarchy).write([snapshotter.snapshot(watchableHierarchy.absolutePath, null, [:], {})])
+
+        changedFile.text = "changed while no daemon was watching"
+        changedDir.file("added.txt").text = "added"
+
+        def restoringVirtualFileSystem = new WatchingVirtualFileSystem(
+            watcherRegistryFactory,
+            emptySnapshotHierarchy,
+            documentationIndex,
+            locationsUpdatedByCurrentBuild,
+            watchableFileSystemDetector,
+            fileChangeListeners,
+            stateStore
+        )
+
+        when:
+        restoringVirtualFileSystem.afterBuildStarted(WatchMode.ENABLED, VfsLogging.NORMAL, WatchLogging.NORMAL, buildOperationRunner)
+        then:
+        1 * watcherRegistryFactory.createFileWatcherRegistry(_) >> watcherRegistry
+        1 * watcherRegistry.updateVfsOnBuildStarted(_ as SnapshotHierarchy, WatchMode.ENABLED, []) >> { SnapshotHierarchy root, watchMode, unsupportedFileSystems -> root }
+        1 * watcherRegistry.setDebugLoggingEnabled(false)
+        0 * _
+
+        !restoringVirtualFileSystem.findSnapshot(unchangedFile.absolutePath).present
+
+        when:
+        restoringVirtualFileSystem.registerWatchableHierarchy(watchableHierarchy)
+        then:
+        1 * watcherRegistry.registerWatchableHierarchy(watchableHierarchy, _)
+        _ * watcherRegistry.virtualFileSystemContentsChanged(_, _, _)
+        0 * _
+
+        restoringVirtualFileSystem.findSnapshot(unchangedFile.absolutePath).get().type == FileType.RegularFile
+        !restoringVirtualFileSystem.findSnapshot(changedFile.absolutePath).present
+        !restoringVirtualFileSystem.findSnapshot(changedDir.absolutePath).present
+        !restoringVirtualFileSystem.findSnapshot(changedDir.file("existing.txt").absolutePath).present
+    }
 }
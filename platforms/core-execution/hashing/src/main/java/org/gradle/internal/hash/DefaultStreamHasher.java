@@ -21,23 +21,73 @@
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.util.Queue;
 import java.util.concurrent.ArrayBlockingQueue;
 
 public class DefaultStreamHasher implements StreamHasher {
     private static final HashCode SIGNATURE = Hashing.signature(DefaultStreamHasher.class);
 
+    /**
+     * Files smaller than this are cheaper to read through a buffer than to map.
+     */
+    private static final long MAPPING_THRESHOLD = 1024 * 1024;
+
+    private static final long MAPPED_REGION_SIZE = 64 * 1024 * 1024;
+
     private final Queue<byte[]> buffers = new ArrayBlockingQueue<byte[]>(16);
+    private final HashFunction hashFunction;
+    private final boolean mapLargeFiles;
+
+    public DefaultStreamHasher() {
+        this(Hashing.defaultFunction(), false);
+    }
+
+    /**
+     * Creates a hasher using the given hash function for the content.
+     *
+     * @param mapLargeFiles whether to map large files into memory instead of reading them. Mapped files cannot be deleted on Windows
+     * until the mapping is garbage collected, so this should not be enabled there.
+     */
+    public DefaultStreamHasher(HashFunction hashFunction, boolean mapLargeFiles) {
+        this.hashFunction = hashFunction;
+        this.mapLargeFiles = mapLargeFiles;
+    }
 
     @Override
     public HashCode hash(InputStream inputStream) {
         try {
             return doHash(inputStream, ByteStreams.nullOutputStream());
         } catch (IOException e) {
-            throw new UncheckedIOException("Failed to create MD5 hash for file content.", e);
+            throw failure(e);
         }
     }
 
+    @Override
+    public HashCode hash(FileChannel channel) {
+        try {
+            long position = channel.position();
+            long size = channel.size();
+            if (mapLargeFiles && size - position >= MAPPING_THRESHOLD) {
+                try {
+                    return doHashMapped(channel, position, size);
+                } catch (InternalError e) {
+                    // Accessing a mapped region fails when the file is truncated concurrently, read it again instead
+                    channel.position(position);
+                }
+            }
+            return doHash(Channels.newInputStream(channel), ByteStreams.nullOutputStream());
+        } catch (IOException e) {
+            throw failure(e);
+        }
+    }
+
+    private UncheckedIOException failure(IOException e) {
+        return new UncheckedIOException(String.format("Failed to create %s hash for file content.", hashFunction.getAlgorithm()), e);
+    }
+
     @Override
     public HashCode hashCopy(InputStream inputStream, OutputStream outputStream) throws IOException {
         return doHash(inputStream, outputStream);
@@ -46,7 +96,7 @@ public HashCode hashCopy(InputStream inputStream, OutputStream outputStream) thr
     private HashCode doHash(InputStream inputStream, OutputStream outputStream) throws IOException {
         byte[] buffer = takeBuffer();
         try {
-            PrimitiveHasher hasher = Hashing.newPrimitiveHasher();
+            PrimitiveHasher hasher = hashFunction.newPrimitiveHasher();
             hasher.putHash(SIGNATURE);
             while (true) {
                 int nread = inputStream.read(buffer);
@@ -62,6 +112,18 @@ private HashCode doHash(InputStream inputStream, OutputStream outputStream) thro
         }
     }
 
+    private HashCode doHashMapped(FileChannel channel, long position, long size) throws IOException {
+        PrimitiveHasher hasher = hashFunction.newPrimitiveHasher();
+        hasher.putHash(SIGNATURE);
+        while (position < size) {
+            long regionSize = Math.min(MAPPED_REGION_SIZE, size - position);
+            MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, position, regionSize);
+            hasher.putBytes(region);
+            position += regionSize;
+        }
+        return hasher.hash();
+    }
+
     private void returnBuffer(byte[] buffer) {
         // Retain buffer if there is capacity in the queue, otherwise discard
         buffers.offer(buffer);
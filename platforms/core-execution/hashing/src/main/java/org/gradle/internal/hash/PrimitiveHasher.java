@@ -16,6 +16,9 @@
 
 package org.gradle.internal.hash;
 
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+
 /**
  * Hasher abstraction that can be fed different kinds of primitives that it then forwards directly to the hash function.
  * Inspired by the Google Guava project – https://github.com/google/guava.
@@ -31,6 +34,23 @@ public interface PrimitiveHasher {
      */
     void putBytes(byte[] bytes, int off, int len);
 
+    /**
+     * Feed the remaining bytes of the given buffer into the hasher. The position of the buffer is advanced to its limit.
+     */
+    default void putBytes(ByteBuffer bytes) {
+        if (bytes.hasArray()) {
+            putBytes(bytes.array(), bytes.arrayOffset() + bytes.position(), bytes.remaining());
+            ((Buffer) bytes).position(bytes.limit());
+            return;
+        }
+        byte[] chunk = new byte[Math.min(bytes.remaining(), 8192)];
+        while (bytes.hasRemaining()) {
+            int length = Math.min(chunk.length, bytes.remaining());
+            bytes.get(chunk, 0, length);
+            putBytes(chunk, 0, length);
+        }
+    }
+
     /**
      * Feed a single byte into the hasher.
      */
@@ -21,6 +21,7 @@
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.channels.FileChannel;
 
 @ServiceScope(Scope.Global.class)
 public interface StreamHasher {
@@ -29,6 +30,12 @@ public interface StreamHasher {
      */
     HashCode hash(InputStream inputStream);
 
+    /**
+     * Returns the hash of the content of the given channel, from its current position to its end.
+     * Produces the same hash as {@link #hash(InputStream)} for the same content. The channel will not be closed by the method.
+     */
+    HashCode hash(FileChannel channel);
+
     /**
      * Returns the hash of the given input stream while copying the data to the output stream.
      * The method will not close either stream.
@@ -18,6 +18,9 @@ package org.gradle.internal.hash
 
 import spock.lang.Specification
 
+import java.nio.channels.FileChannel
+import java.nio.file.Files
+
 class DefaultStreamHasherTest extends Specification {
     def "can hash input"() {
         def input = new ByteArrayInputStream("hello".bytes)
@@ -36,4 +39,30 @@ class DefaultStreamHasherTest extends Specification {
         hash.toString() == "af67a92e9f73b51572e9b94e343d2840"
         output.toByteArray() == "hello".bytes
     }
+
+    def "hashes file channel like input stream with #hashFunction when mapping is #mapLargeFiles"() {
+        given:
+        def file = Files.createTempFile("content", ".bin")
+        def content = new byte[3 * 1024 * 1024 + 5]
+        new Random(1).nextBytes(content)
+        Files.write(file, content)
+        def hasher = new DefaultStreamHasher(hashFunction, mapLargeFiles)
+
+        when:
+        def streamHash = Files.newInputStream(file).withCloseable { hasher.hash(it) }
+        def channelHash = FileChannel.open(file).withCloseable { hasher.hash(it) }
+
+        then:
+        channelHash == streamHash
+
+        cleanup:
+        Files.deleteIfExists(file)
+
+        where:
+        hashFunction      | mapLargeFiles
+        Hashing.md5()     | false
+        Hashing.md5()     | true
+        Hashing.murmur3() | false
+        Hashing.murmur3() | true
+    }
 }
@@ -16,8 +16,11 @@
 
 package org.gradle.internal.hash
 
+import com.google.common.base.Charsets
 import spock.lang.Specification
 
+import java.nio.ByteBuffer
+
 import static java.lang.Thread.currentThread
 import static java.util.concurrent.CompletableFuture.supplyAsync
 import static java.util.concurrent.Executors.newFixedThreadPool
@@ -109,6 +112,62 @@ class HashingTest extends Specification {
         hashStrings(["abc", "de"]) != hashStrings(["ab", "cde"])
     }
 
+    def 'murmur3 produces the same hashes as Guava for #length bytes'() {
+        given:
+        def bytes = new byte[length]
+        new Random(length).nextBytes(bytes)
+
+        when:
+        def hasher = Hashing.murmur3().newPrimitiveHasher()
+        def offset = 0
+        [1, 7, 16, 3].each { chunk ->
+            def count = Math.min(chunk, length - offset)
+            hasher.putBytes(bytes, offset, count)
+            offset += count
+        }
+        hasher.putBytes(ByteBuffer.allocateDirect(length - offset).put(bytes, offset, length - offset).flip() as ByteBuffer)
+
+        then:
+        hasher.hash().toString() == com.google.common.hash.Hashing.murmur3_128().hashBytes(bytes).toString()
+        Hashing.murmur3().hashBytes(bytes).toString() == com.google.common.hash.Hashing.murmur3_128().hashBytes(bytes).toString()
+
+        where:
+        length << [0, 1, 15, 16, 17, 31, 32, 33, 100, 1000]
+    }
+
+    def 'murmur3 hashes primitives like Guava'() {
+        when:
+        def hasher = Hashing.murmur3().newPrimitiveHasher()
+        hasher.putInt(42)
+        hasher.putLong(-7L)
+        hasher.putDouble(1.5d)
+        hasher.putBoolean(true)
+        hasher.putString("abc")
+
+        then:
+        hasher.hash().toString() == com.google.common.hash.Hashing.murmur3_128().newHasher()
+            .putInt(42)
+            .putLong(-7L)
+            .putDouble(1.5d)
+            .putBoolean(true)
+            .putString("abc", Charsets.UTF_8)
+            .hash()
+            .toString()
+    }
+
+    def 'cannot call murmur3 hash multiple times'() {
+        given:
+        def hasher = Hashing.murmur3().newPrimitiveHasher()
+        hasher.putInt(1)
+        hasher.hash()
+
+        when:
+        hasher.hash()
+
+        then:
+        thrown(IllegalStateException)
+    }
+
     def hashStrings(List<String> strings) {
         def hasher = Hashing.newHasher()
         strings.each { hasher.putString(it) }
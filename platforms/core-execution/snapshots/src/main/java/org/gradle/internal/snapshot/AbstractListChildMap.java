@@ -16,15 +16,40 @@
 
 package org.gradle.internal.snapshot;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
+/**
+ * A child map with multiple children, sorted by their path.
+ *
+ * The paths and the children are kept in two arrays instead of a list of entries, so that each child map only needs three objects.
+ */
 public abstract class AbstractListChildMap<T> implements ChildMap<T> {
-    protected final List<Entry<T>> entries;
+    protected final String[] paths;
+    protected final Object[] children;
 
     protected AbstractListChildMap(List<Entry<T>> entries) {
-        this.entries = entries;
+        int size = entries.size();
+        this.paths = new String[size];
+        this.children = new Object[size];
+        for (int i = 0; i < size; i++) {
+            Entry<T> entry = entries.get(i);
+            paths[i] = entry.getPath();
+            children[i] = entry.getValue();
+        }
+    }
+
+    /**
+     * Creates a child map with the given sorted children.
+     *
+     * Caller must ensure the arrays are not mutated as the constructor doesn't make a defensive copy.
+     */
+    protected AbstractListChildMap(String[] paths, Object[] children) {
+        this.paths = paths;
+        this.children = children;
     }
 
     @Override
@@ -34,18 +59,24 @@ public boolean isEmpty() {
 
     @Override
     public int size() {
-        return entries.size();
+        return paths.length;
     }
 
     @Override
     public Stream<Entry<T>> stream() {
-        return entries.stream();
+        return IntStream.range(0, paths.length)
+            .mapToObj(index -> new Entry<>(paths[index], getChild(index)));
+    }
+
+    @SuppressWarnings("unchecked")
+    protected T getChild(int index) {
+        return (T) children[index];
     }
 
     protected int findChildIndexWithCommonPrefix(VfsRelativePath targetPath, CaseSensitivity caseSensitivity) {
         return SearchUtil.binarySearch(
-            entries,
-            candidate -> targetPath.compareToFirstSegment(candidate.getPath(), caseSensitivity)
+            Arrays.asList(paths),
+            candidate -> targetPath.compareToFirstSegment(candidate, caseSensitivity)
         );
     }
 
@@ -53,9 +84,8 @@ protected int findChildIndexWithCommonPrefix(VfsRelativePath targetPath, CaseSen
     public <RESULT> ChildMap<RESULT> invalidate(VfsRelativePath targetPath, CaseSensitivity caseSensitivity, InvalidationHandler<T, RESULT> handler) {
         int childIndex = findChildIndexWithCommonPrefix(targetPath, caseSensitivity);
         if (childIndex >= 0) {
-            Entry<T> entry = entries.get(childIndex);
-            String childPath = entry.getPath();
-            return entry.withNode(targetPath, caseSensitivity, new AbstractInvalidateChildHandler<T, RESULT>(handler) {
+            String childPath = paths[childIndex];
+            return Entry.withNode(childPath, getChild(childIndex), targetPath, caseSensitivity, new AbstractInvalidateChildHandler<T, RESULT>(handler) {
 
                 @SuppressWarnings("unchecked")
                 @Override
@@ -89,10 +119,10 @@ public ChildMap<RESULT> withRemovedChild() {
     public ChildMap<T> store(VfsRelativePath targetPath, CaseSensitivity caseSensitivity, StoreHandler<T> storeHandler) {
         int childIndex = findChildIndexWithCommonPrefix(targetPath, caseSensitivity);
         if (childIndex >= 0) {
-            return entries.get(childIndex).handlePath(targetPath, caseSensitivity, new AbstractStorePathRelationshipHandler<T>(caseSensitivity, storeHandler) {
+            return Entry.handlePath(paths[childIndex], getChild(childIndex), targetPath, caseSensitivity, new AbstractStorePathRelationshipHandler<T>(caseSensitivity, storeHandler) {
                 @Override
                 public ChildMap<T> withReplacedChild(T newChild) {
-                    return withReplacedChild(entries.get(childIndex).getPath(), newChild);
+                    return withReplacedChild(paths[childIndex], newChild);
                 }
 
                 @Override
@@ -107,30 +137,43 @@ public ChildMap<T> withNewChild(String newChildPath, T newChild) {
             });
         } else {
             T newChild = storeHandler.createChild();
-            return withNewChild(-childIndex - 1, targetPath.toString(), newChild);
+            return withNewChild(-childIndex - 1, ChildMapFactory.internPath(targetPath.toString()), newChild);
         }
     }
 
     protected ChildMap<T> withNewChild(int insertBefore, String path, T newChild) {
-        List<Entry<T>> newChildren = new ArrayList<>(entries);
-        newChildren.add(insertBefore, new Entry<>(path, newChild));
-        return ChildMapFactory.childMapFromSorted(newChildren);
+        int size = paths.length;
+        String[] newPaths = new String[size + 1];
+        Object[] newChildren = new Object[size + 1];
+        System.arraycopy(paths, 0, newPaths, 0, insertBefore);
+        System.arraycopy(children, 0, newChildren, 0, insertBefore);
+        newPaths[insertBefore] = path;
+        newChildren[insertBefore] = newChild;
+        System.arraycopy(paths, insertBefore, newPaths, insertBefore + 1, size - insertBefore);
+        System.arraycopy(children, insertBefore, newChildren, insertBefore + 1, size - insertBefore);
+        return ChildMapFactory.childMapFromSorted(newPaths, newChildren);
     }
 
     protected ChildMap<T> withReplacedChild(int childIndex, String newPath, T newChild) {
-        Entry<T> oldEntry = entries.get(childIndex);
-        if (oldEntry.getPath().equals(newPath) && oldEntry.getValue().equals(newChild)) {
+        if (paths[childIndex].equals(newPath) && children[childIndex].equals(newChild)) {
             return this;
         }
-        List<Entry<T>> newChildren = new ArrayList<>(entries);
-        newChildren.set(childIndex, new Entry<>(newPath, newChild));
-        return ChildMapFactory.childMapFromSorted(newChildren);
+        String[] newPaths = paths.clone();
+        Object[] newChildren = children.clone();
+        newPaths[childIndex] = newPath;
+        newChildren[childIndex] = newChild;
+        return ChildMapFactory.childMapFromSorted(newPaths, newChildren);
     }
 
     protected ChildMap<T> withRemovedChild(int childIndex) {
-        List<Entry<T>> newChildren = new ArrayList<>(entries);
-        newChildren.remove(childIndex);
-        return ChildMapFactory.childMapFromSorted(newChildren);
+        int size = paths.length;
+        String[] newPaths = new String[size - 1];
+        Object[] newChildren = new Object[size - 1];
+        System.arraycopy(paths, 0, newPaths, 0, childIndex);
+        System.arraycopy(children, 0, newChildren, 0, childIndex);
+        System.arraycopy(paths, childIndex + 1, newPaths, childIndex, size - childIndex - 1);
+        System.arraycopy(children, childIndex + 1, newChildren, childIndex, size - childIndex - 1);
+        return ChildMapFactory.childMapFromSorted(newPaths, newChildren);
     }
 
     @Override
@@ -144,16 +187,18 @@ public boolean equals(Object o) {
 
         AbstractListChildMap<?> that = (AbstractListChildMap<?>) o;
 
-        return entries.equals(that.entries);
+        return Arrays.equals(paths, that.paths) && Arrays.equals(children, that.children);
     }
 
     @Override
     public int hashCode() {
-        return entries.hashCode();
+        int result = Arrays.hashCode(paths);
+        result = 31 * result + Arrays.hashCode(children);
+        return result;
     }
 
     @Override
     public String toString() {
-        return entries.toString();
+        return stream().collect(Collectors.toList()).toString();
     }
 }
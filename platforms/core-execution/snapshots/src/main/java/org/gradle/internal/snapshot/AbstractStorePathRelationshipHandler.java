@@ -41,7 +41,7 @@ public ChildMap<T> handleAsDescendantOfChild(VfsRelativePath targetPath, String
     @Override
     public ChildMap<T> handleAsAncestorOfChild(VfsRelativePath targetPath, String childPath, T child) {
         T newChild = handler.handleAsAncestorOfChild(childPath, child);
-        return withReplacedChild(targetPath.getAsString(), newChild);
+        return withReplacedChild(ChildMapFactory.internPath(targetPath.getAsString()), newChild);
     }
 
     @Override
@@ -52,10 +52,10 @@ public ChildMap<T> handleExactMatchWithChild(VfsRelativePath targetPath, String
 
     @Override
     public ChildMap<T> handleSiblingOfChild(VfsRelativePath targetPath, String childPath, T child, int commonPrefixLength) {
-        String commonPrefix = childPath.substring(0, commonPrefixLength);
-        String newChildPath = childPath.substring(commonPrefixLength + 1);
+        String commonPrefix = ChildMapFactory.internPath(childPath.substring(0, commonPrefixLength));
+        String newChildPath = ChildMapFactory.internPath(childPath.substring(commonPrefixLength + 1));
         ChildMap.Entry<T> newChild = new ChildMap.Entry<>(newChildPath, child);
-        String siblingPath = targetPath.pathFromChild(commonPrefix).getAsString();
+        String siblingPath = ChildMapFactory.internPath(targetPath.pathFromChild(commonPrefix).getAsString());
         ChildMap.Entry<T> sibling = new ChildMap.Entry<>(siblingPath, handler.createChild());
         ChildMap<T> newChildren = ChildMapFactory.childMap(caseSensitivity, newChild, sibling);
         return withReplacedChild(commonPrefix, handler.createNodeFromChildren(newChildren));
@@ -63,7 +63,7 @@ public ChildMap<T> handleSiblingOfChild(VfsRelativePath targetPath, String child
 
     @Override
     public ChildMap<T> handleUnrelatedToAnyChild(VfsRelativePath targetPath) {
-        String path = targetPath.getAsString();
+        String path = ChildMapFactory.internPath(targetPath.getAsString());
         T newNode = handler.createChild();
         return withNewChild(path, newNode);
     }
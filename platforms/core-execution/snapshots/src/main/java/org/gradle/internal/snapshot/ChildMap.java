@@ -65,11 +65,29 @@ public Entry(String path, T value) {
         }
 
         public <RESULT> RESULT withNode(VfsRelativePath targetPath, CaseSensitivity caseSensitivity, NodeHandler<T, RESULT> handler) {
-            return handleAncestorDescendantOrExactMatch(targetPath, caseSensitivity, handler)
-                .orElseGet(handler::handleUnrelatedToAnyChild);
+            return withNode(path, value, targetPath, caseSensitivity, handler);
         }
 
         public <RESULT> Optional<RESULT> handleAncestorDescendantOrExactMatch(VfsRelativePath targetPath, CaseSensitivity caseSensitivity, NodeHandler<T, RESULT> handler) {
+            return handleAncestorDescendantOrExactMatch(path, value, targetPath, caseSensitivity, handler);
+        }
+
+        public <RESULT> RESULT handlePath(VfsRelativePath targetPath, CaseSensitivity caseSensitivity, PathRelationshipHandler<RESULT, T> handler) {
+            return handlePath(path, value, targetPath, caseSensitivity, handler);
+        }
+
+        /**
+         * Same as {@link #withNode(VfsRelativePath, CaseSensitivity, NodeHandler)}, for child maps that don't keep their children in entries.
+         */
+        public static <T, RESULT> RESULT withNode(String path, T value, VfsRelativePath targetPath, CaseSensitivity caseSensitivity, NodeHandler<T, RESULT> handler) {
+            return handleAncestorDescendantOrExactMatch(path, value, targetPath, caseSensitivity, handler)
+                .orElseGet(handler::handleUnrelatedToAnyChild);
+        }
+
+        /**
+         * Same as {@link #handleAncestorDescendantOrExactMatch(VfsRelativePath, CaseSensitivity, NodeHandler)}, for child maps that don't keep their children in entries.
+         */
+        public static <T, RESULT> Optional<RESULT> handleAncestorDescendantOrExactMatch(String path, T value, VfsRelativePath targetPath, CaseSensitivity caseSensitivity, NodeHandler<T, RESULT> handler) {
             if (targetPath.hasPrefix(path, caseSensitivity)) {
                 if (targetPath.length() == path.length()) {
                     return Optional.of(handler.handleExactMatchWithChild(value));
@@ -82,7 +100,10 @@ public <RESULT> Optional<RESULT> handleAncestorDescendantOrExactMatch(VfsRelativ
             return Optional.empty();
         }
 
-        public <RESULT> RESULT handlePath(VfsRelativePath targetPath, CaseSensitivity caseSensitivity, PathRelationshipHandler<RESULT, T> handler) {
+        /**
+         * Same as {@link #handlePath(VfsRelativePath, CaseSensitivity, PathRelationshipHandler)}, for child maps that don't keep their children in entries.
+         */
+        public static <T, RESULT> RESULT handlePath(String path, T value, VfsRelativePath targetPath, CaseSensitivity caseSensitivity, PathRelationshipHandler<RESULT, T> handler) {
             int pathToParentLength = path.length();
             int targetPathLength = targetPath.length();
             int maxPos = Math.min(pathToParentLength, targetPathLength);
@@ -17,6 +17,8 @@
 package org.gradle.internal.snapshot;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
 
 import java.util.ArrayList;
 import java.util.Collection;
@@ -32,6 +34,16 @@ public class ChildMapFactory {
      */
     private static final int MINIMUM_CHILD_COUNT_FOR_BINARY_SEARCH = 10;
 
+    /**
+     * The same path segments, like {@code src} or {@code build}, occur in many places in the file system hierarchy,
+     * so the paths created when storing snapshots are shared between all child maps.
+     */
+    private static final Interner<String> PATHS = Interners.newWeakInterner();
+
+    static String internPath(String path) {
+        return PATHS.intern(path);
+    }
+
     public static <T> ChildMap<T> childMap(CaseSensitivity caseSensitivity, Collection<ChildMap.Entry<T>> entries) {
         List<ChildMap.Entry<T>> sortedEntries = new ArrayList<>(entries);
         sortedEntries.sort(Comparator.comparing(ChildMap.Entry::getPath, PathUtil.getPathComparator(caseSensitivity)));
@@ -52,6 +64,21 @@ public static <T> ChildMap<T> childMapFromSorted(List<ChildMap.Entry<T>> sortedE
         }
     }
 
+    @SuppressWarnings("unchecked")
+    static <T> ChildMap<T> childMapFromSorted(String[] sortedPaths, Object[] children) {
+        int size = sortedPaths.length;
+        switch (size) {
+            case 0:
+                return EmptyChildMap.getInstance();
+            case 1:
+                return new SingletonChildMap<>(sortedPaths[0], (T) children[0]);
+            default:
+                return (size < MINIMUM_CHILD_COUNT_FOR_BINARY_SEARCH)
+                    ? new MediumChildMap<>(sortedPaths, children)
+                    : new LargeChildMap<>(sortedPaths, children);
+        }
+    }
+
     static <T> ChildMap<T> childMap(CaseSensitivity caseSensitivity, ChildMap.Entry<T> entry1, ChildMap.Entry<T> entry2) {
         int compared = PathUtil.getPathComparator(caseSensitivity).compare(entry1.getPath(), entry2.getPath());
         List<ChildMap.Entry<T>> sortedEntries = compared < 0
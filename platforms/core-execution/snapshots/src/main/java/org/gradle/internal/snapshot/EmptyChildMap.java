@@ -42,7 +42,7 @@ public <RESULT> ChildMap<RESULT> invalidate(VfsRelativePath targetPath, CaseSens
 
     @Override
     public ChildMap<T> store(VfsRelativePath targetPath, CaseSensitivity caseSensitivity, StoreHandler<T> storeHandler) {
-        return new SingletonChildMap<>(targetPath.getAsString(), storeHandler.createChild());
+        return new SingletonChildMap<>(ChildMapFactory.internPath(targetPath.getAsString()), storeHandler.createChild());
     }
 
     @Override
@@ -42,6 +42,16 @@ public void enter(String name) {
         }
     }
 
+    /**
+     * Returns a new tracker positioned at the current location of this tracker.
+     */
+    public RelativePathTracker copy() {
+        RelativePathTracker copy = new RelativePathTracker();
+        copy.rootName = rootName;
+        copy.segments.addAll(segments);
+        return copy;
+    }
+
     public String leave() {
         String name = segments.pollLast();
         if (name == null) {
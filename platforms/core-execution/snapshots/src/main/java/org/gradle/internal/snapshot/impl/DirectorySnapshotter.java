@@ -56,6 +56,10 @@
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
@@ -64,6 +68,11 @@
 
 /**
  * For creating {@link DirectorySnapshot}s of directories.
+ *
+ * When parallel traversal is enabled, each subdirectory is snapshotted by a separate task on a shared fork/join pool,
+ * and regular files are hashed concurrently with the walk.
+ * The results of the tasks are merged into the parent directory before it is left,
+ * so the resulting snapshot is the same as the one created by a sequential walk.
  */
 public class DirectorySnapshotter {
     private static final EnumSet<FileVisitOption> DONT_FOLLOW_SYMLINKS = EnumSet.noneOf(FileVisitOption.class);
@@ -89,12 +98,18 @@ public Iterable<String> getRemappedSegments(Iterable<String> segments) {
     private final Interner<String> stringInterner;
     private final DefaultExcludes defaultExcludes;
     private final DirectorySnapshotterStatistics.Collector collector;
+    private final boolean parallelTraversal;
 
     public DirectorySnapshotter(FileHasher hasher, Interner<String> stringInterner, Collection<String> defaultExcludes, DirectorySnapshotterStatistics.Collector collector) {
+        this(hasher, stringInterner, defaultExcludes, collector, false);
+    }
+
+    public DirectorySnapshotter(FileHasher hasher, Interner<String> stringInterner, Collection<String> defaultExcludes, DirectorySnapshotterStatistics.Collector collector, boolean parallelTraversal) {
         this.hasher = hasher;
         this.stringInterner = stringInterner;
         this.defaultExcludes = new DefaultExcludes(defaultExcludes);
         this.collector = collector;
+        this.parallelTraversal = parallelTraversal;
     }
 
     /**
@@ -122,7 +137,7 @@ public FileSystemLocationSnapshot snapshot(
         try {
             AtomicBoolean hasBeenFiltered = new AtomicBoolean();
             Path rootPath = Paths.get(absolutePath);
-            PathVisitor visitor = new PathVisitor(predicate, hasBeenFiltered, hasher, stringInterner, defaultExcludes, collector, EMPTY_SYMBOLIC_LINK_MAPPING, previouslyKnownSnapshots, unfilteredSnapshotRecorder);
+            PathVisitor visitor = new PathVisitor(predicate, hasBeenFiltered, hasher, stringInterner, defaultExcludes, collector, parallelTraversal, EMPTY_SYMBOLIC_LINK_MAPPING, previouslyKnownSnapshots, unfilteredSnapshotRecorder);
             Files.walkFileTree(rootPath, DONT_FOLLOW_SYMLINKS, Integer.MAX_VALUE, visitor);
             FileSystemLocationSnapshot result = visitor.getResult();
             if (!hasBeenFiltered.get()) {
@@ -134,6 +149,35 @@ public FileSystemLocationSnapshot snapshot(
         }
     }
 
+    /**
+     * Runs the given action on the parallel traversal pool, forking it onto the local queue when called from within the pool.
+     */
+    private static <T> ForkJoinTask<T> fork(Callable<T> action) {
+        ForkJoinTask<T> task = ForkJoinTask.adapt(action);
+        if (ForkJoinTask.getPool() == ParallelTraversalPool.INSTANCE) {
+            task.fork();
+        } else {
+            ParallelTraversalPool.INSTANCE.execute(task);
+        }
+        return task;
+    }
+
+    /**
+     * Lazily creates the pool used for parallel traversal. Idle worker threads of the pool are discarded, so the pool does not need to be shut down.
+     */
+    private static class ParallelTraversalPool {
+        private static final ForkJoinPool INSTANCE = new ForkJoinPool(
+            Runtime.getRuntime().availableProcessors(),
+            pool -> {
+                ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+                thread.setName("Directory snapshotter thread " + thread.getPoolIndex());
+                return thread;
+            },
+            null,
+            false
+        );
+    }
+
     private interface SymbolicLinkMapping {
         String remapAbsolutePath(Path path);
 
@@ -254,15 +298,18 @@ public boolean test(String element) {
     }
 
     private static class PathVisitor extends DirectorySnapshotterStatistics.CollectingFileVisitor {
-        private final RelativePathTracker pathTracker = new RelativePathTracker();
+        private final RelativePathTracker pathTracker;
         private final FilteredTrackingMerkleDirectorySnapshotBuilder builder;
         private final SnapshottingFilter.DirectoryWalkerPredicate predicate;
         private final AtomicBoolean hasBeenFiltered;
         private final FileHasher hasher;
         private final Interner<String> stringInterner;
         private final DefaultExcludes defaultExcludes;
+        private final boolean parallelTraversal;
         private final SymbolicLinkMapping symbolicLinkMapping;
-        private final Deque<String> parentDirectories = new ArrayDeque<>();
+        private final Deque<String> parentDirectories;
+        // Actions merging the results of concurrently snapshotted children into the builder, one list per entered directory
+        private final Deque<List<Runnable>> pendingChildren = new ArrayDeque<>();
         private final Set<FileSystemLocationSnapshot> filteredDirectorySnapshots = new HashSet<>();
         private final ImmutableMap<String, ? extends FileSystemLocationSnapshot> previouslyKnownSnapshots;
         private final Consumer<FileSystemLocationSnapshot> unfilteredSnapshotRecorder;
@@ -274,22 +321,45 @@ public PathVisitor(
             Interner<String> stringInterner,
             DefaultExcludes defaultExcludes,
             DirectorySnapshotterStatistics.Collector statisticsCollector,
+            boolean parallelTraversal,
             SymbolicLinkMapping symbolicLinkMapping,
             Map<String, ? extends FileSystemLocationSnapshot> previouslyKnownSnapshots,
             Consumer<FileSystemLocationSnapshot> unfilteredSnapshotRecorder
         ) {
             super(statisticsCollector);
+            this.pathTracker = new RelativePathTracker();
             this.builder = FilteredTrackingMerkleDirectorySnapshotBuilder.sortingRequired(this::recordUnfilteredSnapshot);
             this.predicate = predicate;
             this.hasBeenFiltered = hasBeenFiltered;
             this.hasher = hasher;
             this.stringInterner = stringInterner;
             this.defaultExcludes = defaultExcludes;
+            this.parallelTraversal = parallelTraversal;
             this.symbolicLinkMapping = symbolicLinkMapping;
+            this.parentDirectories = new ArrayDeque<>();
             this.previouslyKnownSnapshots = ImmutableMap.copyOf(previouslyKnownSnapshots);
             this.unfilteredSnapshotRecorder = unfilteredSnapshotRecorder;
         }
 
+        /**
+         * Creates a visitor for a subdirectory of the directory currently visited by {@code parent}, to be walked concurrently.
+         */
+        private PathVisitor(PathVisitor parent, AtomicBoolean hasBeenFiltered, Consumer<FileSystemLocationSnapshot> unfilteredSnapshotRecorder) {
+            super(parent);
+            this.pathTracker = parent.pathTracker.copy();
+            this.builder = FilteredTrackingMerkleDirectorySnapshotBuilder.sortingRequired(this::recordUnfilteredSnapshot);
+            this.predicate = parent.predicate;
+            this.hasBeenFiltered = hasBeenFiltered;
+            this.hasher = parent.hasher;
+            this.stringInterner = parent.stringInterner;
+            this.defaultExcludes = parent.defaultExcludes;
+            this.parallelTraversal = true;
+            this.symbolicLinkMapping = parent.symbolicLinkMapping;
+            this.parentDirectories = new ArrayDeque<>(parent.parentDirectories);
+            this.previouslyKnownSnapshots = parent.previouslyKnownSnapshots;
+            this.unfilteredSnapshotRecorder = unfilteredSnapshotRecorder;
+        }
+
         private void recordUnfilteredSnapshot(FileSystemLocationSnapshot snapshot) {
             if (snapshot.getType() != FileType.Directory || !filteredDirectorySnapshots.contains(snapshot)) {
                 unfilteredSnapshotRecorder.accept(snapshot);
@@ -298,6 +368,10 @@ private void recordUnfilteredSnapshot(FileSystemLocationSnapshot snapshot) {
 
         @Override
         protected FileVisitResult doPreVisitDirectory(Path dir, BasicFileAttributes attrs) {
+            if (parallelTraversal && !pendingChildren.isEmpty()) {
+                forkSubtree(dir);
+                return FileVisitResult.SKIP_SUBTREE;
+            }
             String fileName = getInternedFileName(dir);
             pathTracker.enter(fileName);
             if (shouldVisitDirectory(dir, fileName)) {
@@ -317,6 +391,7 @@ protected FileVisitResult doPreVisitDirectory(Path dir, BasicFileAttributes attr
 
                 builder.enterDirectory(AccessType.DIRECT, internedRemappedAbsolutePath, fileName, INCLUDE_EMPTY_DIRS);
                 parentDirectories.addFirst(dir.toString());
+                pendingChildren.addLast(new ArrayList<>());
                 return FileVisitResult.CONTINUE;
             } else {
                 pathTracker.leave();
@@ -333,6 +408,9 @@ protected FileVisitResult doPostVisitDirectory(Path dir, IOException exc) {
             if (isNotFileSystemLoopException(exc)) {
                 throw new UncheckedIOException(String.format("Could not read directory path '%s'.", dir), exc);
             }
+            for (Runnable pendingChild : pendingChildren.removeLast()) {
+                pendingChild.run();
+            }
             boolean currentLevelComplete = builder.isCurrentLevelUnfiltered();
             FileSystemLocationSnapshot currentLevel = builder.leaveDirectory();
             if (!currentLevelComplete) {
@@ -342,6 +420,37 @@ protected FileVisitResult doPostVisitDirectory(Path dir, IOException exc) {
             return FileVisitResult.CONTINUE;
         }
 
+        private void forkSubtree(Path dir) {
+            AtomicBoolean subtreeHasBeenFiltered = new AtomicBoolean();
+            // The recorder may not be thread-safe, so the unfiltered snapshots of the subtree are replayed on the walking thread
+            List<FileSystemLocationSnapshot> subtreeUnfilteredSnapshots = new ArrayList<>();
+            PathVisitor subtreeVisitor = new PathVisitor(this, subtreeHasBeenFiltered, subtreeUnfilteredSnapshots::add);
+            ForkJoinTask<FileSystemLocationSnapshot> subtree = fork(() -> {
+                try {
+                    Files.walkFileTree(dir, DONT_FOLLOW_SYMLINKS, Integer.MAX_VALUE, subtreeVisitor);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(String.format("Could not list contents of directory '%s'.", dir), e);
+                }
+                return subtreeVisitor.getResult();
+            });
+            pendingChildren.getLast().add(() -> {
+                FileSystemLocationSnapshot result = subtree.join();
+                subtreeUnfilteredSnapshots.forEach(unfilteredSnapshotRecorder);
+                if (result instanceof DirectorySnapshot) {
+                    builder.visitDirectory((DirectorySnapshot) result);
+                } else if (result instanceof FileSystemLeafSnapshot) {
+                    builder.visitLeafElement((FileSystemLeafSnapshot) result);
+                }
+                if (subtreeHasBeenFiltered.get()) {
+                    if (result != null) {
+                        filteredDirectorySnapshots.add(result);
+                    }
+                    builder.markCurrentLevelAsFiltered();
+                    hasBeenFiltered.set(true);
+                }
+            });
+        }
+
         @Override
         protected FileVisitResult doVisitFile(Path file, BasicFileAttributes attrs) {
             String internedFileName = getInternedFileName(file);
@@ -393,6 +502,7 @@ private DirectorySnapshot followSymlink(Path file, String internedFileName, Atom
                         stringInterner,
                         defaultExcludes,
                         collector,
+                        parallelTraversal,
                         symbolicLinkMapping.withNewMapping(file.toString(), targetDirString, pathTracker),
                         previouslyKnownSnapshots,
                         unfilteredSnapshotRecorder);
@@ -413,7 +523,17 @@ private boolean introducesCycle(String targetDirString) {
         private void visitResolvedFile(Path file, BasicFileAttributes targetAttributes, AccessType accessType) {
             String internedName = intern(file.getFileName().toString());
             if (shouldVisitFile(file, internedName)) {
-                builder.visitLeafElement(snapshotFile(file, internedName, targetAttributes, accessType));
+                String internedRemappedAbsoluteFilePath = intern(symbolicLinkMapping.remapAbsolutePath(file));
+                FileSystemLeafSnapshot previouslyKnownSnapshot = getPreviouslyKnownLeafSnapshot(internedRemappedAbsoluteFilePath);
+                if (previouslyKnownSnapshot != null) {
+                    builder.visitLeafElement(previouslyKnownSnapshot);
+                } else if (parallelTraversal && !pendingChildren.isEmpty() && targetAttributes.isRegularFile()) {
+                    collector.recordHashFileConcurrently();
+                    ForkJoinTask<FileSystemLeafSnapshot> snapshot = fork(() -> snapshotFile(file, internedRemappedAbsoluteFilePath, internedName, targetAttributes, accessType));
+                    pendingChildren.getLast().add(() -> builder.visitLeafElement(snapshot.join()));
+                } else {
+                    builder.visitLeafElement(snapshotFile(file, internedRemappedAbsoluteFilePath, internedName, targetAttributes, accessType));
+                }
             }
         }
 
@@ -435,15 +555,16 @@ private static BasicFileAttributes readAttributesOfSymlinkTarget(Path symlink, B
             }
         }
 
-        private FileSystemLeafSnapshot snapshotFile(Path absoluteFilePath, String internedName, BasicFileAttributes attrs, AccessType accessType) {
-            String internedRemappedAbsoluteFilePath = intern(symbolicLinkMapping.remapAbsolutePath(absoluteFilePath));
+        @Nullable
+        private FileSystemLeafSnapshot getPreviouslyKnownLeafSnapshot(String internedRemappedAbsoluteFilePath) {
             FileSystemLocationSnapshot previouslyKnownSnapshot = previouslyKnownSnapshots.get(internedRemappedAbsoluteFilePath);
-            if (previouslyKnownSnapshot != null) {
-                if (!(previouslyKnownSnapshot instanceof FileSystemLeafSnapshot)) {
-                    throw new IllegalStateException("Expected a previously known leaf snapshot at " + internedRemappedAbsoluteFilePath + ", but found " + previouslyKnownSnapshot);
-                }
-                return (FileSystemLeafSnapshot) previouslyKnownSnapshot;
+            if (previouslyKnownSnapshot != null && !(previouslyKnownSnapshot instanceof FileSystemLeafSnapshot)) {
+                throw new IllegalStateException("Expected a previously known leaf snapshot at " + internedRemappedAbsoluteFilePath + ", but found " + previouslyKnownSnapshot);
             }
+            return (FileSystemLeafSnapshot) previouslyKnownSnapshot;
+        }
+
+        private FileSystemLeafSnapshot snapshotFile(Path absoluteFilePath, String internedRemappedAbsoluteFilePath, String internedName, BasicFileAttributes attrs, AccessType accessType) {
             if (attrs.isSymbolicLink()) {
                 return new MissingFileSnapshot(internedRemappedAbsoluteFilePath, internedName, accessType);
             } else if (!attrs.isRegularFile()) {
@@ -48,12 +48,24 @@ public interface DirectorySnapshotterStatistics {
      */
     long getFailedFiles();
 
+    /**
+     * The number of directory subtrees that were split off and visited concurrently.
+     */
+    long getConcurrentlyVisitedSubtrees();
+
+    /**
+     * The number of files that were hashed concurrently with the directory walk.
+     */
+    long getConcurrentlyHashedFiles();
+
     @ServiceScope(Scope.Global.class)
     class Collector {
         private final AtomicLong hierarchyCount = new AtomicLong();
         private final AtomicLong directoryCount = new AtomicLong();
         private final AtomicLong fileCount = new AtomicLong();
         private final AtomicLong failedFileCount = new AtomicLong();
+        private final AtomicLong concurrentSubtreeCount = new AtomicLong();
+        private final AtomicLong concurrentFileHashCount = new AtomicLong();
 
         public void recordVisitHierarchy() {
             hierarchyCount.incrementAndGet();
@@ -71,11 +83,21 @@ public void recordVisitFileFailed() {
             failedFileCount.incrementAndGet();
         }
 
+        public void recordVisitSubtreeConcurrently() {
+            concurrentSubtreeCount.incrementAndGet();
+        }
+
+        public void recordHashFileConcurrently() {
+            concurrentFileHashCount.incrementAndGet();
+        }
+
         public DirectorySnapshotterStatistics collect() {
             long hierarchyCount = this.hierarchyCount.getAndSet(0);
             long directoryCount = this.directoryCount.getAndSet(0);
             long fileCount = this.fileCount.getAndSet(0);
             long failedFileCount = this.failedFileCount.getAndSet(0);
+            long concurrentSubtreeCount = this.concurrentSubtreeCount.getAndSet(0);
+            long concurrentFileHashCount = this.concurrentFileHashCount.getAndSet(0);
 
             return new DirectorySnapshotterStatistics() {
                 @Override
@@ -98,10 +120,25 @@ public long getFailedFiles() {
                     return failedFileCount;
                 }
 
+                @Override
+                public long getConcurrentlyVisitedSubtrees() {
+                    return concurrentSubtreeCount;
+                }
+
+                @Override
+                public long getConcurrentlyHashedFiles() {
+                    return concurrentFileHashCount;
+                }
+
                 @Override
                 public String toString() {
-                    return MessageFormat.format("Snapshot {0,number,integer} directory hierarchies (visited {1,number,integer} directories, {2,number,integer} files and {3,number,integer} failed files)",
+                    String summary = MessageFormat.format("Snapshot {0,number,integer} directory hierarchies (visited {1,number,integer} directories, {2,number,integer} files and {3,number,integer} failed files)",
                         hierarchyCount, directoryCount, fileCount, failedFileCount);
+                    if (concurrentSubtreeCount == 0 && concurrentFileHashCount == 0) {
+                        return summary;
+                    }
+                    return summary + MessageFormat.format(", of which {0,number,integer} subtrees were visited and {1,number,integer} files were hashed concurrently",
+                        concurrentSubtreeCount, concurrentFileHashCount);
                 }
             };
         }
@@ -109,15 +146,30 @@ public String toString() {
 
     abstract class CollectingFileVisitor implements FileVisitor<Path> {
         protected final Collector collector;
+        private boolean rootDirectoryAlreadyRecorded;
 
         public CollectingFileVisitor(Collector collector) {
             this.collector = collector;
             collector.recordVisitHierarchy();
         }
 
+        /**
+         * Creates a visitor for a subtree that is split off from the hierarchy visited by {@code parent}.
+         * The root directory of the subtree has already been recorded by the parent visitor.
+         */
+        protected CollectingFileVisitor(CollectingFileVisitor parent) {
+            this.collector = parent.collector;
+            this.rootDirectoryAlreadyRecorded = true;
+            collector.recordVisitSubtreeConcurrently();
+        }
+
         @Override
         public final FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
-            collector.recordVisitDirectory();
+            if (rootDirectoryAlreadyRecorded) {
+                rootDirectoryAlreadyRecorded = false;
+            } else {
+                collector.recordVisitDirectory();
+            }
             return doPreVisitDirectory(dir, attrs);
         }
 
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.snapshot
+
+import spock.lang.Specification
+
+import static org.gradle.internal.snapshot.CaseSensitivity.CASE_SENSITIVE
+
+class ChildMapFactoryTest extends Specification {
+
+    def "creates child map for #size children"() {
+        def entries = (0..<size).collect { new ChildMap.Entry<String>("child${('a'..'z')[it]}".toString(), "value$it".toString()) }
+
+        when:
+        def childMap = ChildMapFactory.<String> childMapFromSorted(entries)
+
+        then:
+        childMap.getClass() == type
+        childMap.size() == size
+        childMap.stream().collect() == entries
+        childMap == ChildMapFactory.<String> childMapFromSorted(entries*.path as String[], entries*.value as Object[])
+
+        where:
+        size | type
+        0    | EmptyChildMap
+        1    | SingletonChildMap
+        5    | MediumChildMap
+        15   | LargeChildMap
+    }
+
+    def "shares paths of stored children between child maps"() {
+        def first = store(EmptyChildMap.<String> getInstance(), "build")
+        def second = store(store(EmptyChildMap.<String> getInstance(), "src"), new String("build"))
+
+        expect:
+        def firstPath = first.stream().findFirst().get().path
+        def secondPath = second.stream().filter { it.path == "build" }.findFirst().get().path
+        firstPath.is(secondPath)
+    }
+
+    private static ChildMap<String> store(ChildMap<String> childMap, String path) {
+        childMap.store(VfsRelativePath.of(path), CASE_SENSITIVE, new ChildMap.StoreHandler<String>() {
+            @Override
+            String handleAsDescendantOfChild(VfsRelativePath pathInChild, String child) {
+                throw new UnsupportedOperationException()
+            }
+
+            @Override
+            String handleAsAncestorOfChild(String childPath, String child) {
+                throw new UnsupportedOperationException()
+            }
+
+            @Override
+            String mergeWithExisting(String child) {
+                return child
+            }
+
+            @Override
+            String createChild() {
+                return path
+            }
+
+            @Override
+            String createNodeFromChildren(ChildMap<String> children) {
+                throw new UnsupportedOperationException()
+            }
+        })
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.snapshot.impl
+
+import org.gradle.api.internal.cache.StringInterner
+import org.gradle.internal.hash.TestFileHasher
+import org.gradle.internal.snapshot.FileSystemLocationSnapshot
+import org.gradle.internal.snapshot.SnapshotVisitorUtil
+import org.gradle.internal.snapshot.SnapshottingFilter
+import org.gradle.test.fixtures.file.CleanupTestDirectory
+import org.gradle.test.fixtures.file.TestFile
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.gradle.test.precondition.Requires
+import org.gradle.test.preconditions.UnitTestPreconditions
+import org.gradle.util.UsesNativeServices
+import org.junit.Rule
+import spock.lang.Specification
+
+import java.nio.file.Path
+
+@UsesNativeServices
+@CleanupTestDirectory(fieldName = "tmpDir")
+class ParallelDirectorySnapshotterTest extends Specification {
+    @Rule
+    public final TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider(getClass())
+
+    def fileHasher = new TestFileHasher()
+    def statisticsCollector = new DirectorySnapshotterStatistics.Collector()
+    def sequentialSnapshotter = new DirectorySnapshotter(fileHasher, new StringInterner(), [], statisticsCollector, false)
+    def parallelSnapshotter = new DirectorySnapshotter(fileHasher, new StringInterner(), [], statisticsCollector, true)
+
+    def "creates the same snapshot as a sequential walk"() {
+        given:
+        def rootDir = createTree()
+
+        when:
+        def sequential = snapshot(sequentialSnapshotter, rootDir, predicate)
+        def parallel = snapshot(parallelSnapshotter, rootDir, predicate)
+
+        then:
+        parallel.snapshot.hash == sequential.snapshot.hash
+        SnapshotVisitorUtil.getRelativePaths(parallel.snapshot, true) as Set == SnapshotVisitorUtil.getRelativePaths(sequential.snapshot, true) as Set
+        parallel.unfiltered*.absolutePath as Set == sequential.unfiltered*.absolutePath as Set
+
+        where:
+        predicate << [
+            null,
+            { Path path, String name, boolean isDirectory, Iterable<String> relativePath -> !name.startsWith("excluded") } as SnapshottingFilter.DirectoryWalkerPredicate,
+            { Path path, String name, boolean isDirectory, Iterable<String> relativePath -> !(relativePath as List).contains("dir2") } as SnapshottingFilter.DirectoryWalkerPredicate
+        ]
+    }
+
+    def "reuses previously known snapshots"() {
+        given:
+        def rootDir = createTree()
+        def previouslyKnown = snapshot(sequentialSnapshotter, rootDir.file("dir1"), null).snapshot
+        def previouslyKnownFile = snapshot(sequentialSnapshotter, rootDir.file("dir2/file0.txt"), null).snapshot
+
+        when:
+        def result = parallelSnapshotter.snapshot(rootDir.absolutePath, null, [(previouslyKnown.absolutePath): previouslyKnown, (previouslyKnownFile.absolutePath): previouslyKnownFile], {})
+
+        then:
+        result.hash == snapshot(sequentialSnapshotter, rootDir, null).snapshot.hash
+        SnapshotVisitorUtil.getAbsolutePaths(result, true).contains(rootDir.file("dir1/dir1/file1.txt").absolutePath)
+    }
+
+    @Requires(UnitTestPreconditions.Symlinks)
+    def "follows symlinks like a sequential walk"() {
+        given:
+        def rootDir = createTree()
+        def linkTarget = tmpDir.createDir("target")
+        linkTarget.file("nested/linked.txt").text = "linked"
+        rootDir.file("dir1/link").createLink(linkTarget)
+        rootDir.file("dir2/cycle").createLink(rootDir)
+
+        when:
+        def sequential = snapshot(sequentialSnapshotter, rootDir, null)
+        def parallel = snapshot(parallelSnapshotter, rootDir, null)
+
+        then:
+        parallel.snapshot.hash == sequential.snapshot.hash
+        SnapshotVisitorUtil.getRelativePaths(parallel.snapshot, true) as Set == SnapshotVisitorUtil.getRelativePaths(sequential.snapshot, true) as Set
+    }
+
+    def "reports concurrent work in statistics"() {
+        given:
+        def rootDir = createTree()
+        statisticsCollector.collect()
+
+        when:
+        snapshot(parallelSnapshotter, rootDir, null)
+        def statistics = statisticsCollector.collect()
+
+        then:
+        statistics.visitedHierarchyCount == 1
+        statistics.visitedDirectoryCount == 14
+        statistics.visitedFiles == 32
+        statistics.concurrentlyVisitedSubtrees == 13
+        statistics.concurrentlyHashedFiles == 32
+    }
+
+    private TestFile createTree() {
+        def rootDir = tmpDir.createDir("root")
+        (0..<3).each { first ->
+            (0..<3).each { second ->
+                (0..<2).each { file ->
+                    rootDir.file("dir$first/dir$second/file${file}.txt").text = "$first-$second-$file"
+                }
+                rootDir.file("dir$first/excluded$second.txt").text = "excluded"
+            }
+            rootDir.file("dir$first/file0.txt").text = "$first"
+        }
+        rootDir.file("excluded/file.txt").text = "excluded"
+        rootDir.file("file.txt").text = "root"
+        return rootDir
+    }
+
+    private static Map<String, Object> snapshot(DirectorySnapshotter snapshotter, File root, SnapshottingFilter.DirectoryWalkerPredicate predicate) {
+        List<FileSystemLocationSnapshot> unfiltered = []
+        def snapshot = snapshotter.snapshot(root.absolutePath, predicate, [:], { unfiltered.add(it) })
+        return [snapshot: snapshot, unfiltered: unfiltered]
+    }
+}
@@ -15,6 +15,7 @@
  */
 package org.gradle.launcher.daemon.client;
 
+import com.google.common.annotations.VisibleForTesting;
 import org.gradle.api.GradleException;
 import org.gradle.api.UncheckedIOException;
 import org.gradle.api.internal.classpath.DefaultModuleRegistry;
@@ -23,6 +24,8 @@
 import org.gradle.api.logging.Logging;
 import org.gradle.internal.classpath.ClassPath;
 import org.gradle.internal.concurrent.CompositeStoppable;
+import org.gradle.internal.hash.Hasher;
+import org.gradle.internal.hash.Hashing;
 import org.gradle.internal.installation.CurrentGradleInstallation;
 import org.gradle.internal.installation.GradleInstallation;
 import org.gradle.internal.instrumentation.agent.AgentUtils;
@@ -55,14 +58,19 @@
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 public class DefaultDaemonStarter implements DaemonStarter {
     private static final Logger LOGGER = Logging.getLogger(DefaultDaemonStarter.class);
+    private static final int MIN_CLASS_DATA_SHARING_JAVA_VERSION = 19;
+    private static final long MIN_DAEMON_ARCHIVE_AGE_MILLIS = TimeUnit.MINUTES.toMillis(1);
 
     private final DaemonDir daemonDir;
     private final DaemonParameters daemonParameters;
@@ -131,6 +139,10 @@ public DaemonStartupInfo startDaemon(boolean singleUse) {
             daemonArgs.add(JvmOptions.getDebugArgument(true, true, "5005"));
         }
 
+        if (daemonParameters.shouldUseClassDataSharing()) {
+            daemonArgs.addAll(getClassDataSharingArgs(resolvedJvm, daemonOpts, daemonUid));
+        }
+
         ClassPath agentClasspath = registry.getModule(AgentUtils.AGENT_MODULE_NAME).getImplementationClasspath();
         if (daemonParameters.shouldApplyInstrumentationAgent()) {
             if (agentClasspath.isEmpty()) {
@@ -181,6 +193,71 @@ public DaemonStartupInfo startDaemon(boolean singleUse) {
         );
     }
 
+    /**
+     * Uses a dynamic class data sharing archive per daemon JVM, stored in the versioned daemon directory. The archive holds the classes loaded
+     * by the daemon's bootstrap and Gradle runtime class loaders, so later daemons for the same Gradle version and JVM can map them instead of
+     * loading and verifying them again.
+     *
+     * Daemons never write to the shared archive. While there is no shared archive, each daemon writes its own archive when it exits, and a
+     * later client publishes one of these by renaming it to the shared archive, once it has not been written to for a while. Daemons that are
+     * running keep the archive they mapped, so concurrent daemons for the same JVM do not race on a file they are reading or writing.
+     * The archive is keyed by the location and modification time of the Java executable, and the JVM skips an archive that does not match.
+     *
+     * This requires Java 19 or later, and is skipped when the user configured class data sharing themselves.
+     */
+    @VisibleForTesting
+    List<String> getClassDataSharingArgs(JavaInfo resolvedJvm, List<String> daemonOpts, String daemonUid) {
+        for (String daemonOpt : daemonOpts) {
+            if (daemonOpt.startsWith("-Xshare") || daemonOpt.contains("SharedArchive") || daemonOpt.contains("ArchiveClassesAtExit")) {
+                return Collections.emptyList();
+            }
+        }
+        if (versionValidator.getJavaVersionMajor(resolvedJvm) < MIN_CLASS_DATA_SHARING_JAVA_VERSION) {
+            LOGGER.debug("Not using class data sharing for the daemon, as {} is older than Java {}.", resolvedJvm.getJavaHome(), MIN_CLASS_DATA_SHARING_JAVA_VERSION);
+            return Collections.emptyList();
+        }
+        File javaExecutable = resolvedJvm.getJavaExecutable().getAbsoluteFile();
+        Hasher hasher = Hashing.newHasher();
+        hasher.putString(javaExecutable.getPath());
+        hasher.putLong(javaExecutable.lastModified());
+        String archivePrefix = "daemon-" + hasher.hash().toCompactString();
+        File cdsDir = new File(daemonDir.getVersionedDir(), "cds");
+        GFileUtils.mkdirs(cdsDir);
+
+        File sharedArchive = new File(cdsDir, archivePrefix + ".jsa");
+        publishDaemonArchives(cdsDir, archivePrefix + "-", sharedArchive);
+        if (sharedArchive.isFile()) {
+            return Collections.singletonList("-XX:SharedArchiveFile=" + sharedArchive.getAbsolutePath());
+        }
+        File daemonArchive = new File(cdsDir, archivePrefix + "-" + daemonUid + ".jsa");
+        return Collections.singletonList("-XX:ArchiveClassesAtExit=" + daemonArchive.getAbsolutePath());
+    }
+
+    private static void publishDaemonArchives(File cdsDir, String daemonArchivePrefix, File sharedArchive) {
+        File[] daemonArchives = cdsDir.listFiles((dir, name) -> name.startsWith(daemonArchivePrefix) && name.endsWith(".jsa"));
+        if (daemonArchives == null) {
+            return;
+        }
+        long writtenBefore = System.currentTimeMillis() - MIN_DAEMON_ARCHIVE_AGE_MILLIS;
+        for (File daemonArchive : daemonArchives) {
+            if (daemonArchive.lastModified() > writtenBefore) {
+                // The daemon may still be writing the archive
+                continue;
+            }
+            if (!sharedArchive.exists()) {
+                try {
+                    Files.move(daemonArchive.toPath(), sharedArchive.toPath(), StandardCopyOption.ATOMIC_MOVE);
+                    continue;
+                } catch (IOException e) {
+                    LOGGER.debug("Could not publish class data sharing archive {}.", daemonArchive, e);
+                }
+            }
+            if (sharedArchive.exists()) {
+                GFileUtils.deleteQuietly(daemonArchive);
+            }
+        }
+    }
+
     private List<String> getPriorityArgs(DaemonPriority priority) {
         if (priority == DaemonPriority.NORMAL) {
             return Collections.emptyList();
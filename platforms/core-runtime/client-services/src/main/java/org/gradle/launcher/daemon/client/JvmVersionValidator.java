@@ -39,4 +39,11 @@ public void validate(JavaInfo resolvedJvm) {
         int javaVersionMajor = versionDetector.getJavaVersionMajor(resolvedJvm);
         UnsupportedJavaRuntimeException.assertIsSupportedDaemonJvmVersion(javaVersionMajor);
     }
+
+    public int getJavaVersionMajor(JavaInfo resolvedJvm) {
+        if (resolvedJvm == Jvm.current()) {
+            return Jvm.current().getJavaVersionMajor();
+        }
+        return versionDetector.getJavaVersionMajor(resolvedJvm);
+    }
 }
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.launcher.daemon.client
+
+import org.gradle.internal.jvm.JavaInfo
+import org.gradle.launcher.daemon.configuration.DaemonParameters
+import org.gradle.launcher.daemon.registry.DaemonDir
+import org.gradle.launcher.daemon.toolchain.DaemonJavaToolchainQueryService
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+import java.util.concurrent.TimeUnit
+
+class DefaultDaemonStarterTest extends Specification {
+    @Rule
+    final TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider(getClass())
+
+    def daemonDir = new DaemonDir(tmpDir.file("daemon"))
+    def versionValidator = Mock(JvmVersionValidator)
+    def jvm = Stub(JavaInfo) {
+        getJavaExecutable() >> tmpDir.file("jdk/bin/java")
+    }
+    def starter = new DefaultDaemonStarter(daemonDir, Stub(DaemonParameters), Stub(DaemonGreeter), versionValidator, Stub(DaemonJavaToolchainQueryService))
+    def cdsDir = new File(daemonDir.versionedDir, "cds")
+
+    def "daemon writes a class data sharing archive of its own in versioned daemon directory on Java #javaVersion"() {
+        given:
+        versionValidator.getJavaVersionMajor(jvm) >> javaVersion
+
+        when:
+        def args = starter.getClassDataSharingArgs(jvm, ["-Xmx512m"], "uid")
+
+        then:
+        args.size() == 1
+        def archive = archiveOf(args, "-XX:ArchiveClassesAtExit=")
+        archive.parentFile == cdsDir
+        archive.parentFile.directory
+        archive.name.endsWith("-uid.jsa")
+
+        where:
+        javaVersion << [19, 21]
+    }
+
+    def "daemons write different archives and use different archives for different JVMs"() {
+        given:
+        def otherJvm = Stub(JavaInfo) {
+            getJavaExecutable() >> tmpDir.file("other-jdk/bin/java")
+        }
+        versionValidator.getJavaVersionMajor(_) >> 21
+
+        expect:
+        starter.getClassDataSharingArgs(jvm, [], "uid") == starter.getClassDataSharingArgs(jvm, [], "uid")
+        starter.getClassDataSharingArgs(jvm, [], "uid") != starter.getClassDataSharingArgs(jvm, [], "other-uid")
+        starter.getClassDataSharingArgs(jvm, [], "uid") != starter.getClassDataSharingArgs(otherJvm, [], "uid")
+    }
+
+    def "publishes an archive written by a daemon and maps it in later daemons"() {
+        given:
+        versionValidator.getJavaVersionMajor(jvm) >> 21
+        def daemonArchive = archiveOf(starter.getClassDataSharingArgs(jvm, [], "uid"), "-XX:ArchiveClassesAtExit=")
+        daemonArchive.text = "archive"
+        daemonArchive.lastModified = System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(2)
+
+        when:
+        def args = starter.getClassDataSharingArgs(jvm, [], "other-uid")
+
+        then:
+        args.size() == 1
+        def sharedArchive = archiveOf(args, "-XX:SharedArchiveFile=")
+        sharedArchive.parentFile == cdsDir
+        sharedArchive.text == "archive"
+        !daemonArchive.exists()
+
+        and:
+        starter.getClassDataSharingArgs(jvm, [], "third-uid") == args
+    }
+
+    def "does not publish an archive that a daemon may still be writing"() {
+        given:
+        versionValidator.getJavaVersionMajor(jvm) >> 21
+        def daemonArchive = archiveOf(starter.getClassDataSharingArgs(jvm, [], "uid"), "-XX:ArchiveClassesAtExit=")
+        daemonArchive.text = "archive"
+
+        when:
+        def args = starter.getClassDataSharingArgs(jvm, [], "other-uid")
+
+        then:
+        archiveOf(args, "-XX:ArchiveClassesAtExit=").name.endsWith("-other-uid.jsa")
+        daemonArchive.exists()
+        cdsDir.list().toList() == [daemonArchive.name]
+    }
+
+    def "removes archives written by daemons once an archive is published"() {
+        given:
+        versionValidator.getJavaVersionMajor(jvm) >> 21
+        def firstArchive = archiveOf(starter.getClassDataSharingArgs(jvm, [], "uid"), "-XX:ArchiveClassesAtExit=")
+        def secondArchive = archiveOf(starter.getClassDataSharingArgs(jvm, [], "other-uid"), "-XX:ArchiveClassesAtExit=")
+        [firstArchive, secondArchive].each {
+            it.text = "archive"
+            it.lastModified = System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(2)
+        }
+
+        when:
+        def sharedArchive = archiveOf(starter.getClassDataSharingArgs(jvm, [], "third-uid"), "-XX:SharedArchiveFile=")
+
+        then:
+        cdsDir.list().toList() == [sharedArchive.name]
+    }
+
+    def "does not use class data sharing archive on Java #javaVersion"() {
+        given:
+        versionValidator.getJavaVersionMajor(jvm) >> javaVersion
+
+        expect:
+        starter.getClassDataSharingArgs(jvm, ["-Xmx512m"], "uid").empty
+        !cdsDir.exists()
+
+        where:
+        javaVersion << [8, 17, 18]
+    }
+
+    def "does not use class data sharing archive when the JVM arguments configure class data sharing with #userArg"() {
+        when:
+        def args = starter.getClassDataSharingArgs(jvm, ["-Xmx512m", userArg], "uid")
+
+        then:
+        args.empty
+        0 * versionValidator.getJavaVersionMajor(_)
+
+        where:
+        userArg << ["-Xshare:off", "-Xshare:auto", "-XX:SharedArchiveFile=/tmp/app.jsa", "-XX:ArchiveClassesAtExit=/tmp/app.jsa", "-XX:+AutoCreateSharedArchive"]
+    }
+
+    private static File archiveOf(List<String> args, String option) {
+        def arg = args.find { it.startsWith(option) }
+        assert arg != null
+        return new File(arg.substring(option.length()))
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.launcher.daemon
+
+import org.gradle.integtests.fixtures.daemon.DaemonIntegrationSpec
+import org.gradle.launcher.daemon.configuration.DaemonBuildOptions
+import org.gradle.test.fixtures.ConcurrentTestUtil
+import org.gradle.test.precondition.Requires
+import org.gradle.test.preconditions.IntegTestPreconditions
+import org.gradle.test.preconditions.UnitTestPreconditions
+
+import java.util.concurrent.TimeUnit
+
+@Requires(value = IntegTestPreconditions.NotEmbeddedExecutor, reason = "The daemon JVM arguments are chosen by the client that starts the daemon")
+class DaemonClassDataSharingIntegrationTest extends DaemonIntegrationSpec {
+    def setup() {
+        buildFile << """
+            def inputArguments = java.lang.management.ManagementFactory.runtimeMXBean.inputArguments
+            println "ARCHIVE_CLASSES_AT_EXIT: " + inputArguments.findAll { it.startsWith("-XX:ArchiveClassesAtExit=") }.collect { it.substring("-XX:ArchiveClassesAtExit=".length()) }
+            println "SHARED_ARCHIVE_FILE: " + inputArguments.findAll { it.startsWith("-XX:SharedArchiveFile=") }.collect { it.substring("-XX:SharedArchiveFile=".length()) }
+        """
+    }
+
+    @Requires(UnitTestPreconditions.Jdk19OrLater)
+    def "daemon writes a class data sharing archive in the versioned daemon directory that later daemons use when enabled"() {
+        when:
+        enableClassDataSharing()
+        succeeds("help")
+
+        then:
+        outputContains("SHARED_ARCHIVE_FILE: []")
+        def daemonArchive = archiveFrom("ARCHIVE_CLASSES_AT_EXIT")
+        daemonArchive.parentFile == new File(executer.daemonBaseDir, "${distribution.version.version}/cds")
+        daemonArchive.name.endsWith(".jsa")
+
+        when:
+        stopDaemonsNow()
+        ConcurrentTestUtil.poll {
+            assert daemonArchive.file
+        }
+        // Archives are only published once they have not been written to for a while
+        daemonArchive.lastModified = System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(2)
+        enableClassDataSharing()
+        succeeds("help")
+
+        then:
+        outputContains("ARCHIVE_CLASSES_AT_EXIT: []")
+        def sharedArchive = archiveFrom("SHARED_ARCHIVE_FILE")
+        sharedArchive.parentFile == daemonArchive.parentFile
+        sharedArchive.file
+        !daemonArchive.exists()
+    }
+
+    @Requires(UnitTestPreconditions.Jdk18OrEarlier)
+    def "daemon does not use a class data sharing archive on Java versions before 19"() {
+        when:
+        enableClassDataSharing()
+        succeeds("help")
+
+        then:
+        outputContains("ARCHIVE_CLASSES_AT_EXIT: []")
+        outputContains("SHARED_ARCHIVE_FILE: []")
+    }
+
+    @Requires(UnitTestPreconditions.Jdk19OrLater)
+    def "daemon does not use a class data sharing archive when the daemon JVM arguments configure class data sharing"() {
+        when:
+        enableClassDataSharing()
+        executer.withBuildJvmOpts("-Xshare:auto")
+        succeeds("help")
+
+        then:
+        outputContains("ARCHIVE_CLASSES_AT_EXIT: []")
+        outputContains("SHARED_ARCHIVE_FILE: []")
+    }
+
+    def "daemon does not use a class data sharing archive when not enabled"() {
+        when:
+        succeeds("help")
+
+        then:
+        outputContains("ARCHIVE_CLASSES_AT_EXIT: []")
+        outputContains("SHARED_ARCHIVE_FILE: []")
+    }
+
+    private File archiveFrom(String label) {
+        return new File((output =~ /${label}: \[(.*)]/)[0][1] as String)
+    }
+
+    private void enableClassDataSharing() {
+        executer.withArgument("-D${DaemonBuildOptions.ClassDataSharingOption.GRADLE_PROPERTY}=true")
+    }
+}
@@ -51,6 +51,7 @@ public class DaemonBuildOptions extends BuildOptionSet<DaemonParameters> {
         new DebugServerOption(),
         new DebugSuspendOption(),
         new ApplyInstrumentationAgentOption(),
+        new ClassDataSharingOption(),
         new DaemonOption(),
         new ForegroundOption(),
         new StopOption(),
@@ -237,6 +238,22 @@ public void applyTo(boolean value, DaemonParameters settings, Origin origin) {
         }
     }
 
+    /**
+     * This is a feature flag that lets the daemon JVM archive the classes it loads and map that archive on later starts.
+     */
+    public static class ClassDataSharingOption extends BooleanBuildOption<DaemonParameters> {
+        public static final String GRADLE_PROPERTY = "org.gradle.internal.daemon.class-data-sharing";
+
+        public ClassDataSharingOption() {
+            super(GRADLE_PROPERTY);
+        }
+
+        @Override
+        public void applyTo(boolean value, DaemonParameters settings, Origin origin) {
+            settings.setClassDataSharing(value);
+        }
+    }
+
     @NonNullApi
     public static class NativeServicesOption extends StringBuildOption<DaemonParameters> {
         public NativeServicesOption() {
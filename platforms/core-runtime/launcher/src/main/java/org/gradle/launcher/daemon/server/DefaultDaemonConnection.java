@@ -38,7 +38,10 @@
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
@@ -140,6 +143,15 @@ public void logEvent(OutputEvent logEvent) {
         connection.dispatchAndFlush(new OutputMessage(logEvent));
     }
 
+    @Override
+    public void logEvents(Collection<? extends OutputEvent> logEvents) {
+        List<OutputMessage> messages = new ArrayList<OutputMessage>(logEvents.size());
+        for (OutputEvent logEvent : logEvents) {
+            messages.add(new OutputMessage(logEvent));
+        }
+        connection.dispatchAllAndFlush(messages);
+    }
+
     @Override
     public void event(Object event) {
         connection.dispatchAndFlush(new BuildEvent(event));
@@ -23,11 +23,12 @@
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Collections;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
 /**
- * Connection decorator that synchronizes dispatching and always flushes after each message.
+ * Connection decorator that synchronizes dispatching and always flushes after each message or batch of messages.
  *
  * The plan is to replace this with a Connection implementation that queues outgoing messages and dispatches them from a worker thread.
  */
@@ -45,6 +46,13 @@ public void dispatchAndFlush(T message) {
         if (!(message instanceof OutputMessage)) {
             LOGGER.debug("thread {}: dispatching {}", Thread.currentThread().getId(), message);
         }
+        dispatchAllAndFlush(Collections.singletonList(message));
+    }
+
+    /**
+     * Dispatches the given messages in order and flushes the connection once, after the last message.
+     */
+    public void dispatchAllAndFlush(Iterable<? extends T> messages) {
         lock.lock();
         try {
             if (dispatching) {
@@ -53,7 +61,9 @@ public void dispatchAndFlush(T message) {
             }
             dispatching = true;
             try {
-                delegate.dispatch(message);
+                for (T message : messages) {
+                    delegate.dispatch(message);
+                }
                 delegate.flush();
             } finally {
                 dispatching = false;
@@ -24,6 +24,7 @@
 import org.gradle.launcher.daemon.protocol.Result;
 
 import javax.annotation.Nullable;
+import java.util.Collection;
 import java.util.concurrent.TimeUnit;
 
 public interface DaemonConnection extends Stoppable {
@@ -86,6 +87,11 @@ public interface DaemonConnection extends Stoppable {
      */
     void logEvent(OutputEvent logEvent);
 
+    /**
+     * Dispatches a log event message to the client for each of the given events, in order. The connection is flushed once, after the last event.
+     */
+    void logEvents(Collection<? extends OutputEvent> logEvents);
+
     /**
      * Dispatches some build event to the client.
      */
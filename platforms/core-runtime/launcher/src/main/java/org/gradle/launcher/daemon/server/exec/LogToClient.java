@@ -30,6 +30,8 @@
 import org.gradle.launcher.daemon.server.api.DaemonCommandExecution;
 import org.gradle.launcher.daemon.server.api.DaemonConnection;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CountDownLatch;
@@ -38,6 +40,7 @@ public class LogToClient extends BuildCommandOnly {
 
     public static final String DISABLE_OUTPUT = "org.gradle.daemon.disable-output";
     private static final Logger LOGGER = Logging.getLogger(LogToClient.class);
+    private static final int MAX_BATCH_SIZE = 512;
 
     private final LoggingOutputInternal loggingOutput;
     private final DaemonDiagnostics diagnostics;
@@ -69,6 +72,7 @@ protected void doBuild(final DaemonCommandExecution execution, Build build) {
     private class AsynchronousLogDispatcher extends Thread {
         private final CountDownLatch completionLock = new CountDownLatch(1);
         private final Queue<OutputEvent> eventQueue = new ConcurrentLinkedQueue<OutputEvent>();
+        private final List<OutputEvent> batch = new ArrayList<OutputEvent>();
         private final DaemonConnection connection;
         private final OutputEventListener listener;
         private volatile boolean shouldStop;
@@ -103,11 +107,8 @@ public void submit(OutputEvent event) {
         public void run() {
             try {
                 while (!shouldStop) {
-                    OutputEvent event = eventQueue.poll();
-                    if (event == null) {
+                    if (!dispatchBatch()) {
                         Thread.sleep(10);
-                    } else {
-                        dispatchAsync(event);
                     }
                 }
             } catch (InterruptedException ex) {
@@ -121,18 +122,41 @@ public void run() {
         }
 
         private void sendRemainingEvents() {
+            while (dispatchBatch()) {
+                // Keep going until the queue is empty
+            }
+        }
+
+        /**
+         * Sends the events that are currently queued, up to a fixed batch size, and flushes the connection once.
+         *
+         * When output is sparse, each event is sent as soon as it is seen. When output is heavy, events queue up while the previous
+         * batch is being written, so the next batch grows and fewer flushes are required per event.
+         *
+         * @return false when there was nothing to send.
+         */
+        private boolean dispatchBatch() {
             OutputEvent event;
-            while ((event = eventQueue.poll()) != null) {
-                dispatchAsync(event);
+            while (batch.size() < MAX_BATCH_SIZE && (event = eventQueue.poll()) != null) {
+                batch.add(event);
+            }
+            if (batch.isEmpty()) {
+                return false;
+            }
+            try {
+                dispatchAsync(batch);
+            } finally {
+                batch.clear();
             }
+            return true;
         }
 
-        private void dispatchAsync(OutputEvent event) {
+        private void dispatchAsync(List<OutputEvent> events) {
             if (unableToSend) {
                 return;
             }
             try {
-                connection.logEvent(event);
+                connection.logEvents(events);
             } catch (Exception ex) {
                 shouldStop = true;
                 unableToSend = true;
@@ -16,6 +16,7 @@
 
 package org.gradle.launcher.daemon.server
 
+import org.gradle.internal.logging.events.OutputEvent
 import org.gradle.internal.remote.internal.MessageIOException
 import org.gradle.internal.remote.internal.RemoteConnection
 import org.gradle.launcher.daemon.protocol.CloseInput
@@ -349,19 +350,33 @@ class DefaultDaemonConnectionTest extends ConcurrentSpecification {
         result*.message == ["incoming1", "incoming2"]
     }
 
+    def "dispatches batch of log events and flushes once"() {
+        def event1 = Stub(OutputEvent)
+        def event2 = Stub(OutputEvent)
+
+        when:
+        daemonConnection.logEvents([event1, event2])
+
+        then:
+        connection.dispatched*.event == [event1, event2]
+        connection.flushes == 1
+    }
+
     static class TestConnection implements RemoteConnection<Message> {
         private final def lock = new Object()
         private final def endInput = new Received("end")
         private final def receiveQueue = new LinkedList<Message>()
+        final def dispatched = []
+        int flushes
 
         @Override
         void dispatch(Message message) throws MessageIOException {
-            throw new UnsupportedOperationException()
+            dispatched << message
         }
 
         @Override
         void flush() throws MessageIOException {
-            throw new UnsupportedOperationException()
+            flushes++
         }
 
         void queueIncoming(String message) {
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.internal.remote.internal.inet;
+
+import org.gradle.api.Action;
+import org.gradle.internal.concurrent.DefaultExecutorFactory;
+import org.gradle.internal.id.UUIDGenerator;
+import org.gradle.internal.remote.ConnectionAcceptor;
+import org.gradle.internal.remote.internal.ConnectCompletion;
+import org.gradle.internal.remote.internal.RemoteConnection;
+import org.gradle.internal.serialize.BaseSerializerFactory;
+import org.gradle.internal.serialize.Serializers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures how many messages per second can be sent through a {@link SocketConnection} on the loopback interface,
+ * when flushing after each message and when flushing once per batch of messages.
+ *
+ * The messages look like the log output that the daemon sends to the client.
+ */
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class SocketConnectionBenchmark {
+    private static final int BATCH_SIZE = 512;
+
+    @Param({"80", "400"})
+    int messageLength;
+
+    DefaultExecutorFactory executorFactory;
+    ConnectionAcceptor acceptor;
+    RemoteConnection<String> connection;
+    String message;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        executorFactory = new DefaultExecutorFactory();
+        TcpIncomingConnector incomingConnector = new TcpIncomingConnector(executorFactory, new InetAddressFactory(), new UUIDGenerator());
+        acceptor = incomingConnector.accept(new Action<ConnectCompletion>() {
+            @Override
+            public void execute(ConnectCompletion completion) {
+                RemoteConnection<String> incoming = completion.create(Serializers.stateful(BaseSerializerFactory.STRING_SERIALIZER));
+                try {
+                    while (incoming.receive() != null) {
+                        // Discard
+                    }
+                } finally {
+                    incoming.stop();
+                }
+            }
+        }, false);
+        connection = new TcpOutgoingConnector().connect(acceptor.getAddress()).create(Serializers.stateful(BaseSerializerFactory.STRING_SERIALIZER));
+
+        StringBuilder builder = new StringBuilder(messageLength);
+        while (builder.length() < messageLength) {
+            builder.append("Task :some:project:compileJava UP-TO-DATE ");
+        }
+        message = builder.substring(0, messageLength);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        connection.stop();
+        acceptor.stop();
+        executorFactory.stop();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void flushEachMessage() {
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            connection.dispatch(message);
+            connection.flush();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void flushEachBatch() {
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            connection.dispatch(message);
+        }
+        connection.flush();
+    }
+}
@@ -17,14 +17,17 @@
 package org.gradle.internal.serialize.kryo;
 
 import com.esotericsoftware.kryo.KryoException;
+import com.esotericsoftware.kryo.io.ByteBufferInput;
 import com.esotericsoftware.kryo.io.Input;
 import org.gradle.internal.serialize.AbstractDecoder;
 import org.gradle.internal.serialize.Decoder;
 
+import javax.annotation.Nullable;
 import java.io.Closeable;
 import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 
 /**
  * Note that this decoder uses buffering, so will attempt to read beyond the end of the encoded data. This means you should use this type only when this decoder will be used to decode the entire
@@ -32,6 +35,7 @@
  */
 public class KryoBackedDecoder extends AbstractDecoder implements Decoder, Closeable {
     private final Input input;
+    @Nullable
     private InputStream inputStream;
     private long extraSkipped;
     private KryoBackedDecoder nested;
@@ -45,6 +49,15 @@ public KryoBackedDecoder(InputStream inputStream, int bufferSize) {
         input = new Input(this.inputStream, bufferSize);
     }
 
+    /**
+     * Creates a decoder that reads the remaining content of the given buffer in place, without copying it into an intermediate buffer first.
+     * The buffer can be a {@link java.nio.MappedByteBuffer} of a file.
+     */
+    public KryoBackedDecoder(ByteBuffer buffer) {
+        this.inputStream = null;
+        input = new ByteBufferInput(buffer);
+    }
+
     public void restart(InputStream inputStream) {
         this.inputStream = inputStream;
         input.setInputStream(inputStream);
@@ -61,27 +74,44 @@ protected long maybeSkip(long count) throws IOException {
         // Work around some bugs in Input.skip()
         int remaining = input.limit() - input.position();
         if (remaining == 0) {
+            if (inputStream == null) {
+                // Reading from a buffer, which has no more content
+                return 0;
+            }
             long skipped = inputStream.skip(count);
             if (skipped > 0) {
                 extraSkipped += skipped;
             }
             return skipped;
         } else if (count <= remaining) {
-            input.setPosition(input.position() + (int) count);
+            setPosition(input.position() + (int) count);
             return count;
         } else {
-            input.setPosition(input.limit());
+            setPosition(input.limit());
             return remaining;
         }
     }
 
+    private void setPosition(int position) {
+        input.setPosition(position);
+        if (input instanceof ByteBufferInput) {
+            // ByteBufferInput reads fixed width values at the position of its buffer, which Input.setPosition() does not move
+            ((ByteBufferInput) input).getByteBuffer().position(position);
+        }
+    }
+
     private RuntimeException maybeEndOfStream(KryoException e) throws EOFException {
-        if (e.getMessage().equals("Buffer underflow.")) {
+        if (e.getMessage().equals("Buffer underflow.") || isBufferExhausted(e)) {
             throw (EOFException) new EOFException().initCause(e);
         }
         throw e;
     }
 
+    private boolean isBufferExhausted(KryoException e) {
+        // A buffer backed input reports reading past its end as a buffer that is too small
+        return inputStream == null && e.getMessage().startsWith("Buffer too small");
+    }
+
     @Override
     public byte readByte() throws EOFException {
         try {
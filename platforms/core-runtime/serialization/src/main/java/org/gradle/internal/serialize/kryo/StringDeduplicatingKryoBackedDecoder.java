@@ -17,14 +17,17 @@
 package org.gradle.internal.serialize.kryo;
 
 import com.esotericsoftware.kryo.KryoException;
+import com.esotericsoftware.kryo.io.ByteBufferInput;
 import com.esotericsoftware.kryo.io.Input;
 import org.gradle.internal.serialize.AbstractDecoder;
 import org.gradle.internal.serialize.Decoder;
 
+import javax.annotation.Nullable;
 import java.io.Closeable;
 import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 
 import static org.gradle.internal.serialize.kryo.StringDeduplicatingKryoBackedEncoder.NEW_STRING;
 import static org.gradle.internal.serialize.kryo.StringDeduplicatingKryoBackedEncoder.NULL_STRING;
@@ -37,6 +40,7 @@ public class StringDeduplicatingKryoBackedDecoder extends AbstractDecoder implem
     private static final int INITIAL_CAPACITY = 32;
     private static final String[] INITIAL_CAPACITY_MARKER = {};
     private final Input input;
+    @Nullable
     private final InputStream inputStream;
     private String[] strings = INITIAL_CAPACITY_MARKER;
     /**
@@ -62,6 +66,15 @@ public StringDeduplicatingKryoBackedDecoder(InputStream inputStream, int bufferS
         input = new Input(this.inputStream, bufferSize);
     }
 
+    /**
+     * Creates a decoder that reads the remaining content of the given buffer in place, without copying it into an intermediate buffer first.
+     * The buffer can be a {@link java.nio.MappedByteBuffer} of a file.
+     */
+    public StringDeduplicatingKryoBackedDecoder(ByteBuffer buffer) {
+        this.inputStream = null;
+        input = new ByteBufferInput(buffer);
+    }
+
     @Override
     protected int maybeReadBytes(byte[] buffer, int offset, int count) {
         return input.read(buffer, offset, count);
@@ -72,27 +85,44 @@ protected long maybeSkip(long count) throws IOException {
         // Work around some bugs in Input.skip()
         int remaining = input.limit() - input.position();
         if (remaining == 0) {
+            if (inputStream == null) {
+                // Reading from a buffer, which has no more content
+                return 0;
+            }
             long skipped = inputStream.skip(count);
             if (skipped > 0) {
                 extraSkipped += skipped;
             }
             return skipped;
         } else if (count <= remaining) {
-            input.setPosition(input.position() + (int) count);
+            setPosition(input.position() + (int) count);
             return count;
         } else {
-            input.setPosition(input.limit());
+            setPosition(input.limit());
             return remaining;
         }
     }
 
+    private void setPosition(int position) {
+        input.setPosition(position);
+        if (input instanceof ByteBufferInput) {
+            // ByteBufferInput reads fixed width values at the position of its buffer, which Input.setPosition() does not move
+            ((ByteBufferInput) input).getByteBuffer().position(position);
+        }
+    }
+
     private RuntimeException maybeEndOfStream(KryoException e) throws EOFException {
-        if (e.getMessage().equals("Buffer underflow.")) {
+        if (e.getMessage().equals("Buffer underflow.") || isBufferExhausted(e)) {
             throw (EOFException) new EOFException().initCause(e);
         }
         throw e;
     }
 
+    private boolean isBufferExhausted(KryoException e) {
+        // A buffer backed input reports reading past its end as a buffer that is too small
+        return inputStream == null && e.getMessage().startsWith("Buffer too small");
+    }
+
     @Override
     public byte readByte() throws EOFException {
         try {
@@ -0,0 +1,202 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.serialize.kryo
+
+import org.gradle.internal.serialize.Decoder
+import org.gradle.internal.serialize.Encoder
+import spock.lang.Specification
+
+import java.nio.ByteBuffer
+
+class ByteBufferBackedDecoderTest extends Specification {
+    def "can read values encoded to a stream from a #bufferType buffer"() {
+        def longString = "a" * 10000 + "é中"
+        def buffer = encoded(bufferType) { Encoder encoder ->
+            encoder.writeString("string")
+            encoder.writeLong(Long.MIN_VALUE)
+            encoder.writeSmallLong(1234L)
+            encoder.writeInt(-12)
+            encoder.writeSmallInt(12)
+            encoder.writeBoolean(true)
+            encoder.writeNullableString(null)
+            encoder.writeString(longString)
+            encoder.writeBinary([1, 2, 3] as byte[])
+        }
+
+        when:
+        def decoder = new KryoBackedDecoder(buffer)
+
+        then:
+        decoder.readString() == "string"
+        decoder.readLong() == Long.MIN_VALUE
+        decoder.readSmallLong() == 1234L
+        decoder.readInt() == -12
+        decoder.readSmallInt() == 12
+        decoder.readBoolean()
+        decoder.readNullableString() == null
+        decoder.readString() == longString
+        decoder.readBinary() == [1, 2, 3] as byte[]
+        decoder.readPosition == buffer.limit()
+
+        where:
+        bufferType << ["heap", "direct"]
+    }
+
+    def "can read deduplicated strings from a buffer"() {
+        def bytes = new ByteArrayOutputStream()
+        def encoder = new StringDeduplicatingKryoBackedEncoder(bytes)
+        encoder.writeString("string")
+        encoder.writeNullableString(null)
+        encoder.writeString("string")
+        encoder.writeString("other")
+        encoder.flush()
+
+        when:
+        def decoder = new StringDeduplicatingKryoBackedDecoder(ByteBuffer.wrap(bytes.toByteArray()))
+
+        then:
+        decoder.readString() == "string"
+        decoder.readNullableString() == null
+        decoder.readString() == "string"
+        decoder.readString() == "other"
+    }
+
+    def "can skip bytes and chunks in a buffer"() {
+        def buffer = encoded("heap") { Encoder encoder ->
+            encoder.writeBytes(new byte[5000])
+            encoder.encodeChunked { Encoder nested ->
+                nested.writeString("chunked")
+            }
+            encoder.writeString("done")
+        }
+
+        when:
+        def decoder = new KryoBackedDecoder(buffer)
+        decoder.skipBytes(5000)
+        decoder.skipChunked()
+
+        then:
+        decoder.readString() == "done"
+        decoder.inputStream.skip(1) == 0
+        decoder.inputStream.read() == -1
+    }
+
+    def "can read fixed width values after skipping in a #bufferType buffer"() {
+        def buffer = encoded(bufferType) { Encoder encoder ->
+            encoder.writeInt(111)
+            encoder.writeInt(222)
+            encoder.writeLong(333L)
+            encoder.writeLong(444L)
+            encoder.encodeChunked { Encoder nested ->
+                nested.writeLong(555L)
+            }
+            encoder.writeBytes([1, 2, 3] as byte[])
+            encoder.encodeChunked { Encoder nested ->
+                nested.writeInt(666)
+            }
+            encoder.writeInt(777)
+        }
+
+        def decoder = new KryoBackedDecoder(buffer)
+        def bytes = new byte[3]
+
+        when:
+        decoder.skipBytes(4)
+        def intValue = decoder.readInt()
+        decoder.skipBytes(8)
+        def longValue = decoder.readLong()
+        decoder.skipChunked()
+        decoder.readBytes(bytes)
+        decoder.skipChunked()
+        def lastValue = decoder.readInt()
+
+        then:
+        intValue == 222
+        longValue == 444L
+        bytes == [1, 2, 3] as byte[]
+        lastValue == 777
+
+        where:
+        bufferType << ["heap", "direct"]
+    }
+
+    def "can read fixed width values after skipping deduplicated content in a #bufferType buffer"() {
+        def buffer = encoded(bufferType) { Encoder encoder ->
+            encoder.writeInt(111)
+            encoder.writeInt(222)
+            encoder.writeLong(333L)
+            encoder.writeLong(444L)
+            encoder.writeBytes([0, 0, 1, 2, 3] as byte[])
+        }
+        def decoder = new StringDeduplicatingKryoBackedDecoder(buffer)
+        def bytes = new byte[3]
+
+        when:
+        decoder.skipBytes(4)
+        def intValue = decoder.readInt()
+        decoder.skipBytes(8)
+        def longValue = decoder.readLong()
+        decoder.skipBytes(2)
+        decoder.readBytes(bytes)
+
+        then:
+        intValue == 222
+        longValue == 444L
+        bytes == [1, 2, 3] as byte[]
+
+        where:
+        bufferType << ["heap", "direct"]
+    }
+
+    def "decode fails with end of stream when buffer is exhausted"() {
+        def buffer = encoded("heap") { Encoder encoder ->
+            encoder.writeInt(12)
+        }
+        def decoder = new KryoBackedDecoder(buffer)
+        decoder.readInt()
+
+        when:
+        operation.call(decoder)
+
+        then:
+        thrown(EOFException)
+
+        where:
+        operation << [
+            { Decoder decoder -> decoder.readLong() },
+            { Decoder decoder -> decoder.readSmallInt() },
+            { Decoder decoder -> decoder.readString() },
+            { Decoder decoder -> decoder.readBytes(new byte[2]) },
+            { Decoder decoder -> decoder.skipBytes(2) }
+        ]
+    }
+
+    ByteBuffer encoded(String bufferType, Closure<Encoder> closure) {
+        def stream = new ByteArrayOutputStream()
+        def encoder = new KryoBackedEncoder(stream)
+        closure.call(encoder)
+        encoder.flush()
+        def bytes = stream.toByteArray()
+        if (bufferType == "direct") {
+            def buffer = ByteBuffer.allocateDirect(bytes.length)
+            buffer.put(bytes)
+            buffer.flip()
+            return buffer
+        }
+        return ByteBuffer.wrap(bytes)
+    }
+}
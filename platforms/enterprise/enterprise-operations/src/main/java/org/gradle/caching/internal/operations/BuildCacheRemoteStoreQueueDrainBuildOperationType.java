@@ -0,0 +1,74 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.caching.internal.operations;
+
+import org.gradle.internal.operations.BuildOperationType;
+
+/**
+ * Waiting for the entries queued for storing in the remote build cache to be uploaded.
+ *
+ * When remote stores are performed in the background, the queue is drained before the build finishes.
+ * The result describes all stores that went through the queue during the build.
+ */
+public final class BuildCacheRemoteStoreQueueDrainBuildOperationType implements BuildOperationType<BuildCacheRemoteStoreQueueDrainBuildOperationType.Details, BuildCacheRemoteStoreQueueDrainBuildOperationType.Result> {
+
+    public interface Details {
+
+        /**
+         * The number of entries waiting to be uploaded or being uploaded when draining started.
+         */
+        int getPendingEntryCount();
+
+        /**
+         * The number of bytes waiting to be uploaded or being uploaded when draining started.
+         */
+        long getPendingBytes();
+
+    }
+
+    public interface Result {
+
+        /**
+         * The number of entries that went through the queue and have actually been stored.
+         */
+        long getStoredEntryCount();
+
+        /**
+         * The number of bytes of the entries that have actually been stored.
+         */
+        long getStoredBytes();
+
+        /**
+         * The largest number of entries waiting to be uploaded or being uploaded at the same time.
+         */
+        int getMaxQueueDepth();
+
+        /**
+         * The number of times a store had to wait for space in the queue.
+         */
+        long getBlockedStoreCount();
+
+        /**
+         * The stored bytes per second, measured from the first entry being queued until the queue was drained.
+         */
+        long getBytesPerSecond();
+
+    }
+
+    private BuildCacheRemoteStoreQueueDrainBuildOperationType() {
+    }
+}
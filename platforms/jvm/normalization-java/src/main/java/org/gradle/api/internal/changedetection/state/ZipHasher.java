@@ -16,6 +16,7 @@
 
 package org.gradle.api.internal.changedetection.state;
 
+import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableSet;
 import org.apache.commons.io.FilenameUtils;
 import org.gradle.api.internal.file.archive.ZipEntry;
@@ -41,13 +42,28 @@
 import javax.annotation.Nullable;
 import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
 
+/**
+ * Hashes the entries of zip files.
+ *
+ * When concurrent entry hashing is enabled, the entries of a zip file that can be read with random access are split into chunks
+ * that are hashed on a shared fork/join pool. The resulting hash does not depend on the order in which the entries are hashed.
+ */
 public class ZipHasher implements RegularFileSnapshotContextHasher, ConfigurableNormalizer {
 
+    /**
+     * The number of entries hashed by a single task. Zip files with fewer entries are hashed on the calling thread.
+     */
+    private static final int ENTRIES_PER_CHUNK = 64;
+
     private static final Set<String> KNOWN_ZIP_EXTENSIONS = ImmutableSet.of("zip", "jar", "war", "rar", "ear", "apk", "aar", "klib");
     private static final Logger LOGGER = LoggerFactory.getLogger(ZipHasher.class);
     private static final HashCode EMPTY_HASH_MARKER = Hashing.signature(ZipHasher.class);
@@ -59,19 +75,30 @@ public static boolean isZipFile(final String name) {
     private final ResourceHasher resourceHasher;
     private final ZipHasher fallbackZipHasher;
     private final HashingExceptionReporter hashingExceptionReporter;
+    private final boolean concurrentEntryHashing;
 
     public ZipHasher(ResourceHasher resourceHasher) {
+        this(resourceHasher, false);
+    }
+
+    public ZipHasher(ResourceHasher resourceHasher, boolean concurrentEntryHashing) {
         this(
             resourceHasher,
             null,
-            (s, e) -> LOGGER.debug("Malformed archive '{}'. Falling back to full content hash instead of entry hashing.", s.getName(), e)
+            (s, e) -> LOGGER.debug("Malformed archive '{}'. Falling back to full content hash instead of entry hashing.", s.getName(), e),
+            concurrentEntryHashing
         );
     }
 
     public ZipHasher(ResourceHasher resourceHasher, @Nullable ZipHasher fallbackZipHasher, HashingExceptionReporter hashingExceptionReporter) {
+        this(resourceHasher, fallbackZipHasher, hashingExceptionReporter, false);
+    }
+
+    public ZipHasher(ResourceHasher resourceHasher, @Nullable ZipHasher fallbackZipHasher, HashingExceptionReporter hashingExceptionReporter, boolean concurrentEntryHashing) {
         this.resourceHasher = resourceHasher;
         this.fallbackZipHasher = fallbackZipHasher;
         this.hashingExceptionReporter = hashingExceptionReporter;
+        this.concurrentEntryHashing = concurrentEntryHashing;
     }
 
     @Nullable
@@ -108,28 +135,99 @@ private HashCode hashZipContents(RegularFileSnapshot zipFileSnapshot) {
     private List<FileSystemLocationFingerprint> fingerprintZipEntries(String zipFile) throws IOException {
         try (ZipInput input = FileZipInput.create(new File(zipFile))) {
             List<FileSystemLocationFingerprint> fingerprints = new ArrayList<>();
-            fingerprintZipEntries("", zipFile, fingerprints, input);
+            // Only entries of a zip file read with random access can be opened independently of the iteration
+            if (concurrentEntryHashing && input instanceof FileZipInput) {
+                fingerprintZipEntriesConcurrently(zipFile, fingerprints, input);
+            } else {
+                fingerprintZipEntries("", zipFile, fingerprints, input);
+            }
             return fingerprints;
         }
     }
 
     private void fingerprintZipEntries(String parentName, String rootParentName, List<FileSystemLocationFingerprint> fingerprints, ZipInput input) throws IOException {
         fingerprints.add(newZipMarker(parentName));
+        for (ZipEntry zipEntry : input) {
+            fingerprintZipEntry(parentName, rootParentName, zipEntry, fingerprints);
+        }
+    }
+
+    private void fingerprintZipEntriesConcurrently(String zipFile, List<FileSystemLocationFingerprint> fingerprints, ZipInput input) throws IOException {
+        fingerprints.add(newZipMarker(""));
+        List<ForkJoinTask<List<FileSystemLocationFingerprint>>> tasks = new ArrayList<>();
+        List<ZipEntry> chunk = new ArrayList<>(ENTRIES_PER_CHUNK);
         for (ZipEntry zipEntry : input) {
             if (zipEntry.isDirectory()) {
                 continue;
             }
-            String fullName = parentName.isEmpty() ? zipEntry.getName() : parentName + "/" + zipEntry.getName();
-            ZipEntryContext zipEntryContext = new DefaultZipEntryContext(zipEntry, fullName, rootParentName);
-            if (isZipFile(zipEntry.getName())) {
-                zipEntryContext.getEntry().withInputStream(inputStream -> {
-                    fingerprintZipEntries(fullName, rootParentName, fingerprints, new StreamZipInput(inputStream));
-                    return null;
-                });
-            } else {
-                fingerprintZipEntry(zipEntryContext, fingerprints);
+            chunk.add(zipEntry);
+            if (chunk.size() == ENTRIES_PER_CHUNK) {
+                List<ZipEntry> entries = chunk;
+                ForkJoinTask<List<FileSystemLocationFingerprint>> task = ForkJoinTask.adapt(() -> fingerprintChunk(zipFile, entries));
+                ZipHashingPool.INSTANCE.execute(task);
+                tasks.add(task);
+                chunk = new ArrayList<>(ENTRIES_PER_CHUNK);
+            }
+        }
+
+        // Hash the last chunk on this thread, then wait for all chunks before the zip file is closed
+        Throwable failure = null;
+        try {
+            fingerprints.addAll(fingerprintChunk(zipFile, chunk));
+        } catch (Throwable t) {
+            failure = t;
+        }
+        for (ForkJoinTask<List<FileSystemLocationFingerprint>> task : tasks) {
+            try {
+                List<FileSystemLocationFingerprint> chunkFingerprints = task.join();
+                if (failure == null) {
+                    fingerprints.addAll(chunkFingerprints);
+                }
+            } catch (Throwable t) {
+                if (failure == null) {
+                    failure = t;
+                }
             }
         }
+        if (failure != null) {
+            throw rethrow(failure);
+        }
+    }
+
+    private List<FileSystemLocationFingerprint> fingerprintChunk(String zipFile, List<ZipEntry> entries) {
+        List<FileSystemLocationFingerprint> fingerprints = new ArrayList<>(entries.size());
+        try {
+            for (ZipEntry zipEntry : entries) {
+                fingerprintZipEntry("", zipFile, zipEntry, fingerprints);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return fingerprints;
+    }
+
+    private static IOException rethrow(Throwable failure) throws IOException {
+        if (failure instanceof UncheckedIOException) {
+            throw ((UncheckedIOException) failure).getCause();
+        }
+        Throwables.throwIfUnchecked(failure);
+        throw new RuntimeException(failure);
+    }
+
+    private void fingerprintZipEntry(String parentName, String rootParentName, ZipEntry zipEntry, List<FileSystemLocationFingerprint> fingerprints) throws IOException {
+        if (zipEntry.isDirectory()) {
+            return;
+        }
+        String fullName = parentName.isEmpty() ? zipEntry.getName() : parentName + "/" + zipEntry.getName();
+        ZipEntryContext zipEntryContext = new DefaultZipEntryContext(zipEntry, fullName, rootParentName);
+        if (isZipFile(zipEntry.getName())) {
+            zipEntryContext.getEntry().withInputStream(inputStream -> {
+                fingerprintZipEntries(fullName, rootParentName, fingerprints, new StreamZipInput(inputStream));
+                return null;
+            });
+        } else {
+            fingerprintZipEntry(zipEntryContext, fingerprints);
+        }
     }
 
     private void fingerprintZipEntry(ZipEntryContext zipEntryContext, List<FileSystemLocationFingerprint> fingerprints) throws IOException {
@@ -143,6 +241,22 @@ private DefaultFileSystemLocationFingerprint newZipMarker(String relativePath) {
         return new DefaultFileSystemLocationFingerprint(relativePath, FileType.RegularFile, EMPTY_HASH_MARKER);
     }
 
+    /**
+     * Lazily creates the pool used for concurrent entry hashing. Idle worker threads of the pool are discarded, so the pool does not need to be shut down.
+     */
+    private static class ZipHashingPool {
+        private static final ForkJoinPool INSTANCE = new ForkJoinPool(
+            Runtime.getRuntime().availableProcessors(),
+            pool -> {
+                ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+                thread.setName("Zip hasher thread " + thread.getPoolIndex());
+                return thread;
+            },
+            null,
+            false
+        );
+    }
+
     public interface HashingExceptionReporter {
         void report(RegularFileSnapshot zipFileSnapshot, Exception e);
     }
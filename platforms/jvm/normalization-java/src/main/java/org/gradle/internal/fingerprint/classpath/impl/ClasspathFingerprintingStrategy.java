@@ -107,15 +107,16 @@ public static ClasspathFingerprintingStrategy runtimeClasspath(
         RuntimeClasspathResourceHasher runtimeClasspathResourceHasher,
         ResourceSnapshotterCacheService cacheService,
         Interner<String> stringInterner,
-        LineEndingSensitivity lineEndingSensitivity
+        LineEndingSensitivity lineEndingSensitivity,
+        boolean concurrentZipEntryHashing
     ) {
         ResourceHasher resourceHasher = runtimeClasspathResourceHasher(runtimeClasspathResourceHasher, lineEndingSensitivity, propertiesFileFilters, manifestAttributeResourceEntryFilter, classpathResourceFilter);
-        ZipHasher zipHasher = new ZipHasher(resourceHasher);
+        ZipHasher zipHasher = new ZipHasher(resourceHasher, concurrentZipEntryHashing);
         return new ClasspathFingerprintingStrategy(CLASSPATH_IDENTIFIER, USE_FILE_HASH, resourceHasher, zipHasher, cacheService, stringInterner);
     }
 
-    public static ClasspathFingerprintingStrategy compileClasspath(ResourceHasher classpathResourceHasher, ResourceSnapshotterCacheService cacheService, Interner<String> stringInterner) {
-        ZipHasher zipHasher = new ZipHasher(classpathResourceHasher);
+    public static ClasspathFingerprintingStrategy compileClasspath(ResourceHasher classpathResourceHasher, ResourceSnapshotterCacheService cacheService, Interner<String> stringInterner, boolean concurrentZipEntryHashing) {
+        ZipHasher zipHasher = new ZipHasher(classpathResourceHasher, concurrentZipEntryHashing);
         return new ClasspathFingerprintingStrategy(COMPILE_CLASSPATH_IDENTIFIER, IGNORE, classpathResourceHasher, zipHasher, cacheService, stringInterner);
     }
 
@@ -124,10 +125,11 @@ public static ClasspathFingerprintingStrategy compileClasspathFallbackToRuntimeC
         ResourceHasher runtimeClasspathResourceHasher,
         ResourceSnapshotterCacheService cacheService,
         Interner<String> stringInterner,
-        ZipHasher.HashingExceptionReporter hashingExceptionReporter
+        ZipHasher.HashingExceptionReporter hashingExceptionReporter,
+        boolean concurrentZipEntryHashing
     ) {
-        ZipHasher fallbackZipHasher = new ZipHasher(runtimeClasspathResourceHasher);
-        ZipHasher zipHasher = new ZipHasher(classpathResourceHasher, fallbackZipHasher, hashingExceptionReporter);
+        ZipHasher fallbackZipHasher = new ZipHasher(runtimeClasspathResourceHasher, concurrentZipEntryHashing);
+        ZipHasher zipHasher = new ZipHasher(classpathResourceHasher, fallbackZipHasher, hashingExceptionReporter, concurrentZipEntryHashing);
         return new ClasspathFingerprintingStrategy(COMPILE_CLASSPATH_IDENTIFIER, IGNORE, classpathResourceHasher, zipHasher, cacheService, stringInterner);
     }
 
@@ -148,6 +148,23 @@ class ZipHasherTest extends Specification {
         hash1 == hash2
     }
 
+    def "concurrent entry hashing produces the same hash as sequential hashing"() {
+        given:
+        def content = tmpDir.createDir("content")
+        (0..<300).each { index ->
+            content.file("dir${index % 7}/file${index}.txt") << "content $index"
+        }
+        def innerContent = tmpDir.createDir("inner")
+        innerContent.file("nested.properties") << "created-by=me"
+        innerContent.zipTo(content.file("lib/inner.jar"))
+        def jar = tmpDir.file("many-entries.jar")
+        content.zipTo(jar)
+        def concurrentZipHasher = new ZipHasher(resourceHasher(ResourceEntryFilter.FILTER_NOTHING, ResourceEntryFilter.FILTER_NOTHING), null, { s, e -> throw e }, true)
+
+        expect:
+        concurrentZipHasher.hash(snapshotContext(jar)) == zipHasher.hash(snapshotContext(jar))
+    }
+
     def createJarWithAttributes(TestFile jarfile, Map<String, String> attributes) {
         def manifest = new Manifest()
         def mainAttributes = manifest.getMainAttributes()
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.testing
+
+import org.gradle.api.internal.tasks.testing.worker.TestWorkerPool
+import org.gradle.integtests.fixtures.AbstractIntegrationSpec
+
+import static org.gradle.testing.fixture.JUnitCoverage.LATEST_JUNIT4_VERSION
+
+class TestWorkerReuseIntegrationTest extends AbstractIntegrationSpec {
+    def setup() {
+        executer.requireDaemon().requireIsolatedDaemons()
+        buildFile << """
+            plugins { id "java" }
+            ${mavenCentralRepository()}
+            dependencies {
+                testImplementation "junit:junit:${LATEST_JUNIT4_VERSION}"
+            }
+            test {
+                systemProperty "worker.file", file("worker.txt").absolutePath
+            }
+        """
+    }
+
+    def "later build reuses test worker and runs the changed test classes"() {
+        given:
+        writeTestClass("first")
+
+        when:
+        runTests()
+
+        then:
+        executedAndNotSkipped(":test")
+        def first = workerRuns.last()
+        first.message == "first"
+
+        when:
+        writeTestClass("second")
+        runTests()
+
+        then:
+        executedAndNotSkipped(":test")
+        def second = workerRuns.last()
+        second.message == "second"
+        second.process == first.process
+    }
+
+    def "does not reuse test worker when the option is not enabled"() {
+        given:
+        writeTestClass("first")
+
+        when:
+        succeeds("test")
+
+        then:
+        def first = workerRuns.last()
+
+        when:
+        writeTestClass("second")
+        succeeds("test")
+
+        then:
+        def second = workerRuns.last()
+        second.message == "second"
+        second.process != first.process
+    }
+
+    private void runTests() {
+        executer.withArgument("-D${TestWorkerPool.REUSE_TEST_WORKERS.systemPropertyName}=true")
+        succeeds("test")
+    }
+
+    private void writeTestClass(String message) {
+        file("src/test/java/SomeTest.java").text = """
+            import org.junit.Test;
+            import java.io.IOException;
+            import java.lang.management.ManagementFactory;
+            import java.nio.charset.StandardCharsets;
+            import java.nio.file.Files;
+            import java.nio.file.Paths;
+            import java.nio.file.StandardOpenOption;
+
+            public class SomeTest {
+                @Test
+                public void test() throws IOException {
+                    String line = "${message} " + ManagementFactory.getRuntimeMXBean().getName() + "\\n";
+                    Files.write(Paths.get(System.getProperty("worker.file")), line.getBytes(StandardCharsets.UTF_8), StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+                }
+            }
+        """
+    }
+
+    private List<Map<String, String>> getWorkerRuns() {
+        return file("worker.txt").readLines().collect { line ->
+            def parts = line.split(" ")
+            [message: parts[0], process: parts[1]]
+        }
+    }
+}
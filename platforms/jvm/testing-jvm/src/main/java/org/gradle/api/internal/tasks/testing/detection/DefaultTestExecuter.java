@@ -26,13 +26,16 @@
 import org.gradle.api.internal.tasks.testing.TestResultProcessor;
 import org.gradle.api.internal.tasks.testing.WorkerTestClassProcessorFactory;
 import org.gradle.api.internal.tasks.testing.filter.DefaultTestFilter;
+import org.gradle.api.internal.tasks.testing.processors.LongestFirstTestClassProcessor;
 import org.gradle.api.internal.tasks.testing.processors.MaxNParallelTestClassProcessor;
 import org.gradle.api.internal.tasks.testing.processors.PatternMatchTestClassProcessor;
 import org.gradle.api.internal.tasks.testing.processors.RestartEveryNTestClassProcessor;
 import org.gradle.api.internal.tasks.testing.processors.RunPreviousFailedFirstTestClassProcessor;
+import org.gradle.api.internal.tasks.testing.processors.TestClassDurations;
 import org.gradle.api.internal.tasks.testing.processors.TestMainAction;
 import org.gradle.api.internal.tasks.testing.worker.ForkingTestClassProcessor;
 import org.gradle.api.internal.tasks.testing.worker.ForkedTestClasspath;
+import org.gradle.api.internal.tasks.testing.worker.TestWorkerPool;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
 import org.gradle.internal.Factory;
@@ -41,6 +44,7 @@
 import org.gradle.internal.work.WorkerLeaseService;
 import org.gradle.process.internal.worker.WorkerProcessFactory;
 
+import javax.annotation.Nullable;
 import java.io.File;
 import java.util.ArrayList;
 
@@ -59,12 +63,23 @@ public class DefaultTestExecuter implements TestExecuter<JvmTestExecutionSpec> {
     private final Clock clock;
     private final DocumentationRegistry documentationRegistry;
     private final DefaultTestFilter testFilter;
+    @Nullable
+    private final TestWorkerPool workerPool;
     private TestClassProcessor processor;
 
     public DefaultTestExecuter(
         WorkerProcessFactory workerFactory, ActorFactory actorFactory, ModuleRegistry moduleRegistry,
         WorkerLeaseService workerLeaseService, int maxWorkerCount,
         Clock clock, DocumentationRegistry documentationRegistry, DefaultTestFilter testFilter
+    ) {
+        this(workerFactory, actorFactory, moduleRegistry, workerLeaseService, maxWorkerCount, clock, documentationRegistry, testFilter, null);
+    }
+
+    public DefaultTestExecuter(
+        WorkerProcessFactory workerFactory, ActorFactory actorFactory, ModuleRegistry moduleRegistry,
+        WorkerLeaseService workerLeaseService, int maxWorkerCount,
+        Clock clock, DocumentationRegistry documentationRegistry, DefaultTestFilter testFilter,
+        @Nullable TestWorkerPool workerPool
     ) {
         this.workerFactory = workerFactory;
         this.actorFactory = actorFactory;
@@ -74,6 +89,7 @@ public DefaultTestExecuter(
         this.clock = clock;
         this.documentationRegistry = documentationRegistry;
         this.testFilter = testFilter;
+        this.workerPool = workerPool;
     }
 
     @Override
@@ -86,11 +102,12 @@ public void execute(final JvmTestExecutionSpec testExecutionSpec, TestResultProc
             testFramework, testExecutionSpec.getTestIsModule()
         );
 
+        final TestWorkerPool reusableWorkers = canReuseWorkers(testExecutionSpec, classpath) ? workerPool : null;
         final Factory<TestClassProcessor> forkingProcessorFactory = new Factory<TestClassProcessor>() {
             @Override
             public TestClassProcessor create() {
                 return new ForkingTestClassProcessor(workerLeaseService, workerFactory, testInstanceFactory, testExecutionSpec.getJavaForkOptions(),
-                    classpath, testFramework.getWorkerConfigurationAction(), documentationRegistry);
+                    classpath, testFramework.getWorkerConfigurationAction(), documentationRegistry, reusableWorkers, testExecutionSpec.getIdentityPath().getPath());
             }
         };
         final Factory<TestClassProcessor> reforkingProcessorFactory = new Factory<TestClassProcessor>() {
@@ -99,10 +116,18 @@ public TestClassProcessor create() {
                 return new RestartEveryNTestClassProcessor(forkingProcessorFactory, testExecutionSpec.getForkEvery());
             }
         };
-        processor =
-            new PatternMatchTestClassProcessor(testFilter,
-                new RunPreviousFailedFirstTestClassProcessor(testExecutionSpec.getPreviousFailedTestClasses(),
-                    new MaxNParallelTestClassProcessor(getMaxParallelForks(testExecutionSpec), reforkingProcessorFactory, actorFactory)));
+        int maxParallelForks = getMaxParallelForks(testExecutionSpec);
+        TestClassDurations durations = maxParallelForks > 1
+            ? new TestClassDurations(testExecutionSpec.getPreviousTestClassDurations())
+            : TestClassDurations.empty();
+        TestClassProcessor parallelProcessor =
+            new RunPreviousFailedFirstTestClassProcessor(testExecutionSpec.getPreviousFailedTestClasses(),
+                new MaxNParallelTestClassProcessor(maxParallelForks, reforkingProcessorFactory, actorFactory, durations));
+        if (!durations.isEmpty()) {
+            // Start the slowest classes first and balance the forks using the durations of the previous run
+            parallelProcessor = new LongestFirstTestClassProcessor(durations, parallelProcessor);
+        }
+        processor = new PatternMatchTestClassProcessor(testFilter, parallelProcessor);
 
         final FileTree testClassFiles = testExecutionSpec.getCandidateClassFiles();
 
@@ -126,6 +151,16 @@ public void stopNow() {
         }
     }
 
+    /**
+     * Workers are not reused when each test class needs a fresh JVM, when debugging, or when the tests run as a module.
+     */
+    private static boolean canReuseWorkers(JvmTestExecutionSpec testExecutionSpec, ForkedTestClasspath classpath) {
+        return testExecutionSpec.getForkEvery() == 0
+            && !testExecutionSpec.getJavaForkOptions().getDebug()
+            && classpath.getApplicationModulepath().isEmpty()
+            && classpath.getImplementationModulepath().isEmpty();
+    }
+
     private int getMaxParallelForks(JvmTestExecutionSpec testExecutionSpec) {
         int maxParallelForks = testExecutionSpec.getMaxParallelForks();
         if (maxParallelForks > maxWorkerCount) {
@@ -20,7 +20,9 @@
 import com.google.common.collect.Sets;
 import org.gradle.api.Action;
 import org.gradle.api.GradleException;
+import org.gradle.api.artifacts.component.ComponentIdentifier;
 import org.gradle.api.artifacts.component.ComponentSelector;
+import org.gradle.api.artifacts.component.ModuleComponentIdentifier;
 import org.gradle.api.artifacts.component.ModuleComponentSelector;
 import org.gradle.api.capabilities.Capability;
 import org.gradle.api.internal.artifacts.ComponentSelectorConverter;
@@ -45,6 +47,8 @@
 import org.gradle.api.internal.attributes.AttributesSchemaInternal;
 import org.gradle.api.internal.attributes.ImmutableAttributesFactory;
 import org.gradle.api.specs.Spec;
+import org.gradle.internal.buildoption.InternalFlag;
+import org.gradle.internal.buildoption.InternalOptions;
 import org.gradle.internal.component.model.AttributeMatcher;
 import org.gradle.internal.component.model.ComponentGraphResolveMetadata;
 import org.gradle.internal.component.model.ComponentIdGenerator;
@@ -78,6 +82,13 @@ public class DependencyGraphBuilder {
     static final Spec<EdgeState> ENDORSE_STRICT_VERSIONS_DEPENDENCY_SPEC = dependencyState -> dependencyState.getDependencyState().getDependency().isEndorsingStrictVersions();
     static final Spec<EdgeState> NOT_ENDORSE_STRICT_VERSIONS_DEPENDENCY_SPEC = dependencyState -> !dependencyState.getDependencyState().getDependency().isEndorsingStrictVersions();
 
+    /**
+     * When set to {@code true}, the metadata of all newly selected module components reached from a node is resolved concurrently,
+     * even when fetching it is considered cheap, for example from a local file repository or from the dependency cache.
+     * Selection, conflict resolution and attachment of edges are still performed serially, so the resulting graph is the same.
+     */
+    public static final InternalFlag CONCURRENT_METADATA_RESOLUTION = new InternalFlag("org.gradle.internal.dependency-resolution.concurrent-metadata");
+
     private static final Logger LOGGER = LoggerFactory.getLogger(DependencyGraphBuilder.class);
 
     private final ModuleExclusions moduleExclusions;
@@ -89,6 +100,7 @@ public class DependencyGraphBuilder {
     private final VersionParser versionParser;
     private final GraphVariantSelector variantSelector;
     private final BuildOperationExecutor buildOperationExecutor;
+    private final boolean resolveCheapMetadataConcurrently;
 
     @Inject
     public DependencyGraphBuilder(
@@ -100,7 +112,8 @@ public DependencyGraphBuilder(
         ComponentIdGenerator idGenerator,
         VersionParser versionParser,
         GraphVariantSelector variantSelector,
-        BuildOperationExecutor buildOperationExecutor
+        BuildOperationExecutor buildOperationExecutor,
+        InternalOptions internalOptions
     ) {
         this.moduleExclusions = moduleExclusions;
         this.attributesFactory = attributesFactory;
@@ -111,6 +124,7 @@ public DependencyGraphBuilder(
         this.versionParser = versionParser;
         this.variantSelector = variantSelector;
         this.buildOperationExecutor = buildOperationExecutor;
+        this.resolveCheapMetadataConcurrently = internalOptions.getOption(CONCURRENT_METADATA_RESOLUTION).get();
     }
 
     public void resolve(
@@ -250,7 +264,7 @@ private boolean resolveEdges(
             return false;
         }
         if (performSelectionSerially(dependencies, dependencyFilter, resolveState, recomputeSelectors)) {
-            maybeDownloadMetadataInParallel(node, dependencies, dependencyFilter, buildOperationExecutor, resolveState.getComponentMetadataResolver());
+            maybeDownloadMetadataInParallel(node, dependencies, dependencyFilter, buildOperationExecutor, resolveState.getComponentMetadataResolver(), resolveCheapMetadataConcurrently);
             attachToTargetRevisionsSerially(dependencies, dependencyFilter);
             return true;
         } else {
@@ -323,8 +337,9 @@ private static void checkForModuleConflicts(ResolveState resolveState, ModuleRes
     /**
      * Prepares the resolution of edges, either serially or concurrently.
      * It uses a simple heuristic to determine if we should perform concurrent resolution, based on the number of edges, and whether they have unresolved metadata.
+     * When {@code includeCheapMetadata} is set, module components whose metadata is cheap to fetch are resolved concurrently as well.
      */
-    private static void maybeDownloadMetadataInParallel(NodeState node, List<EdgeState> dependencies, Spec<EdgeState> dependencyFilter, BuildOperationExecutor buildOperationExecutor, ComponentMetaDataResolver componentMetaDataResolver) {
+    private static void maybeDownloadMetadataInParallel(NodeState node, List<EdgeState> dependencies, Spec<EdgeState> dependencyFilter, BuildOperationExecutor buildOperationExecutor, ComponentMetaDataResolver componentMetaDataResolver, boolean includeCheapMetadata) {
         List<ComponentState> requiringDownload = null;
         for (EdgeState dependency : dependencies) {
             if (!dependencyFilter.isSatisfiedBy(dependency)) {
@@ -332,7 +347,8 @@ private static void maybeDownloadMetadataInParallel(NodeState node, List<EdgeSta
             }
             ComponentState targetComponent = dependency.getTargetComponent();
             if (targetComponent != null && targetComponent.isSelected() && !targetComponent.alreadyResolved()) {
-                if (!componentMetaDataResolver.isFetchingMetadataCheap(targetComponent.getComponentId())) {
+                ComponentIdentifier componentId = targetComponent.getComponentId();
+                if ((includeCheapMetadata && componentId instanceof ModuleComponentIdentifier) || !componentMetaDataResolver.isFetchingMetadataCheap(componentId)) {
                     // Avoid initializing the list if there are no components requiring download (a common case)
                     if (requiringDownload == null) {
                         requiringDownload = new ArrayList<>();
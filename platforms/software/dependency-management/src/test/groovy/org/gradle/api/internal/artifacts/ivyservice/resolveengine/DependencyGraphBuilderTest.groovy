@@ -51,6 +51,7 @@ import org.gradle.api.internal.attributes.ImmutableAttributes
 import org.gradle.api.problems.internal.InternalProblems
 import org.gradle.api.specs.Spec
 import org.gradle.internal.Describables
+import org.gradle.internal.buildoption.DefaultInternalOptions
 import org.gradle.internal.component.resolution.failure.ResolutionFailureHandler
 import org.gradle.internal.component.external.descriptor.DefaultExclude
 import org.gradle.internal.component.external.model.DefaultModuleComponentIdentifier
@@ -135,17 +136,7 @@ class DependencyGraphBuilderTest extends Specification {
     def failureDescriberRegistry = DependencyManagementTestUtil.standardResolutionFailureDescriberRegistry()
     def variantSelector = new GraphVariantSelector(new ResolutionFailureHandler(failureDescriberRegistry, Stub(InternalProblems)))
 
-    DependencyGraphBuilder builder = new DependencyGraphBuilder(
-        moduleExclusions,
-        AttributeTestUtil.attributesFactory(),
-        desugaring,
-        versionSelectorScheme,
-        versionComparator,
-        new ComponentIdGenerator(),
-        new VersionParser(),
-        variantSelector,
-        buildOperationProcessor
-    )
+    DependencyGraphBuilder builder = createBuilder()
 
     def root = rootProject()
     def rootComponent = Stub(RootComponentMetadataBuilder.RootComponentState) {
@@ -155,6 +146,21 @@ class DependencyGraphBuilderTest extends Specification {
         getModuleVersionIdentifier() >> root.moduleVersionId
     }
 
+    private DependencyGraphBuilder createBuilder(Map<String, String> options = [:]) {
+        return new DependencyGraphBuilder(
+            moduleExclusions,
+            AttributeTestUtil.attributesFactory(),
+            desugaring,
+            versionSelectorScheme,
+            versionComparator,
+            new ComponentIdGenerator(),
+            new VersionParser(),
+            variantSelector,
+            buildOperationProcessor,
+            new DefaultInternalOptions(options)
+        )
+    }
+
     private TestGraphVisitor resolve(Spec<? super DependencyMetadata> edgeFilter = { true }) {
         def graphVisitor = new TestGraphVisitor()
         builder.resolve(
@@ -195,6 +201,45 @@ class DependencyGraphBuilderTest extends Specification {
         result.components == ids(root, a, b, c)
     }
 
+    def "resolves cheap module metadata concurrently when enabled"() {
+        given:
+        builder = createBuilder((DependencyGraphBuilder.CONCURRENT_METADATA_RESOLUTION.systemPropertyName): "true")
+        metaDataResolver.isFetchingMetadataCheap(_) >> true
+        def a = revision("a")
+        def b = revision("b")
+        def c = revision("c")
+        def d = revision("d")
+        traverses root, a
+        traverses root, b
+        traverses root, c
+        traverses a, d
+
+        when:
+        def result = resolve()
+        result.rethrowFailure()
+
+        then:
+        1 * buildOperationProcessor.runAll(_, _)
+        result.components == ids(root, a, b, c, d)
+    }
+
+    def "resolves cheap module metadata serially by default"() {
+        given:
+        metaDataResolver.isFetchingMetadataCheap(_) >> true
+        def a = revision("a")
+        def b = revision("b")
+        traverses root, a
+        traverses root, b
+
+        when:
+        def result = resolve()
+        result.rethrowFailure()
+
+        then:
+        0 * buildOperationProcessor.runAll(_, _)
+        result.components == ids(root, a, b)
+    }
+
     def "honors component replacements"() {
         given:
         def a = revision('a') // a->c
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.worker;
+
+import org.gradle.api.internal.tasks.testing.WorkerTestClassProcessorFactory;
+
+import java.io.File;
+import java.util.List;
+
+/**
+ * A {@link RemoteTestClassProcessor} for a test worker that can execute several test runs, one after the other.
+ *
+ * <p>Each run is started with {@link #startProcessing(WorkerTestClassProcessorFactory, List)} and finished with {@link #stop()},
+ * after which the worker waits for the next run. The worker exits when {@link #shutdown()} is received.</p>
+ */
+public interface RemoteReusableTestClassProcessor extends RemoteTestClassProcessor {
+    /**
+     * Starts a new run. The test classes are loaded from the given classpath, in a class loader that is discarded at the end of the run.
+     *
+     * Does not block.
+     */
+    void startProcessing(WorkerTestClassProcessorFactory factory, List<File> testClasspath);
+
+    /**
+     * Does not block.
+     */
+    void shutdown();
+}
@@ -43,8 +43,15 @@
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.IOException;
 import java.io.Serializable;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
 import java.security.AccessControlException;
+import java.util.List;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
 
@@ -59,8 +66,12 @@
  * Commands are received on communication threads and then processed sequentially on the main thread.  Although concurrent calls to
  * any of the methods from {@link RemoteTestClassProcessor} are supported, the commands will still be executed sequentially in the
  * main thread in order of arrival.
+ *
+ * A reusable worker, created with {@link #reusable()}, accepts the commands of {@link RemoteReusableTestClassProcessor} instead.
+ * It goes back to waiting for {@link RemoteReusableTestClassProcessor#startProcessing(WorkerTestClassProcessorFactory, List)}
+ * after each {@link RemoteTestClassProcessor#stop()}, until {@link RemoteReusableTestClassProcessor#shutdown()} is received.
  */
-public class TestWorker implements Action<WorkerProcessContext>, RemoteTestClassProcessor, Serializable, Stoppable {
+public class TestWorker implements Action<WorkerProcessContext>, RemoteReusableTestClassProcessor, Serializable, Stoppable {
     private enum State {INITIALIZING, STARTED, STOPPED}
 
     private static final Logger LOGGER = LoggerFactory.getLogger(TestWorker.class);
@@ -68,10 +79,16 @@ private enum State {INITIALIZING, STARTED, STOPPED}
     public static final String WORKER_TMPDIR_SYS_PROPERTY = "org.gradle.internal.worker.tmpdir";
     private static final String WORK_THREAD_NAME = "Test worker";
 
+    @Nullable
     private final WorkerTestClassProcessorFactory factory;
+    private final boolean reusable;
     private final BlockingQueue<Runnable> runQueue = new ArrayBlockingQueue<Runnable>(1);
     private TestClassProcessor processor;
     private TestResultProcessor resultProcessor;
+    private WorkerProcessContext workerProcessContext;
+    private ServiceRegistry testServices;
+    private URLClassLoader testClassLoader;
+    private SecurityManager initialSecurityManager;
 
     /**
      * Note that the state object is not synchronized and not thread-safe.  Any modifications to the
@@ -81,7 +98,19 @@ private enum State {INITIALIZING, STARTED, STOPPED}
     private volatile State state = State.INITIALIZING;
 
     public TestWorker(WorkerTestClassProcessorFactory factory) {
+        this(factory, false);
+    }
+
+    private TestWorker(@Nullable WorkerTestClassProcessorFactory factory, boolean reusable) {
         this.factory = factory;
+        this.reusable = reusable;
+    }
+
+    /**
+     * Creates a worker that executes several test runs, each with its own test framework and test classes.
+     */
+    public static TestWorker reusable() {
+        return new TestWorker(null, true);
     }
 
     @Override
@@ -90,7 +119,7 @@ public void execute(final WorkerProcessContext workerProcessContext) {
 
         LOGGER.info("{} started executing tests.", workerProcessContext.getDisplayName());
 
-        SecurityManager securityManager = System.getSecurityManager();
+        initialSecurityManager = System.getSecurityManager();
 
         System.setProperty(WORKER_ID_SYS_PROPERTY, workerProcessContext.getWorkerId().toString());
 
@@ -115,18 +144,23 @@ public void execute(final WorkerProcessContext workerProcessContext) {
                 runQueue.clear();
             }
 
-            if (System.getSecurityManager() != securityManager) {
-                try {
-                    // Reset security manager the tests seem to have installed
-                    System.setSecurityManager(securityManager);
-                } catch (SecurityException e) {
-                    LOGGER.warn("Unable to reset SecurityManager. Continuing anyway...", e);
-                }
-            }
+            resetSecurityManager();
+            closeTestClassLoader();
             testServices.close();
         }
     }
 
+    private void resetSecurityManager() {
+        if (System.getSecurityManager() != initialSecurityManager) {
+            try {
+                // Reset security manager the tests seem to have installed
+                System.setSecurityManager(initialSecurityManager);
+            } catch (SecurityException e) {
+                LOGGER.warn("Unable to reset SecurityManager. Continuing anyway...", e);
+            }
+        }
+    }
+
     private static void executeAndMaintainThreadName(Runnable action) {
         try {
             action.run();
@@ -137,6 +171,24 @@ private static void executeAndMaintainThreadName(Runnable action) {
     }
 
     private void startReceivingTests(WorkerProcessContext workerProcessContext, ServiceRegistry testServices) {
+        this.workerProcessContext = workerProcessContext;
+        this.testServices = testServices;
+        if (!reusable) {
+            processor = createProcessor(Cast.uncheckedNonnullCast(factory), workerProcessContext.getApplicationClassLoader());
+        }
+
+        ObjectConnection serverConnection = workerProcessContext.getServerConnection();
+        serverConnection.useParameterSerializers(TestEventSerializer.create());
+        this.resultProcessor = serverConnection.addOutgoing(TestResultProcessor.class);
+        if (reusable) {
+            serverConnection.addIncoming(RemoteReusableTestClassProcessor.class, this);
+        } else {
+            serverConnection.addIncoming(RemoteTestClassProcessor.class, this);
+        }
+        serverConnection.connect();
+    }
+
+    private TestClassProcessor createProcessor(WorkerTestClassProcessorFactory factory, ClassLoader applicationClassLoader) {
         TestClassProcessor targetProcessor = factory.create(
             testServices.get(IdGenerator.class),
             testServices.get(ActorFactory.class),
@@ -147,14 +199,31 @@ private void startReceivingTests(WorkerProcessContext workerProcessContext, Serv
         targetProcessor = new WorkerTestClassProcessor(targetProcessor, idGenerator.generateId(),
             workerProcessContext.getDisplayName(), testServices.get(Clock.class));
         ContextClassLoaderProxy<TestClassProcessor> proxy = new ContextClassLoaderProxy<TestClassProcessor>(
-            TestClassProcessor.class, targetProcessor, workerProcessContext.getApplicationClassLoader());
-        processor = proxy.getSource();
+            TestClassProcessor.class, targetProcessor, applicationClassLoader);
+        return proxy.getSource();
+    }
 
-        ObjectConnection serverConnection = workerProcessContext.getServerConnection();
-        serverConnection.useParameterSerializers(TestEventSerializer.create());
-        this.resultProcessor = serverConnection.addOutgoing(TestResultProcessor.class);
-        serverConnection.addIncoming(RemoteTestClassProcessor.class, this);
-        serverConnection.connect();
+    private static URL[] toUrls(List<File> files) {
+        URL[] urls = new URL[files.size()];
+        for (int i = 0; i < urls.length; i++) {
+            try {
+                urls[i] = files.get(i).toURI().toURL();
+            } catch (MalformedURLException e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            }
+        }
+        return urls;
+    }
+
+    private void closeTestClassLoader() {
+        if (testClassLoader != null) {
+            try {
+                testClassLoader.close();
+            } catch (IOException e) {
+                LOGGER.debug("Could not close test class loader.", e);
+            }
+            testClassLoader = null;
+        }
     }
 
     @Override
@@ -171,6 +240,23 @@ public void run() {
         });
     }
 
+    @Override
+    public void startProcessing(final WorkerTestClassProcessorFactory factory, final List<File> testClasspath) {
+        submitToRun(new Runnable() {
+            @Override
+            public void run() {
+                if (state != State.INITIALIZING) {
+                    throw new IllegalStateException("A command to start processing has already been received");
+                }
+                // Load the test classes in a fresh class loader for each run, so that runs do not see each other's classes
+                testClassLoader = new URLClassLoader(toUrls(testClasspath), workerProcessContext.getApplicationClassLoader());
+                processor = createProcessor(factory, testClassLoader);
+                processor.startProcessing(resultProcessor);
+                state = State.STARTED;
+            }
+        });
+    }
+
     @Override
     public void processTestClass(final TestClassRunInfo testClass) {
         submitToRun(new Runnable() {
@@ -199,7 +285,14 @@ public void run() {
                 try {
                     processor.stop();
                 } finally {
-                    state = State.STOPPED;
+                    if (reusable) {
+                        processor = null;
+                        resetSecurityManager();
+                        closeTestClassLoader();
+                        state = State.INITIALIZING;
+                    } else {
+                        state = State.STOPPED;
+                    }
                     // Clean the interrupted status
                     // because some test class processors do work here, e.g. JUnitPlatform
                     Thread.interrupted();
@@ -208,6 +301,16 @@ public void run() {
         });
     }
 
+    @Override
+    public void shutdown() {
+        submitToRun(new Runnable() {
+            @Override
+            public void run() {
+                state = State.STOPPED;
+            }
+        });
+    }
+
     private synchronized void submitToRun(Runnable command) {
         if (state != State.STOPPED) {
             try {
@@ -76,4 +76,44 @@ public class TestWorkerTest extends ConcurrentSpec {
         1 * processor.processTestClass(test)
         1 * processor.stop()
     }
+
+    def reusableWorkerExecutesSeveralRunsUntilShutdownReceived() {
+        def reusableWorker = TestWorker.reusable()
+        def processor2 = Mock(TestClassProcessor)
+        def testClasspath = [new File("classes")]
+
+        when:
+        async {
+            reusableWorker.execute(workerContext)
+            instant.completed
+        }
+
+        then:
+        instant.completed > instant.shutdown
+
+        and:
+        1 * connection.addOutgoing(TestResultProcessor) >> resultProcessor
+        1 * connection.addIncoming(RemoteReusableTestClassProcessor, reusableWorker)
+        1 * connection.useParameterSerializers(_)
+        1 * connection.connect() >> {
+            start {
+                reusableWorker.startProcessing(factory, testClasspath)
+                reusableWorker.processTestClass(test)
+                reusableWorker.stop()
+                reusableWorker.startProcessing(factory, testClasspath)
+                reusableWorker.processTestClass(test)
+                reusableWorker.stop()
+                thread.block()
+                instant.shutdown
+                reusableWorker.shutdown()
+            }
+        }
+        2 * factory.create(_, _, _) >>> [processor, processor2]
+        1 * processor.startProcessing(_)
+        1 * processor.processTestClass(test)
+        1 * processor.stop()
+        1 * processor2.startProcessing(_)
+        1 * processor2.processTestClass(test)
+        1 * processor2.stop()
+    }
 }
@@ -22,7 +22,6 @@
 import org.gradle.api.UncheckedIOException;
 import org.gradle.api.tasks.testing.TestOutputEvent;
 import org.gradle.internal.UncheckedException;
-import org.gradle.internal.file.RandomAccessFileInputStream;
 import org.gradle.internal.serialize.kryo.KryoBackedDecoder;
 import org.gradle.internal.serialize.kryo.KryoBackedEncoder;
 
@@ -33,6 +32,7 @@
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.RandomAccessFile;
 import java.io.UnsupportedEncodingException;
 import java.nio.charset.Charset;
@@ -225,6 +225,14 @@ Index build() {
         }
     }
 
+    /**
+     * Reads the output of a results directory.
+     *
+     * <p>A reader is safe to use from multiple threads at the same time. The index is loaded once and reads of the data file
+     * only hold its lock while reading a chunk, so reports for different classes can be rendered concurrently from a single reader.
+     * The data file is a {@link RandomAccessFile} rather than a {@link java.nio.channels.FileChannel}, as interrupting a thread that
+     * reads from a channel closes the channel for all other threads.</p>
+     */
     public class Reader implements Closeable {
         private final Index index;
         private final RandomAccessFile dataFile;
@@ -271,7 +279,7 @@ public Reader() {
                 index = rootBuilder.build();
 
                 try {
-                    dataFile = new RandomAccessFile(getOutputsFile(), "r");
+                    dataFile = new RandomAccessFile(outputsFile, "r");
                 } catch (FileNotFoundException e) {
                     throw new UncheckedIOException(e);
                 }
@@ -343,9 +351,8 @@ private void doRead(long classId, long testId, boolean allClassOutput, TestOutpu
             boolean ignoreTestLevel = !allClassOutput && testId == 0;
 
             try {
-                dataFile.seek(region.start);
                 long maxPos = region.stop - region.start;
-                KryoBackedDecoder decoder = new KryoBackedDecoder(new RandomAccessFileInputStream(dataFile));
+                KryoBackedDecoder decoder = new KryoBackedDecoder(new PositionalInputStream(dataFile, region.start));
                 while (decoder.getReadPosition() <= maxPos) {
                     boolean readStdout = decoder.readBoolean();
                     long readClassId = decoder.readSmallLong();
@@ -372,15 +379,7 @@ private void doRead(long classId, long testId, boolean allClassOutput, TestOutpu
                     if (testId == 0 || testId == readTestId) {
                         byte[] stringBytes = new byte[readLength];
                         decoder.readBytes(stringBytes);
-                        String message;
-                        try {
-                            message = new String(stringBytes, messageStorageCharset.name());
-                        } catch (UnsupportedEncodingException e) {
-                            // shouldn't happen
-                            throw UncheckedException.throwAsUncheckedException(e);
-                        }
-
-                        writer.write(message);
+                        writer.write(new String(stringBytes, messageStorageCharset));
                     } else {
                         decoder.skipBytes(readLength);
                     }
@@ -400,6 +399,45 @@ private Index getIndex(long classId, long testId) {
         }
     }
 
+    /**
+     * Reads from a file shared with other threads, starting at a given position. Each read seeks to the position of this stream.
+     */
+    private static class PositionalInputStream extends InputStream {
+        private final RandomAccessFile file;
+        private long position;
+
+        private PositionalInputStream(RandomAccessFile file, long position) {
+            this.file = file;
+            this.position = position;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] buffer = new byte[1];
+            int read = read(buffer, 0, 1);
+            return read < 0 ? -1 : buffer[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException {
+            int read;
+            synchronized (file) {
+                file.seek(position);
+                read = file.read(bytes, offset, length);
+            }
+            if (read > 0) {
+                position += read;
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) {
+            position += n;
+            return n;
+        }
+    }
+
     // IMPORTANT: return must be closed when done with.
     public Reader reader() {
         return new Reader();
@@ -17,38 +17,46 @@
 package org.gradle.api.internal.tasks.testing.junit.result;
 
 import org.gradle.api.Action;
-import org.gradle.internal.concurrent.CompositeStoppable;
 
 import java.io.IOException;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
 
 public abstract class TestOutputStoreBackedResultsProvider implements TestResultsProvider {
     private final TestOutputStore outputStore;
-    private final ConcurrentMap<Thread, TestOutputStore.Reader> readers;
+    private volatile TestOutputStore.Reader reader;
 
     public TestOutputStoreBackedResultsProvider(TestOutputStore outputStore) {
         this.outputStore = outputStore;
-        this.readers = new ConcurrentHashMap<Thread, TestOutputStore.Reader>();
     }
 
     protected void withReader(Action<TestOutputStore.Reader> action) {
         action.execute(getReader());
     }
 
+    // The reader can be shared by all threads rendering the report, so the index is only loaded once
     private TestOutputStore.Reader getReader() {
-        Thread thread = Thread.currentThread();
-        TestOutputStore.Reader reader = readers.get(thread);
-        if (reader == null) {
-            reader = outputStore.reader();
-            readers.put(thread, reader);
+        TestOutputStore.Reader result = reader;
+        if (result == null) {
+            synchronized (this) {
+                result = reader;
+                if (result == null) {
+                    result = outputStore.reader();
+                    reader = result;
+                }
+            }
         }
-        return reader;
+        return result;
     }
 
     @Override
     public void close() throws IOException {
-        CompositeStoppable.stoppable(readers.values()).stop();
+        TestOutputStore.Reader current;
+        synchronized (this) {
+            current = reader;
+            reader = null;
+        }
+        if (current != null) {
+            current.close();
+        }
     }
 
 }
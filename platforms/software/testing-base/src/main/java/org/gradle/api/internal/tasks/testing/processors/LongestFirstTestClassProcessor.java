@@ -0,0 +1,104 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.processors;
+
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ListMultimap;
+import org.gradle.api.internal.tasks.testing.TestClassProcessor;
+import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
+import org.gradle.api.internal.tasks.testing.TestResultProcessor;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Passes test classes to its delegate in order of decreasing estimated duration, so that long running classes
+ * start early and do not leave the other processors idle at the end of the run.
+ *
+ * <p>Only the classes that ran before are reordered. Their order is known up front from the previous run, so each of these classes
+ * is passed on as soon as all the longer classes that ran before have been found. A class that is found early is held back
+ * until then, or until the end of the test class detection when a longer class no longer exists. Classes that did not run before
+ * have no estimate of their own and are passed on right away, so that the processors can start working while the
+ * test classes are detected.</p>
+ */
+public class LongestFirstTestClassProcessor implements TestClassProcessor {
+    private final TestClassDurations durations;
+    private final TestClassProcessor delegate;
+    private final Iterator<String> expectedOrder;
+    private final ListMultimap<String, TestClassRunInfo> heldBack = ArrayListMultimap.create();
+    @Nullable
+    private String nextExpected;
+
+    public LongestFirstTestClassProcessor(TestClassDurations durations, TestClassProcessor delegate) {
+        this.durations = durations;
+        this.delegate = delegate;
+        this.expectedOrder = durations.getLongestFirst().iterator();
+        this.nextExpected = nextExpected();
+    }
+
+    @Override
+    public void startProcessing(TestResultProcessor resultProcessor) {
+        delegate.startProcessing(resultProcessor);
+    }
+
+    @Override
+    public void processTestClass(TestClassRunInfo testClass) {
+        if (!durations.hasRun(testClass.getTestClassName())) {
+            delegate.processTestClass(testClass);
+            return;
+        }
+        heldBack.put(testClass.getTestClassName(), testClass);
+        while (nextExpected != null && heldBack.containsKey(nextExpected)) {
+            for (TestClassRunInfo next : heldBack.removeAll(nextExpected)) {
+                delegate.processTestClass(next);
+            }
+            nextExpected = nextExpected();
+        }
+    }
+
+    @Nullable
+    private String nextExpected() {
+        return expectedOrder.hasNext() ? expectedOrder.next() : null;
+    }
+
+    @Override
+    public void stop() {
+        // The classes still held back wait for a longer class that ran before, but was not found this time
+        List<TestClassRunInfo> testClasses = new ArrayList<TestClassRunInfo>(heldBack.values());
+        heldBack.clear();
+        // The sort is stable, so classes with the same estimate keep their discovery order
+        Collections.sort(testClasses, new Comparator<TestClassRunInfo>() {
+            @Override
+            public int compare(TestClassRunInfo left, TestClassRunInfo right) {
+                return Long.compare(durations.estimate(right.getTestClassName()), durations.estimate(left.getTestClassName()));
+            }
+        });
+        for (TestClassRunInfo testClass : testClasses) {
+            delegate.processTestClass(testClass);
+        }
+        delegate.stop();
+    }
+
+    @Override
+    public void stopNow() {
+        delegate.stopNow();
+    }
+}
@@ -30,15 +30,18 @@
 import java.util.List;
 
 /**
- * Manages a set of parallel TestClassProcessors. Uses a simple round-robin algorithm to assign test classes to
- * processors.
+ * Manages a set of parallel TestClassProcessors. When the durations of test classes are known from a previous run,
+ * each test class is assigned to the processor with the least estimated work. Otherwise, a simple round-robin
+ * algorithm is used to assign test classes to processors.
  */
 public class MaxNParallelTestClassProcessor implements TestClassProcessor {
     private final int maxProcessors;
     private final Factory<TestClassProcessor> factory;
     private final ActorFactory actorFactory;
+    private final TestClassDurations durations;
     private TestResultProcessor resultProcessor;
     private int pos;
+    private List<Long> assignedDurations = new ArrayList<Long>();
     private List<TestClassProcessor> processors = new ArrayList<TestClassProcessor>();
     private List<TestClassProcessor> rawProcessors = new ArrayList<TestClassProcessor>();
     private List<Actor> actors = new ArrayList<Actor>();
@@ -46,9 +49,14 @@ public class MaxNParallelTestClassProcessor implements TestClassProcessor {
     private volatile boolean stoppedNow;
 
     public MaxNParallelTestClassProcessor(int maxProcessors, Factory<TestClassProcessor> factory, ActorFactory actorFactory) {
+        this(maxProcessors, factory, actorFactory, TestClassDurations.empty());
+    }
+
+    public MaxNParallelTestClassProcessor(int maxProcessors, Factory<TestClassProcessor> factory, ActorFactory actorFactory, TestClassDurations durations) {
         this.maxProcessors = maxProcessors;
         this.factory = factory;
         this.actorFactory = actorFactory;
+        this.durations = durations;
     }
 
     @Override
@@ -72,14 +80,30 @@ public void processTestClass(TestClassRunInfo testClass) {
             processor = actor.getProxy(TestClassProcessor.class);
             actors.add(actor);
             processors.add(processor);
+            assignedDurations.add(0L);
             processor.startProcessing(resultProcessor);
+            pos = processors.size() - 1;
+        } else if (durations.isEmpty()) {
+            pos = (pos + 1) % processors.size();
+            processor = processors.get(pos);
         } else {
+            pos = leastLoadedProcessor();
             processor = processors.get(pos);
-            pos = (pos + 1) % processors.size();
         }
+        assignedDurations.set(pos, assignedDurations.get(pos) + durations.estimate(testClass.getTestClassName()));
         processor.processTestClass(testClass);
     }
 
+    private int leastLoadedProcessor() {
+        int leastLoaded = 0;
+        for (int i = 1; i < assignedDurations.size(); i++) {
+            if (assignedDurations.get(i) < assignedDurations.get(leastLoaded)) {
+                leastLoaded = i;
+            }
+        }
+        return leastLoaded;
+    }
+
     @Override
     public void stop() {
         try {
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.processors;
+
+import com.google.common.collect.ImmutableMap;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Estimated execution time of test classes, based on the durations recorded by a previous run of the same task.
+ *
+ * <p>Test classes that did not run before are assumed to take the average time of the known test classes.</p>
+ */
+public class TestClassDurations {
+    private static final TestClassDurations EMPTY = new TestClassDurations(ImmutableMap.<String, Long>of());
+
+    private final Map<String, Long> durations;
+    private final long defaultDuration;
+
+    public TestClassDurations(Map<String, Long> durations) {
+        this.durations = ImmutableMap.copyOf(durations);
+        long total = 0;
+        for (Long duration : durations.values()) {
+            total += duration;
+        }
+        // Never estimate 0, so that classes without history are still spread across processors
+        this.defaultDuration = Math.max(1, durations.isEmpty() ? 0 : total / durations.size());
+    }
+
+    public static TestClassDurations empty() {
+        return EMPTY;
+    }
+
+    public boolean isEmpty() {
+        return durations.isEmpty();
+    }
+
+    /**
+     * Returns whether the given test class ran before, so that its estimate is its previous duration.
+     */
+    public boolean hasRun(String testClassName) {
+        return durations.containsKey(testClassName);
+    }
+
+    /**
+     * Returns the test classes that ran before, in order of decreasing duration.
+     */
+    public List<String> getLongestFirst() {
+        List<String> testClassNames = new ArrayList<String>(durations.keySet());
+        // The sort is stable, so classes with the same duration keep the order of the previous run
+        Collections.sort(testClassNames, new Comparator<String>() {
+            @Override
+            public int compare(String left, String right) {
+                return Long.compare(estimate(right), estimate(left));
+            }
+        });
+        return testClassNames;
+    }
+
+    public long estimate(String testClassName) {
+        Long duration = durations.get(testClassName);
+        return duration == null ? defaultDuration : Math.max(1, duration);
+    }
+}
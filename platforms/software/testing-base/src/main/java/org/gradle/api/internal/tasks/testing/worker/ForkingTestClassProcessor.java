@@ -16,6 +16,7 @@
 
 package org.gradle.api.internal.tasks.testing.worker;
 
+import com.google.common.collect.ImmutableList;
 import org.gradle.api.Action;
 import org.gradle.api.internal.DocumentationRegistry;
 import org.gradle.api.internal.tasks.testing.TestClassProcessor;
@@ -33,8 +34,13 @@
 import org.gradle.process.internal.worker.WorkerProcessBuilder;
 import org.gradle.process.internal.worker.WorkerProcessFactory;
 
+import javax.annotation.Nullable;
+import java.io.File;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -46,8 +52,12 @@ public class ForkingTestClassProcessor implements TestClassProcessor {
     private final Action<WorkerProcessBuilder> buildConfigAction;
     private final Lock lock = new ReentrantLock();
     private final WorkerThreadRegistry workerThreadRegistry;
+    @Nullable
+    private final TestWorkerPool workerPool;
+    private final String taskPath;
     private RemoteTestClassProcessor remoteProcessor;
     private WorkerProcess workerProcess;
+    private PooledTestWorker pooledWorker;
     private TestResultProcessor resultProcessor;
     private WorkerLeaseRegistry.WorkerLeaseCompletion completion;
     private final DocumentationRegistry documentationRegistry;
@@ -63,8 +73,29 @@ public ForkingTestClassProcessor(
         ForkedTestClasspath classpath,
         Action<WorkerProcessBuilder> buildConfigAction,
         DocumentationRegistry documentationRegistry
+    ) {
+        this(workerThreadRegistry, workerFactory, processorFactory, options, classpath, buildConfigAction, documentationRegistry, null, null);
+    }
+
+    /**
+     * Creates a processor that takes its worker process from the given pool, if any, and returns it to the pool when done.
+     *
+     * @param taskPath the identity path of the test task, which owns the pooled workers it uses.
+     */
+    public ForkingTestClassProcessor(
+        WorkerThreadRegistry workerThreadRegistry,
+        WorkerProcessFactory workerFactory,
+        WorkerTestClassProcessorFactory processorFactory,
+        JavaForkOptions options,
+        ForkedTestClasspath classpath,
+        Action<WorkerProcessBuilder> buildConfigAction,
+        DocumentationRegistry documentationRegistry,
+        @Nullable TestWorkerPool workerPool,
+        @Nullable String taskPath
     ) {
         this.workerThreadRegistry = workerThreadRegistry;
+        this.workerPool = workerPool;
+        this.taskPath = taskPath;
         this.workerFactory = workerFactory;
         this.processorFactory = processorFactory;
         this.options = options;
@@ -86,10 +117,14 @@ public void processTestClass(TestClassRunInfo testClass) {
                 return;
             }
 
-            if (remoteProcessor == null) {
+            if (remoteProcessor == null && pooledWorker == null) {
                 completion = workerThreadRegistry.startWorker();
                 try {
-                    remoteProcessor = forkProcess();
+                    if (workerPool != null) {
+                        pooledWorker = startPooledRun(workerPool);
+                    } else {
+                        remoteProcessor = forkProcess();
+                    }
                 } catch (RuntimeException e) {
                     completion.leaseFinish();
                     completion = null;
@@ -97,7 +132,67 @@ public void processTestClass(TestClassRunInfo testClass) {
                 }
             }
 
-            remoteProcessor.processTestClass(testClass);
+            if (pooledWorker != null) {
+                pooledWorker.processTestClass(testClass);
+            } else {
+                remoteProcessor.processTestClass(testClass);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private PooledTestWorker startPooledRun(TestWorkerPool workerPool) {
+        // Directories usually change from one build to the next, so they are loaded by the worker for each run, see TestWorkerPool.REUSE_TEST_WORKERS.
+        // Jars stay on the classpath of the worker process, and their content is part of the key of the worker.
+        List<File> processClasspath = new ArrayList<File>();
+        List<File> testClasspath = new ArrayList<File>();
+        ImmutableList.Builder<Object> key = ImmutableList.builder();
+        for (File file : classpath.getApplicationClasspath()) {
+            if (file.isFile()) {
+                processClasspath.add(file);
+                key.add(file.getAbsolutePath(), workerPool.hashJar(file));
+            } else {
+                testClasspath.add(file);
+            }
+        }
+        key.add(processorFactory.getClass().getName());
+        key.addAll(classpath.getImplementationClasspath());
+        key.add(String.valueOf(options.getExecutable()));
+        key.addAll(options.getAllJvmArgs());
+        key.add(String.valueOf(options.getWorkingDir()));
+        key.add(new TreeMap<String, Object>(options.getEnvironment()));
+        ImmutableList<Object> workerKey = key.build();
+
+        // Task paths are only unique within a build tree, and the pool is shared by all builds that use the same Gradle user home
+        ImmutableList<Object> owner = ImmutableList.<Object>of(String.valueOf(taskPath), String.valueOf(options.getWorkingDir()));
+        PooledTestWorker worker = workerPool.reserve(owner, workerKey);
+        if (worker == null) {
+            WorkerProcessBuilder builder = workerFactory.create(TestWorker.reusable());
+            builder.setBaseName("Gradle Test Executor");
+            builder.setImplementationClasspath(classpath.getImplementationClasspath());
+            builder.applicationClasspath(processClasspath);
+            // Disabled for faster startup, see https://github.com/gradle/gradle/pull/1883
+            builder.setNativeServicesMode(NativeServicesMode.DISABLED);
+            options.copyTo(builder.getJavaCommand());
+            buildConfigAction.execute(builder);
+            worker = PooledTestWorker.start(owner, workerKey, workerPool.getLogLevel(), options.getMaxHeapSize(), builder.build());
+        }
+        worker.startRun(processorFactory, testClasspath, resultProcessor, new Action<Throwable>() {
+            @Override
+            public void execute(Throwable throwable) {
+                onUnrecoverableError(throwable);
+            }
+        });
+        return worker;
+    }
+
+    private void onUnrecoverableError(Throwable throwable) {
+        lock.lock();
+        try {
+            if (!stoppedNow) {
+                unrecoverableExceptions.add(throwable);
+            }
         } finally {
             lock.unlock();
         }
@@ -123,14 +218,7 @@ RemoteTestClassProcessor forkProcess() {
         connection.addUnrecoverableErrorHandler(new Action<Throwable>() {
             @Override
             public void execute(Throwable throwable) {
-                lock.lock();
-                try {
-                    if (!stoppedNow) {
-                        unrecoverableExceptions.add(throwable);
-                    }
-                } finally {
-                    lock.unlock();
-                }
+                onUnrecoverableError(throwable);
             }
         });
         connection.addIncoming(TestResultProcessor.class, resultProcessor);
@@ -143,7 +231,9 @@ public void execute(Throwable throwable) {
     @Override
     public void stop() {
         try {
-            if (remoteProcessor != null) {
+            if (pooledWorker != null) {
+                finishPooledRun(pooledWorker);
+            } else if (remoteProcessor != null) {
                 lock.lock();
                 try {
                     if (!stoppedNow) {
@@ -169,12 +259,28 @@ public void stop() {
         maybeRethrowUnrecoverableExceptions();
     }
 
+    private void finishPooledRun(PooledTestWorker worker) {
+        lock.lock();
+        try {
+            if (stoppedNow) {
+                return;
+            }
+        } finally {
+            lock.unlock();
+        }
+        worker.finishRun();
+        // A worker that was stopped in the meantime is not alive anymore and is discarded by the pool
+        workerPool.release(worker);
+    }
+
     @Override
     public void stopNow() {
         lock.lock();
         try {
             stoppedNow = true;
-            if (remoteProcessor != null) {
+            if (pooledWorker != null) {
+                pooledWorker.stopNow();
+            } else if (remoteProcessor != null) {
                 workerProcess.stopNow();
             }
         } finally {
@@ -0,0 +1,215 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.worker;
+
+import org.gradle.api.Action;
+import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
+import org.gradle.api.internal.tasks.testing.TestCompleteEvent;
+import org.gradle.api.internal.tasks.testing.TestDescriptorInternal;
+import org.gradle.api.internal.tasks.testing.TestResultProcessor;
+import org.gradle.api.internal.tasks.testing.TestStartEvent;
+import org.gradle.api.internal.tasks.testing.WorkerTestClassProcessorFactory;
+import org.gradle.api.logging.LogLevel;
+import org.gradle.api.tasks.testing.TestFailure;
+import org.gradle.api.tasks.testing.TestOutputEvent;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.remote.ObjectConnection;
+import org.gradle.process.ExecResult;
+import org.gradle.process.internal.ExecException;
+import org.gradle.process.internal.worker.WorkerProcess;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A test worker process that executes several test runs, one after the other. See {@link TestWorkerPool}.
+ */
+class PooledTestWorker {
+    private final Object owner;
+    private final Object key;
+    private final LogLevel logLevel;
+    private final String maxHeapSize;
+    private final WorkerProcess workerProcess;
+    private final RemoteReusableTestClassProcessor remoteProcessor;
+    private final RunResultProcessor runResultProcessor = new RunResultProcessor();
+    private volatile Action<Throwable> unrecoverableErrorHandler;
+    private volatile boolean failed;
+    private volatile long idleSince;
+
+    private PooledTestWorker(Object owner, Object key, LogLevel logLevel, @Nullable String maxHeapSize, WorkerProcess workerProcess) {
+        this.owner = owner;
+        this.key = key;
+        this.logLevel = logLevel;
+        this.maxHeapSize = maxHeapSize;
+        this.workerProcess = workerProcess;
+
+        ObjectConnection connection = workerProcess.getConnection();
+        connection.useParameterSerializers(TestEventSerializer.create());
+        connection.addUnrecoverableErrorHandler(new Action<Throwable>() {
+            @Override
+            public void execute(Throwable throwable) {
+                failed = true;
+                Action<Throwable> handler = unrecoverableErrorHandler;
+                if (handler != null) {
+                    handler.execute(throwable);
+                }
+            }
+        });
+        connection.addIncoming(TestResultProcessor.class, runResultProcessor);
+        this.remoteProcessor = connection.addOutgoing(RemoteReusableTestClassProcessor.class);
+        connection.connect();
+    }
+
+    /**
+     * Starts the given worker process and connects to it. The process must run a {@link TestWorker#reusable()} worker.
+     */
+    static PooledTestWorker start(Object owner, Object key, LogLevel logLevel, @Nullable String maxHeapSize, WorkerProcess workerProcess) {
+        workerProcess.start();
+        return new PooledTestWorker(owner, key, logLevel, maxHeapSize, workerProcess);
+    }
+
+    Object getOwner() {
+        return owner;
+    }
+
+    Object getKey() {
+        return key;
+    }
+
+    LogLevel getLogLevel() {
+        return logLevel;
+    }
+
+    @Nullable
+    String getMaxHeapSize() {
+        return maxHeapSize;
+    }
+
+    long getIdleSince() {
+        return idleSince;
+    }
+
+    void setIdleSince(long idleSince) {
+        this.idleSince = idleSince;
+    }
+
+    boolean isAlive() {
+        return !failed && !workerProcess.getExecResult().isPresent();
+    }
+
+    String getDisplayName() {
+        return workerProcess.getDisplayName();
+    }
+
+    void startRun(WorkerTestClassProcessorFactory processorFactory, List<File> testClasspath, TestResultProcessor resultProcessor, Action<Throwable> unrecoverableErrorHandler) {
+        this.unrecoverableErrorHandler = unrecoverableErrorHandler;
+        runResultProcessor.startRun(resultProcessor);
+        remoteProcessor.startProcessing(processorFactory, testClasspath);
+    }
+
+    void processTestClass(TestClassRunInfo testClass) {
+        remoteProcessor.processTestClass(testClass);
+    }
+
+    /**
+     * Asks the worker to finish the current run and waits until all results of the run have been received.
+     */
+    void finishRun() {
+        remoteProcessor.stop();
+        try {
+            while (!runResultProcessor.awaitRunFinished()) {
+                Optional<ExecResult> execResult = workerProcess.getExecResult();
+                if (execResult.isPresent()) {
+                    failed = true;
+                    throw new ExecException(String.format("%s exited unexpectedly with exit value %d.", getDisplayName(), execResult.get().getExitValue()));
+                }
+            }
+        } finally {
+            unrecoverableErrorHandler = null;
+        }
+    }
+
+    /**
+     * Stops the worker process without waiting for the current run to finish.
+     */
+    void stopNow() {
+        failed = true;
+        workerProcess.stopNow();
+    }
+
+    /**
+     * Asks an idle worker to exit and waits for the process to stop.
+     */
+    void shutdown() {
+        failed = true;
+        remoteProcessor.shutdown();
+        workerProcess.waitForStop();
+    }
+
+    /**
+     * Forwards the results of the current run. The run is finished when the worker completes the root suite of the run.
+     */
+    private static class RunResultProcessor implements TestResultProcessor {
+        private volatile TestResultProcessor delegate;
+        private volatile Object workerSuiteId;
+        private volatile CountDownLatch runFinished;
+
+        void startRun(TestResultProcessor delegate) {
+            this.delegate = delegate;
+            this.workerSuiteId = null;
+            this.runFinished = new CountDownLatch(1);
+        }
+
+        boolean awaitRunFinished() {
+            try {
+                return runFinished.await(100, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            }
+        }
+
+        @Override
+        public void started(TestDescriptorInternal test, TestStartEvent event) {
+            if (workerSuiteId == null && event.getParentId() == null) {
+                workerSuiteId = test.getId();
+            }
+            delegate.started(test, event);
+        }
+
+        @Override
+        public void completed(Object testId, TestCompleteEvent event) {
+            delegate.completed(testId, event);
+            if (testId.equals(workerSuiteId)) {
+                runFinished.countDown();
+            }
+        }
+
+        @Override
+        public void output(Object testId, TestOutputEvent event) {
+            delegate.output(testId, event);
+        }
+
+        @Override
+        public void failure(Object testId, TestFailure result) {
+            delegate.failure(testId, result);
+        }
+    }
+}
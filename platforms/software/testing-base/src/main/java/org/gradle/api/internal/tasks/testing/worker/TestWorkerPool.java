@@ -0,0 +1,297 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.worker;
+
+import org.gradle.api.logging.LogLevel;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.internal.buildoption.InternalFlag;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.ManagedScheduledExecutor;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.internal.hash.FileHasher;
+import org.gradle.internal.hash.HashCode;
+import org.gradle.internal.logging.LoggingManagerInternal;
+import org.gradle.internal.service.scopes.Scope;
+import org.gradle.internal.service.scopes.ServiceScope;
+import org.gradle.internal.time.Clock;
+import org.gradle.process.internal.health.memory.MaximumHeapHelper;
+import org.gradle.process.internal.health.memory.MemoryAmount;
+import org.gradle.process.internal.health.memory.MemoryHolder;
+import org.gradle.process.internal.health.memory.MemoryManager;
+import org.gradle.process.internal.health.memory.OsMemoryInfo;
+
+import javax.annotation.Nullable;
+import javax.inject.Inject;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps test worker processes alive after a test task is done with them, so that later test tasks, in the same or in a later build,
+ * can reuse them instead of starting new JVMs.
+ *
+ * <p>Workers are keyed by everything that is fixed when the process starts, such as the JVM options and the jars on the classpath.
+ * The test classes, and the test framework with its options, are passed to the worker for each run. The worker loads the test classes
+ * in a new class loader for each run. See {@link RemoteReusableTestClassProcessor}.</p>
+ *
+ * <p>Idle workers are stopped when they have been idle for {@link #DEFAULT_MAX_IDLE_TIME_MILLIS}, when the {@link MemoryManager} asks
+ * to release memory, and when the test task that used them requests a worker with a different key, for example because one of its jars has changed.
+ * A worker with an out-of-date key would otherwise keep the old jars open.</p>
+ */
+@ServiceScope(Scope.UserHome.class)
+public class TestWorkerPool implements Stoppable {
+    /**
+     * Enables the reuse of test worker processes.
+     *
+     * <p>A reused worker loads the test classes differently from a worker that is started for a single test task.
+     * Only the jars of the test runtime classpath are on the classpath of the worker process. The directories of the test runtime classpath,
+     * such as the compiled test and main classes and the resources, are loaded by a child {@link java.net.URLClassLoader} that is created
+     * for each run and closed at the end of the run. So tests that use the system class loader to load classes or resources
+     * from these directories do not find them.</p>
+     *
+     * <p>Runs are only isolated from each other for the classes loaded from these directories. Static state of classes loaded from the jars,
+     * such as the test framework and the libraries used by the tests, and the system properties set by the tests are carried over to the
+     * next run in the same worker.</p>
+     */
+    public static final InternalFlag REUSE_TEST_WORKERS = new InternalFlag("org.gradle.internal.testing.reuse-test-workers");
+
+    static final long DEFAULT_MAX_IDLE_TIME_MILLIS = TimeUnit.MINUTES.toMillis(10);
+
+    private static final Logger LOGGER = Logging.getLogger(TestWorkerPool.class);
+
+    private final Object lock = new Object();
+    private final List<PooledTestWorker> idleWorkers = new ArrayList<PooledTestWorker>();
+    private final LoggingManagerInternal loggingManager;
+    private final FileHasher fileHasher;
+    private final MemoryManager memoryManager;
+    private final MemoryHolder memoryHolder;
+    private final Clock clock;
+    private final long osTotalMemory;
+    private final int maxIdleWorkers;
+    private final long maxIdleTimeMillis;
+    @Nullable
+    private final ManagedScheduledExecutor expirationExecutor;
+
+    @Inject
+    public TestWorkerPool(LoggingManagerInternal loggingManager, FileHasher fileHasher, MemoryManager memoryManager, OsMemoryInfo memoryInfo, ExecutorFactory executorFactory, Clock clock) {
+        this(loggingManager, fileHasher, memoryManager, getTotalPhysicalMemory(memoryInfo), clock, executorFactory, Runtime.getRuntime().availableProcessors(), DEFAULT_MAX_IDLE_TIME_MILLIS);
+    }
+
+    TestWorkerPool(
+        LoggingManagerInternal loggingManager,
+        FileHasher fileHasher,
+        MemoryManager memoryManager,
+        long osTotalMemory,
+        Clock clock,
+        @Nullable ExecutorFactory executorFactory,
+        int maxIdleWorkers,
+        long maxIdleTimeMillis
+    ) {
+        this.loggingManager = loggingManager;
+        this.fileHasher = fileHasher;
+        this.memoryManager = memoryManager;
+        this.osTotalMemory = osTotalMemory;
+        this.clock = clock;
+        this.maxIdleWorkers = maxIdleWorkers;
+        this.maxIdleTimeMillis = maxIdleTimeMillis;
+        this.memoryHolder = new MemoryHolder() {
+            @Override
+            public long attemptToRelease(long memoryAmountBytes) throws IllegalArgumentException {
+                if (memoryAmountBytes < 0) {
+                    throw new IllegalArgumentException("Negative memory amount");
+                }
+                return releaseMemory(memoryAmountBytes);
+            }
+        };
+        memoryManager.addMemoryHolder(memoryHolder);
+        if (executorFactory != null) {
+            long checkPeriod = Math.max(1, maxIdleTimeMillis / 10);
+            this.expirationExecutor = executorFactory.createScheduled("Test worker pool expiration", 1);
+            this.expirationExecutor.scheduleWithFixedDelay(new Runnable() {
+                @Override
+                public void run() {
+                    expireIdleWorkers();
+                }
+            }, checkPeriod, checkPeriod, TimeUnit.MILLISECONDS);
+        } else {
+            this.expirationExecutor = null;
+        }
+    }
+
+    private static long getTotalPhysicalMemory(OsMemoryInfo memoryInfo) {
+        try {
+            return memoryInfo.getOsSnapshot().getPhysicalMemory().getTotal();
+        } catch (UnsupportedOperationException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Hashes the content of a jar on the classpath of a worker, for the key of the worker.
+     * A jar that is rebuilt with the same content does not prevent reuse.
+     */
+    HashCode hashJar(File jar) {
+        return fileHasher.hash(jar);
+    }
+
+    LogLevel getLogLevel() {
+        return loggingManager.getLevel();
+    }
+
+    /**
+     * Returns an idle worker with the given key, or {@code null} when there is none.
+     *
+     * <p>Idle workers of the same owner with a different key cannot be reused by the owner anymore, and are stopped.</p>
+     *
+     * @param owner identifies the test task that uses the worker.
+     */
+    @Nullable
+    PooledTestWorker reserve(Object owner, Object key) {
+        List<PooledTestWorker> toStop = new ArrayList<PooledTestWorker>();
+        PooledTestWorker result = null;
+        synchronized (lock) {
+            Iterator<PooledTestWorker> it = idleWorkers.iterator();
+            while (it.hasNext()) {
+                PooledTestWorker candidate = it.next();
+                if (!candidate.isAlive()) {
+                    it.remove();
+                } else if (candidate.getKey().equals(key)) {
+                    if (result != null) {
+                        continue;
+                    }
+                    it.remove();
+                    if (candidate.getLogLevel() != getLogLevel()) {
+                        LOGGER.info("Log level has changed, stopping idle test worker with out-of-date log level.");
+                        toStop.add(candidate);
+                    } else {
+                        result = candidate;
+                    }
+                } else if (candidate.getOwner().equals(owner)) {
+                    it.remove();
+                    LOGGER.info("Test worker configuration has changed, stopping idle test worker {} with out-of-date configuration.", candidate.getDisplayName());
+                    toStop.add(candidate);
+                }
+            }
+        }
+        shutdown(toStop);
+        return result;
+    }
+
+    /**
+     * Makes a worker available for reuse, once its run has finished.
+     */
+    void release(PooledTestWorker worker) {
+        List<PooledTestWorker> toStop = new ArrayList<PooledTestWorker>();
+        synchronized (lock) {
+            if (worker.isAlive()) {
+                worker.setIdleSince(clock.getCurrentTime());
+                idleWorkers.add(worker);
+            }
+            // Stop the workers that have been idle for the longest time
+            while (idleWorkers.size() > maxIdleWorkers) {
+                toStop.add(idleWorkers.remove(0));
+            }
+        }
+        shutdown(toStop);
+    }
+
+    /**
+     * Stops the workers that have been idle for longer than the maximum idle time.
+     */
+    void expireIdleWorkers() {
+        List<PooledTestWorker> toStop = new ArrayList<PooledTestWorker>();
+        long expiredBefore = clock.getCurrentTime() - maxIdleTimeMillis;
+        synchronized (lock) {
+            // Workers are kept in the order they were released, so the oldest come first
+            Iterator<PooledTestWorker> it = idleWorkers.iterator();
+            while (it.hasNext()) {
+                PooledTestWorker candidate = it.next();
+                if (candidate.getIdleSince() > expiredBefore) {
+                    break;
+                }
+                it.remove();
+                toStop.add(candidate);
+            }
+        }
+        if (!toStop.isEmpty()) {
+            LOGGER.debug("Stopping {} test worker(s) that have been idle for more than {} ms.", toStop.size(), maxIdleTimeMillis);
+        }
+        shutdown(toStop);
+    }
+
+    /**
+     * Stops the workers that have been idle for the longest time, until the given amount of memory is released.
+     * Uses the maximum heap size of each worker, not its actual memory usage.
+     */
+    private long releaseMemory(long memoryAmountBytes) {
+        List<PooledTestWorker> toStop = new ArrayList<PooledTestWorker>();
+        long releasedBytes = 0;
+        synchronized (lock) {
+            Iterator<PooledTestWorker> it = idleWorkers.iterator();
+            while (it.hasNext() && releasedBytes < memoryAmountBytes) {
+                PooledTestWorker candidate = it.next();
+                it.remove();
+                toStop.add(candidate);
+                releasedBytes += getMemoryUsage(candidate);
+            }
+        }
+        if (!toStop.isEmpty()) {
+            LOGGER.debug("Stopping {} idle test worker(s) to free some system memory.", toStop.size());
+        }
+        shutdown(toStop);
+        return releasedBytes;
+    }
+
+    private long getMemoryUsage(PooledTestWorker worker) {
+        long maxHeapSize = MemoryAmount.parseNotation(worker.getMaxHeapSize());
+        if (maxHeapSize != -1) {
+            return maxHeapSize;
+        }
+        // If we don't know what the max heap is, approximate it based on OS total memory according to JVM documentation
+        if (osTotalMemory != -1) {
+            return new MaximumHeapHelper().getDefaultMaximumHeapSize(osTotalMemory);
+        }
+        return 0;
+    }
+
+    @Override
+    public void stop() {
+        if (expirationExecutor != null) {
+            expirationExecutor.stop();
+        }
+        memoryManager.removeMemoryHolder(memoryHolder);
+        List<PooledTestWorker> toStop;
+        synchronized (lock) {
+            toStop = new ArrayList<PooledTestWorker>(idleWorkers);
+            idleWorkers.clear();
+        }
+        shutdown(toStop);
+    }
+
+    private static void shutdown(List<PooledTestWorker> workers) {
+        for (PooledTestWorker worker : workers) {
+            try {
+                worker.shutdown();
+            } catch (RuntimeException e) {
+                LOGGER.debug("Could not stop idle test worker {}.", worker.getDisplayName(), e);
+            }
+        }
+    }
+}
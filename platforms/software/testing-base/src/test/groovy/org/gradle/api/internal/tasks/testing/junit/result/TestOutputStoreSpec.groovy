@@ -20,6 +20,8 @@ import org.gradle.api.internal.tasks.testing.TestDescriptorInternal
 import org.gradle.api.tasks.testing.TestOutputEvent
 import org.gradle.test.fixtures.file.WorkspaceTest
 
+import java.util.concurrent.ConcurrentHashMap
+
 import static org.gradle.api.tasks.testing.TestOutputEvent.Destination.StdErr
 import static org.gradle.api.tasks.testing.TestOutputEvent.Destination.StdOut
 
@@ -145,6 +147,59 @@ class TestOutputStoreSpec extends WorkspaceTest {
         reader.close()
     }
 
+    def "reader can be shared by concurrent threads"() {
+        given:
+        def writer = output.writer()
+        (1..20).each { classId ->
+            (1..5).each { testId ->
+                writer.onOutput(classId, testId, output(StdOut, "[out-$classId-$testId]"))
+                writer.onOutput(classId, testId, output(StdErr, "[err-$classId-$testId]"))
+            }
+        }
+        writer.close()
+        def reader = output.reader()
+
+        when:
+        def results = new ConcurrentHashMap<Long, String>()
+        def threads = (1..20).collect { classId ->
+            Thread.start {
+                results[classId as long] = collectAllOutput(reader, classId, StdOut)
+            }
+        }
+        threads*.join()
+
+        then:
+        (1..20).every { classId ->
+            results[classId as long] == (1..5).collect { "[out-$classId-$it]" }.join("")
+        }
+
+        cleanup:
+        reader?.close()
+    }
+
+    def "reader can be used after a reading thread is interrupted"() {
+        given:
+        def writer = output.writer()
+        writer.onOutput(1, 1, output(StdOut, "[out-1]"))
+        writer.onOutput(2, 1, output(StdOut, "[out-2]"))
+        writer.close()
+        def reader = output.reader()
+
+        when:
+        def interruptedResult = null
+        Thread.start {
+            Thread.currentThread().interrupt()
+            interruptedResult = collectAllOutput(reader, 1, StdOut)
+        }.join()
+
+        then:
+        interruptedResult == "[out-1]"
+        collectAllOutput(reader, 2, StdOut) == "[out-2]"
+
+        cleanup:
+        reader?.close()
+    }
+
     def "can open empty reader"() {
         // neither file
         expect:
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.processors
+
+import org.gradle.api.internal.tasks.testing.DefaultTestClassRunInfo
+import org.gradle.api.internal.tasks.testing.TestClassProcessor
+import org.gradle.api.internal.tasks.testing.TestResultProcessor
+import spock.lang.Specification
+
+class LongestFirstTestClassProcessorTest extends Specification {
+    TestClassProcessor delegate = Mock()
+    TestResultProcessor testResultProcessor = Mock()
+
+    def 'test classes are passed to delegate in order of decreasing duration'() {
+        given:
+        def processor = new LongestFirstTestClassProcessor(new TestClassDurations([Class1: 10L, Class2: 300L, Class3: 20L]), delegate)
+
+        when:
+        processor.startProcessing(testResultProcessor)
+        ['Class1', 'Class2', 'Class3'].each { processor.processTestClass(new DefaultTestClassRunInfo(it)) }
+        processor.stop()
+
+        then:
+        1 * delegate.startProcessing(testResultProcessor)
+        then:
+        1 * delegate.processTestClass(new DefaultTestClassRunInfo('Class2'))
+        then:
+        1 * delegate.processTestClass(new DefaultTestClassRunInfo('Class3'))
+        then:
+        1 * delegate.processTestClass(new DefaultTestClassRunInfo('Class1'))
+        then:
+        1 * delegate.stop()
+    }
+
+    def 'classes that did not run before are passed to delegate right away'() {
+        given:
+        def processor = new LongestFirstTestClassProcessor(new TestClassDurations([Class1: 10L, Class2: 300L]), delegate)
+        processor.startProcessing(testResultProcessor)
+
+        when:
+        processor.processTestClass(new DefaultTestClassRunInfo('Class1'))
+        processor.processTestClass(new DefaultTestClassRunInfo('NewClass'))
+
+        then:
+        1 * delegate.processTestClass(new DefaultTestClassRunInfo('NewClass'))
+        0 * delegate._
+    }
+
+    def 'class is passed to delegate as soon as all longer classes have been found'() {
+        given:
+        def processor = new LongestFirstTestClassProcessor(new TestClassDurations([Class1: 10L, Class2: 300L, Class3: 20L]), delegate)
+        processor.startProcessing(testResultProcessor)
+
+        when:
+        processor.processTestClass(new DefaultTestClassRunInfo('Class3'))
+
+        then:
+        0 * delegate._
+
+        when:
+        processor.processTestClass(new DefaultTestClassRunInfo('Class2'))
+
+        then:
+        1 * delegate.processTestClass(new DefaultTestClassRunInfo('Class2'))
+        then:
+        1 * delegate.processTestClass(new DefaultTestClassRunInfo('Class3'))
+        0 * delegate._
+    }
+
+    def 'held back classes are passed to delegate on stop when a longer class was not found'() {
+        given:
+        def processor = new LongestFirstTestClassProcessor(new TestClassDurations([Class1: 10L, Removed: 300L, Class3: 20L]), delegate)
+        processor.startProcessing(testResultProcessor)
+
+        when:
+        processor.processTestClass(new DefaultTestClassRunInfo('Class1'))
+        processor.processTestClass(new DefaultTestClassRunInfo('Class3'))
+
+        then:
+        0 * delegate._
+
+        when:
+        processor.stop()
+
+        then:
+        1 * delegate.processTestClass(new DefaultTestClassRunInfo('Class3'))
+        then:
+        1 * delegate.processTestClass(new DefaultTestClassRunInfo('Class1'))
+        then:
+        1 * delegate.stop()
+    }
+}
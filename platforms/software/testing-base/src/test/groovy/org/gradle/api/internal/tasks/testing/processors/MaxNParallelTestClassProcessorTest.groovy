@@ -16,6 +16,7 @@
 
 package org.gradle.api.internal.tasks.testing.processors
 
+import org.gradle.api.internal.tasks.testing.DefaultTestClassRunInfo
 import org.gradle.api.internal.tasks.testing.TestClassProcessor
 import org.gradle.api.internal.tasks.testing.TestClassRunInfo
 import org.gradle.api.internal.tasks.testing.TestResultProcessor
@@ -168,6 +169,34 @@ class MaxNParallelTestClassProcessorTest extends Specification {
         1 * asyncProcessor2.processTestClass(test)
     }
 
+    def assignsTestClassesToLeastLoadedProcessorWhenDurationsAreKnown() {
+        def parallelProcessor = new MaxNParallelTestClassProcessor(2, factory, actorFactory, new TestClassDurations([Slow: 100L, Medium: 80L, Fast1: 30L, Fast2: 30L]))
+        TestClassProcessor processor1 = Mock()
+        TestClassProcessor processor2 = Mock()
+        TestClassProcessor asyncProcessor1 = Mock()
+        TestClassProcessor asyncProcessor2 = Mock()
+        Actor actor1 = Mock()
+        Actor actor2 = Mock()
+        1 * actorFactory.createActor(resultProcessor) >> resultProcessorActor
+        1 * resultProcessorActor.getProxy(TestResultProcessor) >> asyncResultProcessor
+        parallelProcessor.startProcessing(resultProcessor)
+
+        when:
+        ['Slow', 'Medium', 'Fast1', 'Fast2'].each { parallelProcessor.processTestClass(new DefaultTestClassRunInfo(it)) }
+
+        then:
+        1 * factory.create() >> processor1
+        1 * actorFactory.createActor(processor1) >> actor1
+        1 * actor1.getProxy(TestClassProcessor) >> asyncProcessor1
+        1 * factory.create() >> processor2
+        1 * actorFactory.createActor(processor2) >> actor2
+        1 * actor2.getProxy(TestClassProcessor) >> asyncProcessor2
+        1 * asyncProcessor1.processTestClass(new DefaultTestClassRunInfo('Slow'))
+        1 * asyncProcessor2.processTestClass(new DefaultTestClassRunInfo('Medium'))
+        1 * asyncProcessor2.processTestClass(new DefaultTestClassRunInfo('Fast1'))
+        1 * asyncProcessor1.processTestClass(new DefaultTestClassRunInfo('Fast2'))
+    }
+
     def "stopNow propagates to factory created processors"() {
         TestClassRunInfo test = Mock()
         TestClassProcessor processor1 = Mock()
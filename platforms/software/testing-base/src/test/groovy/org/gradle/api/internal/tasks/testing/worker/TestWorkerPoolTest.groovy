@@ -0,0 +1,185 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.worker
+
+import org.gradle.api.logging.LogLevel
+import org.gradle.internal.hash.FileHasher
+import org.gradle.internal.logging.LoggingManagerInternal
+import org.gradle.internal.remote.ObjectConnection
+import org.gradle.internal.time.Clock
+import org.gradle.process.ExecResult
+import org.gradle.process.internal.health.memory.MemoryHolder
+import org.gradle.process.internal.health.memory.MemoryManager
+import org.gradle.process.internal.worker.WorkerProcess
+import spock.lang.Specification
+
+class TestWorkerPoolTest extends Specification {
+    def loggingManager = Stub(LoggingManagerInternal) {
+        getLevel() >> LogLevel.LIFECYCLE
+    }
+    def memoryHolders = []
+    def memoryManager = Mock(MemoryManager) {
+        addMemoryHolder(_) >> { MemoryHolder holder -> memoryHolders << holder }
+    }
+    def currentTime = 0L
+    def clock = Stub(Clock) {
+        getCurrentTime() >> { currentTime }
+    }
+    def pool = new TestWorkerPool(loggingManager, Stub(FileHasher), memoryManager, -1, clock, null, 2, 1000)
+
+    def "reuses released worker with the same key"() {
+        def worker = worker("key")
+
+        when:
+        pool.release(worker)
+
+        then:
+        pool.reserve("other-task", "other") == null
+        pool.reserve("task", "key") == worker
+        pool.reserve("task", "key") == null
+    }
+
+    def "does not keep workers that are no longer alive"() {
+        def connection = Stub(ObjectConnection) {
+            addOutgoing(RemoteReusableTestClassProcessor) >> Stub(RemoteReusableTestClassProcessor)
+        }
+        def process = Stub(WorkerProcess) {
+            getConnection() >> connection
+            getExecResult() >> Optional.of(Stub(ExecResult))
+        }
+
+        when:
+        pool.release(PooledTestWorker.start("task", "key", LogLevel.LIFECYCLE, null, process))
+
+        then:
+        pool.reserve("task", "key") == null
+    }
+
+    def "stops idle worker started with a different log level"() {
+        def remoteProcessor = Mock(RemoteReusableTestClassProcessor)
+        def process = process(remoteProcessor)
+        pool.release(PooledTestWorker.start("task", "key", LogLevel.DEBUG, null, process))
+
+        when:
+        def reserved = pool.reserve("task", "key")
+
+        then:
+        reserved == null
+        1 * remoteProcessor.shutdown()
+        1 * process.waitForStop()
+    }
+
+    def "stops the oldest idle workers when there are too many"() {
+        def remoteProcessor = Mock(RemoteReusableTestClassProcessor)
+        def oldest = PooledTestWorker.start("task", "key", LogLevel.LIFECYCLE, null, process(remoteProcessor))
+        def second = worker("key")
+        def third = worker("key")
+
+        when:
+        pool.release(oldest)
+        pool.release(second)
+        pool.release(third)
+
+        then:
+        1 * remoteProcessor.shutdown()
+
+        and:
+        pool.reserve("task", "key") == second
+        pool.reserve("task", "key") == third
+    }
+
+    def "stops idle workers of the same task with a different key"() {
+        def remoteProcessor = Mock(RemoteReusableTestClassProcessor)
+        def otherTask = worker("other-task", "old-key")
+        pool.release(PooledTestWorker.start("task", "old-key", LogLevel.LIFECYCLE, null, process(remoteProcessor)))
+        pool.release(otherTask)
+
+        when:
+        def reserved = pool.reserve("task", "new-key")
+
+        then:
+        reserved == null
+        1 * remoteProcessor.shutdown()
+
+        and:
+        pool.reserve("other-task", "old-key") == otherTask
+    }
+
+    def "stops workers that have been idle for too long"() {
+        def remoteProcessor = Mock(RemoteReusableTestClassProcessor)
+        pool.release(PooledTestWorker.start("task", "key", LogLevel.LIFECYCLE, null, process(remoteProcessor)))
+        currentTime = 500
+        def recent = worker("key")
+        pool.release(recent)
+
+        when:
+        currentTime = 1200
+        pool.expireIdleWorkers()
+
+        then:
+        1 * remoteProcessor.shutdown()
+
+        and:
+        pool.reserve("task", "key") == recent
+    }
+
+    def "stops the oldest idle workers to release memory"() {
+        def oldestProcessor = Mock(RemoteReusableTestClassProcessor)
+        def secondProcessor = Mock(RemoteReusableTestClassProcessor)
+        pool.release(PooledTestWorker.start("task", "key", LogLevel.LIFECYCLE, "512m", process(oldestProcessor)))
+        pool.release(PooledTestWorker.start("task", "key", LogLevel.LIFECYCLE, "512m", process(secondProcessor)))
+
+        when:
+        def released = memoryHolders[0].attemptToRelease(100 * 1024 * 1024)
+
+        then:
+        released == 512 * 1024 * 1024
+        1 * oldestProcessor.shutdown()
+        0 * secondProcessor.shutdown()
+    }
+
+    def "stops idle workers when stopped"() {
+        def remoteProcessor = Mock(RemoteReusableTestClassProcessor)
+        pool.release(PooledTestWorker.start("task", "key", LogLevel.LIFECYCLE, null, process(remoteProcessor)))
+
+        when:
+        pool.stop()
+
+        then:
+        1 * remoteProcessor.shutdown()
+        1 * memoryManager.removeMemoryHolder(memoryHolders[0])
+        pool.reserve("task", "key") == null
+    }
+
+    private PooledTestWorker worker(Object key) {
+        return worker("task", key)
+    }
+
+    private PooledTestWorker worker(Object owner, Object key) {
+        return PooledTestWorker.start(owner, key, LogLevel.LIFECYCLE, null, process())
+    }
+
+    private WorkerProcess process(RemoteReusableTestClassProcessor remoteProcessor = Stub(RemoteReusableTestClassProcessor)) {
+        def connection = Stub(ObjectConnection) {
+            addOutgoing(RemoteReusableTestClassProcessor) >> remoteProcessor
+        }
+        return Mock(WorkerProcess) {
+            getConnection() >> connection
+            getExecResult() >> Optional.empty()
+        }
+    }
+}
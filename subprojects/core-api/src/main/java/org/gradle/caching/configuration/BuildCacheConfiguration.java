@@ -17,6 +17,7 @@
 package org.gradle.caching.configuration;
 
 import org.gradle.api.Action;
+import org.gradle.api.Incubating;
 import org.gradle.caching.BuildCacheServiceFactory;
 import org.gradle.caching.local.DirectoryBuildCache;
 import org.gradle.internal.HasInternalProtocol;
@@ -95,4 +96,27 @@ public interface BuildCacheConfiguration {
      * @throws IllegalStateException If no remote cache has been assigned yet
      */
     void remote(Action<? super BuildCache> configuration);
+
+    /**
+     * Returns the compression used for entries stored in the build cache. Defaults to {@code gzip}.
+     *
+     * @since 8.11
+     */
+    @Incubating
+    String getCompression();
+
+    /**
+     * Sets the compression used for entries stored in the build cache.
+     * <p>
+     * Supported values are {@code gzip} and {@code lz4}. LZ4 compresses less than gzip, but unpacks cache entries considerably faster.
+     * Entries compressed with anything other than {@code gzip} are stored under a cache key that includes the compression.
+     * Changing this value therefore causes cache misses for all entries stored with the previous compression, until they are stored again.
+     * Gradle versions before 8.11 do not find entries stored with {@code lz4}, and treat them as cache misses.
+     * </p>
+     *
+     * @param compression the name of the compression to use.
+     * @since 8.11
+     */
+    @Incubating
+    void setCompression(String compression);
 }
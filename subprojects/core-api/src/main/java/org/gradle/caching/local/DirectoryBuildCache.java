@@ -16,6 +16,7 @@
 
 package org.gradle.caching.local;
 
+import org.gradle.api.Incubating;
 import org.gradle.caching.configuration.AbstractBuildCache;
 import org.gradle.internal.deprecation.DeprecationLogger;
 import org.gradle.internal.instrumentation.api.annotations.ToBeReplacedByLazyProperty;
@@ -31,6 +32,7 @@
 public abstract class DirectoryBuildCache extends AbstractBuildCache {
     private Object directory;
     private int removeUnusedEntriesAfterDays = 7;
+    private long maxSizeInMegabytes;
 
     /**
      * Returns the directory to use to store the build cache.
@@ -81,4 +83,33 @@ public void setRemoveUnusedEntriesAfterDays(int removeUnusedEntriesAfterDays) {
 
         this.removeUnusedEntriesAfterDays = removeUnusedEntriesAfterDays;
     }
+
+    /**
+     * Returns the maximum size of the build cache in megabytes. Defaults to 0, which means that the size is not limited.
+     *
+     * @since 8.11
+     */
+    @Incubating
+    @ToBeReplacedByLazyProperty
+    public long getMaxSizeInMegabytes() {
+        return maxSizeInMegabytes;
+    }
+
+    /**
+     * Sets the maximum size of the build cache in megabytes.
+     * <p>
+     * When storing an entry makes the cache larger than this size, the least recently used entries are removed until it fits again.
+     * Entries are still removed when they have not been used for the configured retention period.
+     * Set to 0 to not limit the size of the cache.
+     * </p>
+     *
+     * @since 8.11
+     */
+    @Incubating
+    public void setMaxSizeInMegabytes(long maxSizeInMegabytes) {
+        if (maxSizeInMegabytes < 0) {
+            throw new IllegalArgumentException("Directory build cache size cannot be negative.");
+        }
+        this.maxSizeInMegabytes = maxSizeInMegabytes;
+    }
 }
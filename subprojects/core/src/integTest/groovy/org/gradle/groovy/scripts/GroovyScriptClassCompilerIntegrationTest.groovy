@@ -17,11 +17,13 @@
 package org.gradle.groovy.scripts
 
 import groovy.transform.CompileStatic
+import org.gradle.groovy.scripts.internal.GroovyScriptClassCompiler
 import org.gradle.integtests.fixtures.AbstractIntegrationSpec
+import org.gradle.integtests.fixtures.DirectoryBuildCacheFixture
 
 import java.util.function.Supplier
 
-class GroovyScriptClassCompilerIntegrationTest extends AbstractIntegrationSpec {
+class GroovyScriptClassCompilerIntegrationTest extends AbstractIntegrationSpec implements DirectoryBuildCacheFixture {
     def "remapped scripts correctly handle method references in statically compiled code"() {
         // TODO(mlopatkin) can the class reference be generated in some other class?
         buildFile """
@@ -49,4 +51,41 @@ class GroovyScriptClassCompilerIntegrationTest extends AbstractIntegrationSpec {
         then:
         outputContains("value = value")
     }
+
+    def "compiled build scripts are loaded from the build cache by a fresh Gradle user home when enabled"() {
+        def cachingEnabled = "-D${GroovyScriptClassCompiler.CACHING_ENABLED_PROPERTY.systemPropertyName}=true"
+        buildFile """
+            tasks.register("echo") {
+                doLast { println("script location = \${buildFile.name}") }
+            }
+        """
+
+        when:
+        executer.withGradleUserHomeDir(file("user-home"))
+        withBuildCache().run("echo", "--info", cachingEnabled)
+
+        then:
+        outputContains("Stored cache entry for Groovy DSL script compilation")
+        outputContains("script location = build.gradle")
+
+        when:
+        executer.withGradleUserHomeDir(file("fresh-user-home"))
+        withBuildCache().run("echo", "--info", cachingEnabled)
+
+        then:
+        outputContains("Loaded cache entry for Groovy DSL script compilation")
+        outputContains("script location = build.gradle")
+    }
+
+    def "compiled build scripts are not stored in the build cache by default"() {
+        buildFile """
+            tasks.register("echo")
+        """
+
+        when:
+        withBuildCache().run("echo", "--info")
+
+        then:
+        outputDoesNotContain("Stored cache entry for Groovy DSL script compilation")
+    }
 }
@@ -40,6 +40,7 @@
 
 import javax.inject.Inject;
 import java.io.File;
+import java.util.concurrent.Executor;
 
 import static org.gradle.api.internal.initialization.transform.BaseInstrumentingArtifactTransform.Parameters;
 import static org.gradle.api.internal.initialization.transform.utils.InstrumentationTransformUtils.createInstrumentationClasspathMarker;
@@ -104,7 +105,8 @@ private void doTransform(File input, TransformOutputs outputs, Function<String,
         try (InstrumentingClassTransformProvider provider = instrumentingClassTransformProvider(outputs)) {
             InstrumentingClassTransform classTransform = provider.getClassTransform();
             ClasspathElementTransformFactory transformFactory = internalServices.get().getTransformFactory(isAgentSupported());
-            ClasspathElementTransform transform = transformFactory.createTransformer(input, classTransform);
+            Executor classTransformExecutor = provider.canTransformClassesInParallel() ? internalServices.get().getClassTransformExecutor() : null;
+            ClasspathElementTransform transform = transformFactory.createTransformer(input, classTransform, classTransformExecutor);
             transform.transform(output);
         }
     }
@@ -136,6 +138,14 @@ protected void doOutputOriginalArtifact(File input, TransformOutputs outputs) {
     protected interface InstrumentingClassTransformProvider extends AutoCloseable {
         InstrumentingClassTransform getClassTransform();
 
+        /**
+         * Whether the classes of an artifact can be transformed in parallel.
+         * Listeners that write a report of the intercepted calls need the classes to be transformed one after another, in the order of the artifact.
+         */
+        default boolean canTransformClassesInParallel() {
+            return true;
+        }
+
         @Override
         void close();
     }
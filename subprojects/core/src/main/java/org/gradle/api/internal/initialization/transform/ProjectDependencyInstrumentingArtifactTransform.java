@@ -75,6 +75,11 @@ public InstrumentingClassTransform getClassTransform() {
                     .orElseGet(() -> new InstrumentingClassTransform(BytecodeInterceptorFilter.INSTRUMENTATION_ONLY, InstrumentationTypeRegistry.EMPTY));
             }
 
+            @Override
+            public boolean canTransformClassesInParallel() {
+                return !interceptionListener.isPresent();
+            }
+
             @Override
             public void close() {
                 interceptionListener.ifPresent(BytecodeUpgradeReportMethodInterceptionListener::close);
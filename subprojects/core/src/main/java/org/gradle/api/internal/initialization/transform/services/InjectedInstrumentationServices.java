@@ -18,6 +18,7 @@
 
 import org.gradle.api.internal.cache.StringInterner;
 import org.gradle.cache.GlobalCacheLocations;
+import org.gradle.internal.classpath.ClassTransformExecutor;
 import org.gradle.internal.classpath.ClasspathWalker;
 import org.gradle.internal.classpath.InPlaceClasspathBuilder;
 import org.gradle.internal.classpath.transforms.ClasspathElementTransformFactory;
@@ -56,6 +57,9 @@ public InjectedInstrumentationServices() {
     @Inject
     public abstract StringInterner getStringInterner();
 
+    @Inject
+    public abstract ClassTransformExecutor getClassTransformExecutor();
+
     public ClasspathElementTransformFactory getTransformFactory(boolean isAgentSupported) {
         return isAgentSupported ? transformFactory.get() : legacyTransformFactory.get();
     }
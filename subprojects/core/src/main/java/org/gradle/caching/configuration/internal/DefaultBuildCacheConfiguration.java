@@ -22,6 +22,7 @@
 import org.gradle.api.GradleException;
 import org.gradle.caching.BuildCacheServiceFactory;
 import org.gradle.caching.configuration.BuildCache;
+import org.gradle.caching.internal.packaging.impl.BuildCacheEntryCodecs;
 import org.gradle.caching.local.DirectoryBuildCache;
 import org.gradle.internal.Actions;
 import org.gradle.internal.Cast;
@@ -40,6 +41,7 @@ public class DefaultBuildCacheConfiguration implements BuildCacheConfigurationIn
 
     private DirectoryBuildCache local;
     private BuildCache remote;
+    private String compression = BuildCacheEntryCodecs.GZIP.getName();
 
     private Set<BuildCacheServiceRegistration> registrations;
 
@@ -110,6 +112,19 @@ public void remote(Action<? super BuildCache> configuration) {
         configuration.execute(remote);
     }
 
+    @Override
+    public String getCompression() {
+        return compression;
+    }
+
+    @Override
+    public void setCompression(String compression) {
+        Preconditions.checkNotNull(compression, "compression cannot be null.");
+        // Fail early for unknown codecs
+        BuildCacheEntryCodecs.named(compression);
+        this.compression = compression;
+    }
+
     @Override
     public Set<BuildCacheServiceRegistration> getRegistrations() {
         return registrations;
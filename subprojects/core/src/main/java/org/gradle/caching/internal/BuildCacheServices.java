@@ -26,10 +26,12 @@
 import org.gradle.caching.internal.controller.impl.LifecycleAwareBuildCacheController;
 import org.gradle.caching.internal.controller.impl.LifecycleAwareBuildCacheControllerFactory;
 import org.gradle.caching.internal.origin.OriginMetadataFactory;
+import org.gradle.caching.internal.packaging.BuildCacheEntryCodec;
 import org.gradle.caching.internal.packaging.BuildCacheEntryPacker;
+import org.gradle.caching.internal.packaging.impl.BuildCacheEntryCodecs;
+import org.gradle.caching.internal.packaging.impl.CompressingBuildCacheEntryPacker;
 import org.gradle.caching.internal.packaging.impl.DefaultTarPackerFileSystemSupport;
 import org.gradle.caching.internal.packaging.impl.FilePermissionAccess;
-import org.gradle.caching.internal.packaging.impl.GZipBuildCacheEntryPacker;
 import org.gradle.caching.internal.packaging.impl.TarBuildCacheEntryPacker;
 import org.gradle.caching.internal.packaging.impl.TarPackerFileSystemSupport;
 import org.gradle.caching.internal.services.BuildCacheControllerFactory;
@@ -38,6 +40,9 @@
 import org.gradle.caching.local.internal.DirectoryBuildCacheServiceFactory;
 import org.gradle.internal.build.BuildState;
 import org.gradle.internal.build.RootBuildState;
+import org.gradle.internal.buildoption.InternalFlag;
+import org.gradle.internal.buildoption.InternalOptions;
+import org.gradle.internal.concurrent.ExecutorFactory;
 import org.gradle.internal.file.BufferProvider;
 import org.gradle.internal.file.Deleter;
 import org.gradle.internal.file.FileException;
@@ -59,11 +64,18 @@
 
 import java.io.File;
 import java.util.List;
+import java.util.function.Supplier;
 
 /**
  * Build scoped services for build cache usage.
  */
 public final class BuildCacheServices extends AbstractGradleModuleServices {
+    /**
+     * When enabled, the contents of output files are transferred into build cache entries with {@link java.nio.channels.FileChannel#transferTo},
+     * and build cache entries are compressed and decompressed on a separate thread.
+     */
+    public static final InternalFlag PIPELINED_PACKING = new InternalFlag("org.gradle.internal.build-cache.pipelined-packing");
+
     @Override
     public void registerGlobalServices(ServiceRegistration registration) {
         registration.addProvider(new ServiceRegistrationProvider() {
@@ -125,10 +137,23 @@ BuildCacheEntryPacker createResultPacker(
                 FileSystem fileSystem,
                 StreamHasher fileHasher,
                 StringInterner stringInterner,
-                BufferProvider bufferProvider
+                BufferProvider bufferProvider,
+                ExecutorFactory executorFactory,
+                BuildCacheConfigurationInternal buildCacheConfiguration,
+                InternalOptions internalOptions
             ) {
-                return new GZipBuildCacheEntryPacker(
-                    new TarBuildCacheEntryPacker(fileSystemSupport, new FilePermissionsAccessAdapter(fileSystem), fileHasher, stringInterner, bufferProvider));
+                // The configuration is only complete once settings have been evaluated, so look up the codec for every entry
+                Supplier<BuildCacheEntryCodec> codec = () -> BuildCacheEntryCodecs.named(buildCacheConfiguration.getCompression());
+                if (internalOptions.getOption(PIPELINED_PACKING).get()) {
+                    return new CompressingBuildCacheEntryPacker(
+                        new TarBuildCacheEntryPacker(fileSystemSupport, new FilePermissionsAccessAdapter(fileSystem), fileHasher, stringInterner, bufferProvider, true),
+                        codec,
+                        executorFactory.create("Build cache entry compression"));
+                }
+                return new CompressingBuildCacheEntryPacker(
+                    new TarBuildCacheEntryPacker(fileSystemSupport, new FilePermissionsAccessAdapter(fileSystem), fileHasher, stringInterner, bufferProvider),
+                    codec,
+                    null);
             }
 
             @Provides
@@ -155,7 +180,9 @@ BuildCacheControllerFactory createBuildCacheControllerFactory(
                 TemporaryFileProvider temporaryFileProvider,
                 BuildCacheEntryPacker packer,
                 OriginMetadataFactory originMetadataFactory,
-                StringInterner stringInterner
+                StringInterner stringInterner,
+                ExecutorFactory executorFactory,
+                InternalOptions internalOptions
             ) {
                 return new DefaultBuildCacheControllerFactory(
                     startParameter,
@@ -164,7 +191,9 @@ BuildCacheControllerFactory createBuildCacheControllerFactory(
                     originMetadataFactory,
                     stringInterner,
                     temporaryFileProvider,
-                    packer
+                    packer,
+                    executorFactory,
+                    internalOptions
                 );
             }
         });
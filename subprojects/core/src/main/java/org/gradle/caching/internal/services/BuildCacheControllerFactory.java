@@ -18,6 +18,8 @@
 
 import org.gradle.caching.configuration.internal.BuildCacheConfigurationInternal;
 import org.gradle.caching.internal.controller.BuildCacheController;
+import org.gradle.internal.buildoption.IntegerInternalOption;
+import org.gradle.internal.buildoption.InternalFlag;
 import org.gradle.internal.instantiation.InstanceGenerator;
 import org.gradle.internal.service.scopes.Scope;
 import org.gradle.internal.service.scopes.ServiceScope;
@@ -26,6 +28,9 @@
 @ServiceScope(Scope.Build.class)
 public interface BuildCacheControllerFactory {
     String REMOTE_CONTINUE_ON_ERROR_PROPERTY = "org.gradle.unsafe.build-cache.remote-continue-on-error";
+    InternalFlag ASYNC_REMOTE_STORE = new InternalFlag("org.gradle.internal.build-cache.async-remote-store");
+    IntegerInternalOption ASYNC_REMOTE_STORE_CONCURRENCY = new IntegerInternalOption("org.gradle.internal.build-cache.async-remote-store.concurrency", 2);
+    IntegerInternalOption ASYNC_REMOTE_STORE_MAX_PENDING_BYTES = new IntegerInternalOption("org.gradle.internal.build-cache.async-remote-store.max-pending-bytes", 256 * 1024 * 1024);
 
     BuildCacheController createController(Path buildIdentityPath, BuildCacheConfigurationInternal buildCacheConfiguration, InstanceGenerator instanceGenerator);
 }
@@ -29,17 +29,22 @@
 import org.gradle.caching.internal.packaging.BuildCacheEntryPacker;
 import org.gradle.caching.local.DirectoryBuildCache;
 import org.gradle.caching.local.internal.DirectoryBuildCacheService;
+import org.gradle.internal.buildoption.InternalOptions;
+import org.gradle.internal.concurrent.ExecutorFactory;
 import org.gradle.internal.operations.BuildOperationProgressEventEmitter;
 import org.gradle.internal.operations.BuildOperationRunner;
 import org.gradle.util.Path;
 
 import javax.annotation.Nullable;
+import java.util.concurrent.ExecutorService;
 
 public class DefaultBuildCacheControllerFactory extends AbstractBuildCacheControllerFactory<DirectoryBuildCacheService> {
 
     private final TemporaryFileProvider temporaryFileProvider;
     private final BuildCacheEntryPacker packer;
     private final BuildOperationProgressEventEmitter buildOperationProgressEmitter;
+    private final ExecutorFactory executorFactory;
+    private final InternalOptions internalOptions;
 
     public DefaultBuildCacheControllerFactory(
         StartParameter startParameter,
@@ -48,7 +53,9 @@ public DefaultBuildCacheControllerFactory(
         OriginMetadataFactory originMetadataFactory,
         StringInterner stringInterner,
         TemporaryFileProvider temporaryFileProvider,
-        BuildCacheEntryPacker packer
+        BuildCacheEntryPacker packer,
+        ExecutorFactory executorFactory,
+        InternalOptions internalOptions
     ) {
         super(
             startParameter,
@@ -59,6 +66,8 @@ public DefaultBuildCacheControllerFactory(
         this.temporaryFileProvider = temporaryFileProvider;
         this.packer = packer;
         this.buildOperationProgressEmitter = buildOperationProgressEmitter;
+        this.executorFactory = executorFactory;
+        this.internalOptions = internalOptions;
     }
 
     @Override
@@ -84,10 +93,21 @@ protected BuildCacheController doCreateController(
             !Boolean.getBoolean(REMOTE_CONTINUE_ON_ERROR_PROPERTY),
             packer,
             originMetadataFactory,
-            stringInterner
+            stringInterner,
+            createRemoteStoreExecutor(remoteDescribedService),
+            internalOptions.getOption(ASYNC_REMOTE_STORE_MAX_PENDING_BYTES).get()
         );
     }
 
+    @Nullable
+    private ExecutorService createRemoteStoreExecutor(@Nullable DescribedBuildCacheService<BuildCache, BuildCacheService> remote) {
+        if (remote != null && remote.config.isPush() && internalOptions.getOption(ASYNC_REMOTE_STORE).get()) {
+            int concurrency = internalOptions.getOption(ASYNC_REMOTE_STORE_CONCURRENCY).get();
+            return executorFactory.create("Build cache remote store", concurrency);
+        }
+        return null;
+    }
+
     private static BuildCacheServicesConfiguration toConfiguration(
         Path buildPath,
         @Nullable DescribedBuildCacheService<DirectoryBuildCache, DirectoryBuildCacheService> local,
@@ -83,9 +83,14 @@ public BuildCacheService createBuildCacheService(DirectoryBuildCache configurati
         @SuppressWarnings("deprecation")
         int removeUnusedEntriesAfterDays = configuration.getRemoveUnusedEntriesAfterDays();
 
+        long maxSizeInMegabytes = configuration.getMaxSizeInMegabytes();
+
         describer.type(DIRECTORY_BUILD_CACHE_TYPE).
             config("location", target.getAbsolutePath()).
             config("removeUnusedEntriesAfter", removeUnusedEntriesAfterDays + " days");
+        if (maxSizeInMegabytes > 0) {
+            describer.config("maxSize", maxSizeInMegabytes + " MB");
+        }
 
         // Use the deprecated retention period if configured on `DirectoryBuildCache`, or use the central 'buildCache' cleanup config if not.
         // If the deprecated property remains at the default, we can safely use the central value (which has the same default).
@@ -101,7 +106,7 @@ public BuildCacheService createBuildCacheService(DirectoryBuildCache configurati
             .open();
         FileAccessTracker fileAccessTracker = new SingleDepthFileAccessTracker(fileAccessTimeJournal, target, FILE_TREE_DEPTH_TO_TRACK_AND_CLEANUP);
 
-        return new DirectoryBuildCacheService(persistentCache, fileAccessTracker, FAILED_READ_SUFFIX);
+        return new DirectoryBuildCacheService(persistentCache, fileAccessTracker, FAILED_READ_SUFFIX, maxSizeInMegabytes * 1024 * 1024);
     }
 
     private CacheCleanupStrategy createCacheCleanupStrategy(Supplier<Long> removeUnusedEntriesTimestamp) {
@@ -39,6 +39,7 @@
 import org.gradle.execution.plan.MissingTaskDependencyDetector;
 import org.gradle.execution.taskgraph.TaskExecutionGraphInternal;
 import org.gradle.execution.taskgraph.TaskListenerInternal;
+import org.gradle.internal.buildoption.InternalOptions;
 import org.gradle.internal.event.ListenerManager;
 import org.gradle.internal.execution.ExecutionEngine;
 import org.gradle.internal.execution.FileCollectionFingerprinterRegistry;
@@ -51,6 +52,7 @@
 import org.gradle.internal.file.RelativeFilePathResolver;
 import org.gradle.internal.file.ReservedFileSystemLocation;
 import org.gradle.internal.file.ReservedFileSystemLocationRegistry;
+import org.gradle.internal.fingerprint.classpath.impl.DefaultClasspathFingerprinter;
 import org.gradle.internal.fingerprint.impl.FileCollectionFingerprinterRegistrations;
 import org.gradle.internal.hash.ClassLoaderHierarchyHasher;
 import org.gradle.internal.operations.BuildOperationRunner;
@@ -145,7 +147,8 @@ FileCollectionFingerprinterRegistrations createFileCollectionFingerprinterRegist
         StringInterner stringInterner,
         FileCollectionSnapshotter fileCollectionSnapshotter,
         ResourceSnapshotterCacheService resourceSnapshotterCacheService,
-        InputNormalizationHandlerInternal inputNormalizationHandler
+        InputNormalizationHandlerInternal inputNormalizationHandler,
+        InternalOptions internalOptions
     ) {
         return new FileCollectionFingerprinterRegistrations(
             stringInterner,
@@ -153,7 +156,8 @@ FileCollectionFingerprinterRegistrations createFileCollectionFingerprinterRegist
             resourceSnapshotterCacheService,
             inputNormalizationHandler.getRuntimeClasspath().getClasspathResourceFilter(),
             inputNormalizationHandler.getRuntimeClasspath().getManifestAttributeResourceEntryFilter(),
-            inputNormalizationHandler.getRuntimeClasspath().getPropertiesFileFilters()
+            inputNormalizationHandler.getRuntimeClasspath().getPropertiesFileFilters(),
+            internalOptions.getOption(DefaultClasspathFingerprinter.CONCURRENT_ZIP_ENTRY_HASHING).get()
         );
     }
 
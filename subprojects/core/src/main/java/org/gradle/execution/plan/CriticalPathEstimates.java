@@ -0,0 +1,128 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.execution.plan;
+
+import org.gradle.api.NonNullApi;
+import org.gradle.api.internal.tasks.TaskExecutionOutcome;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Estimates, for each node of an execution plan, the duration of the longest chain of work that includes the node and the nodes that depend on it,
+ * based on the durations of previous executions of the tasks in the plan. Ready nodes with the longest remaining critical path are started first,
+ * so that long chains of work do not start late.
+ *
+ * Also measures the durations of the tasks that run their actions in the plan, so they can be used for the next estimate.
+ */
+@NonNullApi
+class CriticalPathEstimates {
+    private final TaskDurationHistory durationHistory;
+    private final Map<Node, Long> remainingDurations = new HashMap<>();
+    private final Map<Node, Long> startTimes = new HashMap<>();
+    private final Map<String, Long> executedDurations = new HashMap<>();
+
+    private CriticalPathEstimates(TaskDurationHistory durationHistory) {
+        this.durationHistory = durationHistory;
+    }
+
+    /**
+     * Estimates the remaining critical path of the given nodes, which are in execution order, so that every node is listed after its dependencies.
+     */
+    static CriticalPathEstimates estimate(List<Node> scheduledNodes, TaskDurationHistory durationHistory) {
+        CriticalPathEstimates estimates = new CriticalPathEstimates(durationHistory);
+        for (int i = scheduledNodes.size() - 1; i >= 0; i--) {
+            Node node = scheduledNodes.get(i);
+            long longestDependent = 0;
+            for (Node dependent : node.getDependencyPredecessors()) {
+                longestDependent = Math.max(longestDependent, estimates.getRemainingDuration(dependent));
+            }
+            estimates.remainingDurations.put(node, estimates.previousDuration(node) + longestDependent);
+        }
+        return estimates;
+    }
+
+    /**
+     * Orders nodes by descending remaining critical path, falling back to the plan order when the estimates are the same.
+     * Priority nodes are still ordered before all other nodes.
+     */
+    Comparator<Node> executionOrder(Comparator<Node> planOrder) {
+        return (node1, node2) -> {
+            if (node1.isPriority() == node2.isPriority()) {
+                int result = Long.compare(getRemainingDuration(node2), getRemainingDuration(node1));
+                if (result != 0) {
+                    return result;
+                }
+            }
+            return planOrder.compare(node1, node2);
+        };
+    }
+
+    long getRemainingDuration(Node node) {
+        Long remaining = remainingDurations.get(node);
+        return remaining == null ? 0 : remaining;
+    }
+
+    /**
+     * Uses the estimate of the given node for a node that is added to the plan on its behalf, such as a pre- or post-execution node.
+     * Must be called before the added node is queued for execution.
+     */
+    void inheritEstimate(Node node, Node from) {
+        remainingDurations.put(node, getRemainingDuration(from));
+    }
+
+    void started(Node node) {
+        if (node instanceof LocalTaskNode) {
+            startTimes.put(node, System.nanoTime());
+        }
+    }
+
+    void finished(Node node) {
+        Long startTime = startTimes.remove(node);
+        // Only the duration of a task that ran its actions is a useful estimate, up-to-date, cached and skipped tasks are much quicker
+        if (startTime != null && node.isSuccessful() && ((LocalTaskNode) node).getTask().getState().getOutcome() == TaskExecutionOutcome.EXECUTED) {
+            long durationMillis = (System.nanoTime() - startTime) / 1_000_000;
+            executedDurations.put(taskPath(node), durationMillis);
+        }
+    }
+
+    /**
+     * Stores the durations of the tasks executed by the plan.
+     */
+    void recordDurations() {
+        executedDurations.forEach(durationHistory::recordDuration);
+        executedDurations.clear();
+        startTimes.clear();
+        remainingDurations.clear();
+    }
+
+    private long previousDuration(Node node) {
+        if (node instanceof LocalTaskNode) {
+            Long duration = durationHistory.getPreviousDuration(taskPath(node));
+            if (duration != null) {
+                return duration;
+            }
+        }
+        return 0;
+    }
+
+    private static String taskPath(Node node) {
+        return ((LocalTaskNode) node).getTask().getIdentityPath().toString();
+    }
+}
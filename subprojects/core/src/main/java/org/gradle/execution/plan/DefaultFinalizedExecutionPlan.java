@@ -67,7 +67,7 @@ public int compare(Node node1, Node node2) {
     };
 
     private final Set<Node> waitingToStartNodes = new HashSet<>();
-    private final ExecutionQueue readyNodes = new ExecutionQueue();
+    private final ExecutionQueue readyNodes;
     private final List<Throwable> failures = new ArrayList<>();
     private final List<DiagnosticEvent> diagnosticEvents = new ArrayList<>();
     private final String displayName;
@@ -84,6 +84,8 @@ public int compare(Node node1, Node node2) {
     private final Map<Pair<Node, Node>, Boolean> reachableCache = new HashMap<>();
     private final OrdinalNodeAccess ordinalNodeAccess;
     private final Consumer<LocalTaskNode> completionHandler;
+    @Nullable
+    private final CriticalPathEstimates criticalPathEstimates;
 
     // When true, there may be nodes that are both ready and "selectable", which means their project and resources are able to be locked
     // When false, there are definitely no nodes that are "selectable"
@@ -100,7 +102,8 @@ public DefaultFinalizedExecutionPlan(
         List<Node> scheduledNodes,
         boolean continueOnFailure,
         QueryableExecutionPlan contents,
-        Consumer<LocalTaskNode> completionHandler
+        Consumer<LocalTaskNode> completionHandler,
+        @Nullable TaskDurationHistory durationHistory
     ) {
         this.displayName = displayName;
         this.outputHierarchy = outputHierarchy;
@@ -110,6 +113,13 @@ public DefaultFinalizedExecutionPlan(
         this.continueOnFailure = continueOnFailure;
         this.contents = contents;
         this.completionHandler = completionHandler;
+        if (durationHistory != null) {
+            this.criticalPathEstimates = CriticalPathEstimates.estimate(scheduledNodes, durationHistory);
+            this.readyNodes = new ExecutionQueue(criticalPathEstimates.executionOrder(NODE_EXECUTION_ORDER));
+        } else {
+            this.criticalPathEstimates = null;
+            this.readyNodes = new ExecutionQueue(NODE_EXECUTION_ORDER);
+        }
 
         SetMultimap<FinalizerGroup, FinalizerGroup> reachableGroups = LinkedHashMultimap.create();
         for (Node node : scheduledNodes) {
@@ -151,6 +161,9 @@ public void close() {
         readyNodes.clear();
         runningNodes.clear();
         reachableCache.clear();
+        if (criticalPathEstimates != null) {
+            criticalPathEstimates.recordDurations();
+        }
     }
 
     private void resourceUnlocked(ResourceLock resourceLock) {
@@ -262,6 +275,7 @@ public Selection<Node> selectNext() {
                     // The node is ready to execute and its pre-execution nodes have not been scheduled, so do this now
                     node.visitPreExecutionNodes(prepareNode -> {
                         prepareNode.setIndex(node.getIndex());
+                        inheritCriticalPathEstimate(prepareNode, node);
                         prepareNode.require();
                         prepareNode.updateAllDependenciesComplete();
                         node.addDependencySuccessor(prepareNode);
@@ -302,6 +316,12 @@ public Selection<Node> selectNext() {
         return Selection.noWorkReadyToStart();
     }
 
+    private void inheritCriticalPathEstimate(Node node, Node from) {
+        if (criticalPathEstimates != null) {
+            criticalPathEstimates.inheritEstimate(node, from);
+        }
+    }
+
     private void addNodeToPlan(Node node) {
         maybeNodeReady(node);
         maybeWaitingForNewNode(node, "runtime");
@@ -506,6 +526,9 @@ private boolean doesConsumerDependOnDestroyer(Node consumer, Node destroyer) {
 
     private void recordNodeExecutionStarted(Node node) {
         runningNodes.add(node);
+        if (criticalPathEstimates != null) {
+            criticalPathEstimates.started(node);
+        }
     }
 
     private void recordNodeCompleted(Node node) {
@@ -560,6 +583,9 @@ public void finishedExecuting(Node node, @Nullable Throwable failure) {
             }
 
             node.finishExecution(this::recordNodeCompleted);
+            if (criticalPathEstimates != null) {
+                criticalPathEstimates.finished(node);
+            }
             if (node.isFailed()) {
                 LOGGER.debug("Node {} failed", node);
                 handleFailure(node);
@@ -567,6 +593,7 @@ public void finishedExecuting(Node node, @Nullable Throwable failure) {
                 LOGGER.debug("Node {} finished executing", node);
                 node.visitPostExecutionNodes(postNode -> {
                     postNode.setIndex(node.getIndex());
+                    inheritCriticalPathEstimate(postNode, node);
                     postNode.require();
                     postNode.updateAllDependenciesComplete();
                     addNodeToPlan(postNode);
@@ -679,12 +706,16 @@ public boolean allExecutionComplete() {
     }
 
     /**
-     * An ordered queue of nodes, sorted by {@link #NODE_EXECUTION_ORDER}.
+     * An ordered queue of nodes, sorted by {@link #NODE_EXECUTION_ORDER} or by their remaining critical path.
      */
     static class ExecutionQueue {
-        private final Set<Node> nodes = new TreeSet<>(NODE_EXECUTION_ORDER);
+        private final Set<Node> nodes;
         private Iterator<Node> current;
 
+        ExecutionQueue(Comparator<Node> order) {
+            this.nodes = new TreeSet<>(order);
+        }
+
         public void clear() {
             nodes.clear();
             current = null;
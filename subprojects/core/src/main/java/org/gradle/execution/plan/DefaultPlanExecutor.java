@@ -32,6 +32,11 @@
 import org.gradle.internal.concurrent.ManagedExecutor;
 import org.gradle.internal.concurrent.Stoppable;
 import org.gradle.internal.logging.text.TreeFormatter;
+import org.gradle.internal.operations.BuildOperationContext;
+import org.gradle.internal.operations.BuildOperationDescriptor;
+import org.gradle.internal.operations.BuildOperationRunner;
+import org.gradle.internal.operations.RunnableBuildOperation;
+import org.gradle.internal.resources.ResourceLockState;
 import org.gradle.internal.resources.ResourceLockCoordinationService;
 import org.gradle.internal.work.WorkerLeaseRegistry.WorkerLease;
 import org.gradle.internal.work.WorkerLeaseService;
@@ -54,6 +59,7 @@
 import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
 
 import static org.gradle.internal.resources.ResourceLockState.Disposition.FINISHED;
 import static org.gradle.internal.resources.ResourceLockState.Disposition.RETRY;
@@ -77,13 +83,14 @@ public DefaultPlanExecutor(
         WorkerLeaseService workerLeaseService,
         BuildCancellationToken cancellationToken,
         ResourceLockCoordinationService coordinationService,
-        InternalOptions internalOptions
+        InternalOptions internalOptions,
+        BuildOperationRunner buildOperationRunner
     ) {
         this.workerLimits = workerLimits;
         this.cancellationToken = cancellationToken;
         this.coordinationService = coordinationService;
         this.workerLeaseService = workerLeaseService;
-        this.stats = internalOptions.getOption(STATS).get() ? new CollectingExecutorStats(state) : state;
+        this.stats = internalOptions.getOption(STATS).get() ? new CollectingExecutorStats(state, buildOperationRunner) : state;
         this.queue = new MergedQueues(coordinationService, false);
         this.executor = executorFactory.create("Execution worker");
     }
@@ -112,6 +119,8 @@ public <T> ExecutionResult<Void> process(WorkSource<T> workSource, Action<T> wor
 
         List<Throwable> failures = new ArrayList<>();
         awaitCompletion(workSource, currentWorkerLease, failures);
+        // Publish while the operation that executes the plan is still running, so the statistics are attributed to it
+        stats.publish(workerLimits.getMaxWorkerCount());
         return ExecutionResult.maybeFailed(failures);
     }
 
@@ -366,14 +375,14 @@ public void run() {
                     releaseLeaseOnCompletion = false;
                 }
 
-                while (true) {
-                    WorkItem workItem = getNextItem(workerLease);
-                    if (workItem == null) {
-                        break;
-                    }
+                WorkItem workItem = getNextItem(workerLease);
+                while (workItem != null) {
                     Object selected = workItem.selection.getItem();
                     LOGGER.info("{} ({}) started.", selected, Thread.currentThread());
-                    execute(selected, workItem.plan, workItem.executor);
+                    workItem = execute(selected, workItem.plan, workItem.executor);
+                    if (workItem == null) {
+                        workItem = getNextItem(workerLease);
+                    }
                 }
 
                 if (releaseLeaseOnCompletion) {
@@ -396,93 +405,146 @@ private WorkItem getNextItem(final WorkerLease workerLease) {
             stats.startSelect();
             try {
                 selected = MutableReference.empty();
+                stats.requestStateLock();
                 coordinationService.withStateLock(resourceLockState -> {
-                    stats.finishWaitingForNextItem();
-                    if (cancellationToken.isCancellationRequested()) {
-                        queue.cancelExecution();
+                    stats.acquiredStateLock();
+                    try {
+                        return selectNextItem(workerLease, resourceLockState, selected);
+                    } finally {
+                        stats.releasedStateLock();
                     }
+                });
+            } finally {
+                stats.finishSelect();
+            }
 
-                    WorkSource.State state = queue.executionState();
-                    if (state == WorkSource.State.NoMoreWorkToStart) {
-                        return FINISHED;
-                    }
+            return selected.get();
+        }
 
-                    if (!workerLease.tryLock()) {
-                        // Cannot get a lease to run work
-                        // Do not call `startWaitingForNextItem()` as there may be work available but this worker cannot start it, and so should not be considered "waiting for work".
-                        // The health monitoring is currently only concerned with whether work can be started.
-                        // At some point it could be improved to track the health of all worker threads, not just the plan executor threads
-                        return RETRY;
-                    }
+        private ResourceLockState.Disposition selectNextItem(WorkerLease workerLease, ResourceLockState resourceLockState, MutableReference<WorkItem> selected) {
+            stats.finishWaitingForNextItem();
+            if (cancellationToken.isCancellationRequested()) {
+                queue.cancelExecution();
+            }
 
-                    if (state == WorkSource.State.NoWorkReadyToStart) {
-                        stats.startWaitingForNextItem();
-                        // Release worker lease while waiting
-                        workerLease.unlock();
-                        return RETRY;
-                    }
+            WorkSource.State state = queue.executionState();
+            if (state == WorkSource.State.NoMoreWorkToStart) {
+                return FINISHED;
+            }
 
-                    // Have a worker lease and work may be available
+            if (!workerLease.tryLock()) {
+                // Cannot get a lease to run work
+                // Do not call `startWaitingForNextItem()` as there may be work available but this worker cannot start it, and so should not be considered "waiting for work".
+                // The health monitoring is currently only concerned with whether work can be started.
+                // At some point it could be improved to track the health of all worker threads, not just the plan executor threads
+                return RETRY;
+            }
 
-                    WorkSource.Selection<WorkItem> workItem;
-                    try {
-                        workItem = queue.selectNext();
-                    } catch (Throwable t) {
-                        resourceLockState.releaseLocks();
-                        queue.abortAllAndFail(t);
-                        return FINISHED;
-                    }
-                    if (workItem.isNoMoreWorkToStart()) {
-                        return FINISHED;
-                    } else if (workItem.isNoWorkReadyToStart()) {
-                        stats.startWaitingForNextItem();
-                        // Release worker lease while waiting
-                        workerLease.unlock();
-                        return RETRY;
-                    }
+            if (state == WorkSource.State.NoWorkReadyToStart) {
+                stats.startWaitingForNextItem();
+                // Release worker lease while waiting
+                workerLease.unlock();
+                return RETRY;
+            }
 
-                    selected.set(workItem.getItem());
-                    return FINISHED;
-                });
-            } finally {
-                stats.finishSelect();
+            // Have a worker lease and work may be available
+
+            WorkSource.Selection<WorkItem> workItem;
+            try {
+                workItem = queue.selectNext();
+            } catch (Throwable t) {
+                resourceLockState.releaseLocks();
+                queue.abortAllAndFail(t);
+                return FINISHED;
+            }
+            if (workItem.isNoMoreWorkToStart()) {
+                return FINISHED;
+            } else if (workItem.isNoWorkReadyToStart()) {
+                stats.startWaitingForNextItem();
+                // Release worker lease while waiting
+                workerLease.unlock();
+                return RETRY;
             }
 
-            return selected.get();
+            selected.set(workItem.getItem());
+            return FINISHED;
+        }
+
+        /**
+         * Selects the next item for this worker while it still holds the state lock after finishing its previous item.
+         * This saves the worker from acquiring the state lock again, in competition with all the other workers that were woken up by the state change.
+         *
+         * @return The next item to execute or {@code null} when no item can be started right away, in which case the worker should use {@link #getNextItem(WorkerLease)}.
+         */
+        @Nullable
+        private WorkItem selectNextItemWithoutWaiting(ResourceLockState resourceLockState) {
+            if (!workerLease.isLockedByCurrentThread() || cancellationToken.isCancellationRequested()) {
+                return null;
+            }
+            if (queue.executionState() != WorkSource.State.MaybeWorkReadyToStart) {
+                return null;
+            }
+            WorkSource.Selection<WorkItem> workItem;
+            try {
+                workItem = queue.selectNext();
+            } catch (Throwable t) {
+                resourceLockState.releaseLocks();
+                queue.abortAllAndFail(t);
+                return null;
+            }
+            if (workItem.isNoMoreWorkToStart() || workItem.isNoWorkReadyToStart()) {
+                return null;
+            }
+            stats.handedOffItem();
+            return workItem.getItem();
         }
 
-        private void execute(Object selected, WorkSource<Object> executionPlan, Action<Object> worker) {
+        @Nullable
+        private WorkItem execute(Object selected, WorkSource<Object> executionPlan, Action<Object> worker) {
             Throwable failure = null;
+            stats.startExecute();
             try {
-                stats.startExecute();
-                try {
-                    worker.execute(selected);
-                } catch (Throwable t) {
-                    failure = t;
-                } finally {
-                    stats.finishExecute();
-                }
+                worker.execute(selected);
+            } catch (Throwable t) {
+                failure = t;
             } finally {
-                markFinished(selected, executionPlan, failure);
+                stats.finishExecute();
             }
+            return markFinished(selected, executionPlan, failure);
         }
 
-        private void markFinished(Object selected, WorkSource<Object> executionPlan, @Nullable Throwable failure) {
+        /**
+         * Marks the given item as finished and, when possible, selects the next item for this worker.
+         *
+         * @return The next item to execute or {@code null} when no item could be selected right away
+         */
+        @Nullable
+        private WorkItem markFinished(Object selected, WorkSource<Object> executionPlan, @Nullable Throwable failure) {
+            MutableReference<WorkItem> next = MutableReference.empty();
             stats.startMarkFinished();
             try {
-                coordinationService.withStateLock(() -> {
+                stats.requestStateLock();
+                coordinationService.withStateLock(resourceLockState -> {
+                    stats.acquiredStateLock();
                     try {
-                        executionPlan.finishedExecuting(selected, failure);
-                    } catch (Throwable t) {
-                        queue.abortAllAndFail(t);
+                        try {
+                            executionPlan.finishedExecuting(selected, failure);
+                        } catch (Throwable t) {
+                            queue.abortAllAndFail(t);
+                        }
+                        // Notify other threads that the item is finished as this may unblock further work
+                        // or this might be the last item in the queue
+                        coordinationService.notifyStateChange();
+                        next.set(selectNextItemWithoutWaiting(resourceLockState));
+                        return FINISHED;
+                    } finally {
+                        stats.releasedStateLock();
                     }
-                    // Notify other threads that the item is finished as this may unblock further work
-                    // or this might be the last item in the queue
-                    coordinationService.notifyStateChange();
                 });
             } finally {
                 stats.finishMarkFinished();
             }
+            return next.get();
         }
     }
 
@@ -490,6 +552,14 @@ private void markFinished(Object selected, WorkSource<Object> executionPlan, @Nu
      * Implementations must be thread safe.
      */
     private interface ExecutorStats {
+        /**
+         * Publishes the statistics of the workers so far. Called at the end of each plan execution.
+         */
+        void publish(int maxWorkerCount);
+
+        /**
+         * Logs the statistics of the workers. Called when the executor is stopped.
+         */
         void report();
 
         WorkerStats startWorker();
@@ -520,6 +590,23 @@ private interface WorkerStats extends WorkerState {
 
         void finishMarkFinished();
 
+        /**
+         * Called before the worker requests the state lock.
+         */
+        void requestStateLock();
+
+        /**
+         * Called each time the worker acquires the state lock, including after waiting for a state change.
+         */
+        void acquiredStateLock();
+
+        void releasedStateLock();
+
+        /**
+         * Called when the worker selects its next item right after finishing the previous one, without releasing the state lock.
+         */
+        void handedOffItem();
+
         void finish();
     }
 
@@ -542,6 +629,10 @@ public WorkerStats startWorker() {
             return state;
         }
 
+        @Override
+        public void publish(int maxWorkerCount) {
+        }
+
         @Override
         public void report() {
         }
@@ -626,6 +717,22 @@ public void startMarkFinished() {
             public void finishMarkFinished() {
             }
 
+            @Override
+            public void requestStateLock() {
+            }
+
+            @Override
+            public void acquiredStateLock() {
+            }
+
+            @Override
+            public void releasedStateLock() {
+            }
+
+            @Override
+            public void handedOffItem() {
+            }
+
             @Override
             public void finish() {
                 state.set(ExecutionState.Stopped);
@@ -649,16 +756,21 @@ public void finishWaitingForNextItem() {
     }
 
     private static class CollectingExecutorStats implements ExecutorStats {
+        private final List<CollectingWorkerStats> allWorkers = new CopyOnWriteArrayList<>();
         private final List<CollectingWorkerStats> completedWorkers = new CopyOnWriteArrayList<>();
         private final ExecutorState delegate;
+        private final BuildOperationRunner buildOperationRunner;
 
-        public CollectingExecutorStats(ExecutorState delegate) {
+        public CollectingExecutorStats(ExecutorState delegate, BuildOperationRunner buildOperationRunner) {
             this.delegate = delegate;
+            this.buildOperationRunner = buildOperationRunner;
         }
 
         @Override
         public WorkerStats startWorker() {
-            return new CollectingWorkerStats(this, delegate.startWorker());
+            CollectingWorkerStats stats = new CollectingWorkerStats(this, delegate.startWorker());
+            allWorkers.add(stats);
+            return stats;
         }
 
         void workerFinished(CollectingWorkerStats stats) {
@@ -674,8 +786,31 @@ public void report() {
                 LOGGER.lifecycle("average select time: " + format(stats -> stats.totalSelectTime));
                 LOGGER.lifecycle("average execute time: " + format(stats -> stats.totalExecuteTime));
                 LOGGER.lifecycle("average finish time: " + format(stats -> stats.totalMarkFinishedTime));
+                LOGGER.lifecycle("average state lock wait time: " + format(stats -> stats.totalStateLockWaitTime));
+                LOGGER.lifecycle("average state lock hold time: " + format(stats -> stats.totalStateLockHoldTime));
+                LOGGER.lifecycle("items handed off: " + completedWorkers.stream().mapToInt(stats -> stats.handedOffItems).sum() + " of " + completedWorkers.stream().mapToInt(stats -> stats.executedItems).sum());
             }
             completedWorkers.clear();
+            allWorkers.clear();
+        }
+
+        @Override
+        public void publish(int maxWorkerCount) {
+            List<ExecutorStatisticsBuildOperationType.WorkerStatistics> workers = allWorkers.stream().map(WorkerStatisticsResult::new).collect(Collectors.toList());
+            // Workers that have finished are not included in the statistics of later plan executions
+            allWorkers.removeIf(stats -> stats.finished);
+            buildOperationRunner.run(new RunnableBuildOperation() {
+                @Override
+                public void run(BuildOperationContext context) {
+                    context.setResult((ExecutorStatisticsBuildOperationType.Result) () -> workers);
+                }
+
+                @Override
+                public BuildOperationDescriptor.Builder description() {
+                    return BuildOperationDescriptor.displayName("Report execution worker statistics")
+                        .details((ExecutorStatisticsBuildOperationType.Details) () -> maxWorkerCount);
+                }
+            });
         }
 
         private String format(ToLongFunction<CollectingWorkerStats> statsProperty) {
@@ -689,10 +824,19 @@ private static class CollectingWorkerStats implements WorkerStats {
         private final CollectingExecutorStats owner;
         private final WorkerState delegate;
         long finishTime;
+        volatile boolean finished;
         long startCurrentOperation;
-        long totalSelectTime;
-        long totalExecuteTime;
-        long totalMarkFinishedTime;
+        // The totals are only updated by the worker thread, but are read when the statistics are published while the worker is still running
+        volatile long totalSelectTime;
+        volatile long totalExecuteTime;
+        volatile long totalMarkFinishedTime;
+        volatile long totalStateLockWaitTime;
+        volatile long totalStateLockHoldTime;
+        volatile int executedItems;
+        volatile int handedOffItems;
+        private boolean waitingForStateLock;
+        private long stateLockRequested;
+        private long stateLockAcquired;
 
         public CollectingWorkerStats(CollectingExecutorStats owner, WorkerState delegate) {
             this.owner = owner;
@@ -703,6 +847,7 @@ public CollectingWorkerStats(CollectingExecutorStats owner, WorkerState delegate
         @Override
         public void finish() {
             finishTime = System.nanoTime();
+            finished = true;
             owner.workerFinished(this);
         }
 
@@ -726,6 +871,7 @@ public void startExecute() {
 
         @Override
         public void finishExecute() {
+            executedItems++;
             long duration = System.nanoTime() - startCurrentOperation;
             if (duration > 0) {
                 totalExecuteTime += duration;
@@ -745,6 +891,38 @@ public void finishMarkFinished() {
             }
         }
 
+        @Override
+        public void requestStateLock() {
+            waitingForStateLock = true;
+            stateLockRequested = System.nanoTime();
+        }
+
+        @Override
+        public void acquiredStateLock() {
+            stateLockAcquired = System.nanoTime();
+            // Only count the time to first acquire the lock, as the worker may be woken up after waiting for work to become available
+            if (waitingForStateLock) {
+                waitingForStateLock = false;
+                long duration = stateLockAcquired - stateLockRequested;
+                if (duration > 0) {
+                    totalStateLockWaitTime += duration;
+                }
+            }
+        }
+
+        @Override
+        public void releasedStateLock() {
+            long duration = System.nanoTime() - stateLockAcquired;
+            if (duration > 0) {
+                totalStateLockHoldTime += duration;
+            }
+        }
+
+        @Override
+        public void handedOffItem() {
+            handedOffItems++;
+        }
+
         @Override
         public void startWaitingForNextItem() {
             delegate.startWaitingForNextItem();
@@ -755,4 +933,59 @@ public void finishWaitingForNextItem() {
             delegate.finishWaitingForNextItem();
         }
     }
+
+    private static class WorkerStatisticsResult implements ExecutorStatisticsBuildOperationType.WorkerStatistics {
+        private final int executedItems;
+        private final int handedOffItems;
+        private final long selectTime;
+        private final long executeTime;
+        private final long markFinishedTime;
+        private final long stateLockWaitTime;
+        private final long stateLockHoldTime;
+
+        WorkerStatisticsResult(CollectingWorkerStats stats) {
+            this.executedItems = stats.executedItems;
+            this.handedOffItems = stats.handedOffItems;
+            this.selectTime = stats.totalSelectTime;
+            this.executeTime = stats.totalExecuteTime;
+            this.markFinishedTime = stats.totalMarkFinishedTime;
+            this.stateLockWaitTime = stats.totalStateLockWaitTime;
+            this.stateLockHoldTime = stats.totalStateLockHoldTime;
+        }
+
+        @Override
+        public int getExecutedItems() {
+            return executedItems;
+        }
+
+        @Override
+        public int getHandedOffItems() {
+            return handedOffItems;
+        }
+
+        @Override
+        public long getSelectTimeNanos() {
+            return selectTime;
+        }
+
+        @Override
+        public long getExecuteTimeNanos() {
+            return executeTime;
+        }
+
+        @Override
+        public long getMarkFinishedTimeNanos() {
+            return markFinishedTime;
+        }
+
+        @Override
+        public long getStateLockWaitTimeNanos() {
+            return stateLockWaitTime;
+        }
+
+        @Override
+        public long getStateLockHoldTimeNanos() {
+            return stateLockHoldTime;
+        }
+    }
 }
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.execution.plan;
+
+import org.gradle.cache.IndexedCache;
+import org.gradle.cache.IndexedCacheParameters;
+import org.gradle.cache.PersistentCache;
+import org.gradle.cache.internal.InMemoryCacheDecoratorFactory;
+import org.gradle.internal.serialize.BaseSerializerFactory;
+
+import javax.annotation.Nullable;
+import java.util.function.Supplier;
+
+/**
+ * Stores the durations of task executions in the execution history cache.
+ */
+public class DefaultTaskDurationHistory implements TaskDurationHistory {
+    private final IndexedCache<String, Long> store;
+
+    public DefaultTaskDurationHistory(Supplier<PersistentCache> cache, InMemoryCacheDecoratorFactory inMemoryCacheDecoratorFactory) {
+        this.store = cache.get().createIndexedCache(
+            IndexedCacheParameters.of("taskDurations", BaseSerializerFactory.STRING_SERIALIZER, BaseSerializerFactory.LONG_SERIALIZER)
+                .withCacheDecorator(inMemoryCacheDecoratorFactory.decorator(10000, false))
+        );
+    }
+
+    @Nullable
+    @Override
+    public Long getPreviousDuration(String taskPath) {
+        return store.getIfPresent(taskPath);
+    }
+
+    @Override
+    public void recordDuration(String taskPath, long durationMillis) {
+        store.put(taskPath, durationMillis);
+    }
+}
@@ -16,12 +16,21 @@
 
 package org.gradle.execution.plan;
 
+import org.gradle.internal.buildoption.InternalFlag;
 import org.gradle.internal.resources.ResourceLockCoordinationService;
 import org.gradle.internal.service.scopes.Scope;
 import org.gradle.internal.service.scopes.ServiceScope;
 
+import javax.annotation.Nullable;
+
 @ServiceScope(Scope.Build.class)
 public class ExecutionPlanFactory {
+    /**
+     * When set to {@code true}, ready nodes are started in order of their estimated remaining critical path rather than in plan order.
+     * The estimates are based on the durations of previous executions of the tasks, which are stored alongside the execution history.
+     */
+    public static final InternalFlag CRITICAL_PATH_SCHEDULING = new InternalFlag("org.gradle.internal.critical-path-scheduling");
+
     private final String displayName;
     private final TaskNodeFactory taskNodeFactory;
     private final OrdinalGroupFactory ordinalGroupFactory;
@@ -29,6 +38,8 @@ public class ExecutionPlanFactory {
     private final ExecutionNodeAccessHierarchy outputHierarchy;
     private final ExecutionNodeAccessHierarchy destroyableHierarchy;
     private final ResourceLockCoordinationService lockCoordinationService;
+    @Nullable
+    private final TaskDurationHistory durationHistory;
 
     public ExecutionPlanFactory(
         String displayName,
@@ -37,7 +48,8 @@ public ExecutionPlanFactory(
         TaskDependencyResolver dependencyResolver,
         ExecutionNodeAccessHierarchy outputHierarchy,
         ExecutionNodeAccessHierarchy destroyableHierarchy,
-        ResourceLockCoordinationService lockCoordinationService
+        ResourceLockCoordinationService lockCoordinationService,
+        @Nullable TaskDurationHistory durationHistory
     ) {
         this.displayName = displayName;
         this.taskNodeFactory = taskNodeFactory;
@@ -46,9 +58,10 @@ public ExecutionPlanFactory(
         this.outputHierarchy = outputHierarchy;
         this.destroyableHierarchy = destroyableHierarchy;
         this.lockCoordinationService = lockCoordinationService;
+        this.durationHistory = durationHistory;
     }
 
     public ExecutionPlan createPlan() {
-        return new DefaultExecutionPlan(displayName, taskNodeFactory, ordinalGroupFactory, dependencyResolver, outputHierarchy, destroyableHierarchy, lockCoordinationService);
+        return new DefaultExecutionPlan(displayName, taskNodeFactory, ordinalGroupFactory, dependencyResolver, outputHierarchy, destroyableHierarchy, lockCoordinationService, durationHistory);
     }
 }
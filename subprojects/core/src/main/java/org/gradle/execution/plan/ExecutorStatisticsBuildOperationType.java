@@ -0,0 +1,72 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.execution.plan;
+
+import org.gradle.internal.operations.BuildOperationType;
+
+import java.util.List;
+
+/**
+ * Reports how the worker threads of the plan executor spent their time, when executor statistics are enabled.
+ * Emitted at the end of each plan execution, as a child of the operation that executed the plan.
+ */
+public final class ExecutorStatisticsBuildOperationType implements BuildOperationType<ExecutorStatisticsBuildOperationType.Details, ExecutorStatisticsBuildOperationType.Result> {
+    public interface Details {
+        /**
+         * The maximum number of worker threads the executor uses.
+         */
+        int getMaxWorkerCount();
+    }
+
+    public interface Result {
+        /**
+         * The statistics of each worker thread that is still running or has finished since the previous report, accumulated since the worker started.
+         */
+        List<WorkerStatistics> getWorkers();
+    }
+
+    public interface WorkerStatistics {
+        /**
+         * The number of items executed by the worker.
+         */
+        int getExecutedItems();
+
+        /**
+         * The number of items the worker selected while still holding the state lock after finishing its previous item.
+         */
+        int getHandedOffItems();
+
+        long getSelectTimeNanos();
+
+        long getExecuteTimeNanos();
+
+        long getMarkFinishedTimeNanos();
+
+        /**
+         * The total time the worker waited to acquire the state lock, excluding the time spent waiting for work to become available.
+         */
+        long getStateLockWaitTimeNanos();
+
+        /**
+         * The total time the worker held the state lock.
+         */
+        long getStateLockHoldTimeNanos();
+    }
+
+    private ExecutorStatisticsBuildOperationType() {
+    }
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.execution.plan;
+
+import javax.annotation.Nullable;
+
+/**
+ * Durations of previous executions of tasks, keyed by the identity path of the task.
+ *
+ * Used to estimate the remaining critical path of the nodes of an execution plan.
+ */
+public interface TaskDurationHistory {
+    /**
+     * Returns the duration in milliseconds of the previous execution of the given task, or {@code null} when the task has not been executed before.
+     */
+    @Nullable
+    Long getPreviousDuration(String taskPath);
+
+    /**
+     * Records the duration in milliseconds of the latest execution of the given task.
+     */
+    void recordDuration(String taskPath, long durationMillis);
+}
@@ -26,6 +26,7 @@
 import org.gradle.groovy.scripts.internal.GroovyScriptClassCompiler.GroovyScriptCompilationAndInstrumentation.GroovyScriptCompilationOutput;
 import org.gradle.internal.Pair;
 import org.gradle.model.internal.asm.AsmConstants;
+import org.gradle.internal.buildoption.InternalFlag;
 import org.gradle.internal.classpath.CachedClasspathTransformer;
 import org.gradle.internal.classpath.ClassData;
 import org.gradle.internal.classpath.ClassPath;
@@ -70,6 +71,14 @@
  * A {@link ScriptClassCompiler} which compiles scripts to a cache directory, and loads them from there.
  */
 public class GroovyScriptClassCompiler implements ScriptClassCompiler, Closeable {
+    /**
+     * Enables storing and loading compiled build scripts in the build cache.
+     *
+     * Disabled by default, as caching had negative savings for typical Groovy build scripts.
+     * It can pay off where scripts are compiled on fresh machines, as with ephemeral CI agents.
+     */
+    public static final InternalFlag CACHING_ENABLED_PROPERTY = new InternalFlag("org.gradle.internal.groovy-script-caching-enabled");
+
     private static final Object[] EMPTY_OBJECT_ARRAY = new Object[0];
     private static final String CLASSPATH_PROPERTY_NAME = "classpath";
     private static final String TEMPLATE_ID_PROPERTY_NAME = "templateId";
@@ -84,6 +93,7 @@ public class GroovyScriptClassCompiler implements ScriptClassCompiler, Closeable
     private final ClasspathElementTransformFactoryForLegacy transformFactoryForLegacy;
     private final GradleCoreInstrumentationTypeRegistry gradleCoreTypeRegistry;
     private final PropertyUpgradeReportConfig propertyUpgradeReportConfig;
+    private final boolean cachingEnabled;
 
     public GroovyScriptClassCompiler(
         ScriptCompilationHandler scriptCompilationHandler,
@@ -95,7 +105,8 @@ public GroovyScriptClassCompiler(
         ImmutableWorkspaceProvider workspaceProvider,
         ClasspathElementTransformFactoryForLegacy transformFactoryForLegacy,
         GradleCoreInstrumentationTypeRegistry gradleCoreTypeRegistry,
-        PropertyUpgradeReportConfig propertyUpgradeReportConfig
+        PropertyUpgradeReportConfig propertyUpgradeReportConfig,
+        boolean cachingEnabled
     ) {
         this.scriptCompilationHandler = scriptCompilationHandler;
         this.classLoaderHierarchyHasher = classLoaderHierarchyHasher;
@@ -107,6 +118,7 @@ public GroovyScriptClassCompiler(
         this.transformFactoryForLegacy = transformFactoryForLegacy;
         this.gradleCoreTypeRegistry = gradleCoreTypeRegistry;
         this.propertyUpgradeReportConfig = propertyUpgradeReportConfig;
+        this.cachingEnabled = cachingEnabled;
     }
 
     @Override
@@ -160,7 +172,8 @@ private <T extends Script> GroovyScriptCompilationOutput doCompile(
             transformFactoryForLegacy,
             scriptCompilationHandler,
             gradleCoreTypeRegistry,
-            propertyUpgradeReportConfig
+            propertyUpgradeReportConfig,
+            cachingEnabled
         );
         return getExecutionEngine(target)
             .createRequest(unitOfWork)
@@ -227,6 +240,7 @@ static class GroovyScriptCompilationAndInstrumentation extends BuildScriptCompil
         private final Class<? extends Script> scriptBaseClass;
         private final ScriptCompilationHandler scriptCompilationHandler;
         private final Action<? super ClassNode> verifier;
+        private final boolean cachingEnabled;
 
         public GroovyScriptCompilationAndInstrumentation(
             String templateId,
@@ -243,7 +257,8 @@ public GroovyScriptCompilationAndInstrumentation(
             ClasspathElementTransformFactoryForLegacy transformFactoryForLegacy,
             ScriptCompilationHandler scriptCompilationHandler,
             GradleCoreInstrumentationTypeRegistry gradleCoreTypeRegistry,
-            PropertyUpgradeReportConfig propertyUpgradeReportConfig
+            PropertyUpgradeReportConfig propertyUpgradeReportConfig,
+            boolean cachingEnabled
         ) {
             super(remappedSource.getSource(), workspaceProvider, fileCollectionFactory, inputFingerprinter, transformFactoryForLegacy, gradleCoreTypeRegistry, propertyUpgradeReportConfig);
             this.templateId = templateId;
@@ -255,11 +270,17 @@ public GroovyScriptCompilationAndInstrumentation(
             this.verifier = verifier;
             this.scriptBaseClass = scriptBaseClass;
             this.scriptCompilationHandler = scriptCompilationHandler;
+            this.cachingEnabled = cachingEnabled;
         }
 
         @Override
         public Optional<CachingDisabledReason> shouldDisableCaching(@Nullable OverlappingOutputs detectedOverlappingOutputs) {
-            // Disabled since enabling it introduced negative savings to Groovy script compilation.
+            if (cachingEnabled) {
+                // The outputs do not depend on the location of the script, as the classes are compiled with a generic
+                // class name and are only remapped to the script's class name and file after being loaded from the workspace
+                return super.shouldDisableCaching(detectedOverlappingOutputs);
+            }
+            // Disabled by default since enabling it introduced negative savings to Groovy script compilation.
             // It's not disabled for Kotlin since Kotlin has better compile avoidance, additionally
             // Kotlin has build cache from the beginning and there was no report of a problem with it.
             return Optional.of(NOT_WORTH_CACHING);
@@ -88,14 +88,22 @@ public Object getProperty(Class sender, Object object, String name, boolean useS
         if (useSuper || fromInsideClass) {
             return adaptee.getProperty(sender, object, name, useSuper, fromInsideClass);
         } else {
-            return invokeIntercepted(object, GET_PROPERTY, name, NO_ARG, () -> adaptee.getProperty(sender, object, name, false, false));
+            String matchedCaller = callsTracker.findCallerForCurrentCallIfNotIntercepted(name, GET_PROPERTY);
+            if (matchedCaller == null) {
+                return adaptee.getProperty(sender, object, name, false, false);
+            }
+            return invokeIntercepted(object, GET_PROPERTY, name, NO_ARG, matchedCaller, () -> adaptee.getProperty(sender, object, name, false, false));
         }
     }
 
     @Override
     @Nullable
     public Object getProperty(Object object, String property) {
-        return invokeIntercepted(object, GET_PROPERTY, property, NO_ARG, () -> adaptee.getProperty(object, property));
+        String matchedCaller = callsTracker.findCallerForCurrentCallIfNotIntercepted(property, GET_PROPERTY);
+        if (matchedCaller == null) {
+            return adaptee.getProperty(object, property);
+        }
+        return invokeIntercepted(object, GET_PROPERTY, property, NO_ARG, matchedCaller, () -> adaptee.getProperty(object, property));
     }
 
     @Override
@@ -103,7 +111,12 @@ public void setProperty(Class sender, Object object, String name, Object newValu
         if (useSuper || fromInsideClass) {
             adaptee.setProperty(sender, object, name, newValue, useSuper, fromInsideClass);
         } else {
-            invokeIntercepted(object, SET_PROPERTY, name, new Object[]{newValue}, () -> {
+            String matchedCaller = callsTracker.findCallerForCurrentCallIfNotIntercepted(name, SET_PROPERTY);
+            if (matchedCaller == null) {
+                adaptee.setProperty(sender, object, name, newValue, useSuper, fromInsideClass);
+                return;
+            }
+            invokeIntercepted(object, SET_PROPERTY, name, new Object[]{newValue}, matchedCaller, () -> {
                 adaptee.setProperty(sender, object, name, newValue, useSuper, fromInsideClass);
                 return null;
             });
@@ -112,7 +125,12 @@ public void setProperty(Class sender, Object object, String name, Object newValu
 
     @Override
     public void setProperty(Object object, String property, Object newValue) {
-        invokeIntercepted(object, SET_PROPERTY, property, new Object[]{newValue}, () -> {
+        String matchedCaller = callsTracker.findCallerForCurrentCallIfNotIntercepted(property, SET_PROPERTY);
+        if (matchedCaller == null) {
+            adaptee.setProperty(object, property, newValue);
+            return;
+        }
+        invokeIntercepted(object, SET_PROPERTY, property, new Object[]{newValue}, matchedCaller, () -> {
             adaptee.setProperty(object, property, newValue);
             return null;
         });
@@ -169,18 +187,26 @@ public MetaProperty getMetaProperty(String name) {
     @Override
     @Nullable
     public Object invokeMethod(Object object, String methodName, @Nullable Object arguments) {
+        String matchedCaller = callsTracker.findCallerForCurrentCallIfNotIntercepted(methodName, INVOKE_METHOD);
+        if (matchedCaller == null) {
+            return adaptee.invokeMethod(object, methodName, arguments);
+        }
         Object[] argsForInterceptor = arguments == null ? MetaClassHelper.EMPTY_ARRAY :
             arguments instanceof Tuple ? ((Tuple<?>) arguments).toArray() :
                 arguments instanceof Object[] ? (Object[]) arguments :
                     new Object[]{arguments};
 
-        return invokeIntercepted(object, INVOKE_METHOD, methodName, argsForInterceptor, () -> adaptee.invokeMethod(object, methodName, arguments));
+        return invokeIntercepted(object, INVOKE_METHOD, methodName, argsForInterceptor, matchedCaller, () -> adaptee.invokeMethod(object, methodName, arguments));
     }
 
     @Override
     @Nullable
     public Object invokeMethod(Object object, String methodName, Object[] arguments) {
-        return invokeIntercepted(object, INVOKE_METHOD, methodName, arguments, () -> adaptee.invokeMethod(object, methodName, arguments));
+        String matchedCaller = callsTracker.findCallerForCurrentCallIfNotIntercepted(methodName, INVOKE_METHOD);
+        if (matchedCaller == null) {
+            return adaptee.invokeMethod(object, methodName, arguments);
+        }
+        return invokeIntercepted(object, INVOKE_METHOD, methodName, arguments, matchedCaller, () -> adaptee.invokeMethod(object, methodName, arguments));
     }
 
     @Override
@@ -190,7 +216,11 @@ public Object invokeMethod(Class sender, Object object, String methodName, Objec
             // Calls to super are not supported by the call interception mechanisms as of now
             return adaptee.invokeMethod(sender, object, methodName, originalArguments, isCallToSuper, fromInsideClass);
         }
-        return invokeIntercepted(object, INVOKE_METHOD, methodName, originalArguments, () -> adaptee.invokeMethod(sender, object, methodName, originalArguments, isCallToSuper, fromInsideClass));
+        String matchedCaller = callsTracker.findCallerForCurrentCallIfNotIntercepted(methodName, INVOKE_METHOD);
+        if (matchedCaller == null) {
+            return adaptee.invokeMethod(sender, object, methodName, originalArguments, isCallToSuper, fromInsideClass);
+        }
+        return invokeIntercepted(object, INVOKE_METHOD, methodName, originalArguments, matchedCaller, () -> adaptee.invokeMethod(sender, object, methodName, originalArguments, isCallToSuper, fromInsideClass));
     }
 
     @Override
@@ -220,22 +250,24 @@ public MetaMethod pickMethod(String methodName, Class[] arguments) {
         return original;
     }
 
+    /**
+     * Invokes the call through the interceptor registered for it, if there is one.
+     * The callers check that the call is matched by the calls tracker before, so that the calls that are not interesting
+     * for the interceptors go straight to the adaptee, without allocating the arguments and the callback for the original call.
+     */
     @Nullable
-    private Object invokeIntercepted(Object receiver, InstrumentedGroovyCallsTracker.CallKind kind, String name, Object[] arguments, Callable<Object> invokeOriginal) {
-        String matchedCaller = callsTracker.findCallerForCurrentCallIfNotIntercepted(name, kind);
-        if (matchedCaller != null) {
-            InterceptScope scope =
-                kind == INVOKE_METHOD ? InterceptScope.methodsNamed(name) :
-                    kind == GET_PROPERTY ? InterceptScope.readsOfPropertiesNamed(name) :
-                        kind == SET_PROPERTY ? InterceptScope.writesOfPropertiesNamed(name) :
-                            null;
-            if (scope == null) {
-                throw new IllegalArgumentException("unexpected invocation with kind " + kind);
-            }
-            CallInterceptor callInterceptor = interceptorResolver.resolveCallInterceptor(scope);
-            if (callInterceptor != null) {
-                return invokeWithInterceptor(callsTracker, callInterceptor, name, kind, receiver, arguments, matchedCaller, invokeOriginal);
-            }
+    private Object invokeIntercepted(Object receiver, InstrumentedGroovyCallsTracker.CallKind kind, String name, Object[] arguments, String matchedCaller, Callable<Object> invokeOriginal) {
+        InterceptScope scope =
+            kind == INVOKE_METHOD ? InterceptScope.methodsNamed(name) :
+                kind == GET_PROPERTY ? InterceptScope.readsOfPropertiesNamed(name) :
+                    kind == SET_PROPERTY ? InterceptScope.writesOfPropertiesNamed(name) :
+                        null;
+        if (scope == null) {
+            throw new IllegalArgumentException("unexpected invocation with kind " + kind);
+        }
+        CallInterceptor callInterceptor = interceptorResolver.resolveCallInterceptor(scope);
+        if (callInterceptor != null) {
+            return invokeWithInterceptor(callsTracker, callInterceptor, name, kind, receiver, arguments, matchedCaller, invokeOriginal);
         }
 
         try {
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.classpath;
+
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.ManagedExecutor;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.internal.service.scopes.Scope;
+import org.gradle.internal.service.scopes.ServiceScope;
+
+import javax.annotation.Nullable;
+import java.util.concurrent.Executor;
+
+/**
+ * Transforms the classes of a single jar or directory in parallel, see {@link org.gradle.internal.classpath.transforms.ClasspathElementTransformFactory}.
+ *
+ * The threads that transform whole jars wait for the classes to be transformed, so the classes are transformed by a dedicated pool.
+ * The pool is created when it is first used.
+ */
+@ServiceScope(Scope.UserHome.class)
+public class ClassTransformExecutor implements Executor, Stoppable {
+    private final ExecutorFactory executorFactory;
+    @Nullable
+    private ManagedExecutor executor;
+
+    public ClassTransformExecutor(ExecutorFactory executorFactory) {
+        this.executorFactory = executorFactory;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        getExecutor().execute(command);
+    }
+
+    private synchronized ManagedExecutor getExecutor() {
+        if (executor == null) {
+            executor = executorFactory.create("jar class transforms", Runtime.getRuntime().availableProcessors());
+        }
+        return executor;
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (executor != null) {
+            executor.stop();
+            executor = null;
+        }
+    }
+}
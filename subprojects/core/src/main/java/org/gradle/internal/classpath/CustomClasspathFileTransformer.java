@@ -26,10 +26,16 @@
 import org.gradle.internal.hash.HashCode;
 import org.gradle.internal.hash.Hasher;
 import org.gradle.internal.hash.Hashing;
+import org.gradle.internal.operations.BuildOperationContext;
+import org.gradle.internal.operations.BuildOperationDescriptor;
+import org.gradle.internal.operations.BuildOperationRunner;
+import org.gradle.internal.operations.RunnableBuildOperation;
 import org.gradle.internal.snapshot.FileSystemLocationSnapshot;
 
+import javax.annotation.Nullable;
 import java.io.File;
 import java.io.IOException;
+import java.util.concurrent.Executor;
 
 import static java.lang.String.format;
 import static org.gradle.cache.internal.filelock.DefaultLockOptions.mode;
@@ -41,14 +47,21 @@ public class CustomClasspathFileTransformer implements ClasspathFileTransformer
     private final ClasspathFileHasher fileHasher;
     private final ClasspathElementTransformFactory classpathElementTransformFactory;
     private final ClassTransform transform;
+    private final BuildOperationRunner buildOperationRunner;
+    @Nullable
+    private final Executor classTransformExecutor;
 
     public CustomClasspathFileTransformer(
         FileLockManager fileLockManager,
         ClasspathFileHasher classpathFileHasher,
         ClasspathElementTransformFactory classpathElementTransformFactory,
-        ClassTransform transform
+        ClassTransform transform,
+        BuildOperationRunner buildOperationRunner,
+        @Nullable Executor classTransformExecutor
     ) {
         this.fileLockManager = fileLockManager;
+        this.buildOperationRunner = buildOperationRunner;
+        this.classTransformExecutor = classTransformExecutor;
 
         this.fileHasher = createFileHasherWithConfig(
             configHashFor(classpathElementTransformFactory, transform),
@@ -134,6 +147,17 @@ private String hashOf(FileSystemLocationSnapshot sourceSnapshot) {
     }
 
     private void transform(File source, File dest) {
-        classpathElementTransformFactory.createTransformer(source, this.transform).transform(dest);
+        buildOperationRunner.run(new RunnableBuildOperation() {
+            @Override
+            public void run(BuildOperationContext context) {
+                classpathElementTransformFactory.createTransformer(source, transform, classTransformExecutor).transform(dest);
+            }
+
+            @Override
+            public BuildOperationDescriptor.Builder description() {
+                return BuildOperationDescriptor.displayName("Transform " + source.getName())
+                    .progressDisplayName("Transforming " + source.getName());
+            }
+        });
     }
 }
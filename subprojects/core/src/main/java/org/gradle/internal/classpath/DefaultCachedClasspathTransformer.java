@@ -34,6 +34,9 @@
 import org.gradle.internal.file.FileType;
 import org.gradle.internal.fingerprint.classpath.ClasspathFingerprinter;
 import org.gradle.internal.hash.HashCode;
+import org.gradle.internal.operations.BuildOperationRef;
+import org.gradle.internal.operations.BuildOperationRunner;
+import org.gradle.internal.operations.CurrentBuildOperationRef;
 import org.gradle.internal.snapshot.FileSystemLocationSnapshot;
 import org.gradle.internal.vfs.FileSystemAccess;
 
@@ -63,6 +66,8 @@ public class DefaultCachedClasspathTransformer implements CachedClasspathTransfo
     private final GlobalCacheLocations globalCacheLocations;
     private final FileLockManager fileLockManager;
     private final ManagedExecutor executor;
+    private final ClassTransformExecutor classTransformExecutor;
+    private final BuildOperationRunner buildOperationRunner;
     private final ParallelTransformExecutor parallelTransformExecutor;
     private final ClasspathElementTransformFactoryForLegacy classpathElementTransformFactoryForLegacy;
 
@@ -75,7 +80,9 @@ public DefaultCachedClasspathTransformer(
         ExecutorFactory executorFactory,
         GlobalCacheLocations globalCacheLocations,
         FileLockManager fileLockManager,
-        ClasspathElementTransformFactoryForLegacy classpathElementTransformFactoryForLegacy
+        ClasspathElementTransformFactoryForLegacy classpathElementTransformFactoryForLegacy,
+        BuildOperationRunner buildOperationRunner,
+        ClassTransformExecutor classTransformExecutor
     ) {
         this.classpathFingerprinter = classpathFingerprinter;
         this.fileSystemAccess = fileSystemAccess;
@@ -84,8 +91,10 @@ public DefaultCachedClasspathTransformer(
         this.cache = classpathTransformerCacheFactory.createCache(cacheBuilderFactory, fileAccessTimeJournal);
         this.fileAccessTracker = classpathTransformerCacheFactory.createFileAccessTracker(cache, fileAccessTimeJournal);
         this.executor = executorFactory.create("jar transforms", Runtime.getRuntime().availableProcessors());
+        this.classTransformExecutor = classTransformExecutor;
         this.parallelTransformExecutor = new ParallelTransformExecutor(cache, executor);
         this.classpathElementTransformFactoryForLegacy = classpathElementTransformFactoryForLegacy;
+        this.buildOperationRunner = buildOperationRunner;
     }
 
     @Override
@@ -133,7 +142,9 @@ private CustomClasspathFileTransformer customClasspathFileTransformerFor(Classpa
             fileLockManager,
             locationSnapshot -> classpathFingerprinter.fingerprint(locationSnapshot, null).getHash(),
             classpathElementTransformFactory,
-            transform
+            transform,
+            buildOperationRunner,
+            classTransformExecutor
         );
     }
 
@@ -226,6 +237,8 @@ public <T, U> List<U> transformAll(Collection<T> inputs, ValueOrTransformProvide
                 final List<U> results = new ArrayList<>(inputs.size());
                 final List<Callable<Void>> transforms = new ArrayList<>(inputs.size());
                 final Set<HashCode> seen = new HashSet<>();
+                // Attach any build operations run by the transforms to the operation that requested them
+                final BuildOperationRef parent = CurrentBuildOperationRef.instance().get();
                 for (T input : inputs) {
                     valueOrTransformProvider.apply(input, seen).ifPresent(valueOrTransform ->
                         valueOrTransform.apply(
@@ -234,7 +247,7 @@ public <T, U> List<U> transformAll(Collection<T> inputs, ValueOrTransformProvide
                                 final int index = results.size();
                                 results.add(null);
                                 transforms.add(() -> {
-                                    results.set(index, unchecked(transform));
+                                    results.set(index, unchecked(() -> CurrentBuildOperationRef.instance().with(parent, transform::call)));
                                     return null;
                                 });
                             }
@@ -16,7 +16,12 @@
 
 package org.gradle.internal.classpath.intercept;
 
+import org.gradle.api.GradleException;
+
 import javax.annotation.Nullable;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 
 /**
  * A special case of the CallInterceptor for static methods and static properties.
@@ -27,6 +32,16 @@
  * as a scope already guarantees that the invocation would have the given class object as the receiver.
  */
 public abstract class ClassBoundCallInterceptor extends AbstractCallInterceptor {
+    private static final MethodHandle IS_EXPECTED_RECEIVER;
+
+    static {
+        try {
+            IS_EXPECTED_RECEIVER = MethodHandles.lookup().findStatic(ClassBoundCallInterceptor.class, "isExpectedReceiver", MethodType.methodType(boolean.class, Class.class, Object.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new GradleException("Failed to set up a receiver check", e);
+        }
+    }
+
     private final Class<?> expectedReceiver;
 
     public ClassBoundCallInterceptor(Class<?> expectedReceiver, InterceptScope... scopes) {
@@ -43,6 +58,24 @@ public final Object intercept(Invocation invocation, String consumer) throws Thr
         return interceptSafe(invocation, consumer);
     }
 
+    /**
+     * Guards the decorated method handle with a check of the receiver, so that the calls with other receivers go straight to the original
+     * method handle, without collecting the arguments into an {@link Invocation}. The outcome is the same as in {@link #intercept(Invocation, String)}.
+     */
+    @Override
+    public MethodHandle decorateMethodHandle(MethodHandle original, MethodHandles.Lookup caller, int flags) {
+        MethodHandle decorated = super.decorateMethodHandle(original, caller, flags);
+        MethodType type = original.type();
+        MethodHandle receiverCheck = MethodHandles.insertArguments(IS_EXPECTED_RECEIVER, 0, expectedReceiver)
+            .asType(MethodType.methodType(boolean.class, type.parameterType(0)));
+        receiverCheck = MethodHandles.dropArguments(receiverCheck, 1, type.parameterList().subList(1, type.parameterCount()));
+        return MethodHandles.guardWithTest(receiverCheck, decorated, original);
+    }
+
+    private static boolean isExpectedReceiver(Class<?> expectedReceiver, Object receiver) {
+        return expectedReceiver.equals(InvocationUtils.unwrap(receiver));
+    }
+
     /**
      * Same as the {@link AbstractCallInterceptor#intercept(Invocation, String)} but the {@code invocation.getReceiver()} is guaranteed
      * to be the {@code expectedReceiver} passed to the constructor.
@@ -20,6 +20,7 @@
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
 import org.gradle.internal.Pair;
+import org.gradle.internal.UncheckedException;
 import org.gradle.internal.classpath.ClassData;
 import org.gradle.internal.classpath.ClasspathBuilder;
 import org.gradle.internal.classpath.ClasspathEntryVisitor;
@@ -30,32 +31,50 @@
 import org.objectweb.asm.ClassVisitor;
 import org.objectweb.asm.ClassWriter;
 
+import javax.annotation.Nullable;
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 import java.util.function.BiConsumer;
 
 /**
  * Base class for the transformations. Note that the order in which entries are visited is not defined.
+ * <p>
+ * When an executor is provided, the entries are read and the results are written by the thread running the transformation, in the order
+ * of the original entries, while the classes are transformed using the executor. At most a few classes per processor are kept in memory
+ * waiting to be written.
  */
 class BaseClasspathElementTransform implements ClasspathElementTransform {
 
     private static final Logger LOGGER = Logging.getLogger(BaseClasspathElementTransform.class);
+    private static final int MAX_PENDING_ENTRIES = Runtime.getRuntime().availableProcessors() * 4;
 
     protected final File source;
     private final ClasspathBuilder classpathBuilder;
     private final ClasspathWalker classpathWalker;
     private final ClassTransform transform;
+    @Nullable
+    private final Executor classTransformExecutor;
 
     BaseClasspathElementTransform(
         File source,
         ClasspathBuilder classpathBuilder,
         ClasspathWalker classpathWalker,
-        ClassTransform transform
+        ClassTransform transform,
+        @Nullable Executor classTransformExecutor
     ) {
         this.source = source;
         this.classpathBuilder = classpathBuilder;
         this.classpathWalker = classpathWalker;
         this.transform = transform;
+        this.classTransformExecutor = classTransformExecutor;
     }
 
     @Override
@@ -78,9 +97,22 @@ private BiConsumer<File, ClasspathBuilder.Action> resultBuilder() {
     }
 
     private void visitEntries(ClasspathBuilder.EntryBuilder builder) throws IOException, FileException {
-        classpathWalker.visit(source, entry -> {
-            visitEntry(builder, entry);
-        });
+        if (classTransformExecutor == null) {
+            classpathWalker.visit(source, entry -> {
+                visitEntry(builder, entry);
+            });
+        } else {
+            PipelinedEntryBuilder pipeline = new PipelinedEntryBuilder(builder, classTransformExecutor);
+            try {
+                classpathWalker.visit(source, entry -> {
+                    visitEntry(pipeline, entry);
+                    pipeline.writeCompleted();
+                });
+                pipeline.writeAll();
+            } finally {
+                pipeline.discard();
+            }
+        }
         finishProcessing(builder);
     }
 
@@ -108,12 +140,28 @@ private void visitEntry(ClasspathBuilder.EntryBuilder builder, ClasspathEntryVis
      */
     protected void processClassFile(ClasspathBuilder.EntryBuilder builder, ClasspathEntryVisitor.Entry classEntry) throws IOException {
         byte[] content = classEntry.getContent();
+        if (builder instanceof PipelinedEntryBuilder) {
+            // The original entry may only be valid while it is being visited
+            ClasspathEntryVisitor.Entry detachedEntry = new DetachedEntry(classEntry, content);
+            ((PipelinedEntryBuilder) builder).submit(() -> {
+                try {
+                    return transformClass(detachedEntry, content);
+                } catch (Throwable e) {
+                    throw new IOException("Failed to process the entry '" + detachedEntry.getName() + "' from '" + source + "'", e);
+                }
+            });
+        } else {
+            transformClass(classEntry, content).writeTo(builder);
+        }
+    }
+
+    private TransformedEntry transformClass(ClasspathEntryVisitor.Entry classEntry, byte[] content) {
         ClassReader reader = new ClassReader(content);
         ClassWriter classWriter = new ClassWriter(ClassWriter.COMPUTE_MAXS);
         Pair<RelativePath, ClassVisitor> chain = transform.apply(classEntry, classWriter, new ClassData(reader, content));
         reader.accept(chain.right, 0);
         byte[] bytes = classWriter.toByteArray();
-        builder.put(chain.left.getPathString(), bytes, classEntry.getCompressionMethod());
+        return new TransformedEntry(chain.left.getPathString(), bytes, classEntry.getCompressionMethod());
     }
 
     /**
@@ -147,4 +195,119 @@ private boolean isClassFile(ClasspathEntryVisitor.Entry entry) {
     private boolean isManifest(ClasspathEntryVisitor.Entry entry) {
         return JarUtil.isManifestName(entry.getName());
     }
+
+    private static class TransformedEntry {
+        private final String name;
+        private final byte[] content;
+        private final ClasspathEntryVisitor.Entry.CompressionMethod compressionMethod;
+
+        TransformedEntry(String name, byte[] content, ClasspathEntryVisitor.Entry.CompressionMethod compressionMethod) {
+            this.name = name;
+            this.content = content;
+            this.compressionMethod = compressionMethod;
+        }
+
+        void writeTo(ClasspathBuilder.EntryBuilder builder) throws IOException {
+            builder.put(name, content, compressionMethod);
+        }
+    }
+
+    /**
+     * A copy of an entry that can be used after the walker has moved on to the next entry.
+     */
+    private static class DetachedEntry implements ClasspathEntryVisitor.Entry {
+        private final String name;
+        private final RelativePath path;
+        private final byte[] content;
+        private final CompressionMethod compressionMethod;
+
+        DetachedEntry(ClasspathEntryVisitor.Entry entry, byte[] content) {
+            this.name = entry.getName();
+            this.path = entry.getPath();
+            this.content = content;
+            this.compressionMethod = entry.getCompressionMethod();
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public RelativePath getPath() {
+            return path;
+        }
+
+        @Override
+        public byte[] getContent() {
+            return content;
+        }
+
+        @Override
+        public CompressionMethod getCompressionMethod() {
+            return compressionMethod;
+        }
+    }
+
+    /**
+     * Queues the entries to write in the order they were visited, and writes each of them once it and all the entries before it are ready.
+     */
+    private static class PipelinedEntryBuilder implements ClasspathBuilder.EntryBuilder {
+        private final ClasspathBuilder.EntryBuilder delegate;
+        private final Executor executor;
+        private final Deque<Future<TransformedEntry>> pending = new ArrayDeque<>();
+
+        PipelinedEntryBuilder(ClasspathBuilder.EntryBuilder delegate, Executor executor) {
+            this.delegate = delegate;
+            this.executor = executor;
+        }
+
+        @Override
+        public void put(String name, byte[] content, ClasspathEntryVisitor.Entry.CompressionMethod compressionMethod) {
+            pending.add(CompletableFuture.completedFuture(new TransformedEntry(name, content, compressionMethod)));
+        }
+
+        void submit(Callable<TransformedEntry> transform) {
+            FutureTask<TransformedEntry> task = new FutureTask<>(transform);
+            pending.add(task);
+            executor.execute(task);
+        }
+
+        /**
+         * Writes the entries at the head of the queue that are ready. Blocks while too many entries are waiting to be written.
+         */
+        void writeCompleted() throws IOException {
+            while (!pending.isEmpty() && (pending.size() > MAX_PENDING_ENTRIES || pending.peekFirst().isDone())) {
+                write(pending.removeFirst());
+            }
+        }
+
+        void writeAll() throws IOException {
+            while (!pending.isEmpty()) {
+                write(pending.removeFirst());
+            }
+        }
+
+        void discard() {
+            for (Future<TransformedEntry> entry : pending) {
+                entry.cancel(false);
+            }
+            pending.clear();
+        }
+
+        private void write(Future<TransformedEntry> entry) throws IOException {
+            TransformedEntry transformed;
+            try {
+                transformed = entry.get();
+            } catch (InterruptedException e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof IOException) {
+                    throw (IOException) e.getCause();
+                }
+                throw UncheckedException.throwAsUncheckedException(e.getCause());
+            }
+            transformed.writeTo(delegate);
+        }
+    }
 }
@@ -18,7 +18,9 @@
 
 import org.gradle.internal.hash.Hasher;
 
+import javax.annotation.Nullable;
 import java.io.File;
+import java.util.concurrent.Executor;
 
 /**
  * Classpath element transform factory. There are some differences when instrumenting classes to be loaded by the instrumenting agent, this interface encapsulates them.
@@ -38,5 +40,20 @@ public interface ClasspathElementTransformFactory {
      * @param classTransform the transform that will be applied to every class
      * @return the transformation that will transform the file upon request.
      */
-    ClasspathElementTransform createTransformer(File file, ClassTransform classTransform);
+    default ClasspathElementTransform createTransformer(File file, ClassTransform classTransform) {
+        return createTransformer(file, classTransform, null);
+    }
+
+    /**
+     * Returns the transformation to be applied to the given jar/directory.
+     * <p>
+     * When an executor is given, the entries are still read and written in order by the thread that runs the transformation,
+     * but the classes are transformed using the executor. The class transform must then be safe to use from several threads at once.
+     *
+     * @param file the jar/directory to transform
+     * @param classTransform the transform that will be applied to every class
+     * @param classTransformExecutor the executor to transform classes with, or null to transform them on the calling thread
+     * @return the transformation that will transform the file upon request.
+     */
+    ClasspathElementTransform createTransformer(File file, ClassTransform classTransform, @Nullable Executor classTransformExecutor);
 }
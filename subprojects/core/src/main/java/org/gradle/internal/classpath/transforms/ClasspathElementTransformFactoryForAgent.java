@@ -22,7 +22,9 @@
 import org.gradle.internal.service.scopes.Scope;
 import org.gradle.internal.service.scopes.ServiceScope;
 
+import javax.annotation.Nullable;
 import java.io.File;
+import java.util.concurrent.Executor;
 
 @ServiceScope(Scope.UserHome.class)
 public class ClasspathElementTransformFactoryForAgent implements ClasspathElementTransformFactory {
@@ -43,8 +45,8 @@ public void applyConfigurationTo(Hasher hasher) {
     }
 
     @Override
-    public ClasspathElementTransform createTransformer(File file, ClassTransform classTransform) {
-        return new ClasspathElementTransformForAgent(file, classpathBuilder, classpathWalker, classTransform);
+    public ClasspathElementTransform createTransformer(File file, ClassTransform classTransform, @Nullable Executor classTransformExecutor) {
+        return new ClasspathElementTransformForAgent(file, classpathBuilder, classpathWalker, classTransform, classTransformExecutor);
     }
 
     @Override
@@ -31,8 +31,10 @@
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.Nullable;
 import java.io.File;
 import java.io.IOException;
+import java.util.concurrent.Executor;
 
 @ServiceScope(Scope.UserHome.class)
 public class ClasspathElementTransformFactoryForLegacy implements ClasspathElementTransformFactory {
@@ -51,7 +53,7 @@ public void applyConfigurationTo(Hasher hasher) {
     }
 
     @Override
-    public ClasspathElementTransform createTransformer(File source, ClassTransform classTransform) {
+    public ClasspathElementTransform createTransformer(File source, ClassTransform classTransform, @Nullable Executor classTransformExecutor) {
         Boolean isMultiReleaseJar = null;
 
         if (source.isFile()) {
@@ -76,9 +78,9 @@ public ClasspathElementTransform createTransformer(File source, ClassTransform c
             }
         }
         if (isMultiReleaseJar != null && isMultiReleaseJar) {
-            return new MultiReleaseClasspathElementTransformForLegacy(source, classpathBuilder, classpathWalker, classTransform);
+            return new MultiReleaseClasspathElementTransformForLegacy(source, classpathBuilder, classpathWalker, classTransform, classTransformExecutor);
         }
-        return new BaseClasspathElementTransform(source, classpathBuilder, classpathWalker, classTransform);
+        return new BaseClasspathElementTransform(source, classpathBuilder, classpathWalker, classTransform, classTransformExecutor);
     }
 
     private boolean isJarSignatureFile(String entryName) {
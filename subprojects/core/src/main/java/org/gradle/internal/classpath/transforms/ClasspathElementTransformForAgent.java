@@ -25,9 +25,11 @@
 import org.gradle.internal.classpath.ClasspathWalker;
 import org.gradle.util.internal.JarUtil;
 
+import javax.annotation.Nullable;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.util.concurrent.Executor;
 import java.util.jar.Attributes;
 import java.util.jar.Manifest;
 
@@ -43,8 +45,8 @@ class ClasspathElementTransformForAgent extends BaseClasspathElementTransform {
     private int lowestUnsupportedVersionInJar = Integer.MAX_VALUE;
     private boolean isMultiReleaseJar;
 
-    ClasspathElementTransformForAgent(File source, ClasspathBuilder classpathBuilder, ClasspathWalker classpathWalker, ClassTransform transform) {
-        super(source, classpathBuilder, classpathWalker, transform);
+    ClasspathElementTransformForAgent(File source, ClasspathBuilder classpathBuilder, ClasspathWalker classpathWalker, ClassTransform transform, @Nullable Executor classTransformExecutor) {
+        super(source, classpathBuilder, classpathWalker, transform, classTransformExecutor);
     }
 
     @Override
@@ -20,8 +20,10 @@
 import org.gradle.internal.classpath.ClasspathEntryVisitor;
 import org.gradle.internal.classpath.ClasspathWalker;
 
+import javax.annotation.Nullable;
 import java.io.File;
 import java.io.IOException;
+import java.util.concurrent.Executor;
 
 import static org.gradle.internal.classpath.transforms.MrJarUtils.isInUnsupportedMrJarVersionedDirectory;
 
@@ -32,8 +34,8 @@
  * This transformation filters out not yet supported versioned directories of the multi-release JARs.
  */
 class MultiReleaseClasspathElementTransformForLegacy extends BaseClasspathElementTransform {
-    MultiReleaseClasspathElementTransformForLegacy(File source, ClasspathBuilder classpathBuilder, ClasspathWalker classpathWalker, ClassTransform transform) {
-        super(source, classpathBuilder, classpathWalker, transform);
+    MultiReleaseClasspathElementTransformForLegacy(File source, ClasspathBuilder classpathBuilder, ClasspathWalker classpathWalker, ClassTransform transform, @Nullable Executor classTransformExecutor) {
+        super(source, classpathBuilder, classpathWalker, transform, classTransformExecutor);
     }
 
     @Override
@@ -21,6 +21,7 @@
 import org.gradle.api.internal.changedetection.state.ResourceFilter;
 import org.gradle.api.internal.changedetection.state.ResourceSnapshotterCacheService;
 import org.gradle.api.internal.changedetection.state.RuntimeClasspathResourceHasher;
+import org.gradle.internal.buildoption.InternalFlag;
 import org.gradle.internal.execution.FileCollectionSnapshotter;
 import org.gradle.internal.execution.model.InputNormalizer;
 import org.gradle.internal.fingerprint.FileNormalizer;
@@ -31,6 +32,11 @@
 import java.util.Map;
 
 public class DefaultClasspathFingerprinter extends AbstractFileCollectionFingerprinter implements ClasspathFingerprinter {
+    /**
+     * When enabled, the entries of large zip files on classpaths are hashed concurrently.
+     */
+    public static final InternalFlag CONCURRENT_ZIP_ENTRY_HASHING = new InternalFlag("org.gradle.internal.fingerprint.zip.concurrent");
+
     public DefaultClasspathFingerprinter(
         ResourceSnapshotterCacheService cacheService,
         FileCollectionSnapshotter fileCollectionSnapshotter,
@@ -38,7 +44,8 @@ public DefaultClasspathFingerprinter(
         ResourceEntryFilter manifestAttributeResourceEntryFilter,
         Map<String, ResourceEntryFilter> propertiesFileFilters,
         StringInterner stringInterner,
-        LineEndingSensitivity lineEndingSensitivity
+        LineEndingSensitivity lineEndingSensitivity,
+        boolean concurrentZipEntryHashing
     ) {
         super(
             ClasspathFingerprintingStrategy.runtimeClasspath(
@@ -48,7 +55,8 @@ public DefaultClasspathFingerprinter(
                 new RuntimeClasspathResourceHasher(),
                 cacheService,
                 stringInterner,
-                lineEndingSensitivity
+                lineEndingSensitivity,
+                concurrentZipEntryHashing
             ),
             fileCollectionSnapshotter
         );
@@ -27,11 +27,12 @@
 import org.gradle.internal.fingerprint.impl.AbstractFileCollectionFingerprinter;
 
 public class DefaultCompileClasspathFingerprinter extends AbstractFileCollectionFingerprinter implements CompileClasspathFingerprinter {
-    public DefaultCompileClasspathFingerprinter(ResourceSnapshotterCacheService cacheService, FileCollectionSnapshotter fileCollectionSnapshotter, StringInterner stringInterner) {
+    public DefaultCompileClasspathFingerprinter(ResourceSnapshotterCacheService cacheService, FileCollectionSnapshotter fileCollectionSnapshotter, StringInterner stringInterner, boolean concurrentZipEntryHashing) {
         super(ClasspathFingerprintingStrategy.compileClasspath(
             new CachingResourceHasher(AbiExtractingClasspathResourceHasher.DEFAULT, cacheService),
             cacheService,
-            stringInterner
+            stringInterner,
+            concurrentZipEntryHashing
         ), fileCollectionSnapshotter);
     }
 
@@ -52,10 +52,11 @@ public FileCollectionFingerprinterRegistrations(
         ResourceSnapshotterCacheService resourceSnapshotterCacheService,
         ResourceFilter resourceFilter,
         ResourceEntryFilter metaInfFilter,
-        Map<String, ResourceEntryFilter> propertiesFileFilters
+        Map<String, ResourceEntryFilter> propertiesFileFilters,
+        boolean concurrentZipEntryHashing
         ) {
 
-        List<? extends FileCollectionFingerprinter> insensitiveFingerprinters = insensitiveFingerprinters(resourceSnapshotterCacheService, fileCollectionSnapshotter, stringInterner);
+        List<? extends FileCollectionFingerprinter> insensitiveFingerprinters = insensitiveFingerprinters(resourceSnapshotterCacheService, fileCollectionSnapshotter, stringInterner, concurrentZipEntryHashing);
         this.registrants =
             withAllLineEndingSensitivities(lineEndingSensitivity -> {
                 FileSystemLocationSnapshotHasher normalizedContentHasher = normalizedContentHasher(lineEndingSensitivity, resourceSnapshotterCacheService);
@@ -68,7 +69,8 @@ public FileCollectionFingerprinterRegistrations(
                     resourceFilter,
                     metaInfFilter,
                     propertiesFileFilters,
-                    stringInterner
+                    stringInterner,
+                    concurrentZipEntryHashing
                 );
 
                 return withAllDirectorySensitivities(directorySensitivity ->
@@ -117,7 +119,8 @@ private static List<? extends FileCollectionFingerprinter> directoryInsensitiveF
         ResourceFilter resourceFilter,
         ResourceEntryFilter metaInfFilter,
         Map<String, ResourceEntryFilter> propertiesFileFilters,
-        StringInterner stringInterner
+        StringInterner stringInterner,
+        boolean concurrentZipEntryHashing
     ) {
         return Lists.newArrayList(
             new IgnoredPathFileCollectionFingerprinter(fileCollectionSnapshotter, normalizedContentHasher),
@@ -128,7 +131,8 @@ private static List<? extends FileCollectionFingerprinter> directoryInsensitiveF
                 metaInfFilter,
                 propertiesFileFilters,
                 stringInterner,
-                lineEndingSensitivity
+                lineEndingSensitivity,
+                concurrentZipEntryHashing
             )
         );
     }
@@ -136,9 +140,9 @@ private static List<? extends FileCollectionFingerprinter> directoryInsensitiveF
     /**
      * These fingerprinters do not care about line ending or directory sensitivity at all
      */
-    private static List<? extends FileCollectionFingerprinter> insensitiveFingerprinters(ResourceSnapshotterCacheService resourceSnapshotterCacheService, FileCollectionSnapshotter fileCollectionSnapshotter, StringInterner stringInterner) {
+    private static List<? extends FileCollectionFingerprinter> insensitiveFingerprinters(ResourceSnapshotterCacheService resourceSnapshotterCacheService, FileCollectionSnapshotter fileCollectionSnapshotter, StringInterner stringInterner, boolean concurrentZipEntryHashing) {
         return Lists.newArrayList(
-            new DefaultCompileClasspathFingerprinter(resourceSnapshotterCacheService, fileCollectionSnapshotter, stringInterner)
+            new DefaultCompileClasspathFingerprinter(resourceSnapshotterCacheService, fileCollectionSnapshotter, stringInterner, concurrentZipEntryHashing)
         );
     }
 
@@ -83,6 +83,7 @@
 import org.gradle.api.services.internal.DefaultBuildServicesRegistry;
 import org.gradle.cache.UnscopedCacheBuilderFactory;
 import org.gradle.cache.internal.BuildScopeCacheDir;
+import org.gradle.cache.internal.InMemoryCacheDecoratorFactory;
 import org.gradle.cache.internal.scopes.DefaultBuildScopedCacheBuilderFactory;
 import org.gradle.cache.scopes.BuildScopedCacheBuilderFactory;
 import org.gradle.caching.internal.BuildCacheServices;
@@ -100,10 +101,12 @@
 import org.gradle.configuration.project.PluginsProjectConfigureActions;
 import org.gradle.execution.ProjectConfigurer;
 import org.gradle.execution.plan.DefaultNodeValidator;
+import org.gradle.execution.plan.DefaultTaskDurationHistory;
 import org.gradle.execution.plan.ExecutionNodeAccessHierarchies;
 import org.gradle.execution.plan.ExecutionPlanFactory;
 import org.gradle.execution.plan.OrdinalGroupFactory;
 import org.gradle.execution.plan.TaskDependencyResolver;
+import org.gradle.execution.plan.TaskDurationHistory;
 import org.gradle.execution.plan.TaskNodeDependencyResolver;
 import org.gradle.execution.plan.TaskNodeFactory;
 import org.gradle.execution.plan.ToPlannedNodeConverterRegistry;
@@ -172,6 +175,7 @@
 import org.gradle.internal.build.PublicBuildPath;
 import org.gradle.internal.buildevents.BuildStartedTime;
 import org.gradle.internal.buildoption.FeatureFlags;
+import org.gradle.internal.buildoption.InternalOptions;
 import org.gradle.internal.buildtree.BuildInclusionCoordinator;
 import org.gradle.internal.buildtree.BuildModelParameters;
 import org.gradle.internal.classloader.ClassLoaderFactory;
@@ -187,6 +191,7 @@
 import org.gradle.internal.execution.ExecutionEngine;
 import org.gradle.internal.execution.InputFingerprinter;
 import org.gradle.internal.execution.WorkExecutionTracker;
+import org.gradle.internal.execution.history.ExecutionHistoryCacheAccess;
 import org.gradle.internal.file.Deleter;
 import org.gradle.internal.file.RelativeFilePathResolver;
 import org.gradle.internal.file.Stat;
@@ -283,8 +288,14 @@ ExecutionPlanFactory createExecutionPlanFactory(
         OrdinalGroupFactory ordinalGroupFactory,
         TaskDependencyResolver dependencyResolver,
         ExecutionNodeAccessHierarchies executionNodeAccessHierarchies,
-        ResourceLockCoordinationService lockCoordinationService
+        ResourceLockCoordinationService lockCoordinationService,
+        ExecutionHistoryCacheAccess executionHistoryCacheAccess,
+        InMemoryCacheDecoratorFactory inMemoryCacheDecoratorFactory,
+        InternalOptions internalOptions
     ) {
+        TaskDurationHistory durationHistory = internalOptions.getOption(ExecutionPlanFactory.CRITICAL_PATH_SCHEDULING).get()
+            ? new DefaultTaskDurationHistory(executionHistoryCacheAccess, inMemoryCacheDecoratorFactory)
+            : null;
         return new ExecutionPlanFactory(
             build.getDisplayName().getDisplayName(),
             taskNodeFactory,
@@ -292,7 +303,8 @@ ExecutionPlanFactory createExecutionPlanFactory(
             dependencyResolver,
             executionNodeAccessHierarchies.getOutputHierarchy(),
             executionNodeAccessHierarchies.getDestroyableHierarchy(),
-            lockCoordinationService
+            lockCoordinationService,
+            durationHistory
         );
     }
 
@@ -513,7 +525,8 @@ protected GroovyScriptClassCompiler createFileCacheBackedScriptClassCompiler(
         GroovyDslWorkspaceProvider groovyDslWorkspaceProvider,
         ClasspathElementTransformFactoryForLegacy transformFactoryForLegacy,
         GradleCoreInstrumentationTypeRegistry gradleCoreTypeRegistry,
-        PropertyUpgradeReportConfig propertyUpgradeReportConfig
+        PropertyUpgradeReportConfig propertyUpgradeReportConfig,
+        InternalOptions internalOptions
     ) {
         return new GroovyScriptClassCompiler(
             new BuildOperationBackedScriptCompilationHandler(scriptCompilationHandler, buildOperationRunner),
@@ -525,7 +538,8 @@ protected GroovyScriptClassCompiler createFileCacheBackedScriptClassCompiler(
             groovyDslWorkspaceProvider.getWorkspace(),
             transformFactoryForLegacy,
             gradleCoreTypeRegistry,
-            propertyUpgradeReportConfig
+            propertyUpgradeReportConfig,
+            internalOptions.getOption(GroovyScriptClassCompiler.CACHING_ENABLED_PROPERTY).get()
         );
     }
 
@@ -61,6 +61,7 @@
 import org.gradle.internal.classloader.ClasspathHasher;
 import org.gradle.internal.classloader.DefaultHashingClassLoaderFactory;
 import org.gradle.internal.classloader.HashingClassLoaderFactory;
+import org.gradle.internal.classpath.ClassTransformExecutor;
 import org.gradle.internal.classpath.ClasspathWalker;
 import org.gradle.internal.classpath.DefaultCachedClasspathTransformer;
 import org.gradle.internal.classpath.DefaultClasspathBuilder;
@@ -120,6 +121,7 @@ public void configure(ServiceRegistration registration) {
         registration.add(GradleCoreInstrumentationTypeRegistry.class);
         registration.add(ClasspathElementTransformFactoryForAgent.class);
         registration.add(ClasspathElementTransformFactoryForLegacy.class);
+        registration.add(ClassTransformExecutor.class);
         registration.add(DefaultCachedClasspathTransformer.class);
         for (GradleModuleServices services : globalServices.getAll(GradleModuleServices.class)) {
             services.registerGradleUserHomeServices(registration);
@@ -44,6 +44,7 @@
 import org.gradle.cache.scopes.GlobalScopedCacheBuilderFactory;
 import org.gradle.initialization.RootBuildLifecycleListener;
 import org.gradle.internal.build.BuildAddedListener;
+import org.gradle.internal.buildoption.DefaultInternalOptions;
 import org.gradle.internal.buildoption.IntegerInternalOption;
 import org.gradle.internal.buildoption.InternalFlag;
 import org.gradle.internal.buildoption.InternalOptions;
@@ -96,12 +97,14 @@
 import org.gradle.internal.watch.vfs.WatchableFileSystemDetector;
 import org.gradle.internal.watch.vfs.impl.DefaultWatchableFileSystemDetector;
 import org.gradle.internal.watch.vfs.impl.FileWatchingFilter;
+import org.gradle.internal.watch.vfs.impl.VirtualFileSystemStateStore;
 import org.gradle.internal.watch.vfs.impl.WatchingNotSupportedVirtualFileSystem;
 import org.gradle.internal.watch.vfs.impl.WatchingVirtualFileSystem;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
+import java.util.Collections;
 import java.util.Optional;
 import java.util.function.Predicate;
 
@@ -122,6 +125,30 @@ public class VirtualFileSystemServices extends AbstractGradleModuleServices {
     public static final IntegerInternalOption MAX_HIERARCHIES_TO_WATCH_PROPERTY = new IntegerInternalOption("org.gradle.vfs.watch.hierarchies.max", DEFAULT_MAX_HIERARCHIES_TO_WATCH);
     private static final int FILE_HASHER_MEMORY_CACHE_SIZE = 400000;
 
+    /**
+     * The services registered here outlive the build tree scoped {@link InternalOptions},
+     * so the options that configure them are read from the system properties of the daemon.
+     */
+    private static final InternalOptions DAEMON_OPTIONS = new DefaultInternalOptions(Collections.emptyMap());
+
+    /**
+     * When enabled, directories are snapshotted by walking subdirectories and hashing files in parallel.
+     */
+    public static final InternalFlag PARALLEL_DIRECTORY_SNAPSHOTTING = new InternalFlag("org.gradle.internal.vfs.snapshot.parallel");
+
+    /**
+     * When enabled together with file system watching, the virtual file system is written to disk when the daemon stops,
+     * with one state file per root build directory. The next daemon that builds from the same directory starts with that state after checking it for changes.
+     */
+    public static final InternalFlag PERSISTENT_VFS = new InternalFlag("org.gradle.internal.vfs.persist");
+
+    /**
+     * Hashes created by different content hash functions must not be mixed, so each function gets its own persistent state.
+     */
+    private static String withContentHashFunction(String name) {
+        return DAEMON_OPTIONS.getOption(WorkerSharedGlobalScopeServices.FAST_CONTENT_HASHING).get() ? name + "-murmur3" : name;
+    }
+
     public static boolean isDropVfs(InternalOptions options) {
         return options.getOption(VFS_DROP_PROPERTY).get();
     }
@@ -175,7 +202,7 @@ FileHasher createCachingFileHasher(
             StreamHasher streamHasher,
             StringInterner stringInterner
         ) {
-            CachingFileHasher fileHasher = new CachingFileHasher(new DefaultFileHasher(streamHasher), fileStore, stringInterner, fileTimeStampInspector, "fileHashes", fileSystem, FILE_HASHER_MEMORY_CACHE_SIZE, statisticsCollector);
+            CachingFileHasher fileHasher = new CachingFileHasher(new DefaultFileHasher(streamHasher), fileStore, stringInterner, fileTimeStampInspector, withContentHashFunction("fileHashes"), fileSystem, FILE_HASHER_MEMORY_CACHE_SIZE, statisticsCollector);
             fileTimeStampInspector.attach(fileHasher);
             return fileHasher;
         }
@@ -212,10 +239,16 @@ BuildLifecycleAwareVirtualFileSystem createVirtualFileSystem(
             ListenerManager listenerManager,
             FileChangeListeners fileChangeListeners,
             FileSystem fileSystem,
-            WatchableFileSystemDetector watchableFileSystemDetector
+            WatchableFileSystemDetector watchableFileSystemDetector,
+            GlobalScopedCacheBuilderFactory cacheBuilderFactory,
+            FileMetadataAccessor fileMetadataAccessor,
+            StringInterner stringInterner
         ) {
             CaseSensitivity caseSensitivity = fileSystem.isCaseSensitive() ? CASE_SENSITIVE : CASE_INSENSITIVE;
             SnapshotHierarchy root = DefaultSnapshotHierarchy.empty(caseSensitivity);
+            VirtualFileSystemStateStore stateStore = DAEMON_OPTIONS.getOption(PERSISTENT_VFS).get()
+                ? new VirtualFileSystemStateStore(cacheBuilderFactory.baseDirForCache("vfs"), withContentHashFunction("state"), fileMetadataAccessor, stringInterner)
+                : null;
 
             BuildLifecycleAwareVirtualFileSystem virtualFileSystem = determineWatcherRegistryFactory(
                 OperatingSystem.current(),
@@ -227,7 +260,8 @@ BuildLifecycleAwareVirtualFileSystem createVirtualFileSystem(
                     sectionId -> documentationRegistry.getDocumentationRecommendationFor("details", "file_system_watching", sectionId),
                     fileWatchingFilter,
                     watchableFileSystemDetector,
-                    fileChangeListeners
+                    fileChangeListeners,
+                    stateStore
                 ))
                 .orElse(new WatchingNotSupportedVirtualFileSystem(root));
             listenerManager.addListener((BuildAddedListener) buildState -> {
@@ -255,6 +289,7 @@ FileSystemAccess createFileSystemAccess(
                 virtualFileSystem,
                 writeListener,
                 statisticsCollector,
+                DAEMON_OPTIONS.getOption(PARALLEL_DIRECTORY_SNAPSHOTTING).get(),
                 DirectoryScanner.getDefaultExcludes()
             );
             listenerManager.addListener(defaultFileSystemAccess);
@@ -299,7 +334,16 @@ ResourceSnapshotterCacheService createResourceSnapshotterCacheService(CrossBuild
 
         @Provides
         ClasspathFingerprinter createClasspathFingerprinter(ResourceSnapshotterCacheService resourceSnapshotterCacheService, FileCollectionSnapshotter fileCollectionSnapshotter, StringInterner stringInterner) {
-            return new DefaultClasspathFingerprinter(resourceSnapshotterCacheService, fileCollectionSnapshotter, ResourceFilter.FILTER_NOTHING, ResourceEntryFilter.FILTER_NOTHING, PropertiesFileFilter.FILTER_NOTHING, stringInterner, LineEndingSensitivity.DEFAULT);
+            return new DefaultClasspathFingerprinter(
+                resourceSnapshotterCacheService,
+                fileCollectionSnapshotter,
+                ResourceFilter.FILTER_NOTHING,
+                ResourceEntryFilter.FILTER_NOTHING,
+                PropertiesFileFilter.FILTER_NOTHING,
+                stringInterner,
+                LineEndingSensitivity.DEFAULT,
+                DAEMON_OPTIONS.getOption(DefaultClasspathFingerprinter.CONCURRENT_ZIP_ENTRY_HASHING).get()
+            );
         }
 
         @Provides
@@ -338,7 +382,7 @@ FileHasher createFileHasher(
             StringInterner stringInterner,
             FileHasherStatistics.Collector statisticsCollector
         ) {
-            CachingFileHasher localHasher = new CachingFileHasher(new DefaultFileHasher(streamHasher), cacheAccess, stringInterner, fileTimeStampInspector, "fileHashes", fileSystem, FILE_HASHER_MEMORY_CACHE_SIZE, statisticsCollector);
+            CachingFileHasher localHasher = new CachingFileHasher(new DefaultFileHasher(streamHasher), cacheAccess, stringInterner, fileTimeStampInspector, withContentHashFunction("fileHashes"), fileSystem, FILE_HASHER_MEMORY_CACHE_SIZE, statisticsCollector);
             return new SplitFileHasher(globalHasher, localHasher, globalCacheLocations);
         }
 
@@ -359,6 +403,7 @@ FileSystemAccess createFileSystemAccess(
                 root,
                 writeListener,
                 statisticsCollector,
+                DAEMON_OPTIONS.getOption(PARALLEL_DIRECTORY_SNAPSHOTTING).get(),
                 DirectoryScanner.getDefaultExcludes()
             );
 
@@ -390,7 +435,8 @@ FileCollectionFingerprinterRegistrations createFileCollectionFingerprinterRegist
                 resourceSnapshotterCacheService,
                 ResourceFilter.FILTER_NOTHING,
                 ResourceEntryFilter.FILTER_NOTHING,
-                PropertiesFileFilter.FILTER_NOTHING
+                PropertiesFileFilter.FILTER_NOTHING,
+                DAEMON_OPTIONS.getOption(DefaultClasspathFingerprinter.CONCURRENT_ZIP_ENTRY_HASHING).get()
             );
         }
 
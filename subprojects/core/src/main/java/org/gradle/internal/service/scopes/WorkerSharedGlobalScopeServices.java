@@ -38,6 +38,8 @@
 import org.gradle.cache.internal.DefaultCrossBuildInMemoryCacheFactory;
 import org.gradle.initialization.DefaultLegacyTypesSupport;
 import org.gradle.initialization.LegacyTypesSupport;
+import org.gradle.internal.buildoption.DefaultInternalOptions;
+import org.gradle.internal.buildoption.InternalFlag;
 import org.gradle.internal.classloader.ClassLoaderFactory;
 import org.gradle.internal.classloader.DefaultClassLoaderFactory;
 import org.gradle.internal.classpath.ClassPath;
@@ -46,6 +48,7 @@
 import org.gradle.internal.file.Deleter;
 import org.gradle.internal.file.impl.DefaultDeleter;
 import org.gradle.internal.hash.DefaultStreamHasher;
+import org.gradle.internal.hash.Hashing;
 import org.gradle.internal.hash.StreamHasher;
 import org.gradle.internal.installation.CurrentGradleInstallation;
 import org.gradle.internal.instantiation.InstantiatorFactory;
@@ -70,6 +73,8 @@
 import org.gradle.internal.time.Clock;
 import org.gradle.internal.time.Time;
 
+import java.util.Collections;
+
 import static org.gradle.api.internal.file.ManagedFactories.DirectoryManagedFactory;
 import static org.gradle.api.internal.file.ManagedFactories.DirectoryPropertyManagedFactory;
 import static org.gradle.api.internal.file.ManagedFactories.RegularFileManagedFactory;
@@ -82,6 +87,12 @@
 import static org.gradle.api.internal.provider.ManagedFactories.SetPropertyManagedFactory;
 
 public class WorkerSharedGlobalScopeServices extends BasicGlobalScopeServices {
+    /**
+     * When enabled, content is hashed with {@link Hashing#murmur3()} instead of the default hash function,
+     * and large files are hashed by mapping them into memory.
+     * The stream hasher is a global service, so the flag is read from the system properties of the process.
+     */
+    public static final InternalFlag FAST_CONTENT_HASHING = new InternalFlag("org.gradle.internal.hash.fast-content-hashing");
 
     protected final ClassPath additionalModuleClassPath;
 
@@ -136,6 +147,10 @@ DefaultFilePropertyFactory createFilePropertyFactory(PropertyHost propertyHost,
 
     @Provides
     StreamHasher createStreamHasher() {
+        if (new DefaultInternalOptions(Collections.emptyMap()).getOption(FAST_CONTENT_HASHING).get()) {
+            // Mapped files cannot be deleted on Windows until the mapping is garbage collected
+            return new DefaultStreamHasher(Hashing.murmur3(), !OperatingSystem.current().isWindows());
+        }
         return new DefaultStreamHasher();
     }
 
@@ -101,6 +101,29 @@ class DefaultBuildCacheConfigurationTest extends Specification {
         ex.message == "A type for the remote build cache must be configured first."
     }
 
+    def 'uses gzip compression by default'() {
+        expect:
+        createConfig().compression == "gzip"
+    }
+
+    def 'can change compression'() {
+        def buildCacheConfiguration = createConfig()
+        when:
+        buildCacheConfiguration.compression = "lz4"
+        then:
+        buildCacheConfiguration.compression == "lz4"
+    }
+
+    def 'fails when setting unknown compression'() {
+        def buildCacheConfiguration = createConfig()
+        when:
+        buildCacheConfiguration.compression = "bzip2"
+        then:
+        def ex = thrown IllegalArgumentException
+        ex.message == "Unknown build cache compression 'bzip2'. Supported values are: gzip, lz4."
+        buildCacheConfiguration.compression == "gzip"
+    }
+
     static class CustomBuildCache extends AbstractBuildCache {}
 
     static class OtherCustomBuildCache extends AbstractBuildCache {}
@@ -55,6 +55,7 @@ class DirectoryBuildCacheServiceFactoryTest extends Specification {
         service instanceof DirectoryBuildCacheService
         1 * config.getDirectory() >> null
         1 * config.getRemoveUnusedEntriesAfterDays() >> 10
+        1 * config.getMaxSizeInMegabytes() >> 0
         1 * globalScopedCache.baseDirForCrossVersionCache("build-cache-1") >> cacheDir
         1 * cacheRepository.cache(cacheDir) >> cacheBuilder
         1 * cacheConfigurations.getCleanupFrequency() >> Mock(Provider)
@@ -70,6 +71,7 @@ class DirectoryBuildCacheServiceFactoryTest extends Specification {
         service instanceof DirectoryBuildCacheService
         1 * config.getDirectory() >> cacheDir
         1 * config.getRemoveUnusedEntriesAfterDays() >> 10
+        1 * config.getMaxSizeInMegabytes() >> 0
         1 * resolver.resolve(cacheDir) >> cacheDir
         1 * cacheRepository.cache(cacheDir) >> cacheBuilder
         1 * cacheConfigurations.getCleanupFrequency() >> Mock(Provider)
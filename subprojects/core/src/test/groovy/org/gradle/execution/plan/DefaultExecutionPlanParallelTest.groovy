@@ -23,6 +23,7 @@ import org.gradle.api.internal.TaskInternal
 import org.gradle.api.internal.project.ProjectInternal
 import org.gradle.api.internal.project.taskfactory.TestTaskIdentities
 import org.gradle.api.internal.tasks.NodeExecutionContext
+import org.gradle.api.internal.tasks.TaskExecutionOutcome
 import org.gradle.api.internal.tasks.TaskStateInternal
 import org.gradle.api.tasks.Destroys
 import org.gradle.api.tasks.InputDirectory
@@ -56,7 +57,7 @@ class DefaultExecutionPlanParallelTest extends AbstractExecutionPlanSpec {
 
     def setup() {
         def dependencyResolver = new TaskDependencyResolver([new TaskNodeDependencyResolver(taskNodeFactory)])
-        executionPlan = new DefaultExecutionPlan(Path.ROOT.toString(), taskNodeFactory, new OrdinalGroupFactory(), dependencyResolver, accessHierarchies.outputHierarchy, accessHierarchies.destroyableHierarchy, coordinator)
+        executionPlan = new DefaultExecutionPlan(Path.ROOT.toString(), taskNodeFactory, new OrdinalGroupFactory(), dependencyResolver, accessHierarchies.outputHierarchy, accessHierarchies.destroyableHierarchy, coordinator, null)
     }
 
     Node priorityNode(Map<String, ?> options = [:]) {
@@ -2061,6 +2062,90 @@ class DefaultExecutionPlanParallelTest extends AbstractExecutionPlanSpec {
         continueOnFailure << [false, true]
     }
 
+    def "starts ready tasks with the longest remaining critical path first when enabled"() {
+        given:
+        def durations = [":a": 10L, ":b": 20L, ":slow": 1000L, ":c": 30L]
+        def durationHistory = Mock(TaskDurationHistory) {
+            getPreviousDuration(_) >> { String path -> durations[path] }
+        }
+        executionPlan = new DefaultExecutionPlan(Path.ROOT.toString(), taskNodeFactory, new OrdinalGroupFactory(), new TaskDependencyResolver([new TaskNodeDependencyResolver(taskNodeFactory)]), accessHierarchies.outputHierarchy, accessHierarchies.destroyableHierarchy, coordinator, durationHistory)
+        Task a = task("a", type: Async)
+        Task b = task("b", type: Async)
+        Task slow = task("slow", type: Async)
+        Task c = task("c", type: Async, dependsOn: [slow])
+        Task d = task("d", type: Async)
+        [a, b, slow, c, d].each { outcome(it, TaskExecutionOutcome.EXECUTED) }
+
+        when:
+        addToGraphAndPopulate(a, b, c, d)
+
+        then:
+        executionPlan.tasks as List == [a, b, slow, c, d]
+        def slowNode = selectNextTaskNode()
+        slowNode.task == slow
+        def bNode = selectNextTaskNode()
+        bNode.task == b
+        def aNode = selectNextTaskNode()
+        aNode.task == a
+        def dNode = selectNextTaskNode()
+        dNode.task == d
+        assertNoTaskReadyToStart()
+
+        when:
+        finishedExecuting(slowNode)
+        finishedExecuting(bNode)
+        finishedExecuting(aNode)
+        finishedExecuting(dNode)
+
+        then:
+        assertTaskReadyAndNoMoreToStart(c)
+        assertAllWorkComplete()
+
+        when:
+        executionPlan.close()
+
+        then:
+        1 * durationHistory.recordDuration(":slow", _)
+        1 * durationHistory.recordDuration(":a", _)
+        1 * durationHistory.recordDuration(":b", _)
+        1 * durationHistory.recordDuration(":c", _)
+        1 * durationHistory.recordDuration(":d", _)
+    }
+
+    def "leaves the stored duration of a task that did not run its actions unchanged"() {
+        given:
+        def durationHistory = Mock(TaskDurationHistory) {
+            getPreviousDuration(_) >> { String path -> [":a": 10L, ":b": 20L][path] }
+        }
+        executionPlan = new DefaultExecutionPlan(Path.ROOT.toString(), taskNodeFactory, new OrdinalGroupFactory(), new TaskDependencyResolver([new TaskNodeDependencyResolver(taskNodeFactory)]), accessHierarchies.outputHierarchy, accessHierarchies.destroyableHierarchy, coordinator, durationHistory)
+        Task a = task("a", type: Async)
+        Task b = task("b", type: Async)
+        outcome(a, TaskExecutionOutcome.EXECUTED)
+        outcome(b, TaskExecutionOutcome.UP_TO_DATE)
+
+        when:
+        addToGraphAndPopulate(a, b)
+        def bNode = selectNextTaskNode()
+        def aNode = selectNextTaskNode()
+        finishedExecuting(bNode)
+        finishedExecuting(aNode)
+
+        then:
+        assertAllWorkComplete()
+
+        when:
+        executionPlan.close()
+
+        then:
+        1 * durationHistory.recordDuration(":a", _)
+        0 * durationHistory.recordDuration(":b", _)
+    }
+
+    private void outcome(Task task, TaskExecutionOutcome outcome) {
+        TaskStateInternal state = ((TaskInternal) task).state
+        state.outcome >> outcome
+    }
+
     private void tasksAreNotExecutedInParallel(Task first, Task second) {
         addToGraphAndPopulate(first, second)
 
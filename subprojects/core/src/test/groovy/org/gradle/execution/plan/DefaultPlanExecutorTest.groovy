@@ -24,6 +24,7 @@ import org.gradle.api.invocation.Gradle
 import org.gradle.initialization.BuildCancellationToken
 import org.gradle.internal.buildoption.DefaultInternalOptions
 import org.gradle.internal.concurrent.ExecutorFactory
+import org.gradle.internal.operations.TestBuildOperationRunner
 import org.gradle.internal.resources.DefaultResourceLockCoordinationService
 import org.gradle.internal.work.DefaultWorkerLimits
 import org.gradle.internal.work.WorkerLeaseRegistry
@@ -38,7 +39,7 @@ class DefaultPlanExecutorTest extends Specification {
     def coordinationService = new DefaultResourceLockCoordinationService()
     def workerLeaseService = Mock(WorkerLeaseService)
     def workerLease = Mock(WorkerLeaseRegistry.WorkerLease)
-    def executor = new DefaultPlanExecutor(new DefaultWorkerLimits(1), executorFactory, workerLeaseService, cancellationHandler, coordinationService, new DefaultInternalOptions([:]))
+    def executor = new DefaultPlanExecutor(new DefaultWorkerLimits(1), executorFactory, workerLeaseService, cancellationHandler, coordinationService, new DefaultInternalOptions([:]), new TestBuildOperationRunner())
 
     def "executes tasks until no further tasks remain"() {
         def gradle = Mock(Gradle)
@@ -77,6 +78,79 @@ class DefaultPlanExecutorTest extends Specification {
         0 * workSource._
     }
 
+    def "selects next task while still holding the state lock after finishing a task"() {
+        def node1 = Mock(LocalTaskNode)
+        def node2 = Mock(LocalTaskNode)
+
+        when:
+        def result = executor.process(workSource, worker)
+
+        then:
+        result.failures.empty
+        1 * workerLeaseService.currentWorkerLease >> workerLease
+
+        then:
+        1 * cancellationHandler.isCancellationRequested() >> false
+        1 * workerLease.tryLock() >> true
+        1 * workSource.executionState() >> WorkSource.State.MaybeWorkReadyToStart
+        1 * workSource.selectNext() >> WorkSource.Selection.of(node1)
+        1 * worker.execute(node1)
+        1 * workSource.finishedExecuting(node1, null)
+
+        then:
+        1 * workerLease.isLockedByCurrentThread() >> true
+        1 * cancellationHandler.isCancellationRequested() >> false
+        1 * workSource.executionState() >> WorkSource.State.MaybeWorkReadyToStart
+        1 * workSource.selectNext() >> WorkSource.Selection.of(node2)
+        1 * worker.execute(node2)
+        1 * workSource.finishedExecuting(node2, null)
+
+        then:
+        1 * workerLease.isLockedByCurrentThread() >> true
+        1 * cancellationHandler.isCancellationRequested() >> false
+        1 * workSource.executionState() >> WorkSource.State.NoMoreWorkToStart
+
+        then:
+        1 * cancellationHandler.isCancellationRequested() >> false
+        1 * workerLease.isLockedByCurrentThread() >> true
+        3 * workSource.allExecutionComplete() >> true
+        1 * workSource.collectFailures([])
+        0 * workerLease.tryLock()
+        0 * workSource._
+    }
+
+    def "publishes worker statistics at the end of each plan execution when enabled"() {
+        def buildOperationRunner = new TestBuildOperationRunner()
+        def executor = new DefaultPlanExecutor(new DefaultWorkerLimits(1), executorFactory, workerLeaseService, cancellationHandler, coordinationService, new DefaultInternalOptions([(DefaultPlanExecutor.STATS.systemPropertyName): "true"]), buildOperationRunner)
+        def node1 = Mock(LocalTaskNode)
+        def node2 = Mock(LocalTaskNode)
+
+        when:
+        def result = executor.process(workSource, worker)
+
+        then:
+        result.failures.empty
+        1 * workerLeaseService.currentWorkerLease >> workerLease
+        _ * workerLease.tryLock() >> true
+        _ * workerLease.isLockedByCurrentThread() >> true
+        _ * cancellationHandler.isCancellationRequested() >> false
+        3 * workSource.executionState() >>> [WorkSource.State.MaybeWorkReadyToStart, WorkSource.State.MaybeWorkReadyToStart, WorkSource.State.NoMoreWorkToStart]
+        2 * workSource.selectNext() >>> [WorkSource.Selection.of(node1), WorkSource.Selection.of(node2)]
+        _ * workSource.allExecutionComplete() >> true
+
+        and:
+        def operations = buildOperationRunner.log.all(ExecutorStatisticsBuildOperationType)
+        operations.size() == 1
+        operations[0].descriptor.displayName == "Report execution worker statistics"
+        operations[0].details.maxWorkerCount == 1
+        def workers = operations[0].result.workers
+        workers.size() == 1
+        workers[0].executedItems == 2
+        workers[0].handedOffItems == 1
+        workers[0].executeTimeNanos >= 0
+        workers[0].stateLockHoldTimeNanos >= 0
+    }
+
     def "execution is canceled when cancellation requested"() {
         def gradle = Mock(Gradle)
         def project = Mock(Project)
@@ -16,6 +16,7 @@
 
 package org.gradle.internal.classpath
 
+import org.gradle.api.GradleException
 import org.gradle.api.file.RelativePath
 import org.gradle.api.internal.cache.CacheConfigurationsInternal
 import org.gradle.api.internal.file.TestFiles
@@ -32,6 +33,7 @@ import org.gradle.internal.fingerprint.CurrentFileCollectionFingerprint
 import org.gradle.internal.fingerprint.FileCollectionFingerprint
 import org.gradle.internal.fingerprint.classpath.ClasspathFingerprinter
 import org.gradle.internal.hash.Hasher
+import org.gradle.internal.operations.TestBuildOperationRunner
 import org.gradle.internal.snapshot.FileSystemLocationSnapshot
 import org.gradle.internal.snapshot.FileSystemSnapshot
 import org.gradle.test.fixtures.archive.ZipTestFixture
@@ -43,7 +45,9 @@ import org.junit.Rule
 import org.objectweb.asm.ClassVisitor
 import spock.lang.Subject
 
+import java.util.concurrent.Executor
 import java.util.zip.ZipEntry
+import java.util.zip.ZipFile
 
 class DefaultCachedClasspathTransformerTest extends ConcurrentSpec {
     @Rule
@@ -78,6 +82,7 @@ class DefaultCachedClasspathTransformerTest extends ConcurrentSpec {
         }
     }
     def classpathElementTransformFactoryForLegacy = new ClasspathElementTransformFactoryForLegacy(classpathBuilder, classpathWalker)
+    def buildOperationRunner = new TestBuildOperationRunner()
     def noOpCustomTransform = new ClassTransform() {
         @Override
         void applyConfigurationTo(Hasher hasher) {
@@ -89,6 +94,7 @@ class DefaultCachedClasspathTransformerTest extends ConcurrentSpec {
         }
     }
 
+    def classTransformExecutor = new ClassTransformExecutor(executorFactory)
     URLClassLoader testClassLoader = null
 
     @Subject
@@ -101,11 +107,14 @@ class DefaultCachedClasspathTransformerTest extends ConcurrentSpec {
         executorFactory,
         globalCacheLocations,
         fileLockManager,
-        classpathElementTransformFactoryForLegacy
+        classpathElementTransformFactoryForLegacy,
+        buildOperationRunner,
+        classTransformExecutor
     )
 
     def cleanup() {
         testClassLoader?.close()
+        classTransformExecutor.stop()
     }
 
     def "copying transform does nothing to empty classpath"() {
@@ -335,6 +344,101 @@ class DefaultCachedClasspathTransformerTest extends ConcurrentSpec {
         0 * fileAccessTimeJournal._
     }
 
+    def "runs a build operation for each transformed classpath element"() {
+        given:
+        def dir = testDir.file("thing.dir")
+        classesDir(dir)
+        def file = testDir.file("thing.jar")
+        jar(file)
+        def classpath = DefaultClassPath.of(dir, file)
+
+        when:
+        transformer.transform(classpath, noOpCustomTransform)
+
+        then:
+        buildOperationRunner.operations*.displayName as Set == ["Transform thing.dir", "Transform thing.jar"] as Set
+
+        when:
+        buildOperationRunner.reset()
+        transformer.transform(classpath, noOpCustomTransform)
+
+        then:
+        buildOperationRunner.operations.empty
+    }
+
+    def "transforms the classes of a jar in parallel into the same jar as when transforming them sequentially"() {
+        given:
+        def file = testDir.file("thing.jar")
+        // More classes than the transform keeps waiting to be written, interleaved with resources
+        def classCount = Runtime.runtime.availableProcessors() * 4 * 2 + 1
+        classpathBuilder.jar(file) { builder ->
+            classCount.times { index ->
+                builder.put("c${index}.class", index % 2 == 0 ? classOne() : classTwo())
+                if (index % 5 == 0) {
+                    builder.put("r${index}.txt", "resource ${index}".bytes)
+                }
+            }
+        }
+        def sequentialFile = testDir.file("sequential/thing.jar")
+        def pipelinedFile = testDir.file("pipelined/thing.jar")
+
+        when:
+        classpathElementTransformFactoryForLegacy.createTransformer(file, noOpCustomTransform).transform(sequentialFile)
+        classpathElementTransformFactoryForLegacy.createTransformer(file, noOpCustomTransform, classTransformExecutor).transform(pipelinedFile)
+
+        then:
+        entryNames(pipelinedFile) == entryNames(file)
+        entryNames(sequentialFile) == entryNames(file)
+        pipelinedFile.bytes == sequentialFile.bytes
+    }
+
+    def "reports the failure of a class transform and cancels the classes waiting to be transformed"() {
+        given:
+        def file = testDir.file("thing.jar")
+        classpathBuilder.jar(file) { builder ->
+            5.times { index ->
+                builder.put("c${index}.class", classOne())
+            }
+        }
+        def failure = new RuntimeException("broken")
+        def transformedEntries = []
+        def failingTransform = new ClassTransform() {
+            @Override
+            void applyConfigurationTo(Hasher hasher) {
+            }
+
+            @Override
+            Pair<RelativePath, ClassVisitor> apply(ClasspathEntryVisitor.Entry entry, ClassVisitor visitor, ClassData classData) throws IOException {
+                transformedEntries << entry.name
+                throw failure
+            }
+        }
+        // Runs the transform of the first class only once the third class has been submitted
+        def submitted = []
+        def executor = { Runnable task ->
+            submitted << task
+            if (submitted.size() == 3) {
+                submitted[0].run()
+            }
+        } as Executor
+
+        when:
+        classpathElementTransformFactoryForLegacy.createTransformer(file, failingTransform, executor).transform(testDir.file("transformed/thing.jar"))
+
+        then:
+        def e = thrown(GradleException)
+        e.cause instanceof IOException
+        e.cause.message == "Failed to process the entry 'c0.class' from '${file}'"
+        e.cause.cause == failure
+
+        and:
+        transformedEntries == ["c0.class"]
+        submitted.size() == 3
+        !submitted[0].cancelled
+        submitted[1].cancelled
+        submitted[2].cancelled
+    }
+
     def "copying transform removes entries with duplicate content"() {
         given:
         def dir = testDir.file("thing.dir")
@@ -463,6 +567,10 @@ class DefaultCachedClasspathTransformerTest extends ConcurrentSpec {
         0 * fileAccessTimeJournal._
     }
 
+    List<String> entryNames(TestFile file) {
+        return new ZipFile(file).withCloseable { it.entries().toList()*.name }
+    }
+
     void classesDir(TestFile dir) {
         dir.deleteDir()
         dir.createDir()
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.classpath.intercept
+
+import org.codehaus.groovy.runtime.wrappers.PojoWrapper
+import spock.lang.Specification
+
+import java.lang.invoke.MethodHandle
+import java.lang.invoke.MethodHandles
+import java.lang.invoke.MethodType
+
+class ClassBoundCallInterceptorTest extends Specification {
+    def interceptor = new ClassBoundCallInterceptor(System, InterceptScope.methodsNamed("getProperty")) {
+        @Override
+        protected Object interceptSafe(Invocation invocation, String consumer) throws Throwable {
+            return "intercepted ${invocation.getArgument(0)}".toString()
+        }
+    }
+
+    MethodHandle original = MethodHandles.publicLookup().findStatic(ClassBoundCallInterceptorTest, "original", MethodType.methodType(Object, Object, String))
+
+    def "decorated method handle intercepts calls with the expected receiver"() {
+        when:
+        def decorated = interceptor.decorateMethodHandle(original, MethodHandles.publicLookup(), 0)
+
+        then:
+        decorated.type() == original.type()
+        decorated.invokeWithArguments(System, "prop") == "intercepted prop"
+        decorated.invokeWithArguments(new PojoWrapper(System, Class), "prop") == "intercepted prop"
+    }
+
+    def "decorated method handle calls the original for other receivers"() {
+        when:
+        def decorated = interceptor.decorateMethodHandle(original, MethodHandles.publicLookup(), 0)
+
+        then:
+        decorated.invokeWithArguments(receiver, "prop") == "original prop"
+
+        where:
+        receiver << [Integer, "string", null]
+    }
+
+    static Object original(Object receiver, String name) {
+        return "original $name".toString()
+    }
+}
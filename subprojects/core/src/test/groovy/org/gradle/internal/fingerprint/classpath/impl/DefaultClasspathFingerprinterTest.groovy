@@ -55,7 +55,8 @@ class DefaultClasspathFingerprinterTest extends Specification {
         ResourceEntryFilter.FILTER_NOTHING,
         PropertiesFileFilter.FILTER_NOTHING,
         stringInterner,
-        LineEndingSensitivity.DEFAULT
+        LineEndingSensitivity.DEFAULT,
+        false
     )
 
     def "directories and missing files are ignored"() {
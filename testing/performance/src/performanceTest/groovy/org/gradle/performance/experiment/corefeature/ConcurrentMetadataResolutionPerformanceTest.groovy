@@ -0,0 +1,63 @@
+/*
+ * Copyright 2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.performance.experiment.corefeature
+
+import org.gradle.performance.AbstractCrossBuildPerformanceTest
+import org.gradle.performance.annotations.RunFor
+import org.gradle.performance.annotations.Scenario
+import org.gradle.performance.fixture.GradleBuildExperimentSpec
+
+import static org.gradle.performance.annotations.ScenarioType.PER_WEEK
+import static org.gradle.performance.results.OperatingSystem.LINUX
+
+@RunFor(
+    @Scenario(type = PER_WEEK, operatingSystems = [LINUX], testProjects = ["excludeRuleMergingBuild"])
+)
+class ConcurrentMetadataResolutionPerformanceTest extends AbstractCrossBuildPerformanceTest {
+
+    def "resolve large dependency graph from file repo with concurrent metadata resolution"() {
+        given:
+        runner.testGroup = "dependency resolution"
+        runner.buildSpec {
+            displayName("concurrent metadata")
+            invocation {
+                args("-Dorg.gradle.internal.dependency-resolution.concurrent-metadata=true")
+            }
+        }
+        runner.baseline {
+            displayName("serial metadata")
+            invocation {
+                args("-Dorg.gradle.internal.dependency-resolution.concurrent-metadata=false")
+            }
+        }
+
+        when:
+        def results = runner.run()
+
+        then:
+        results
+    }
+
+    @Override
+    protected void defaultSpec(GradleBuildExperimentSpec.GradleBuilder builder) {
+        super.defaultSpec(builder)
+        builder.invocation {
+            tasksToRun("resolveDependencies")
+            args("-PnoExcludes")
+        }
+    }
+}